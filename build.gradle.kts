@@ -7,6 +7,7 @@ plugins {
     id("jacoco")
     id("com.github.spotbugs") version "6.0.17"
     id("checkstyle")
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "app.tracker"
@@ -50,6 +51,16 @@ dependencies {
     testImplementation("org.mockito:mockito-core:5.+")
 }
 
+jmh {
+    warmupIterations.set(2)
+    iterations.set(5)
+    fork.set(1)
+    // benchmarks open their databases through the tests' TestDatabase
+    includeTests.set(true)
+    // report gc.alloc.rate.norm with every run, so allocation claims come from a run
+    profilers.set(listOf("gc"))
+}
+
 jacoco {
     toolVersion = "0.8.12"
 }
@@ -0,0 +1,88 @@
+package app.benchmark;
+
+import app.database.DatabaseConfig;
+import app.database.OrmLiteWorkoutExerciseRepository;
+import app.database.TestDatabase;
+import app.model.ExerciseWithSets;
+import app.model.Workout;
+import app.service.WorkoutService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Save and full-scan latency under each {@link DatabaseConfig.Profile},
+ * on a file holding five years of daily sessions. {@code save} is one
+ * committed saveWorkout, so it mostly measures the profile's fsync cost;
+ * {@code fullScan} reads every exercise row with its session.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DatabaseProfileBenchmark {
+
+    private static final int SESSIONS = 1_825;
+    private static final LocalDate FIRST_DAY = LocalDate.of(2019, 1, 1);
+
+    @Param({"DURABLE", "BALANCED", "FAST"})
+    public DatabaseConfig.Profile profile;
+
+    private Path dbFile;
+    private TestDatabase db;
+    private WorkoutService service;
+    private OrmLiteWorkoutExerciseRepository exercises;
+    private final List<ExerciseWithSets> workout = List.of(
+            new ExerciseWithSets("Squat", "140x5-140x5-140x5"),
+            new ExerciseWithSets("Bench Press", "100x5-100x5-100x5"),
+            new ExerciseWithSets("Barbell Row", "80x8-80x8-80x8"));
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        dbFile = Files.createTempFile("profile-bench", ".db");
+        db = TestDatabase.open(profile.config(dbFile).open());
+        exercises = new OrmLiteWorkoutExerciseRepository(db.connectionSource());
+        service = db.service();
+
+        List<Workout> history = new ArrayList<>(SESSIONS);
+        for (int s = 0; s < SESSIONS; s++) {
+            var day = FIRST_DAY.plusDays(s);
+            history.add(new Workout(Date.from(day.atStartOfDay(ZoneId.systemDefault()).toInstant()),
+                    80.0, workout));
+        }
+        service.saveWorkouts(history);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        db.close();
+        Files.deleteIfExists(dbFile);
+        Files.deleteIfExists(Path.of(dbFile + "-wal"));
+        Files.deleteIfExists(Path.of(dbFile + "-shm"));
+    }
+
+    @Benchmark
+    public void save() throws Exception {
+        service.saveWorkout(new Date(), 80.0, workout);
+    }
+
+    @Benchmark
+    public int fullScan() throws Exception {
+        return exercises.findAllWithSessions().size();
+    }
+}
@@ -0,0 +1,62 @@
+package app.benchmark;
+
+import app.model.Exercise;
+import app.service.ExerciseCatalog;
+import app.service.ExerciseCsvParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Name lookup against the bundled catalog and a 10k custom one.
+ * {@code linearScan} is the former stream/toLowerCase implementation;
+ * run with {@code -prof gc} to check the indexed lookup allocates nothing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ExerciseCatalogBenchmark {
+
+    @Param({"100", "10000"})
+    public int catalogSize;
+
+    @Param({"Bench", "row 9"})
+    public String query;
+
+    private List<Exercise> exercises;
+    private ExerciseCatalog catalog;
+
+    @Setup
+    public void setUp() {
+        var bundled = ExerciseCsvParser.getExercises();
+        exercises = new ArrayList<>(catalogSize);
+        for (int i = 0; i < catalogSize; i++) {
+            var base = bundled.get(i % bundled.size());
+            exercises.add(new Exercise(base.name() + " " + i, base.muscles(), base.description()));
+        }
+        catalog = ExerciseCatalog.of(exercises);
+    }
+
+    @Benchmark
+    public Exercise linearScan() {
+        return exercises.stream()
+                .filter(e -> e.name() != null)
+                .filter(e -> e.name().toLowerCase().contains(query.toLowerCase()))
+                .findFirst()
+                .orElse(null);
+    }
+
+    @Benchmark
+    public Exercise indexed() {
+        return catalog.find(query);
+    }
+}
@@ -0,0 +1,101 @@
+package app.benchmark;
+
+import app.database.OrmLiteWorkoutExerciseRepository;
+import app.database.TestDatabase;
+import app.model.DateRange;
+import app.model.ExerciseWithSets;
+import app.model.Workout;
+import app.service.HistoryFormat;
+import app.service.WorkoutExporter;
+import app.service.WorkoutService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exports a synthetic history of one million sets (40,000 sessions of
+ * five exercises with five sets each) from a real SQLite file. Run with
+ * {@code -prof gc} to check that allocation per export stays flat while
+ * {@code loadAll}, the list-based read the export replaces, grows with
+ * the history.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ExportBenchmark {
+
+    private static final int SESSIONS = 40_000;
+    private static final int EXERCISES_PER_SESSION = 5;
+    private static final int BATCH_SESSIONS = 2_000;
+    private static final LocalDate FIRST_DAY = LocalDate.of(1990, 1, 1);
+
+    @Param({"CSV", "JSON"})
+    public HistoryFormat format;
+
+    private Path dbFile;
+    private Path exportFile;
+    private TestDatabase db;
+    private WorkoutService service;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        dbFile = Files.createTempFile("export-bench", ".db");
+        exportFile = Files.createTempFile("export-bench", ".out");
+        db = TestDatabase.open(dbFile);
+        service = db.service();
+
+        List<Workout> batch = new ArrayList<>(BATCH_SESSIONS);
+        for (int s = 0; s < SESSIONS; s++) {
+            var day = FIRST_DAY.plusDays(s);
+            List<ExerciseWithSets> exercises = new ArrayList<>(EXERCISES_PER_SESSION);
+            for (int e = 0; e < EXERCISES_PER_SESSION; e++) {
+                exercises.add(new ExerciseWithSets("Exercise " + e, sets(60 + e * 10 + s % 20)));
+            }
+            batch.add(new Workout(Date.from(day.atStartOfDay(ZoneId.systemDefault()).toInstant()),
+                    80.0 + s % 5, exercises));
+            if (batch.size() == BATCH_SESSIONS) {
+                service.saveWorkouts(batch);
+                batch = new ArrayList<>(BATCH_SESSIONS);
+            }
+        }
+        service.saveWorkouts(batch);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        db.close();
+        Files.deleteIfExists(dbFile);
+        Files.deleteIfExists(exportFile);
+    }
+
+    @Benchmark
+    public WorkoutExporter.Result stream() throws Exception {
+        return new WorkoutExporter(service).exportFile(exportFile, format, DateRange.ALL, null);
+    }
+
+    @Benchmark
+    public int loadAll() throws Exception {
+        return new OrmLiteWorkoutExerciseRepository(db.connectionSource()).findAllWithSessions().size();
+    }
+
+    private static String sets(final int weight) {
+        return weight + "x8-" + weight + "x8-" + (weight + 5) + "x5-" + (weight + 5) + "x5-"
+                + (weight + 10) + "x3";
+    }
+}
@@ -0,0 +1,107 @@
+package app.benchmark;
+
+import app.database.TestDatabase;
+import app.model.ExerciseWithSets;
+import app.service.WorkoutImporter;
+import app.service.WorkoutService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.BufferedWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Imports a generated CSV history (six exercises per session) into an
+ * empty SQLite file. {@code bulkImport} is {@link WorkoutImporter};
+ * {@code sessionBySession} replays the same rows through
+ * {@link WorkoutService#saveWorkout}, one commit per session.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ImportBenchmark {
+
+    private static final int EXERCISES_PER_SESSION = 6;
+    private static final LocalDate FIRST_DAY = LocalDate.of(2010, 1, 1);
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    private Path csvFile;
+    private Path dbFile;
+    private TestDatabase db;
+    private WorkoutService service;
+
+    @Setup(Level.Trial)
+    public void writeCsv() throws Exception {
+        csvFile = Files.createTempFile("import-bench", ".csv");
+        try (BufferedWriter out = Files.newBufferedWriter(csvFile)) {
+            out.write("date,bodyweight,exercise,sets\n");
+            for (int i = 0; i < rows; i++) {
+                out.write(day(i) + ",80," + exercise(i) + "," + sets(i) + "\n");
+            }
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void openDatabase() throws Exception {
+        dbFile = Files.createTempFile("import-bench", ".db");
+        db = TestDatabase.open(dbFile);
+        service = db.service();
+    }
+
+    @TearDown(Level.Invocation)
+    public void closeDatabase() throws Exception {
+        db.close();
+        Files.deleteIfExists(dbFile);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteCsv() throws Exception {
+        Files.deleteIfExists(csvFile);
+    }
+
+    @Benchmark
+    public WorkoutImporter.Result bulkImport() throws Exception {
+        return new WorkoutImporter(service).importFile(csvFile, null);
+    }
+
+    @Benchmark
+    public void sessionBySession() throws Exception {
+        for (int first = 0; first < rows; first += EXERCISES_PER_SESSION) {
+            var day = Date.from(day(first).atStartOfDay(ZoneId.systemDefault()).toInstant());
+            var exercises = new ArrayList<ExerciseWithSets>();
+            for (int i = first; i < Math.min(rows, first + EXERCISES_PER_SESSION); i++) {
+                exercises.add(new ExerciseWithSets(exercise(i), sets(i)));
+            }
+            service.saveWorkout(day, 80, exercises);
+        }
+    }
+
+    private static LocalDate day(final int row) {
+        return FIRST_DAY.plusDays(row / EXERCISES_PER_SESSION);
+    }
+
+    private static String exercise(final int row) {
+        return "Exercise " + row % EXERCISES_PER_SESSION;
+    }
+
+    private static String sets(final int row) {
+        int weight = 60 + row % 40;
+        return weight + "x8-" + (weight + 5) + "x5-" + (weight + 10) + "x3";
+    }
+}
@@ -0,0 +1,78 @@
+package app.benchmark;
+
+import app.database.PersonalRecordRepository;
+import app.database.VolumeRollupRepository;
+import app.database.WorkoutExerciseRepository;
+import app.database.WorkoutSessionRepository;
+import app.database.WorkoutSetRepository;
+import app.model.DailyRecord;
+import app.model.PersonalRecord;
+import app.model.SetSummary;
+import app.model.WorkoutExercise;
+import app.model.WorkoutSession;
+import app.service.SetParser;
+import app.service.WorkoutService;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/** Synthetic history served from memory, so benchmarks measure the service layer only. */
+final class InMemoryHistory {
+
+    final List<WorkoutSession> sessions = new ArrayList<>();
+    final List<WorkoutExercise> exercises = new ArrayList<>();
+    final Map<Integer, SetSummary> summaries = new HashMap<>();
+    final List<DailyRecord> dailyRecords = new ArrayList<>();
+    final Map<String, PersonalRecord> records = new HashMap<>();
+
+    InMemoryHistory(final int sessionCount, final int exercisesPerSession) {
+        var start = LocalDate.of(2015, 1, 1);
+        int exerciseId = 1;
+        for (int s = 0; s < sessionCount; s++) {
+            var day = start.plusDays(s);
+            var session = new WorkoutSession(s + 1,
+                    Date.from(day.atStartOfDay(ZoneId.systemDefault()).toInstant()), 80.0);
+            sessions.add(session);
+            for (int e = 0; e < exercisesPerSession; e++) {
+                var sets = (60 + e * 5 + s % 10) + "x5-" + (65 + e * 5 + s % 10) + "x3";
+                var exercise = new WorkoutExercise(exerciseId, "Exercise " + e, sets, session);
+                exercises.add(exercise);
+                var stats = SetParser.summarize(sets, new SetParser.Stats());
+                summaries.put(exerciseId, new SetSummary(exerciseId, stats.getBestWeight(),
+                        stats.getBestReps(), stats.getVolume(), stats.getCount()));
+                dailyRecords.add(new DailyRecord(exercise.getName(), session.getEpochDay(),
+                        exerciseId, stats.getBestWeight(), stats.getBestReps(),
+                        stats.getVolume(), stats.getCount()));
+                records.merge(exercise.getName(), new PersonalRecord(exercise.getName(),
+                        stats.getBestWeight(), stats.getBestReps(), session.getEpochDay(),
+                        stats.getVolume(), session.getEpochDay()),
+                        (a, b) -> b.bestWeight() > a.bestWeight() ? b : a);
+                exerciseId++;
+            }
+        }
+    }
+
+    WorkoutService service() {
+        return new WorkoutService(
+                repository(WorkoutSessionRepository.class, Map.of("findAll", sessions)),
+                repository(WorkoutExerciseRepository.class,
+                        Map.of("findAllWithSessions", exercises)),
+                repository(WorkoutSetRepository.class, Map.of("findSummaries", summaries)),
+                repository(PersonalRecordRepository.class, Map.of(
+                        "findDaily", dailyRecords,
+                        "findAll", List.copyOf(records.values()))),
+                repository(VolumeRollupRepository.class, Map.of()),
+                work -> work.run());
+    }
+
+    private static <T> T repository(final Class<T> type, final Map<String, Object> results) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> results.get(method.getName())));
+    }
+}
@@ -0,0 +1,105 @@
+package app.benchmark;
+
+import app.model.DateRange;
+import app.model.WorkoutExercise;
+import app.service.SetParser;
+import app.service.StatisticsService;
+import app.service.WorkoutService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Builds the "all sets" / "best set" statistics for 10k cells
+ * (sessions x exercises). The build runs JMH with the gc profiler:
+ * {@code gc.alloc.rate.norm} is the heap built per table, map rows versus
+ * the flat pivot matrix. The map-row baselines are the tables the
+ * statistics view built before the pivot, kept here for comparison.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PivotBenchmark {
+
+    @Param({"100"})
+    public int sessions;
+
+    @Param({"100"})
+    public int exercisesPerSession;
+
+    private WorkoutService service;
+    private StatisticsService statistics;
+
+    @Setup
+    public void setUp() throws SQLException {
+        service = new InMemoryHistory(sessions, exercisesPerSession).service();
+        statistics = new StatisticsService(service);
+        // warm the cache so only table building is measured
+        bestSetMapRows();
+    }
+
+    @Benchmark
+    public Object allSetsMapRows() throws SQLException {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (var entry : byName(service.getAllExercises()).entrySet()) {
+            Map<String, Object> row = newRow(entry.getKey(), entry.getValue());
+            for (WorkoutExercise ex : entry.getValue()) {
+                row.put(ex.getSession().getLocalDate().toString(), ex.getSetsString());
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    @Benchmark
+    public Object allSetsPivot() throws SQLException {
+        return statistics.getAllSetsPivot(DateRange.ALL);
+    }
+
+    @Benchmark
+    public Object bestSetMapRows() throws SQLException {
+        var summaries = service.getSetSummaries();
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (var entry : byName(service.getAllExercises()).entrySet()) {
+            Map<String, Object> row = newRow(entry.getKey(), entry.getValue());
+            for (WorkoutExercise ex : entry.getValue()) {
+                var summary = summaries.get(ex.getId());
+                row.put(ex.getSession().getLocalDate().toString(), summary == null ? ""
+                        : SetParser.formatSet(summary.bestWeight(), summary.bestReps()));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    @Benchmark
+    public Object bestSetPivot() throws SQLException {
+        return statistics.getBestSetPivot(DateRange.ALL);
+    }
+
+    private static Map<String, List<WorkoutExercise>> byName(
+            final List<WorkoutExercise> exercises) {
+        return exercises.stream().collect(Collectors.groupingBy(WorkoutExercise::getName));
+    }
+
+    private static Map<String, Object> newRow(final String name,
+                                              final List<WorkoutExercise> exercises) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", exercises.get(0).getId());
+        row.put("name", name);
+        return row;
+    }
+}
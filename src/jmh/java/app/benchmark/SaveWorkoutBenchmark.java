@@ -0,0 +1,116 @@
+package app.benchmark;
+
+import app.database.OrmLitePersonalRecordRepository;
+import app.database.OrmLiteVolumeRollupRepository;
+import app.database.OrmLiteTransactionRunner;
+import app.database.OrmLiteWorkoutExerciseRepository;
+import app.database.OrmLiteWorkoutSessionRepository;
+import app.database.OrmLiteWorkoutSetRepository;
+import app.database.TestDatabase;
+import app.database.TransactionRunner;
+import app.model.ExerciseWithSets;
+import app.model.WorkoutExercise;
+import app.model.WorkoutSession;
+import app.service.WorkoutService;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Save latency of one workout session against a real SQLite file.
+ * {@code autocommitPerRow} is the former save path (one commit per row),
+ * {@code transactionalBatch} is {@link WorkoutService#saveWorkout}.
+ * The {@code commits} counter reports commits per saved session.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SaveWorkoutBenchmark {
+
+    @Param({"1", "6", "12"})
+    public int exercisesPerSession;
+
+    private Path dbFile;
+    private TestDatabase db;
+    private OrmLiteWorkoutSessionRepository sessionRepo;
+    private OrmLiteWorkoutExerciseRepository exerciseRepo;
+    private OrmLiteWorkoutSetRepository setRepo;
+    private OrmLitePersonalRecordRepository recordRepo;
+    private OrmLiteVolumeRollupRepository rollupRepo;
+    private TransactionRunner transactions;
+    private List<ExerciseWithSets> exercises;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Commits {
+        public long commits;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            commits = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        dbFile = Files.createTempFile("save-bench", ".db");
+        // the repositories on their own, so the old save path can be timed too
+        db = TestDatabase.open(dbFile);
+        var cs = db.connectionSource();
+        sessionRepo = new OrmLiteWorkoutSessionRepository(cs);
+        exerciseRepo = new OrmLiteWorkoutExerciseRepository(cs);
+        setRepo = new OrmLiteWorkoutSetRepository(cs);
+        recordRepo = new OrmLitePersonalRecordRepository(cs);
+        rollupRepo = new OrmLiteVolumeRollupRepository(cs);
+        transactions = new OrmLiteTransactionRunner(cs);
+
+        exercises = new ArrayList<>();
+        for (int i = 0; i < exercisesPerSession; i++) {
+            exercises.add(new ExerciseWithSets("Exercise " + i,
+                    "100x5-105x5-110x3-115x2"));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        db.close();
+        Files.deleteIfExists(dbFile);
+    }
+
+    @Benchmark
+    public void autocommitPerRow(final Commits counter) throws Exception {
+        var session = new WorkoutSession(new Date(), 80.0);
+        sessionRepo.save(session);
+        counter.commits++;
+        for (ExerciseWithSets exercise : exercises) {
+            exerciseRepo.save(new WorkoutExercise(
+                    exercise.name(), exercise.setsString(), session));
+            counter.commits++;
+        }
+    }
+
+    @Benchmark
+    public void transactionalBatch(final Commits counter) throws Exception {
+        var service = new WorkoutService(sessionRepo, exerciseRepo, setRepo,
+                recordRepo, rollupRepo, work -> {
+                    counter.commits++;
+                    transactions.inTransaction(work);
+                });
+        service.saveWorkout(new Date(), 80.0, exercises);
+    }
+}
@@ -0,0 +1,50 @@
+package app.benchmark;
+
+import app.service.StatisticsService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * "Sessions" statistics mode at 1x, 10x and 100x a 20-session, 200-exercise
+ * history. Time per op should grow with the scale, not with its square.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SessionSummaryBenchmark {
+
+    private static final int BASE_SESSIONS = 20;
+    private static final int EXERCISES_PER_SESSION = 10;
+
+    @Param({"1", "10", "100"})
+    public int scale;
+
+    private StatisticsService statistics;
+
+    @Setup
+    public void setUp() throws SQLException {
+        statistics = new StatisticsService(
+                new InMemoryHistory(BASE_SESSIONS * scale, EXERCISES_PER_SESSION).service());
+        // warm the cache so only the join is measured
+        statistics.getAllSessionsSummary(null);
+    }
+
+    @Benchmark
+    public Object allSessions() throws SQLException {
+        return statistics.getAllSessionsSummary(null);
+    }
+
+    @Benchmark
+    public Object allSessionsFiltered() throws SQLException {
+        return statistics.getAllSessionsSummary("exercise 1");
+    }
+}
@@ -0,0 +1,75 @@
+package app.benchmark;
+
+import app.service.SetParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Set string parsing. {@code splitReference} is the former split/parseDouble
+ * implementation; run with {@code -prof gc} to compare allocation per op.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SetParserBenchmark {
+
+    @Param({"5", "50", "10000"})
+    public int setsPerString;
+
+    private String sets;
+    private final SetParser.Stats stats = new SetParser.Stats();
+
+    @Setup
+    public void setUp() {
+        var random = new Random(1);
+        var sb = new StringBuilder();
+        for (int i = 0; i < setsPerString; i++) {
+            if (i > 0) sb.append('-');
+            sb.append(40 + random.nextInt(160));
+            if (random.nextInt(4) == 0) sb.append(".5");
+            sb.append('x').append(1 + random.nextInt(12));
+        }
+        sets = sb.toString();
+    }
+
+    @Benchmark
+    public String splitReference() {
+        var best = "";
+        double bestW = -1;
+        int bestR = -1;
+        for (String part : sets.split("-")) {
+            String[] wr = part.split("x");
+            if (wr.length != 2) continue;
+            try {
+                double w = Double.parseDouble(wr[0]);
+                int r = Integer.parseInt(wr[1]);
+                if (w > bestW || (Double.compare(w, bestW) == 0 && r > bestR)) {
+                    bestW = w;
+                    bestR = r;
+                    best = wr[0] + "x" + r;
+                }
+            } catch (NumberFormatException ignore) {
+            }
+        }
+        return best;
+    }
+
+    @Benchmark
+    public String pickBestSet() {
+        return SetParser.pickBestSet(sets);
+    }
+
+    @Benchmark
+    public double summarize() {
+        return SetParser.summarize(sets, stats).getBestWeight();
+    }
+}
@@ -0,0 +1,102 @@
+package app.benchmark;
+
+import app.database.TestDatabase;
+import app.model.DateRange;
+import app.model.ExerciseWithSets;
+import app.model.Workout;
+import app.service.HistoryFormat;
+import app.service.SnapshotArchive;
+import app.service.WorkoutExporter;
+import app.service.WorkoutImporter;
+import app.service.WorkoutService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Restores ten years of daily training (3,650 sessions of five exercises)
+ * into an empty SQLite file, once from a binary snapshot and once by
+ * replaying the equivalent CSV export through the importer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SnapshotBenchmark {
+
+    private static final int SESSIONS = 3_650;
+    private static final int EXERCISES_PER_SESSION = 5;
+    private static final LocalDate FIRST_DAY = LocalDate.of(2015, 1, 1);
+
+    private Path snapshotFile;
+    private Path csvFile;
+    private Path dbFile;
+    private TestDatabase db;
+    private WorkoutService service;
+
+    @Setup(Level.Trial)
+    public void writeHistory() throws Exception {
+        snapshotFile = Files.createTempFile("snapshot-bench", ".snapshot");
+        csvFile = Files.createTempFile("snapshot-bench", ".csv");
+        openDatabase();
+        List<Workout> workouts = new ArrayList<>(SESSIONS);
+        for (int s = 0; s < SESSIONS; s++) {
+            var day = FIRST_DAY.plusDays(s);
+            List<ExerciseWithSets> exercises = new ArrayList<>(EXERCISES_PER_SESSION);
+            for (int e = 0; e < EXERCISES_PER_SESSION; e++) {
+                int weight = 60 + e * 10 + s % 20;
+                exercises.add(new ExerciseWithSets("Exercise " + e,
+                        weight + "x8-" + weight + "x8-" + (weight + 2.5) + "x5"));
+            }
+            workouts.add(new Workout(Date.from(day.atStartOfDay(ZoneId.systemDefault()).toInstant()),
+                    80.0 + s % 5, exercises));
+        }
+        service.saveWorkouts(workouts);
+        new SnapshotArchive(service).write(snapshotFile);
+        new WorkoutExporter(service).exportFile(csvFile, HistoryFormat.CSV, DateRange.ALL, null);
+        closeDatabase();
+    }
+
+    @Setup(Level.Invocation)
+    public void openDatabase() throws Exception {
+        dbFile = Files.createTempFile("snapshot-bench", ".db");
+        db = TestDatabase.open(dbFile);
+        service = db.service();
+    }
+
+    @TearDown(Level.Invocation)
+    public void closeDatabase() throws Exception {
+        db.close();
+        Files.deleteIfExists(dbFile);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteHistory() throws Exception {
+        Files.deleteIfExists(snapshotFile);
+        Files.deleteIfExists(csvFile);
+    }
+
+    @Benchmark
+    public SnapshotArchive.Result restoreSnapshot() throws Exception {
+        return new SnapshotArchive(service).restore(snapshotFile);
+    }
+
+    @Benchmark
+    public WorkoutImporter.Result replayCsv() throws Exception {
+        return new WorkoutImporter(service).importFile(csvFile, null);
+    }
+}
@@ -0,0 +1,56 @@
+package app.benchmark;
+
+import app.service.TimeSeries;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LTTB resampling for a 1100px-wide chart. The output size is capped by
+ * the width, so the chart's node count stays flat as history grows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TimeSeriesBenchmark {
+
+    private static final int WIDTH = 1100;
+
+    @Param({"1000", "100000", "1000000"})
+    public int points;
+
+    private TimeSeries series;
+
+    @Setup
+    public void setUp() {
+        var random = new Random(42);
+        double[] days = new double[points];
+        double[] weights = new double[points];
+        double weight = 80;
+        for (int i = 0; i < points; i++) {
+            days[i] = i;
+            weight += random.nextGaussian() * 0.2;
+            weights[i] = weight;
+        }
+        series = TimeSeries.of(days, weights);
+    }
+
+    @Benchmark
+    public TimeSeries wholeHistory() {
+        return series.downsample(series.minX(), series.maxX(), WIDTH);
+    }
+
+    @Benchmark
+    public TimeSeries lastTenthZoomed() {
+        double span = series.maxX() - series.minX();
+        return series.downsample(series.maxX() - span / 10, series.maxX(), WIDTH);
+    }
+}
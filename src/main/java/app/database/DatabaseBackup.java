@@ -0,0 +1,179 @@
+package app.database;
+
+import com.j256.ormlite.support.ConnectionSource;
+import com.j256.ormlite.support.DatabaseConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Online copies of the live database, taken with {@code VACUUM INTO} on a
+ * pooled read connection. Backups run on their own daemon thread; with
+ * the database in WAL mode the copy reads a snapshot while saves keep
+ * committing. Only the newest {@code keep} copies are kept.
+ */
+public final class DatabaseBackup implements AutoCloseable {
+
+    private static final Logger log =
+            LoggerFactory.getLogger(DatabaseBackup.class);
+    private static final String PREFIX = "workouts-";
+    private static final String SUFFIX = ".db";
+    private static final DateTimeFormatter STAMP =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS").withZone(ZoneId.systemDefault());
+
+    private final Supplier<? extends ConnectionSource> cs;
+    private final Path directory;
+    private final int keep;
+    private final Clock clock;
+    private final ScheduledExecutorService executor;
+    private Instant lastStamp = Instant.EPOCH;
+
+    /** Resolves the connection source per backup, so it survives a re-init. */
+    public DatabaseBackup(final Supplier<? extends ConnectionSource> cs,
+                          final Path directory, final int keep) {
+        this(cs, directory, keep, Clock.systemDefaultZone());
+    }
+
+    DatabaseBackup(final Supplier<? extends ConnectionSource> cs, final Path directory,
+                   final int keep, final Clock clock) {
+        if (keep < 1) {
+            throw new IllegalArgumentException("keep must be at least 1: " + keep);
+        }
+        this.cs = cs;
+        this.directory = directory;
+        this.keep = keep;
+        this.clock = clock;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            var thread = new Thread(r, "database-backup");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /** Backs up every {@code interval}, starting one interval from now. */
+    public void schedule(final Duration interval) {
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                backup();
+            } catch (Exception e) {
+                log.error("scheduled backup failed: {}", e.getMessage(), e);
+            }
+        }, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /** Queues a backup on the backup thread. */
+    public CompletableFuture<Path> request() {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return backup();
+            } catch (SQLException | IOException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Copies the database on the calling thread and returns the new file.
+     * Use {@link #request()} from the FX thread.
+     */
+    public synchronized Path backup() throws SQLException, IOException {
+        ConnectionSource source = cs.get();
+        if (source == null) {
+            throw new SQLException("database is not open");
+        }
+        Files.createDirectories(directory);
+        Path target = directory.resolve(PREFIX + nextStamp() + SUFFIX);
+        Path partial = directory.resolve(target.getFileName() + ".part");
+        Files.deleteIfExists(partial);
+
+        long start = System.nanoTime();
+        DatabaseConnection conn = source.getReadOnlyConnection("workout_sessions");
+        try (PreparedStatement statement =
+                     conn.getUnderlyingConnection().prepareStatement("VACUUM INTO ?")) {
+            statement.setString(1, partial.toAbsolutePath().toString());
+            statement.execute();
+        } catch (SQLException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        } finally {
+            source.releaseConnection(conn);
+        }
+        try {
+            Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(partial, target);
+        }
+        log.info("backed up to {} in {} ms", target,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        rotate();
+        return target;
+    }
+
+    /** Runs {@code action} with no backup in flight, e.g. to delete the database. */
+    public synchronized <T> T exclusive(final Callable<T> action) throws Exception {
+        return action.call();
+    }
+
+    /** Backups in this directory, oldest first. */
+    public List<Path> backups() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        List<Path> found = new ArrayList<>();
+        try (var files = Files.list(directory)) {
+            files.filter(DatabaseBackup::isBackup).forEach(found::add);
+        }
+        // timestamps sort lexicographically
+        found.sort(null);
+        return found;
+    }
+
+    private void rotate() throws IOException {
+        List<Path> all = backups();
+        for (int i = 0; i < all.size() - keep; i++) {
+            Files.deleteIfExists(all.get(i));
+            log.info("removed old backup {}", all.get(i));
+        }
+    }
+
+    // strictly increasing, so two backups in the same millisecond do not collide
+    private String nextStamp() {
+        Instant now = clock.instant();
+        if (!now.isAfter(lastStamp)) {
+            now = lastStamp.plusMillis(1);
+        }
+        lastStamp = now;
+        return STAMP.format(now);
+    }
+
+    private static boolean isBackup(final Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith(PREFIX) && name.endsWith(SUFFIX) && Files.isRegularFile(file);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,187 @@
+package app.database;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Where the database lives and how each connection is tuned. The pragmas
+ * travel in the JDBC URL, so sqlite-jdbc applies them to every connection
+ * the source opens, not just the first.
+ *
+ * <p>Read from {@code database.properties} in the working directory, or
+ * the file named by the {@code workouts.db.config} system property:
+ * <pre>
+ * db.file=workouts.db
+ * db.profile=balanced     # durable, balanced or fast
+ * db.pool_size=4          # read connections; writes share one
+ * # optional overrides of the profile
+ * db.journal_mode=WAL
+ * db.synchronous=NORMAL
+ * db.cache_size=-32768    # negative: KiB, positive: pages
+ * db.mmap_size=268435456
+ * db.temp_store=MEMORY
+ * db.busy_timeout=5000  # ms a write waits for the connection
+ * </pre>
+ */
+public record DatabaseConfig(Path file, int poolSize, String journalMode, String synchronous,
+                             int cacheSize, long mmapSize, String tempStore, int busyTimeout) {
+
+    public static final String CONFIG_PROPERTY = "workouts.db.config";
+    static final Path DEFAULT_CONFIG = Paths.get("database.properties");
+    static final Path DEFAULT_FILE = Paths.get("workouts.db");
+    static final int DEFAULT_POOL_SIZE = 4;
+
+    private static final Set<String> JOURNAL_MODES =
+            Set.of("DELETE", "TRUNCATE", "PERSIST", "MEMORY", "WAL", "OFF");
+    private static final Set<String> SYNCHRONOUS = Set.of("OFF", "NORMAL", "FULL", "EXTRA");
+    private static final Set<String> TEMP_STORES = Set.of("DEFAULT", "FILE", "MEMORY");
+
+    /** Named pragma sets, from safest to quickest. */
+    public enum Profile {
+        /** Every commit is fsynced; survives power loss. */
+        DURABLE("WAL", "FULL", -8_192, 0, "DEFAULT"),
+        /** WAL with fsync at checkpoints; a power cut may lose the last commits. */
+        BALANCED("WAL", "NORMAL", -32_768, 256L << 20, "MEMORY"),
+        /** No fsync at all; an OS crash may corrupt the file. For benchmarks and imports. */
+        FAST("WAL", "OFF", -65_536, 1L << 30, "MEMORY");
+
+        private static final int BUSY_TIMEOUT_MS = 5_000;
+
+        private final String journalMode;
+        private final String synchronous;
+        private final int cacheSize;
+        private final long mmapSize;
+        private final String tempStore;
+
+        Profile(final String journalMode, final String synchronous, final int cacheSize,
+                final long mmapSize, final String tempStore) {
+            this.journalMode = journalMode;
+            this.synchronous = synchronous;
+            this.cacheSize = cacheSize;
+            this.mmapSize = mmapSize;
+            this.tempStore = tempStore;
+        }
+
+        public DatabaseConfig config(final Path file) {
+            return new DatabaseConfig(file, DEFAULT_POOL_SIZE, journalMode, synchronous,
+                    cacheSize, mmapSize, tempStore, BUSY_TIMEOUT_MS);
+        }
+    }
+
+    public DatabaseConfig {
+        if (file == null) {
+            throw new IllegalArgumentException("db.file is required");
+        }
+        if (poolSize < 1) {
+            throw new IllegalArgumentException("db.pool_size must be at least 1: " + poolSize);
+        }
+        if (mmapSize < 0 || busyTimeout < 0) {
+            throw new IllegalArgumentException("db.mmap_size and db.busy_timeout "
+                    + "must not be negative");
+        }
+        journalMode = oneOf("db.journal_mode", journalMode, JOURNAL_MODES);
+        synchronous = oneOf("db.synchronous", synchronous, SYNCHRONOUS);
+        tempStore = oneOf("db.temp_store", tempStore, TEMP_STORES);
+    }
+
+    public static DatabaseConfig defaults() {
+        return Profile.BALANCED.config(DEFAULT_FILE);
+    }
+
+    /** The configured file, or the defaults when there is none. */
+    public static DatabaseConfig load() throws IOException {
+        String configured = System.getProperty(CONFIG_PROPERTY);
+        Path path = configured != null ? Paths.get(configured) : DEFAULT_CONFIG;
+        if (configured == null && !Files.exists(path)) {
+            return defaults();
+        }
+        return load(path);
+    }
+
+    public static DatabaseConfig load(final Path path) throws IOException {
+        var properties = new Properties();
+        try (Reader in = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            properties.load(in);
+        }
+        return fromProperties(properties);
+    }
+
+    static DatabaseConfig fromProperties(final Properties properties) {
+        String profileName = properties.getProperty("db.profile", Profile.BALANCED.name());
+        Profile profile;
+        try {
+            profile = Profile.valueOf(profileName.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("unknown db.profile '" + profileName + "'", e);
+        }
+        var base = profile.config(Paths.get(
+                properties.getProperty("db.file", DEFAULT_FILE.toString()).trim()));
+        return new DatabaseConfig(base.file(),
+                intProperty(properties, "db.pool_size", base.poolSize()),
+                properties.getProperty("db.journal_mode", base.journalMode()),
+                properties.getProperty("db.synchronous", base.synchronous()),
+                intProperty(properties, "db.cache_size", base.cacheSize()),
+                longProperty(properties, "db.mmap_size", base.mmapSize()),
+                properties.getProperty("db.temp_store", base.tempStore()),
+                intProperty(properties, "db.busy_timeout", base.busyTimeout()));
+    }
+
+    public String url() {
+        return "jdbc:sqlite:" + file
+                + "?journal_mode=" + journalMode
+                + "&" + sharedPragmas();
+    }
+
+    /** Read-only connections take the journal mode the writer set. */
+    String readerUrl() {
+        return "jdbc:sqlite:" + file + "?" + sharedPragmas();
+    }
+
+    private String sharedPragmas() {
+        return "synchronous=" + synchronous
+                + "&cache_size=" + cacheSize
+                + "&mmap_size=" + mmapSize
+                + "&temp_store=" + tempStore
+                + "&busy_timeout=" + busyTimeout;
+    }
+
+    /** One writer and up to {@code poolSize} readers, all carrying these pragmas. */
+    public SqliteConnectionSource open() throws SQLException {
+        return new SqliteConnectionSource(this);
+    }
+
+    private static String oneOf(final String key, final String value, final Set<String> allowed) {
+        String normalized = value == null ? "" : value.trim().toUpperCase(Locale.ROOT);
+        if (!allowed.contains(normalized)) {
+            throw new IllegalArgumentException(key + " must be one of " + allowed
+                    + ": '" + value + "'");
+        }
+        return normalized;
+    }
+
+    private static int intProperty(final Properties properties, final String key,
+                                   final int fallback) {
+        return Math.toIntExact(longProperty(properties, key, fallback));
+    }
+
+    private static long longProperty(final Properties properties, final String key,
+                                     final long fallback) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            return fallback;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(key + " is not a number: '" + value + "'", e);
+        }
+    }
+}
@@ -1,26 +1,37 @@
 package app.database;
 
-import com.j256.ormlite.jdbc.JdbcPooledConnectionSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.file.Path;
+
 public final class DatabaseHelper {
 
     private static final Logger log =
             LoggerFactory.getLogger(DatabaseHelper.class);
-    private static final String DB_URL = "jdbc:sqlite:workouts.db";
 
-    private static JdbcPooledConnectionSource connectionSource;
+    private static volatile DatabaseConfig config;
+    // read by the backup thread and transaction runners across a re-init
+    private static volatile SqliteConnectionSource connectionSource;
 
     private static WorkoutSessionRepository workoutSessionRepository;
     private static WorkoutExerciseRepository workoutExerciseRepository;
+    private static WorkoutSetRepository workoutSetRepository;
+    private static PersonalRecordRepository personalRecordRepository;
+    private static VolumeRollupRepository volumeRollupRepository;
 
     private DatabaseHelper() {
     }
 
+    /**
+     * Opens the configured database. The config is read again on every
+     * call, so a re-init picks up an edited {@code database.properties}.
+     */
     public static void init() {
         try {
-            connectionSource = new JdbcPooledConnectionSource(DB_URL);
+            config = DatabaseConfig.load();
+            connectionSource = config.open();
+            new SchemaMigrator(Migrations.all()).migrate(connectionSource);
 
             workoutSessionRepository =
                     new OrmLiteWorkoutSessionRepository(connectionSource);
@@ -28,6 +39,15 @@ public final class DatabaseHelper {
             workoutExerciseRepository =
                     new OrmLiteWorkoutExerciseRepository(connectionSource);
 
+            workoutSetRepository =
+                    new OrmLiteWorkoutSetRepository(connectionSource);
+
+            personalRecordRepository =
+                    new OrmLitePersonalRecordRepository(connectionSource);
+
+            volumeRollupRepository =
+                    new OrmLiteVolumeRollupRepository(connectionSource);
+
         } catch (Exception e) {
             log.error("db init error: {}", e.getMessage(), e);
         }
@@ -41,13 +61,39 @@ public final class DatabaseHelper {
         return workoutExerciseRepository;
     }
 
-    public static JdbcPooledConnectionSource connectionSource() {
+    public static WorkoutSetRepository workoutSetRepo() {
+        return workoutSetRepository;
+    }
+
+    public static PersonalRecordRepository personalRecordRepo() {
+        return personalRecordRepository;
+    }
+
+    public static VolumeRollupRepository volumeRollupRepo() {
+        return volumeRollupRepository;
+    }
+
+    public static DatabaseConfig config() {
+        return config != null ? config : DatabaseConfig.defaults();
+    }
+
+    public static Path databaseFile() {
+        return config().file();
+    }
+
+    /** The {@code backups} directory next to the database file. */
+    public static Path backupDirectory() {
+        return databaseFile().toAbsolutePath().resolveSibling("backups");
+    }
+
+    public static SqliteConnectionSource connectionSource() {
         return connectionSource;
     }
 
     public static void close() {
         try {
             if (connectionSource != null) {
+                log.info("db connections: {}", connectionSource.metrics());
                 connectionSource.close();
                 connectionSource = null;
             }
@@ -0,0 +1,50 @@
+package app.database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public interface Migration {
+
+    int version();
+
+    String description();
+
+    void apply(Connection connection) throws SQLException;
+
+    @FunctionalInterface
+    interface Step {
+        void apply(Connection connection) throws SQLException;
+    }
+
+    static Migration of(final int version, final String description,
+                        final Step step) {
+        return new Migration() {
+            @Override
+            public int version() {
+                return version;
+            }
+
+            @Override
+            public String description() {
+                return description;
+            }
+
+            @Override
+            public void apply(final Connection connection) throws SQLException {
+                step.apply(connection);
+            }
+        };
+    }
+
+    static Migration sql(final int version, final String description,
+                         final String... statements) {
+        return of(version, description, connection -> {
+            try (Statement statement = connection.createStatement()) {
+                for (String sql : statements) {
+                    statement.executeUpdate(sql);
+                }
+            }
+        });
+    }
+}
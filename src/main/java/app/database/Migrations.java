@@ -0,0 +1,193 @@
+package app.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Schema history, oldest first. Never edit an entry that has shipped:
+ * append a new version instead. Entries hold their own SQL and parsing,
+ * so changes to the repositories or the catalog never alter what an old
+ * migration does on a fresh database.
+ */
+public final class Migrations {
+
+    private Migrations() {
+    }
+
+    public static List<Migration> all() {
+        return List.of(
+                Migration.sql(1, "base tables",
+                        "CREATE TABLE IF NOT EXISTS workout_sessions ("
+                                + "id INTEGER PRIMARY KEY AUTOINCREMENT, "
+                                + "date VARCHAR, "
+                                + "bodyweight DOUBLE PRECISION)",
+                        "CREATE TABLE IF NOT EXISTS workout_exercises ("
+                                + "id INTEGER PRIMARY KEY AUTOINCREMENT, "
+                                + "name VARCHAR, "
+                                + "setsString VARCHAR, "
+                                + "session_id INTEGER)"),
+                Migration.sql(2, "indexes for exercise and session lookups",
+                        "CREATE INDEX IF NOT EXISTS idx_workout_exercises_session_id "
+                                + "ON workout_exercises (session_id)",
+                        "CREATE INDEX IF NOT EXISTS idx_workout_exercises_name "
+                                + "ON workout_exercises (name)",
+                        "CREATE INDEX IF NOT EXISTS idx_workout_sessions_date "
+                                + "ON workout_sessions (date)"),
+                Migration.sql(3, "typed workout_sets table",
+                        "CREATE TABLE IF NOT EXISTS workout_sets ("
+                                + "id INTEGER PRIMARY KEY AUTOINCREMENT, "
+                                + "exercise_id INTEGER, "
+                                + "ordinal INTEGER, "
+                                + "weight DOUBLE PRECISION, "
+                                + "reps INTEGER)",
+                        "CREATE INDEX IF NOT EXISTS idx_workout_sets_exercise "
+                                + "ON workout_sets (exercise_id, weight, reps)"),
+                Migration.of(4, "backfill workout_sets from setsString",
+                        Migrations::backfillWorkoutSets),
+                Migration.sql(5, "integer epoch_day column for sessions",
+                        "ALTER TABLE workout_sessions ADD COLUMN epoch_day INTEGER",
+                        // date is stored as local 'yyyy-MM-dd HH:mm:ss.SSSSSS';
+                        // 2440587.5 is the julian day of 1970-01-01
+                        "UPDATE workout_sessions SET epoch_day = "
+                                + "CAST(julianday(substr(date, 1, 10)) - 2440587.5 "
+                                + "AS INTEGER) WHERE date IS NOT NULL",
+                        "CREATE INDEX IF NOT EXISTS idx_workout_sessions_epoch_day "
+                                + "ON workout_sessions (epoch_day)",
+                        "DROP INDEX IF EXISTS idx_workout_sessions_date"),
+                Migration.sql(6, "personal records projection",
+                        "CREATE TABLE IF NOT EXISTS daily_records ("
+                                + "name VARCHAR NOT NULL, "
+                                + "epoch_day INTEGER NOT NULL, "
+                                + "exercise_id INTEGER, "
+                                + "best_weight DOUBLE PRECISION, "
+                                + "best_reps INTEGER, "
+                                + "volume DOUBLE PRECISION, "
+                                + "set_count INTEGER, "
+                                + "PRIMARY KEY (name, epoch_day))",
+                        "CREATE INDEX IF NOT EXISTS idx_daily_records_epoch_day "
+                                + "ON daily_records (epoch_day)",
+                        "CREATE TABLE IF NOT EXISTS personal_records ("
+                                + "name VARCHAR PRIMARY KEY, "
+                                + "best_weight DOUBLE PRECISION, "
+                                + "best_reps INTEGER, "
+                                + "best_day INTEGER, "
+                                + "max_volume DOUBLE PRECISION, "
+                                + "max_volume_day INTEGER)",
+                        "INSERT INTO daily_records (name, epoch_day, exercise_id, "
+                                + "best_weight, best_reps, volume, set_count) "
+                                + "SELECT e.name, s.epoch_day, MIN(e.id), "
+                                + "COALESCE(MAX(w.weight), -1), -1, "
+                                + "COALESCE(SUM(w.weight * w.reps), 0), COUNT(w.id) "
+                                + "FROM workout_exercises e "
+                                + "JOIN workout_sessions s ON s.id = e.session_id "
+                                + "LEFT JOIN workout_sets w ON w.exercise_id = e.id "
+                                + "WHERE e.name IS NOT NULL AND s.date IS NOT NULL "
+                                + "GROUP BY e.name, s.epoch_day",
+                        "UPDATE daily_records SET best_reps = (SELECT MAX(w.reps) "
+                                + "FROM workout_sets w "
+                                + "JOIN workout_exercises e ON e.id = w.exercise_id "
+                                + "JOIN workout_sessions s ON s.id = e.session_id "
+                                + "WHERE e.name = daily_records.name "
+                                + "AND s.epoch_day = daily_records.epoch_day "
+                                + "AND w.weight = daily_records.best_weight) "
+                                + "WHERE set_count > 0",
+                        "INSERT INTO personal_records (name, best_weight, best_reps, "
+                                + "best_day, max_volume, max_volume_day) "
+                                + "SELECT name, best_weight, best_reps, epoch_day, "
+                                + "volume, epoch_day "
+                                + "FROM (SELECT *, ROW_NUMBER() OVER (PARTITION BY name "
+                                + "ORDER BY best_weight DESC, best_reps DESC, epoch_day) AS rn "
+                                + "FROM daily_records WHERE set_count > 0) "
+                                + "WHERE rn = 1",
+                        "UPDATE personal_records SET (max_volume, max_volume_day) = "
+                                + "(SELECT d.volume, d.epoch_day FROM daily_records d "
+                                + "WHERE d.name = personal_records.name AND d.set_count > 0 "
+                                + "ORDER BY d.volume DESC, d.epoch_day LIMIT 1)"),
+                // muscle-group rows need the exercise catalog, so they are
+                // filled in at startup by WorkoutService.backfillVolumeRollups
+                Migration.sql(7, "weekly and monthly volume rollups",
+                        "CREATE TABLE IF NOT EXISTS volume_rollups ("
+                                + "bucket VARCHAR NOT NULL, "
+                                + "period_start INTEGER NOT NULL, "
+                                + "group_kind VARCHAR NOT NULL, "
+                                + "name VARCHAR NOT NULL, "
+                                + "tonnage DOUBLE PRECISION, "
+                                + "set_count INTEGER, "
+                                + "sessions INTEGER, "
+                                + "PRIMARY KEY (bucket, period_start, group_kind, name))",
+                        // Monday on or before the day; 1970-01-01 was a Thursday
+                        exerciseRollups("WEEK",
+                                "epoch_day - ((epoch_day + 3) % 7 + 7) % 7"),
+                        exerciseRollups("MONTH",
+                                "CAST(julianday(epoch_day + 2440587.5, 'start of month') "
+                                        + "- 2440587.5 AS INTEGER)")),
+                // sessions saved without a date after v5 got day 0, as if
+                // logged on 1970-01-01; v5 itself left them NULL
+                Migration.sql(8, "no epoch day for undated sessions",
+                        "UPDATE workout_sessions SET epoch_day = NULL WHERE date IS NULL")
+        );
+    }
+
+    private static String exerciseRollups(final String bucket, final String periodStart) {
+        return "INSERT INTO volume_rollups (bucket, period_start, group_kind, name, "
+                + "tonnage, set_count, sessions) "
+                + "SELECT '" + bucket + "', " + periodStart + " AS period_start, "
+                + "'EXERCISE', name, SUM(tonnage), SUM(sets), COUNT(*) "
+                // one row per session and name
+                + "FROM (SELECT s.epoch_day AS epoch_day, e.name AS name, "
+                + "SUM(w.weight * w.reps) AS tonnage, COUNT(w.id) AS sets "
+                + "FROM workout_sets w "
+                + "JOIN workout_exercises e ON e.id = w.exercise_id "
+                + "JOIN workout_sessions s ON s.id = e.session_id "
+                + "WHERE e.name IS NOT NULL AND s.date IS NOT NULL "
+                + "GROUP BY e.session_id, e.name) "
+                + "GROUP BY period_start, name";
+    }
+
+    private static void backfillWorkoutSets(final Connection conn)
+            throws SQLException {
+        try (Statement select = conn.createStatement();
+             ResultSet rs = select.executeQuery(
+                     "SELECT id, setsString FROM workout_exercises "
+                             + "WHERE id NOT IN "
+                             + "(SELECT exercise_id FROM workout_sets)");
+             PreparedStatement insert = conn.prepareStatement(
+                     "INSERT INTO workout_sets "
+                             + "(exercise_id, ordinal, weight, reps) "
+                             + "VALUES (?, ?, ?, ?)")) {
+            while (rs.next()) {
+                int exerciseId = rs.getInt(1);
+                String setsString = rs.getString(2);
+                if (setsString == null || setsString.isBlank()) {
+                    continue;
+                }
+                // "100x5-82.5x8"; tokens that do not parse are skipped
+                int ordinal = 0;
+                for (String token : setsString.split("-")) {
+                    String[] wr = token.split("x");
+                    if (wr.length != 2) {
+                        continue;
+                    }
+                    double weight;
+                    int reps;
+                    try {
+                        weight = Double.parseDouble(wr[0]);
+                        reps = Integer.parseInt(wr[1]);
+                    } catch (NumberFormatException e) {
+                        continue;
+                    }
+                    insert.setInt(1, exerciseId);
+                    insert.setInt(2, ordinal++);
+                    insert.setDouble(3, weight);
+                    insert.setInt(4, reps);
+                    insert.addBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package app.database;
+
+import app.model.DailyRecord;
+import app.model.PersonalRecord;
+import com.j256.ormlite.support.ConnectionSource;
+import com.j256.ormlite.support.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Personal-record projection over workout_sets. Saves merge into it with
+ * SQLite upserts; {@link #rebuild()} recomputes it from scratch.
+ */
+public final class OrmLitePersonalRecordRepository implements PersonalRecordRepository {
+
+    private static final String DAILY_TABLE = "daily_records";
+    private static final String RECORDS_TABLE = "personal_records";
+
+    // heavier weight wins; at equal weight, more reps
+    private static final String BEST_REPS =
+            "best_reps = CASE WHEN excluded.best_weight > best_weight THEN excluded.best_reps "
+                    + "WHEN excluded.best_weight = best_weight "
+                    + "THEN MAX(best_reps, excluded.best_reps) "
+                    + "ELSE best_reps END, ";
+
+    // SET expressions all read the row as it was before the update
+    private static final String UPSERT_DAILY =
+            "INSERT INTO daily_records (name, epoch_day, exercise_id, "
+                    + "best_weight, best_reps, volume, set_count) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?) "
+                    + "ON CONFLICT (name, epoch_day) DO UPDATE SET "
+                    + "exercise_id = MIN(exercise_id, excluded.exercise_id), "
+                    + BEST_REPS
+                    + "best_weight = MAX(best_weight, excluded.best_weight), "
+                    + "volume = volume + excluded.volume, "
+                    + "set_count = set_count + excluded.set_count";
+
+    // a day's volume only grows, so comparing its new total is enough
+    private static final String UPSERT_RECORD =
+            "INSERT INTO personal_records (name, best_weight, best_reps, best_day, "
+                    + "max_volume, max_volume_day) "
+                    + "SELECT name, best_weight, best_reps, epoch_day, volume, epoch_day "
+                    + "FROM daily_records "
+                    + "WHERE name = ? AND epoch_day = ? AND set_count > 0 "
+                    + "ON CONFLICT (name) DO UPDATE SET "
+                    + "best_day = CASE WHEN excluded.best_weight > best_weight "
+                    + "OR (excluded.best_weight = best_weight "
+                    + "AND (excluded.best_reps > best_reps "
+                    + "OR (excluded.best_reps = best_reps AND excluded.best_day < best_day))) "
+                    + "THEN excluded.best_day ELSE best_day END, "
+                    + BEST_REPS
+                    + "best_weight = MAX(best_weight, excluded.best_weight), "
+                    + "max_volume_day = CASE WHEN excluded.max_volume > max_volume "
+                    + "OR (excluded.max_volume = max_volume "
+                    + "AND excluded.max_volume_day < max_volume_day) "
+                    + "THEN excluded.max_volume_day ELSE max_volume_day END, "
+                    + "max_volume = MAX(max_volume, excluded.max_volume)";
+
+    private static final String[] REBUILD = {
+            "DELETE FROM personal_records",
+            "DELETE FROM daily_records",
+            "INSERT INTO daily_records (name, epoch_day, exercise_id, "
+                    + "best_weight, best_reps, volume, set_count) "
+                    + "SELECT e.name, s.epoch_day, MIN(e.id), COALESCE(MAX(w.weight), -1), -1, "
+                    + "COALESCE(SUM(w.weight * w.reps), 0), COUNT(w.id) "
+                    + "FROM workout_exercises e "
+                    + "JOIN workout_sessions s ON s.id = e.session_id "
+                    + "LEFT JOIN workout_sets w ON w.exercise_id = e.id "
+                    + "WHERE e.name IS NOT NULL AND s.date IS NOT NULL "
+                    + "GROUP BY e.name, s.epoch_day",
+            "UPDATE daily_records SET best_reps = (SELECT MAX(w.reps) "
+                    + "FROM workout_sets w "
+                    + "JOIN workout_exercises e ON e.id = w.exercise_id "
+                    + "JOIN workout_sessions s ON s.id = e.session_id "
+                    + "WHERE e.name = daily_records.name "
+                    + "AND s.epoch_day = daily_records.epoch_day "
+                    + "AND w.weight = daily_records.best_weight) "
+                    + "WHERE set_count > 0",
+            "INSERT INTO personal_records (name, best_weight, best_reps, best_day, "
+                    + "max_volume, max_volume_day) "
+                    + "SELECT name, best_weight, best_reps, epoch_day, volume, epoch_day "
+                    + "FROM (SELECT *, ROW_NUMBER() OVER (PARTITION BY name "
+                    + "ORDER BY best_weight DESC, best_reps DESC, epoch_day) AS rn "
+                    + "FROM daily_records WHERE set_count > 0) "
+                    + "WHERE rn = 1",
+            "UPDATE personal_records SET (max_volume, max_volume_day) = "
+                    + "(SELECT d.volume, d.epoch_day FROM daily_records d "
+                    + "WHERE d.name = personal_records.name AND d.set_count > 0 "
+                    + "ORDER BY d.volume DESC, d.epoch_day LIMIT 1)"
+    };
+
+    private static final String SELECT_DAILY =
+            "SELECT name, epoch_day, exercise_id, best_weight, best_reps, volume, set_count "
+                    + "FROM daily_records ";
+    private static final String DAILY_IN_RANGE = "WHERE epoch_day BETWEEN ? AND ? ";
+    private static final String DAILY_ORDER = "ORDER BY exercise_id, epoch_day";
+    private static final String SELECT_RECORDS =
+            "SELECT name, best_weight, best_reps, best_day, max_volume, max_volume_day "
+                    + "FROM personal_records ORDER BY name";
+
+    private final ConnectionSource cs;
+
+    public OrmLitePersonalRecordRepository(final ConnectionSource cs) {
+        this.cs = cs;
+    }
+
+    @Override
+    public void record(final List<DailyRecord> records) throws SQLException {
+        if (records.isEmpty()) {
+            return;
+        }
+        // inside a transaction this is the transaction's own connection
+        DatabaseConnection conn = cs.getReadWriteConnection(DAILY_TABLE);
+        try {
+            Connection jdbc = conn.getUnderlyingConnection();
+            try (PreparedStatement daily = jdbc.prepareStatement(UPSERT_DAILY);
+                 PreparedStatement record = jdbc.prepareStatement(UPSERT_RECORD)) {
+                for (DailyRecord r : records) {
+                    daily.setString(1, r.name());
+                    daily.setLong(2, r.epochDay());
+                    daily.setInt(3, r.exerciseId());
+                    daily.setDouble(4, r.bestWeight());
+                    daily.setInt(5, r.bestReps());
+                    daily.setDouble(6, r.volume());
+                    daily.setInt(7, r.setCount());
+                    daily.executeUpdate();
+
+                    record.setString(1, r.name());
+                    record.setLong(2, r.epochDay());
+                    record.executeUpdate();
+                }
+            }
+        } finally {
+            cs.releaseConnection(conn);
+        }
+    }
+
+    @Override
+    public List<PersonalRecord> findAll() throws SQLException {
+        DatabaseConnection conn = cs.getReadOnlyConnection(RECORDS_TABLE);
+        try (Statement statement = conn.getUnderlyingConnection().createStatement();
+             ResultSet rs = statement.executeQuery(SELECT_RECORDS)) {
+            List<PersonalRecord> records = new ArrayList<>();
+            while (rs.next()) {
+                records.add(new PersonalRecord(rs.getString(1), rs.getDouble(2),
+                        rs.getInt(3), rs.getLong(4), rs.getDouble(5), rs.getLong(6)));
+            }
+            return records;
+        } finally {
+            cs.releaseConnection(conn);
+        }
+    }
+
+    @Override
+    public List<DailyRecord> findDaily() throws SQLException {
+        return queryDaily(SELECT_DAILY + DAILY_ORDER);
+    }
+
+    @Override
+    public List<DailyRecord> findDailyBetween(final LocalDate from, final LocalDate to)
+            throws SQLException {
+        return queryDaily(SELECT_DAILY + DAILY_IN_RANGE + DAILY_ORDER,
+                from.toEpochDay(), to.toEpochDay());
+    }
+
+    @Override
+    public void rebuild() throws SQLException {
+        DatabaseConnection conn = cs.getReadWriteConnection(RECORDS_TABLE);
+        try (Statement statement = conn.getUnderlyingConnection().createStatement()) {
+            for (String sql : REBUILD) {
+                statement.executeUpdate(sql);
+            }
+        } finally {
+            cs.releaseConnection(conn);
+        }
+    }
+
+    private List<DailyRecord> queryDaily(final String sql, final long... args)
+            throws SQLException {
+        DatabaseConnection conn = cs.getReadOnlyConnection(DAILY_TABLE);
+        try (PreparedStatement statement = conn.getUnderlyingConnection().prepareStatement(sql)) {
+            for (int i = 0; i < args.length; i++) {
+                statement.setLong(i + 1, args[i]);
+            }
+            List<DailyRecord> records = new ArrayList<>();
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    records.add(new DailyRecord(rs.getString(1), rs.getLong(2), rs.getInt(3),
+                            rs.getDouble(4), rs.getInt(5), rs.getDouble(6), rs.getInt(7)));
+                }
+            }
+            return records;
+        } finally {
+            cs.releaseConnection(conn);
+        }
+    }
+}
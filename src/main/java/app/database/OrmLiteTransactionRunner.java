@@ -0,0 +1,60 @@
+package app.database;
+
+import com.j256.ormlite.misc.TransactionManager;
+import com.j256.ormlite.support.ConnectionSource;
+import com.j256.ormlite.support.DatabaseConnection;
+
+import java.sql.SQLException;
+import java.util.function.Supplier;
+
+public final class OrmLiteTransactionRunner implements TransactionRunner {
+
+    private final Supplier<? extends ConnectionSource> cs;
+
+    public OrmLiteTransactionRunner(final ConnectionSource cs) {
+        this(() -> cs);
+    }
+
+    /** Resolves the connection source per transaction, so it survives a re-init. */
+    public OrmLiteTransactionRunner(final Supplier<? extends ConnectionSource> cs) {
+        this.cs = cs;
+    }
+
+    @Override
+    public void inTransaction(final Work work) throws SQLException {
+        TransactionManager.callInTransaction(cs.get(), () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Pins one read connection to this thread for {@code work}, inside a
+     * deferred transaction: every read sees the snapshot taken by the first.
+     */
+    @Override
+    public void inReadTransaction(final Work work) throws SQLException {
+        ConnectionSource source = cs.get();
+        if (source.getSpecialConnection(null) != null) {
+            // already inside a transaction on this thread
+            work.run();
+            return;
+        }
+        DatabaseConnection conn = source.getReadOnlyConnection(null);
+        try {
+            source.saveSpecialConnection(conn);
+            try {
+                conn.executeStatement("BEGIN", DatabaseConnection.DEFAULT_RESULT_FLAGS);
+                try {
+                    work.run();
+                } finally {
+                    conn.executeStatement("COMMIT", DatabaseConnection.DEFAULT_RESULT_FLAGS);
+                }
+            } finally {
+                source.clearSpecialConnection(conn);
+            }
+        } finally {
+            source.releaseConnection(conn);
+        }
+    }
+}
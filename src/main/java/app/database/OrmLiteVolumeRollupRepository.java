@@ -0,0 +1,168 @@
+package app.database;
+
+import app.model.VolumeRollup;
+import app.service.ExerciseCatalog;
+import app.service.VolumeAggregator;
+import com.j256.ormlite.support.ConnectionSource;
+import com.j256.ormlite.support.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Weekly and monthly volume per exercise and muscle group. Saves add
+ * their totals with SQLite upserts; {@link #rebuild} refolds the whole
+ * history in one pass over the grouped sets.
+ */
+public final class OrmLiteVolumeRollupRepository implements VolumeRollupRepository {
+
+    private static final String TABLE = "volume_rollups";
+
+    private static final String UPSERT =
+            "INSERT INTO volume_rollups (bucket, period_start, group_kind, name, "
+                    + "tonnage, set_count, sessions) VALUES (?, ?, ?, ?, ?, ?, ?) "
+                    + "ON CONFLICT (bucket, period_start, group_kind, name) DO UPDATE SET "
+                    + "tonnage = tonnage + excluded.tonnage, "
+                    + "set_count = set_count + excluded.set_count, "
+                    + "sessions = sessions + excluded.sessions";
+
+    // one row per session and name, in session order
+    private static final String SESSION_TOTALS =
+            "SELECT e.session_id, s.epoch_day, e.name, SUM(w.weight * w.reps), COUNT(w.id) "
+                    + "FROM workout_sets w "
+                    + "JOIN workout_exercises e ON e.id = w.exercise_id "
+                    + "JOIN workout_sessions s ON s.id = e.session_id "
+                    + "WHERE e.name IS NOT NULL AND s.date IS NOT NULL "
+                    + "GROUP BY e.session_id, e.name "
+                    + "ORDER BY e.session_id";
+
+    private static final String SELECT =
+            "SELECT bucket, period_start, group_kind, name, tonnage, set_count, sessions "
+                    + "FROM volume_rollups WHERE bucket = ? ";
+    private static final String LACKS_MUSCLE_GROUPS =
+            "SELECT EXISTS (SELECT 1 FROM workout_sets) "
+                    + "AND NOT EXISTS (SELECT 1 FROM volume_rollups WHERE group_kind = 'MUSCLE')";
+    private static final String IN_RANGE = "AND period_start BETWEEN ? AND ? ";
+    // newest period first, muscle groups before exercises, heaviest first
+    private static final String ORDER = "ORDER BY period_start DESC, group_kind DESC, "
+            + "tonnage DESC, name";
+
+    private final ConnectionSource cs;
+
+    public OrmLiteVolumeRollupRepository(final ConnectionSource cs) {
+        this.cs = cs;
+    }
+
+    @Override
+    public void add(final List<VolumeRollup> rollups) throws SQLException {
+        if (rollups.isEmpty()) {
+            return;
+        }
+        // inside a transaction this is the transaction's own connection
+        DatabaseConnection conn = cs.getReadWriteConnection(TABLE);
+        try {
+            upsert(conn.getUnderlyingConnection(), rollups);
+        } finally {
+            cs.releaseConnection(conn);
+        }
+    }
+
+    @Override
+    public List<VolumeRollup> find(final VolumeRollup.Bucket bucket) throws SQLException {
+        return query(SELECT + ORDER, bucket);
+    }
+
+    @Override
+    public List<VolumeRollup> findBetween(final VolumeRollup.Bucket bucket,
+                                          final LocalDate from, final LocalDate to)
+            throws SQLException {
+        return query(SELECT + IN_RANGE + ORDER, bucket,
+                bucket.start(from.toEpochDay()), to.toEpochDay());
+    }
+
+    @Override
+    public void rebuild(final ExerciseCatalog catalog) throws SQLException {
+        DatabaseConnection conn = cs.getReadWriteConnection(TABLE);
+        try {
+            rebuild(conn.getUnderlyingConnection(), catalog);
+        } finally {
+            cs.releaseConnection(conn);
+        }
+    }
+
+    @Override
+    public boolean lacksMuscleGroups() throws SQLException {
+        DatabaseConnection conn = cs.getReadOnlyConnection(TABLE);
+        try (Statement statement = conn.getUnderlyingConnection().createStatement();
+             ResultSet rs = statement.executeQuery(LACKS_MUSCLE_GROUPS)) {
+            return rs.next() && rs.getBoolean(1);
+        } finally {
+            cs.releaseConnection(conn);
+        }
+    }
+
+    private static void rebuild(final Connection conn, final ExerciseCatalog catalog)
+            throws SQLException {
+        var aggregator = new VolumeAggregator(catalog);
+        try (Statement statement = conn.createStatement()) {
+            statement.executeUpdate("DELETE FROM volume_rollups");
+            try (ResultSet rs = statement.executeQuery(SESSION_TOTALS)) {
+                int session = -1;
+                while (rs.next()) {
+                    if (rs.getInt(1) != session) {
+                        session = rs.getInt(1);
+                        aggregator.session(rs.getLong(2));
+                    }
+                    aggregator.exercise(rs.getString(3), rs.getDouble(4), rs.getInt(5));
+                }
+            }
+        }
+        upsert(conn, aggregator.rollups());
+    }
+
+    private static void upsert(final Connection conn, final List<VolumeRollup> rollups)
+            throws SQLException {
+        try (PreparedStatement insert = conn.prepareStatement(UPSERT)) {
+            for (VolumeRollup r : rollups) {
+                insert.setString(1, r.bucket().name());
+                insert.setLong(2, r.periodStart());
+                insert.setString(3, r.group().name());
+                insert.setString(4, r.name());
+                insert.setDouble(5, r.tonnage());
+                insert.setInt(6, r.setCount());
+                insert.setInt(7, r.sessions());
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+    }
+
+    private List<VolumeRollup> query(final String sql, final VolumeRollup.Bucket bucket,
+                                     final long... range) throws SQLException {
+        DatabaseConnection conn = cs.getReadOnlyConnection(TABLE);
+        try (PreparedStatement statement = conn.getUnderlyingConnection().prepareStatement(sql)) {
+            statement.setString(1, bucket.name());
+            for (int i = 0; i < range.length; i++) {
+                statement.setLong(i + 2, range[i]);
+            }
+            List<VolumeRollup> rollups = new ArrayList<>();
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    rollups.add(new VolumeRollup(
+                            VolumeRollup.Bucket.valueOf(rs.getString(1)), rs.getLong(2),
+                            VolumeRollup.Group.valueOf(rs.getString(3)), rs.getString(4),
+                            rs.getDouble(5), rs.getInt(6), rs.getInt(7)));
+                }
+            }
+            return rollups;
+        } finally {
+            cs.releaseConnection(conn);
+        }
+    }
+}
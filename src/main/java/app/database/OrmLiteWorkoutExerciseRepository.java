@@ -1,23 +1,52 @@
 package app.database;
 
 import app.model.WorkoutExercise;
+import app.model.WorkoutSession;
+import com.j256.ormlite.dao.CloseableIterator;
 import com.j256.ormlite.dao.Dao;
 import com.j256.ormlite.dao.DaoManager;
-import com.j256.ormlite.jdbc.JdbcPooledConnectionSource;
-import com.j256.ormlite.table.TableUtils;
+import com.j256.ormlite.field.DataType;
+import com.j256.ormlite.support.ConnectionSource;
 
 import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public final class OrmLiteWorkoutExerciseRepository
         implements WorkoutExerciseRepository {
 
+    private static final String SELECT_WITH_SESSIONS =
+            "SELECT e.id, e.name, e.setsString, s.id, s.date, s.bodyweight "
+                    + "FROM workout_exercises e "
+                    + "JOIN workout_sessions s ON s.id = e.session_id ";
+    // sessions without exercises come through as a row of NULL exercise columns
+    private static final String SELECT_SESSIONS_WITH_EXERCISES =
+            "SELECT e.id, e.name, e.setsString, s.id, s.date, s.bodyweight "
+                    + "FROM workout_sessions s "
+                    + "LEFT JOIN workout_exercises e ON e.session_id = s.id ";
+    private static final String ORDER_BY_ID = "ORDER BY e.id";
+    private static final String IN_RANGE =
+            "WHERE s.epoch_day BETWEEN ? AND ? ";
+    private static final String NAMED = "AND e.name = ? COLLATE NOCASE ";
+    private static final String ONLY_NAMED = "WHERE e.name = ? COLLATE NOCASE ";
+    // follows idx_workout_sessions_epoch_day, so rows stream without a full sort
+    private static final String IN_SESSION_ORDER = "ORDER BY s.epoch_day, s.id, e.id";
+    private static final String COUNT_BY_NAME =
+            "SELECT name, COUNT(*) FROM workout_exercises GROUP BY name";
+    private static final DataType[] COUNT_TYPES = {DataType.STRING, DataType.INTEGER};
+    private static final DataType[] WITH_SESSIONS_TYPES = {
+            DataType.INTEGER, DataType.STRING, DataType.STRING,
+            DataType.INTEGER, DataType.DATE_STRING, DataType.DOUBLE
+    };
+
     private final Dao<WorkoutExercise, Integer> dao;
 
     public OrmLiteWorkoutExerciseRepository(
-            final JdbcPooledConnectionSource cs) throws SQLException {
+            final ConnectionSource cs) throws SQLException {
         this.dao = DaoManager.createDao(cs, WorkoutExercise.class);
-        TableUtils.createTableIfNotExists(cs, WorkoutExercise.class);
     }
 
     @Override
@@ -25,8 +54,87 @@ public final class OrmLiteWorkoutExerciseRepository
         dao.create(exercise);
     }
 
+    @Override
+    public void saveAll(final List<WorkoutExercise> exercises) throws SQLException {
+        if (exercises.isEmpty()) {
+            return;
+        }
+        dao.create(exercises);
+    }
+
     @Override
     public List<WorkoutExercise> findAll() throws SQLException {
         return dao.queryForAll();
     }
+
+    @Override
+    public List<WorkoutExercise> findAllWithSessions() throws SQLException {
+        return dao.queryRaw(SELECT_WITH_SESSIONS + ORDER_BY_ID, WITH_SESSIONS_TYPES,
+                (columnNames, dataTypes, row) -> mapWithSession(row))
+                .getResults();
+    }
+
+    @Override
+    public List<WorkoutExercise> findBetweenWithSessions(
+            final LocalDate from, final LocalDate to) throws SQLException {
+        return dao.queryRaw(SELECT_WITH_SESSIONS + IN_RANGE + ORDER_BY_ID,
+                WITH_SESSIONS_TYPES,
+                (columnNames, dataTypes, row) -> mapWithSession(row),
+                String.valueOf(from.toEpochDay()),
+                String.valueOf(to.toEpochDay()))
+                .getResults();
+    }
+
+    @Override
+    public Map<String, Integer> countByName() throws SQLException {
+        Map<String, Integer> counts = new HashMap<>();
+        for (Object[] row : dao.queryRaw(COUNT_BY_NAME, COUNT_TYPES).getResults()) {
+            if (row[0] != null) {
+                counts.put((String) row[0], (Integer) row[1]);
+            }
+        }
+        return counts;
+    }
+
+    @Override
+    public CloseableIterator<WorkoutExercise> iterateWithSessions(
+            final LocalDate from, final LocalDate to, final String name) throws SQLException {
+        String sql = SELECT_WITH_SESSIONS + IN_RANGE + (name == null ? "" : NAMED)
+                + IN_SESSION_ORDER;
+        String[] args = name == null
+                ? new String[] {String.valueOf(from.toEpochDay()), String.valueOf(to.toEpochDay())}
+                : new String[] {String.valueOf(from.toEpochDay()), String.valueOf(to.toEpochDay()),
+                        name};
+        return dao.queryRaw(sql, WITH_SESSIONS_TYPES,
+                (columnNames, dataTypes, row) -> mapWithSession(row), args)
+                .closeableIterator();
+    }
+
+    @Override
+    public CloseableIterator<WorkoutExercise> iterateSessionsWithExercises(final String name)
+            throws SQLException {
+        String sql = SELECT_SESSIONS_WITH_EXERCISES + (name == null ? "" : ONLY_NAMED)
+                + IN_SESSION_ORDER;
+        String[] args = name == null ? new String[0] : new String[] {name};
+        return dao.queryRaw(sql, WITH_SESSIONS_TYPES,
+                (columnNames, dataTypes, row) -> mapWithSession(row), args)
+                .closeableIterator();
+    }
+
+    @Override
+    public CloseableIterator<WorkoutExercise> iterateAllWithSessions() throws SQLException {
+        return dao.queryRaw(SELECT_WITH_SESSIONS + IN_SESSION_ORDER, WITH_SESSIONS_TYPES,
+                (columnNames, dataTypes, row) -> mapWithSession(row))
+                .closeableIterator();
+    }
+
+    static WorkoutExercise mapWithSession(final Object[] row) {
+        var session = new WorkoutSession(
+                (Integer) row[3], (Date) row[4], (Double) row[5]);
+        if (row[0] == null) {
+            return new WorkoutExercise(null, null, session);
+        }
+        return new WorkoutExercise(
+                (Integer) row[0], (String) row[1], (String) row[2], session);
+    }
 }
@@ -3,10 +3,10 @@ package app.database;
 import app.model.WorkoutSession;
 import com.j256.ormlite.dao.Dao;
 import com.j256.ormlite.dao.DaoManager;
-import com.j256.ormlite.jdbc.JdbcPooledConnectionSource;
-import com.j256.ormlite.table.TableUtils;
+import com.j256.ormlite.support.ConnectionSource;
 
 import java.sql.SQLException;
+import java.time.LocalDate;
 import java.util.List;
 
 public final class OrmLiteWorkoutSessionRepository
@@ -15,9 +15,8 @@ public final class OrmLiteWorkoutSessionRepository
     private final Dao<WorkoutSession, Integer> dao;
 
     public OrmLiteWorkoutSessionRepository(
-            final JdbcPooledConnectionSource cs) throws SQLException {
+            final ConnectionSource cs) throws SQLException {
         this.dao = DaoManager.createDao(cs, WorkoutSession.class);
-        TableUtils.createTableIfNotExists(cs, WorkoutSession.class);
     }
 
     @Override
@@ -25,8 +24,39 @@ public final class OrmLiteWorkoutSessionRepository
         dao.create(session);
     }
 
+    @Override
+    public void saveAll(final List<WorkoutSession> sessions) throws SQLException {
+        if (sessions.isEmpty()) {
+            return;
+        }
+        dao.create(sessions);
+    }
+
     @Override
     public List<WorkoutSession> findAll() throws SQLException {
         return dao.queryForAll();
     }
+
+    @Override
+    public boolean isEmpty() throws SQLException {
+        return dao.countOf() == 0;
+    }
+
+    @Override
+    public List<WorkoutSession> findBetween(final LocalDate from,
+                                            final LocalDate to) throws SQLException {
+        return dao.queryBuilder()
+                .orderBy("epoch_day", true)
+                .orderBy("id", true)
+                .where().between("epoch_day", from.toEpochDay(), to.toEpochDay())
+                .query();
+    }
+
+    @Override
+    public List<WorkoutSession> findAllInDayOrder() throws SQLException {
+        return dao.queryBuilder()
+                .orderBy("epoch_day", true)
+                .orderBy("id", true)
+                .query();
+    }
 }
@@ -0,0 +1,106 @@
+package app.database;
+
+import app.model.SetSummary;
+import app.model.WorkoutExercise;
+import app.model.WorkoutSession;
+import app.model.WorkoutSet;
+import com.j256.ormlite.dao.Dao;
+import com.j256.ormlite.dao.DaoManager;
+import com.j256.ormlite.field.DataType;
+import com.j256.ormlite.support.ConnectionSource;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public final class OrmLiteWorkoutSetRepository implements WorkoutSetRepository {
+
+    // best set = heaviest weight, ties broken by most reps at that weight
+    private static final String SELECT_SUMMARIES =
+            "SELECT t.exercise_id, t.best_weight, "
+                    + "(SELECT MAX(r.reps) FROM workout_sets r "
+                    + "WHERE r.exercise_id = t.exercise_id "
+                    + "AND r.weight = t.best_weight), "
+                    + "t.volume, t.set_count "
+                    + "FROM (SELECT exercise_id, MAX(weight) AS best_weight, "
+                    + "SUM(weight * reps) AS volume, COUNT(*) AS set_count "
+                    + "FROM workout_sets GROUP BY exercise_id) t";
+    private static final DataType[] SUMMARY_TYPES = {
+            DataType.INTEGER, DataType.DOUBLE, DataType.INTEGER,
+            DataType.DOUBLE, DataType.INTEGER
+    };
+
+    // BETWEEN also leaves out sessions with no epoch day
+    private static final String SELECT_BY_NAME =
+            "SELECT x.ordinal, x.weight, x.reps, e.id, e.name, s.id, s.date, s.bodyweight "
+                    + "FROM workout_sets x "
+                    + "JOIN workout_exercises e ON e.id = x.exercise_id "
+                    + "JOIN workout_sessions s ON s.id = e.session_id "
+                    + "WHERE e.name = ? COLLATE NOCASE AND s.epoch_day BETWEEN ? AND ? "
+                    + "ORDER BY s.epoch_day, s.id, e.id, x.ordinal";
+    private static final DataType[] BY_NAME_TYPES = {
+            DataType.INTEGER, DataType.DOUBLE, DataType.INTEGER,
+            DataType.INTEGER, DataType.STRING,
+            DataType.INTEGER, DataType.DATE_STRING, DataType.DOUBLE
+    };
+
+    private final Dao<WorkoutSet, Integer> dao;
+
+    public OrmLiteWorkoutSetRepository(
+            final ConnectionSource cs) throws SQLException {
+        this.dao = DaoManager.createDao(cs, WorkoutSet.class);
+    }
+
+    @Override
+    public void saveAll(final List<WorkoutSet> sets) throws SQLException {
+        if (sets.isEmpty()) {
+            return;
+        }
+        dao.create(sets);
+    }
+
+    @Override
+    public List<WorkoutSet> findByExercise(final int exerciseId) throws SQLException {
+        return dao.queryBuilder()
+                .orderBy("ordinal", true)
+                .where().eq("exercise_id", exerciseId)
+                .query();
+    }
+
+    @Override
+    public Map<Integer, SetSummary> findSummaries() throws SQLException {
+        Map<Integer, SetSummary> summaries = new HashMap<>();
+        for (SetSummary summary : dao.queryRaw(SELECT_SUMMARIES, SUMMARY_TYPES,
+                (columnNames, dataTypes, row) -> mapSummary(row)).getResults()) {
+            summaries.put(summary.exerciseId(), summary);
+        }
+        return summaries;
+    }
+
+    @Override
+    public List<WorkoutSet> findByName(final String name, final LocalDate from,
+                                       final LocalDate to) throws SQLException {
+        List<WorkoutSet> sets = new ArrayList<>();
+        WorkoutExercise exercise = null;
+        for (Object[] row : dao.queryRaw(SELECT_BY_NAME, BY_NAME_TYPES, name,
+                String.valueOf(from.toEpochDay()), String.valueOf(to.toEpochDay())).getResults()) {
+            // rows of one exercise are adjacent; share its instance
+            if (exercise == null || exercise.getId() != (Integer) row[3]) {
+                exercise = new WorkoutExercise((Integer) row[3], (String) row[4], null,
+                        new WorkoutSession((Integer) row[5], (Date) row[6], (Double) row[7]));
+            }
+            sets.add(new WorkoutSet(exercise, (Integer) row[0], (Double) row[1],
+                    (Integer) row[2]));
+        }
+        return sets;
+    }
+
+    static SetSummary mapSummary(final Object[] row) {
+        return new SetSummary((Integer) row[0], (Double) row[1],
+                (Integer) row[2], (Double) row[3], (Integer) row[4]);
+    }
+}
@@ -0,0 +1,18 @@
+package app.database;
+
+import app.model.DailyRecord;
+import app.model.PersonalRecord;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface PersonalRecordRepository {
+    /** Merges one save's per-day totals into the daily and all-time records. */
+    void record(List<DailyRecord> records) throws SQLException;
+    List<PersonalRecord> findAll() throws SQLException;
+    List<DailyRecord> findDaily() throws SQLException;
+    List<DailyRecord> findDailyBetween(LocalDate from, LocalDate to) throws SQLException;
+    /** Recomputes both tables from workout_sets. */
+    void rebuild() throws SQLException;
+}
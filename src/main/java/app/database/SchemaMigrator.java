@@ -0,0 +1,91 @@
+package app.database;
+
+import com.j256.ormlite.support.ConnectionSource;
+import com.j256.ormlite.support.DatabaseConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Comparator;
+import java.util.List;
+
+public final class SchemaMigrator {
+
+    private static final Logger log =
+            LoggerFactory.getLogger(SchemaMigrator.class);
+    private static final String VERSION_TABLE = "schema_version";
+
+    private final List<Migration> migrations;
+
+    public SchemaMigrator(final List<Migration> migrations) {
+        this.migrations = migrations.stream()
+                .sorted(Comparator.comparingInt(Migration::version))
+                .toList();
+    }
+
+    public int migrate(final ConnectionSource cs) throws SQLException {
+        DatabaseConnection conn = cs.getReadWriteConnection(VERSION_TABLE);
+        try {
+            return migrate(conn.getUnderlyingConnection());
+        } finally {
+            cs.releaseConnection(conn);
+        }
+    }
+
+    int migrate(final Connection conn) throws SQLException {
+        try (Statement statement = conn.createStatement()) {
+            statement.executeUpdate("CREATE TABLE IF NOT EXISTS " + VERSION_TABLE
+                    + " (version INTEGER PRIMARY KEY, "
+                    + "description VARCHAR, "
+                    + "applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+        }
+
+        int current = currentVersion(conn);
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            for (Migration migration : migrations) {
+                if (migration.version() <= current) {
+                    continue;
+                }
+                try {
+                    migration.apply(conn);
+                    recordVersion(conn, migration);
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw new SQLException("migration to v" + migration.version()
+                            + " failed: " + e.getMessage(), e);
+                }
+                current = migration.version();
+                log.info("schema migrated to v{}: {}",
+                        current, migration.description());
+            }
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+        return current;
+    }
+
+    static int currentVersion(final Connection conn) throws SQLException {
+        try (Statement statement = conn.createStatement();
+             ResultSet rs = statement.executeQuery(
+                     "SELECT MAX(version) FROM " + VERSION_TABLE)) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private static void recordVersion(final Connection conn,
+                                      final Migration migration) throws SQLException {
+        try (PreparedStatement insert = conn.prepareStatement("INSERT INTO "
+                + VERSION_TABLE + " (version, description) VALUES (?, ?)")) {
+            insert.setInt(1, migration.version());
+            insert.setString(2, migration.description());
+            insert.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package app.database;
+
+import com.j256.ormlite.db.DatabaseType;
+import com.j256.ormlite.jdbc.JdbcDatabaseConnection;
+import com.j256.ormlite.jdbc.db.SqliteDatabaseType;
+import com.j256.ormlite.logger.Logger;
+import com.j256.ormlite.logger.LoggerFactory;
+import com.j256.ormlite.support.BaseConnectionSource;
+import com.j256.ormlite.support.DatabaseConnection;
+
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Connection source shaped for SQLite in WAL mode: one writer connection
+ * and a pool of read-only connections. Writers queue in arrival order
+ * for the single write connection instead of racing for the file lock,
+ * so they never see SQLITE_BUSY; a writer still queued after the
+ * configured busy timeout gets an SQLException instead of hanging.
+ * Readers read WAL snapshots alongside.
+ * A transaction keeps the writer for its whole duration, and reads
+ * inside it use the writer so they see their own changes.
+ */
+public final class SqliteConnectionSource extends BaseConnectionSource {
+
+    private static final Logger ormLog = LoggerFactory.getLogger(SqliteConnectionSource.class);
+    // sqlite-jdbc's SQLiteConfig key for sqlite3_open_v2 flags
+    private static final String OPEN_MODE = "open_mode";
+    private static final String READ_ONLY = "1";
+    private static final long READ_TIMEOUT_MILLIS = 30_000;
+
+    /** Snapshot of queue depths and cumulative waits. */
+    public record Metrics(int writeQueueDepth, long writes, long writeWaitNanos,
+                          long maxWriteWaitNanos, int readQueueDepth, long reads,
+                          long readWaitNanos, long maxReadWaitNanos, int openReaders) {
+
+        public double meanWriteWaitMillis() {
+            return writes == 0 ? 0 : writeWaitNanos / 1e6 / writes;
+        }
+
+        public double meanReadWaitMillis() {
+            return reads == 0 ? 0 : readWaitNanos / 1e6 / reads;
+        }
+    }
+
+    private final DatabaseType databaseType = new SqliteDatabaseType();
+    private final String readerUrl;
+    private final long writeTimeoutMillis;
+
+    private final DatabaseConnection writer;
+    private final ReentrantLock writeLock = new ReentrantLock(true);
+    private final Semaphore readPermits;
+    private final ConcurrentLinkedDeque<DatabaseConnection> idleReaders =
+            new ConcurrentLinkedDeque<>();
+    private final AtomicInteger openReaders = new AtomicInteger();
+    private volatile boolean closed;
+
+    private final AtomicLong writes = new AtomicLong();
+    private final AtomicLong writeWaitNanos = new AtomicLong();
+    private final LongAccumulator maxWriteWaitNanos = new LongAccumulator(Math::max, 0);
+    private final AtomicLong reads = new AtomicLong();
+    private final AtomicLong readWaitNanos = new AtomicLong();
+    private final LongAccumulator maxReadWaitNanos = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Opens the writer straight away, so the file exists in WAL mode
+     * before any read-only connection looks at it.
+     */
+    public SqliteConnectionSource(final DatabaseConfig config) throws SQLException {
+        this.readerUrl = config.readerUrl();
+        this.writeTimeoutMillis = config.busyTimeout();
+        this.readPermits = new Semaphore(config.poolSize(), true);
+        this.writer = new JdbcDatabaseConnection(DriverManager.getConnection(config.url()));
+    }
+
+    @Override
+    public DatabaseConnection getReadOnlyConnection(final String tableName) throws SQLException {
+        DatabaseConnection saved = getSavedConnection();
+        if (saved != null) {
+            return saved;
+        }
+        checkOpen();
+        long start = System.nanoTime();
+        try {
+            if (!readPermits.tryAcquire(READ_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("no read connection free after "
+                        + READ_TIMEOUT_MILLIS + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("interrupted waiting for a read connection", e);
+        }
+        record(reads, readWaitNanos, maxReadWaitNanos, System.nanoTime() - start);
+        DatabaseConnection reader = idleReaders.pollFirst();
+        if (reader != null) {
+            return reader;
+        }
+        try {
+            return openReader();
+        } catch (SQLException | RuntimeException e) {
+            readPermits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public DatabaseConnection getReadWriteConnection(final String tableName) throws SQLException {
+        DatabaseConnection saved = getSavedConnection();
+        if (saved != null) {
+            return saved;
+        }
+        checkOpen();
+        long start = System.nanoTime();
+        try {
+            if (!writeLock.tryLock(writeTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("write connection still busy after "
+                        + writeTimeoutMillis + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("interrupted waiting for the write connection", e);
+        }
+        record(writes, writeWaitNanos, maxWriteWaitNanos, System.nanoTime() - start);
+        if (closed) {
+            writeLock.unlock();
+            throw new SQLException("connection source is closed");
+        }
+        return writer;
+    }
+
+    @Override
+    public void releaseConnection(final DatabaseConnection connection) {
+        if (isSavedConnection(connection)) {
+            // released again once the transaction clears it
+            return;
+        }
+        if (connection == writer) {
+            writeLock.unlock();
+            return;
+        }
+        idleReaders.offerFirst(connection);
+        if (closed) {
+            closeIdleReaders();
+        }
+        readPermits.release();
+    }
+
+    @Override
+    public boolean saveSpecialConnection(final DatabaseConnection connection) throws SQLException {
+        return saveSpecial(connection);
+    }
+
+    @Override
+    public void clearSpecialConnection(final DatabaseConnection connection) {
+        clearSpecial(connection, ormLog);
+    }
+
+    public Metrics metrics() {
+        return new Metrics(writeLock.getQueueLength(), writes.get(), writeWaitNanos.get(),
+                maxWriteWaitNanos.get(), readPermits.getQueueLength(), reads.get(),
+                readWaitNanos.get(), maxReadWaitNanos.get(), openReaders.get());
+    }
+
+    @Override
+    public DatabaseType getDatabaseType() {
+        return databaseType;
+    }
+
+    @Override
+    public boolean isOpen(final String tableName) {
+        return !closed;
+    }
+
+    @Override
+    public boolean isSingleConnection(final String tableName) {
+        return false;
+    }
+
+    /** Closes idle connections now; busy readers close when released. */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        closeIdleReaders();
+        writeLock.lock();
+        try {
+            writer.closeQuietly();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void closeQuietly() {
+        close();
+    }
+
+    private DatabaseConnection openReader() throws SQLException {
+        var properties = new Properties();
+        properties.setProperty(OPEN_MODE, READ_ONLY);
+        var reader = new JdbcDatabaseConnection(DriverManager.getConnection(readerUrl, properties));
+        openReaders.incrementAndGet();
+        return reader;
+    }
+
+    private void closeIdleReaders() {
+        DatabaseConnection reader;
+        while ((reader = idleReaders.pollFirst()) != null) {
+            reader.closeQuietly();
+            openReaders.decrementAndGet();
+        }
+    }
+
+    private void checkOpen() throws SQLException {
+        if (closed) {
+            throw new SQLException("connection source is closed");
+        }
+    }
+
+    private static void record(final AtomicLong count, final AtomicLong total,
+                               final LongAccumulator max, final long waited) {
+        count.incrementAndGet();
+        total.addAndGet(waited);
+        max.accumulate(waited);
+    }
+}
@@ -0,0 +1,22 @@
+package app.database;
+
+import java.sql.SQLException;
+
+@FunctionalInterface
+public interface TransactionRunner {
+
+    void inTransaction(Work work) throws SQLException;
+
+    /**
+     * Runs reads against one snapshot, so a save committed meanwhile is
+     * either wholly visible or not at all. Defaults to a write transaction.
+     */
+    default void inReadTransaction(final Work work) throws SQLException {
+        inTransaction(work);
+    }
+
+    @FunctionalInterface
+    interface Work {
+        void run() throws SQLException;
+    }
+}
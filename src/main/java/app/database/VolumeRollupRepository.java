@@ -0,0 +1,20 @@
+package app.database;
+
+import app.model.VolumeRollup;
+import app.service.ExerciseCatalog;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface VolumeRollupRepository {
+    /** Adds one save's totals to the stored rollups. */
+    void add(List<VolumeRollup> rollups) throws SQLException;
+    List<VolumeRollup> find(VolumeRollup.Bucket bucket) throws SQLException;
+    List<VolumeRollup> findBetween(VolumeRollup.Bucket bucket, LocalDate from, LocalDate to)
+            throws SQLException;
+    /** Recomputes every rollup from workout_sets, mapping names to muscles via {@code catalog}. */
+    void rebuild(ExerciseCatalog catalog) throws SQLException;
+    /** True when sets are stored but no muscle-group rollup is, as right after the v7 upgrade. */
+    boolean lacksMuscleGroups() throws SQLException;
+}
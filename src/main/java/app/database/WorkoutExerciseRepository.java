@@ -1,11 +1,45 @@
 package app.database;
 
 import app.model.WorkoutExercise;
+import com.j256.ormlite.dao.CloseableIterator;
 
 import java.sql.SQLException;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 public interface WorkoutExerciseRepository {
     void save(WorkoutExercise exercise) throws SQLException;
+    void saveAll(List<WorkoutExercise> exercises) throws SQLException;
     List<WorkoutExercise> findAll() throws SQLException;
+    List<WorkoutExercise> findAllWithSessions() throws SQLException;
+    List<WorkoutExercise> findBetweenWithSessions(LocalDate from, LocalDate to)
+            throws SQLException;
+    Map<String, Integer> countByName() throws SQLException;
+
+    /**
+     * Rows with their sessions between {@code from} and {@code to}, in
+     * session order, optionally only those named {@code name} (ignoring
+     * case). Rows are read as the caller advances; close the iterator.
+     */
+    CloseableIterator<WorkoutExercise> iterateWithSessions(LocalDate from, LocalDate to,
+                                                           String name) throws SQLException;
+
+    /**
+     * Every session with its rows, in the order of
+     * {@link #iterateAllWithSessions()}, undated sessions included. A
+     * session without rows comes as one row with id 0 and no name or sets.
+     * With {@code name}, only rows of that name (ignoring case), so
+     * sessions without one are left out. Close the iterator.
+     */
+    CloseableIterator<WorkoutExercise> iterateSessionsWithExercises(String name)
+            throws SQLException;
+
+    /**
+     * Every row with its session, in the order of
+     * {@link WorkoutSessionRepository#findAllInDayOrder()}, so undated
+     * sessions come first. Rows are read as the caller advances; close the
+     * iterator.
+     */
+    CloseableIterator<WorkoutExercise> iterateAllWithSessions() throws SQLException;
 }
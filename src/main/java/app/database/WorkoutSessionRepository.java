@@ -3,9 +3,16 @@ package app.database;
 import app.model.WorkoutSession;
 
 import java.sql.SQLException;
+import java.time.LocalDate;
 import java.util.List;
 
 public interface WorkoutSessionRepository {
     void save(WorkoutSession session) throws SQLException;
+    void saveAll(List<WorkoutSession> sessions) throws SQLException;
     List<WorkoutSession> findAll() throws SQLException;
+    boolean isEmpty() throws SQLException;
+    List<WorkoutSession> findBetween(LocalDate from, LocalDate to) throws SQLException;
+
+    /** Every session by day, then id; undated sessions come first. */
+    List<WorkoutSession> findAllInDayOrder() throws SQLException;
 }
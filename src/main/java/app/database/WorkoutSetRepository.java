@@ -0,0 +1,24 @@
+package app.database;
+
+import app.model.SetSummary;
+import app.model.WorkoutSet;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+public interface WorkoutSetRepository {
+    void saveAll(List<WorkoutSet> sets) throws SQLException;
+    List<WorkoutSet> findByExercise(int exerciseId) throws SQLException;
+    Map<Integer, SetSummary> findSummaries() throws SQLException;
+
+    /**
+     * Sets of exercises named {@code name} (ignoring case) in sessions
+     * between {@code from} and {@code to}, by day, then exercise and
+     * ordinal. Each set's exercise carries its name and dated session,
+     * but not its set string. Undated sessions are left out.
+     */
+    List<WorkoutSet> findByName(String name, LocalDate from, LocalDate to)
+            throws SQLException;
+}
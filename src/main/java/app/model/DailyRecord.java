@@ -0,0 +1,10 @@
+package app.model;
+
+/**
+ * Best set, volume and set count of one exercise name on one day.
+ * {@code bestReps} is -1 when no set on that day could be parsed.
+ */
+public record DailyRecord(String name, long epochDay, int exerciseId,
+                          double bestWeight, int bestReps,
+                          double volume, int setCount) {
+}
@@ -0,0 +1,24 @@
+package app.model;
+
+import java.time.LocalDate;
+
+public record DateRange(LocalDate from, LocalDate to) {
+
+    public static final DateRange ALL = new DateRange(LocalDate.MIN, LocalDate.MAX);
+
+    public static DateRange lastMonths(final LocalDate today, final int months) {
+        return new DateRange(today.minusMonths(months), today);
+    }
+
+    public boolean isAll() {
+        return ALL.equals(this);
+    }
+
+    public long fromEpochDay() {
+        return from.toEpochDay();
+    }
+
+    public long toEpochDay() {
+        return to.toEpochDay();
+    }
+}
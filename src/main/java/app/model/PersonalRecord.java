@@ -0,0 +1,6 @@
+package app.model;
+
+/** All-time bests of one exercise name; days are epoch days. */
+public record PersonalRecord(String name, double bestWeight, int bestReps, long bestDay,
+                             double maxVolume, long maxVolumeDay) {
+}
@@ -0,0 +1,5 @@
+package app.model;
+
+public record SetSummary(int exerciseId, double bestWeight, int bestReps,
+                         double volume, int setCount) {
+}
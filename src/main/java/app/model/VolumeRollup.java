@@ -0,0 +1,41 @@
+package app.model;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.IsoFields;
+
+/** Training volume of one exercise or muscle group over one ISO week or month. */
+public record VolumeRollup(Bucket bucket, long periodStart, Group group, String name,
+                           double tonnage, int setCount, int sessions) {
+
+    public enum Bucket {
+        WEEK, MONTH;
+
+        /** Epoch day of the Monday or the first of the month on or before {@code epochDay}. */
+        public long start(final long epochDay) {
+            if (this == WEEK) {
+                // 1970-01-01 was a Thursday
+                return epochDay - Math.floorMod(epochDay + 3, 7);
+            }
+            return LocalDate.ofEpochDay(epochDay).withDayOfMonth(1).toEpochDay();
+        }
+
+        /** "2024-W05" or "2024-02". */
+        public String label(final long start) {
+            var date = LocalDate.ofEpochDay(start);
+            if (this == WEEK) {
+                return String.format("%d-W%02d", date.get(IsoFields.WEEK_BASED_YEAR),
+                        date.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+            }
+            return YearMonth.from(date).toString();
+        }
+    }
+
+    public enum Group {
+        EXERCISE, MUSCLE
+    }
+
+    public String periodLabel() {
+        return bucket.label(periodStart);
+    }
+}
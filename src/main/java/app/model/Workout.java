@@ -0,0 +1,8 @@
+package app.model;
+
+import java.util.Date;
+import java.util.List;
+
+/** One session as entered or imported, before it is split into rows. */
+public record Workout(Date date, double bodyweight, List<ExerciseWithSets> exercises) {
+}
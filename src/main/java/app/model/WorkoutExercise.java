@@ -15,8 +15,7 @@ public final class WorkoutExercise {
     @DatabaseField
     private String setsString;
 
-    @DatabaseField(foreign = true, foreignAutoRefresh = true,
-            columnName = "session_id")
+    @DatabaseField(foreign = true, columnName = "session_id")
     private WorkoutSession session;
 
     public WorkoutExercise() {}
@@ -28,6 +27,13 @@ public final class WorkoutExercise {
         this.session = session;
     }
 
+    public WorkoutExercise(final int id, final String name,
+                           final String setsString,
+                           final WorkoutSession session) {
+        this(name, setsString, session);
+        this.id = id;
+    }
+
     public String getName() {
         return name;
     }
@@ -4,6 +4,8 @@ import com.j256.ormlite.field.DataType;
 import com.j256.ormlite.field.DatabaseField;
 import com.j256.ormlite.table.DatabaseTable;
 
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.Date;
 
 @DatabaseTable(tableName = "workout_sessions")
@@ -18,11 +20,25 @@ public final class WorkoutSession {
     @DatabaseField
     private double bodyweight;
 
+    // null for a session without a date
+    @DatabaseField(columnName = "epoch_day")
+    private Long epochDay;
+
     public WorkoutSession() {}
 
     public WorkoutSession(final Date date, final double bodyweight) {
         this.date = date;
         this.bodyweight = bodyweight;
+        this.epochDay = date == null ? null : date.toInstant()
+                .atZone(ZoneId.systemDefault())
+                .toLocalDate()
+                .toEpochDay();
+    }
+
+    public WorkoutSession(final int id, final Date date,
+                          final double bodyweight) {
+        this(date, bodyweight);
+        this.id = id;
     }
 
     public int getId() {
@@ -36,4 +52,13 @@ public final class WorkoutSession {
     public double getBodyweight() {
         return bodyweight;
     }
+
+    /** Local day of the session, or null when it has no date. */
+    public Long getEpochDay() {
+        return epochDay;
+    }
+
+    public LocalDate getLocalDate() {
+        return epochDay == null ? null : LocalDate.ofEpochDay(epochDay);
+    }
 }
@@ -0,0 +1,53 @@
+package app.model;
+
+import com.j256.ormlite.field.DatabaseField;
+import com.j256.ormlite.table.DatabaseTable;
+
+@DatabaseTable(tableName = "workout_sets")
+public final class WorkoutSet {
+
+    @DatabaseField(generatedId = true)
+    private int id;
+
+    @DatabaseField(foreign = true, columnName = "exercise_id")
+    private WorkoutExercise exercise;
+
+    @DatabaseField
+    private int ordinal;
+
+    @DatabaseField
+    private double weight;
+
+    @DatabaseField
+    private int reps;
+
+    public WorkoutSet() {}
+
+    public WorkoutSet(final WorkoutExercise exercise, final int ordinal,
+                      final double weight, final int reps) {
+        this.exercise = exercise;
+        this.ordinal = ordinal;
+        this.weight = weight;
+        this.reps = reps;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public WorkoutExercise getExercise() {
+        return exercise;
+    }
+
+    public int getOrdinal() {
+        return ordinal;
+    }
+
+    public double getWeight() {
+        return weight;
+    }
+
+    public int getReps() {
+        return reps;
+    }
+}
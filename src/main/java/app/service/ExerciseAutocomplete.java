@@ -0,0 +1,155 @@
+package app.service;
+
+import app.model.Exercise;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ranks catalog names for a typed query: prefix matches first, then
+ * matches at the start of a word, then any substring. Within a tier,
+ * exercises logged more often come first, then shorter names.
+ * Immutable; build a new one when the log counts change.
+ */
+public final class ExerciseAutocomplete {
+
+    private static final int TIER_PREFIX = 3;
+    private static final int TIER_WORD = 2;
+    private static final int TIER_SUBSTRING = 1;
+
+    // rank layout, high to low bits: tier | log count | inverse length | inverse index
+    private static final int INDEX_BITS = 24;
+    private static final int LENGTH_BITS = 14;
+    private static final int COUNT_BITS = 23;
+    private static final long INDEX_MASK = (1L << INDEX_BITS) - 1;
+    private static final long LENGTH_MASK = (1L << LENGTH_BITS) - 1;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    private final ExerciseCatalog catalog;
+    private final int[] logCounts;
+    private final List<String> allNames;
+
+    /**
+     * @param logCounts how often each exercise name was logged; names are
+     *                  matched to the catalog ignoring case
+     */
+    public ExerciseAutocomplete(final ExerciseCatalog catalog,
+                                final Map<String, Integer> logCounts) {
+        if (catalog.size() > INDEX_MASK) {
+            throw new IllegalArgumentException("catalog too large: " + catalog.size());
+        }
+        this.catalog = catalog;
+        this.logCounts = new int[catalog.size()];
+        logCounts.forEach((name, count) -> {
+            int index = catalog.indexOf(name);
+            if (index >= 0 && count != null) {
+                this.logCounts[index] += count;
+            }
+        });
+        List<String> names = new ArrayList<>(catalog.size());
+        for (Exercise exercise : catalog.exercises()) {
+            if (exercise.name() != null) {
+                names.add(exercise.name());
+            }
+        }
+        this.allNames = List.copyOf(names);
+    }
+
+    /** Every catalog name, for an empty editor. */
+    public List<String> allNames() {
+        return allNames;
+    }
+
+    /** Best {@code limit} names for {@code query}; all names when it is blank. */
+    public List<String> suggest(final String query, final int limit) {
+        if (query == null || query.isBlank()) {
+            return allNames;
+        }
+        if (limit <= 0) {
+            return List.of();
+        }
+
+        // min-heap of packed ranks: the root is the weakest kept match
+        long[] heap = new long[limit];
+        int[] size = {0};
+        catalog.forEachContaining(query, index -> {
+            long rank = rank(index, query);
+            if (size[0] < limit) {
+                heap[size[0]] = rank;
+                siftUp(heap, size[0]++);
+            } else if (rank > heap[0]) {
+                heap[0] = rank;
+                siftDown(heap, size[0]);
+            }
+        });
+
+        long[] ranked = Arrays.copyOf(heap, size[0]);
+        Arrays.sort(ranked);
+        List<String> names = new ArrayList<>(ranked.length);
+        for (int i = ranked.length - 1; i >= 0; i--) {
+            int index = (int) (INDEX_MASK - (ranked[i] & INDEX_MASK));
+            names.add(catalog.exercises().get(index).name());
+        }
+        return names;
+    }
+
+    private long rank(final int index, final String query) {
+        String key = catalog.key(index);
+        long rank = tier(key, query);
+        rank = (rank << COUNT_BITS) | Math.min(logCounts[index], COUNT_MASK);
+        rank = (rank << LENGTH_BITS) | (LENGTH_MASK - Math.min(key.length(), LENGTH_MASK));
+        return (rank << INDEX_BITS) | (INDEX_MASK - index);
+    }
+
+    private static int tier(final String key, final String query) {
+        if (ExerciseCatalog.matchesAt(key, 0, query)) {
+            return TIER_PREFIX;
+        }
+        for (int start = 1; start + query.length() <= key.length(); start++) {
+            if (!Character.isLetterOrDigit(key.charAt(start - 1))
+                    && ExerciseCatalog.matchesAt(key, start, query)) {
+                return TIER_WORD;
+            }
+        }
+        return TIER_SUBSTRING;
+    }
+
+    private static void siftUp(final long[] heap, int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent] <= heap[i]) {
+                return;
+            }
+            swap(heap, parent, i);
+            i = parent;
+        }
+    }
+
+    private static void siftDown(final long[] heap, final int size) {
+        int i = 0;
+        while (true) {
+            int smallest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < size && heap[left] < heap[smallest]) {
+                smallest = left;
+            }
+            if (right < size && heap[right] < heap[smallest]) {
+                smallest = right;
+            }
+            if (smallest == i) {
+                return;
+            }
+            swap(heap, i, smallest);
+            i = smallest;
+        }
+    }
+
+    private static void swap(final long[] heap, final int a, final int b) {
+        long tmp = heap[a];
+        heap[a] = heap[b];
+        heap[b] = tmp;
+    }
+}
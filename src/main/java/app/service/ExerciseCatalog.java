@@ -0,0 +1,261 @@
+package app.service;
+
+import app.model.Exercise;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+/**
+ * Immutable, indexed snapshot of the exercise catalog. Names are
+ * lower-cased once when the snapshot is built; lookups hash the query
+ * char by char, so they neither scan the catalog nor allocate.
+ */
+public final class ExerciseCatalog {
+
+    static final ExerciseCatalog EMPTY = new ExerciseCatalog(List.of());
+
+    private static final int MAX_GRAM = 3;
+
+    private final List<Exercise> exercises;
+    private final String[] keys;
+    // open-addressed exact-name table, slots hold index + 1
+    private final int[] exact;
+    // n-grams of length 1..3 -> ascending exercise indices
+    private final long[] gramKeys;
+    private final int[][] gramPostings;
+
+    ExerciseCatalog(final List<Exercise> exercises) {
+        this.exercises = List.copyOf(exercises);
+        int n = this.exercises.size();
+        this.keys = new String[n];
+        this.exact = new int[tableSize(n)];
+
+        Map<Long, int[]> grams = new HashMap<>();
+        Map<Long, Integer> gramSizes = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            String name = this.exercises.get(i).name();
+            if (name == null) {
+                continue;
+            }
+            String key = normalize(name);
+            keys[i] = key;
+            putExact(key, i);
+            for (int len = 1; len <= MAX_GRAM; len++) {
+                for (int start = 0; start + len <= key.length(); start++) {
+                    long gram = gram(key, start, len, false);
+                    int size = gramSizes.getOrDefault(gram, 0);
+                    int[] postings = grams.get(gram);
+                    if (size > 0 && postings[size - 1] == i) {
+                        continue;
+                    }
+                    if (postings == null) {
+                        postings = new int[4];
+                    } else if (size == postings.length) {
+                        postings = Arrays.copyOf(postings, size * 2);
+                    }
+                    postings[size] = i;
+                    grams.put(gram, postings);
+                    gramSizes.put(gram, size + 1);
+                }
+            }
+        }
+
+        int slots = tableSize(grams.size());
+        this.gramKeys = new long[slots];
+        this.gramPostings = new int[slots][];
+        grams.forEach((gram, postings) -> {
+            int slot = slot(Long.hashCode(gram), slots);
+            while (gramKeys[slot] != 0) {
+                slot = (slot + 1) & (slots - 1);
+            }
+            gramKeys[slot] = gram;
+            gramPostings[slot] = Arrays.copyOf(postings, gramSizes.get(gram));
+        });
+    }
+
+    public List<Exercise> exercises() {
+        return exercises;
+    }
+
+    public int size() {
+        return exercises.size();
+    }
+
+    /** Exercise whose name equals {@code name}, ignoring case. */
+    public Exercise exact(final String name) {
+        if (name == null) {
+            return null;
+        }
+        int index = exactIndex(name);
+        return index < 0 ? null : exercises.get(index);
+    }
+
+    /**
+     * Exact name match if there is one, otherwise the first exercise in
+     * catalog order whose name contains {@code query}, ignoring case.
+     */
+    public Exercise find(final String query) {
+        if (query == null || query.isBlank()) {
+            return null;
+        }
+        int index = exactIndex(query);
+        if (index < 0) {
+            index = firstContaining(query);
+        }
+        return index < 0 ? null : exercises.get(index);
+    }
+
+    private int exactIndex(final String name) {
+        int mask = exact.length - 1;
+        for (int slot = slot(hash(name), exact.length); exact[slot] != 0; slot = (slot + 1) & mask) {
+            int index = exact[slot] - 1;
+            if (keys[index].length() == name.length() && matchesAt(keys[index], 0, name)) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /** Calls {@code consumer} with every index whose name contains {@code query}, in order. */
+    public void forEachContaining(final String query, final IntConsumer consumer) {
+        int[] candidates = candidates(query);
+        if (candidates == null) {
+            return;
+        }
+        for (int index : candidates) {
+            if (query.length() <= MAX_GRAM || contains(keys[index], query)) {
+                consumer.accept(index);
+            }
+        }
+    }
+
+    /** Lower-cased name at {@code index}, or null when the entry has no name. */
+    public String key(final int index) {
+        return keys[index];
+    }
+
+    int indexOf(final String name) {
+        return name == null ? -1 : exactIndex(name);
+    }
+
+    private int firstContaining(final String query) {
+        int[] candidates = candidates(query);
+        if (candidates == null) {
+            return -1;
+        }
+        if (query.length() <= MAX_GRAM) {
+            return candidates[0];
+        }
+        for (int index : candidates) {
+            if (contains(keys[index], query)) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    // postings of the rarest gram in the query; a superset of the matches
+    private int[] candidates(final String query) {
+        int len = Math.min(query.length(), MAX_GRAM);
+        int[] candidates = null;
+        for (int start = 0; start + len <= query.length(); start++) {
+            int[] postings = postings(gram(query, start, len, true));
+            if (postings == null) {
+                return null;
+            }
+            if (candidates == null || postings.length < candidates.length) {
+                candidates = postings;
+            }
+        }
+        return candidates;
+    }
+
+    private int[] postings(final long gram) {
+        int mask = gramKeys.length - 1;
+        for (int slot = slot(Long.hashCode(gram), gramKeys.length);
+             gramKeys[slot] != 0; slot = (slot + 1) & mask) {
+            if (gramKeys[slot] == gram) {
+                return gramPostings[slot];
+            }
+        }
+        return null;
+    }
+
+    private void putExact(final String key, final int index) {
+        int mask = exact.length - 1;
+        int slot = slot(key.hashCode(), exact.length);
+        while (exact[slot] != 0) {
+            if (keys[exact[slot] - 1].equals(key)) {
+                return; // first entry wins
+            }
+            slot = (slot + 1) & mask;
+        }
+        exact[slot] = index + 1;
+    }
+
+    private static boolean contains(final String key, final String query) {
+        for (int start = 0; start + query.length() <= key.length(); start++) {
+            if (matchesAt(key, start, query)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static boolean matchesAt(final String key, final int start, final String query) {
+        if (start + query.length() > key.length()) {
+            return false;
+        }
+        for (int i = 0; i < query.length(); i++) {
+            if (key.charAt(start + i) != Character.toLowerCase(query.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long gram(final String s, final int start, final int len, final boolean lower) {
+        long gram = (long) len << 48;
+        for (int i = 0; i < len; i++) {
+            char c = s.charAt(start + i);
+            gram |= (long) (lower ? Character.toLowerCase(c) : c) << (16 * (2 - i));
+        }
+        return gram;
+    }
+
+    // same value as normalize(s).hashCode(), without building the string
+    private static int hash(final String s) {
+        int h = 0;
+        for (int i = 0; i < s.length(); i++) {
+            h = 31 * h + Character.toLowerCase(s.charAt(i));
+        }
+        return h;
+    }
+
+    static String normalize(final String s) {
+        char[] chars = new char[s.length()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(s.charAt(i));
+        }
+        return new String(chars);
+    }
+
+    private static int slot(final int hash, final int size) {
+        return (hash ^ (hash >>> 16)) & (size - 1);
+    }
+
+    private static int tableSize(final int entries) {
+        int size = 2;
+        while (size < entries * 2) {
+            size <<= 1;
+        }
+        return size;
+    }
+
+    public static ExerciseCatalog of(final List<Exercise> exercises) {
+        return exercises.isEmpty() ? EMPTY : new ExerciseCatalog(exercises);
+    }
+}
@@ -13,17 +13,18 @@ import java.util.List;
 
 public final class ExerciseCsvParser {
 
-    private static final List<Exercise> EXERCISES = new ArrayList<>();
+    private static volatile ExerciseCatalog catalog = ExerciseCatalog.EMPTY;
     private static final Logger LOGGER = LoggerFactory.getLogger(ExerciseCsvParser.class);
     private static final int CSV_PARTS_COUNT = 3;
 
     private ExerciseCsvParser() {
     }
 
-    public static void loadExercises() {
-        if (!EXERCISES.isEmpty()) {
+    public static synchronized void loadExercises() {
+        if (catalog.size() > 0) {
             return;
         }
+        List<Exercise> exercises = new ArrayList<>();
         try (InputStream is = openCsv()) {
             if (is == null) {
                 LOGGER.warn("exercises.csv not found");
@@ -44,7 +45,7 @@ public final class ExerciseCsvParser {
                         continue;
                     }
 
-                    EXERCISES.add(new Exercise(
+                    exercises.add(new Exercise(
                             name,
                             parts[1].trim(),
                             parts[2].trim()
@@ -54,26 +55,23 @@ public final class ExerciseCsvParser {
         } catch (Exception e) {
             LOGGER.error("error parsing exercises: {}", e.getMessage(), e);
         }
+        catalog = ExerciseCatalog.of(exercises);
     }
 
-    public static List<Exercise> getExercises() {
-        if (EXERCISES.isEmpty()) {
+    /** Current catalog snapshot; immutable, safe to share across threads. */
+    public static ExerciseCatalog catalog() {
+        if (catalog.size() == 0) {
             loadExercises();
         }
-        return new ArrayList<>(EXERCISES);
+        return catalog;
+    }
+
+    public static List<Exercise> getExercises() {
+        return catalog().exercises();
     }
 
     public static Exercise findByName(final String name) {
-        if (name == null || name.trim().isEmpty()) {
-            return null;
-        }
-        return EXERCISES.stream()
-                .filter(e -> e.name() != null)
-                .filter(e -> e.name()
-                        .toLowerCase()
-                        .contains(name.toLowerCase()))
-                .findFirst()
-                .orElse(null);
+        return catalog.find(name);
     }
 
     static InputStream openCsv() {
@@ -82,7 +80,11 @@ public final class ExerciseCsvParser {
     }
 
     // чисто для тестов
-    static void clear() {
-        EXERCISES.clear();
+    static synchronized void clear() {
+        catalog = ExerciseCatalog.EMPTY;
+    }
+
+    static synchronized void replace(final List<Exercise> exercises) {
+        catalog = ExerciseCatalog.of(exercises);
     }
 }
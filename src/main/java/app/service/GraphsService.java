@@ -1,5 +1,6 @@
 package app.service;
 
+import app.model.DateRange;
 import app.model.WorkoutExercise;
 import app.model.WorkoutSession;
 import javafx.util.Pair;
@@ -14,8 +15,16 @@ public class GraphsService {
         this.workoutService = workoutService;
     }
 
+    public long getDataVersion() {
+        return workoutService.getDataVersion();
+    }
+
     public List<Pair<Date, Double>> getBodyweightData() throws SQLException {
-        var sessions = workoutService.getAllSessions();
+        return getBodyweightData(DateRange.ALL);
+    }
+
+    public List<Pair<Date, Double>> getBodyweightData(DateRange range) throws SQLException {
+        var sessions = sessions(range);
         List<Pair<Date, Double>> data = new ArrayList<>();
         for (WorkoutSession s : sessions) {
             data.add(new Pair<>(s.getDate(), s.getBodyweight()));
@@ -24,28 +33,148 @@ public class GraphsService {
     }
 
     public List<Pair<Date, Double>> getExerciseData(String exerciseName) throws SQLException {
-        var exercises = workoutService.getAllExercises();
+        return getExerciseData(exerciseName, DateRange.ALL);
+    }
+
+    public List<Pair<Date, Double>> getExerciseData(String exerciseName, DateRange range)
+            throws SQLException {
+        var exercises = exercises(range);
+        var summaries = workoutService.getSetSummaries();
         List<Pair<Date, Double>> data = new ArrayList<>();
 
         for (WorkoutExercise ex : exercises) {
             if (exerciseName == null
                     || exerciseName.isBlank()
-                    || ex.getName().equalsIgnoreCase(exerciseName)) {
-                var bestSet = SetParser.pickBestSet(ex.getSetsString());
-                if (!bestSet.isEmpty()) {
-                    var wr = bestSet.split("x");
-                    if (wr.length == 2) {
-                        try {
-                            var weight = Double.parseDouble(wr[0]);
-                            data.add(new Pair<>(ex.getSession().getDate(), weight));
-                        } catch (NumberFormatException ignore) {}
-                    }
+                    || exerciseName.equalsIgnoreCase(ex.getName())) {
+                var summary = summaries.get(ex.getId());
+                if (summary != null) {
+                    data.add(new Pair<>(ex.getSession().getDate(), summary.bestWeight()));
                 }
             }
         }
         return data;
     }
 
+    /** Bodyweight per session against its epoch day, sorted by day. */
+    public TimeSeries getBodyweightSeries(DateRange range) throws SQLException {
+        var sessions = sessions(range);
+        double[] days = new double[sessions.size()];
+        double[] weights = new double[sessions.size()];
+        int n = 0;
+        for (WorkoutSession session : sessions) {
+            // an undated session has no place on the day axis
+            if (session.getEpochDay() != null) {
+                days[n] = session.getEpochDay();
+                weights[n++] = session.getBodyweight();
+            }
+        }
+        return TimeSeries.of(Arrays.copyOf(days, n), Arrays.copyOf(weights, n));
+    }
+
+    /** Best-set weight per logged exercise against its epoch day, sorted by day. */
+    public TimeSeries getExerciseSeries(String exerciseName, DateRange range)
+            throws SQLException {
+        var exercises = exercises(range);
+        var summaries = workoutService.getSetSummaries();
+        double[] days = new double[exercises.size()];
+        double[] weights = new double[exercises.size()];
+        int n = 0;
+        for (WorkoutExercise ex : exercises) {
+            if (exerciseName == null
+                    || exerciseName.isBlank()
+                    || exerciseName.equalsIgnoreCase(ex.getName())) {
+                var summary = summaries.get(ex.getId());
+                if (summary != null && isDated(ex)) {
+                    days[n] = ex.getSession().getEpochDay();
+                    weights[n++] = summary.bestWeight();
+                }
+            }
+        }
+        return TimeSeries.of(Arrays.copyOf(days, n), Arrays.copyOf(weights, n));
+    }
+
+    /**
+     * Every {@link ProgressMetric} for one exercise, from a single pass
+     * over its typed sets. Each logged exercise with sets is one point; a
+     * point is left out of a metric it has no value for.
+     */
+    public Map<ProgressMetric, TimeSeries> getExerciseMetrics(String exerciseName, DateRange range)
+            throws SQLException {
+        var sets = workoutService.getSetsOf(exerciseName, range);
+        var metrics = ProgressMetric.values();
+        double[][] days = new double[metrics.length][sets.size()];
+        double[][] values = new double[metrics.length][sets.size()];
+        int[] counts = new int[metrics.length];
+        var point = new SetMetrics();
+
+        // sets arrive grouped by exercise; each group is one point
+        for (int i = 0; i < sets.size(); ) {
+            WorkoutExercise ex = sets.get(i).getExercise();
+            point.reset();
+            for (; i < sets.size() && sets.get(i).getExercise() == ex; i++) {
+                point.accept(sets.get(i).getWeight(), sets.get(i).getReps());
+            }
+            for (ProgressMetric metric : metrics) {
+                double value = point.value(metric);
+                if (!Double.isNaN(value)) {
+                    int m = metric.ordinal();
+                    days[m][counts[m]] = ex.getSession().getEpochDay();
+                    values[m][counts[m]++] = value;
+                }
+            }
+        }
+
+        Map<ProgressMetric, TimeSeries> series = new EnumMap<>(ProgressMetric.class);
+        for (ProgressMetric metric : metrics) {
+            int m = metric.ordinal();
+            series.put(metric, TimeSeries.of(Arrays.copyOf(days[m], counts[m]),
+                    Arrays.copyOf(values[m], counts[m])));
+        }
+        return series;
+    }
+
+    private static boolean isDated(final WorkoutExercise exercise) {
+        return exercise.getSession() != null && exercise.getSession().getEpochDay() != null;
+    }
+
+    // best set, volume and the highest 1RM estimates of one set string
+    private static final class SetMetrics implements SetParser.SetConsumer {
+        private final SetParser.Stats stats = new SetParser.Stats();
+        private double epley;
+        private double brzycki;
+
+        void reset() {
+            stats.reset();
+            epley = Double.NaN;
+            brzycki = Double.NaN;
+        }
+
+        @Override
+        public void accept(double weight, int reps) {
+            stats.accept(weight, reps);
+            epley = max(epley, ProgressMetric.epley(weight, reps));
+            brzycki = max(brzycki, ProgressMetric.brzycki(weight, reps));
+        }
+
+        double value(ProgressMetric metric) {
+            return switch (metric) {
+                case MAX_WEIGHT -> stats.getBestWeight();
+                case E1RM_EPLEY -> epley;
+                case E1RM_BRZYCKI -> brzycki;
+                case VOLUME -> stats.getVolume();
+                case TOP_SET_REPS -> stats.getBestReps();
+            };
+        }
+
+        // NaN means "no estimate yet", not "poisons the max"
+        private static double max(double current, double candidate) {
+            if (Double.isNaN(candidate)) {
+                return current;
+            }
+            return Double.isNaN(current) ? candidate : Math.max(current, candidate);
+        }
+    }
+
     public List<String> getExerciseNames() throws SQLException {
         return workoutService.getAllExercises().stream()
                 .map(WorkoutExercise::getName)
@@ -53,5 +182,16 @@ public class GraphsService {
                 .sorted()
                 .toList();
     }
-}
 
+    private List<WorkoutSession> sessions(DateRange range) throws SQLException {
+        return range.isAll()
+                ? workoutService.getAllSessions()
+                : workoutService.getSessions(range);
+    }
+
+    private List<WorkoutExercise> exercises(DateRange range) throws SQLException {
+        return range.isAll()
+                ? workoutService.getAllExercises()
+                : workoutService.getExercises(range);
+    }
+}
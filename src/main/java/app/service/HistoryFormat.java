@@ -0,0 +1,29 @@
+package app.service;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+/** File formats for importing and exporting the workout history. */
+public enum HistoryFormat {
+    /** One exercise per row under a {@code date,bodyweight,exercise,sets} header. */
+    CSV("line"),
+    /** One session object per line, or an array of them. */
+    JSON("record");
+
+    private final String unit;
+
+    HistoryFormat(final String unit) {
+        this.unit = unit;
+    }
+
+    /** What an error position counts: CSV lines or JSON records. */
+    String unit() {
+        return unit;
+    }
+
+    /** Format for a file name: {@code .json} and {@code .jsonl} are JSON, the rest CSV. */
+    public static HistoryFormat of(final Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".json") || name.endsWith(".jsonl") ? JSON : CSV;
+    }
+}
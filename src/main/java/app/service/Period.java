@@ -0,0 +1,30 @@
+package app.service;
+
+import app.model.DateRange;
+
+import java.time.LocalDate;
+
+public enum Period {
+    ALL_TIME("All time", 0),
+    LAST_YEAR("Last 12 months", 12),
+    LAST_HALF_YEAR("Last 6 months", 6),
+    LAST_QUARTER("Last 3 months", 3),
+    LAST_MONTH("Last month", 1);
+
+    private final String label;
+    private final int months;
+
+    Period(final String label, final int months) {
+        this.label = label;
+        this.months = months;
+    }
+
+    public DateRange range(final LocalDate today) {
+        return months == 0 ? DateRange.ALL : DateRange.lastMonths(today, months);
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
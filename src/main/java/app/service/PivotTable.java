@@ -0,0 +1,274 @@
+package app.service;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Exercise-by-date matrix for the "all sets" and "best set" statistics.
+ * Cells live in flat row-major arrays indexed by exercise and date
+ * ordinals; text cells reference the stored set strings, best-set cells
+ * are kept as weight/reps and only formatted when a cell is rendered.
+ */
+public final class PivotTable {
+
+    private final int[] exerciseIds;
+    private final String[] exerciseNames;
+    private final String[] searchKeys;
+    private final String[] dates;
+    private final Map<String, Integer> dateColumns;
+    private final String[] text;
+    private final double[] weights;
+    private final int[] reps;
+    private final boolean[] records;
+    private final List<Row> rows;
+
+    private PivotTable(final Builder builder) {
+        int rowCount = builder.names.size();
+        this.exerciseIds = Arrays.copyOf(builder.ids, rowCount);
+        this.exerciseNames = builder.names.toArray(new String[0]);
+        this.searchKeys = new String[rowCount];
+        for (int r = 0; r < rowCount; r++) {
+            searchKeys[r] = exerciseNames[r].toLowerCase();
+        }
+        this.dates = builder.dates;
+        this.dateColumns = new HashMap<>();
+        for (int c = 0; c < dates.length; c++) {
+            dateColumns.put(dates[c], c);
+        }
+        int cellCount = rowCount * dates.length;
+        this.text = builder.typed ? null : Arrays.copyOf(builder.text, cellCount);
+        this.weights = builder.typed ? Arrays.copyOf(builder.weights, cellCount) : null;
+        this.reps = builder.typed ? Arrays.copyOf(builder.reps, cellCount) : null;
+        this.records = builder.typed ? Arrays.copyOf(builder.records, cellCount) : null;
+
+        List<Row> rowViews = new ArrayList<>(rowCount);
+        for (int r = 0; r < rowCount; r++) {
+            rowViews.add(new Row(this, r));
+        }
+        this.rows = List.copyOf(rowViews);
+    }
+
+    public int rowCount() {
+        return exerciseNames.length;
+    }
+
+    public int columnCount() {
+        return dates.length;
+    }
+
+    public String date(final int column) {
+        return dates[column];
+    }
+
+    public List<String> dates() {
+        return List.of(dates);
+    }
+
+    public int exerciseId(final int row) {
+        return exerciseIds[row];
+    }
+
+    public String exerciseName(final int row) {
+        return exerciseNames[row];
+    }
+
+    public String searchKey(final int row) {
+        return searchKeys[row];
+    }
+
+    /** Cell text, or null when the exercise was not done on that date. */
+    public String cell(final int row, final int column) {
+        int i = row * dates.length + column;
+        if (text != null) {
+            return text[i];
+        }
+        if (Double.isNaN(weights[i])) {
+            return null;
+        }
+        return reps[i] < 0 ? "" : SetParser.formatSet(weights[i], reps[i]);
+    }
+
+    /** True when the cell holds the exercise's all-time best set. */
+    public boolean isPersonalRecord(final int row, final int column) {
+        return records != null && records[row * dates.length + column];
+    }
+
+    public List<Row> rows() {
+        return rows;
+    }
+
+    /**
+     * One table row. Reads go straight to the matrix; the map view keeps
+     * key-based columns ("id", "name", date strings) working.
+     */
+    public static final class Row extends AbstractMap<String, Object> {
+        private final PivotTable table;
+        private final int row;
+
+        private Row(final PivotTable table, final int row) {
+            this.table = table;
+            this.row = row;
+        }
+
+        public int index() {
+            return row;
+        }
+
+        public String cell(final int column) {
+            return table.cell(row, column);
+        }
+
+        public String searchKey() {
+            return table.searchKey(row);
+        }
+
+        public boolean isPersonalRecord(final int column) {
+            return table.isPersonalRecord(row, column);
+        }
+
+        @Override
+        public Object get(final Object key) {
+            if ("id".equals(key)) {
+                return table.exerciseId(row);
+            }
+            if ("name".equals(key)) {
+                return table.exerciseName(row);
+            }
+            Integer column = table.dateColumns.get(key);
+            return column == null ? null : table.cell(row, column);
+        }
+
+        @Override
+        public boolean containsKey(final Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    List<Entry<String, Object>> entries = new ArrayList<>();
+                    entries.add(new SimpleImmutableEntry<>("id", table.exerciseId(row)));
+                    entries.add(new SimpleImmutableEntry<>("name", table.exerciseName(row)));
+                    for (int c = 0; c < table.columnCount(); c++) {
+                        var value = table.cell(row, c);
+                        if (value != null) {
+                            entries.add(new SimpleImmutableEntry<>(table.date(c), value));
+                        }
+                    }
+                    return entries.iterator();
+                }
+
+                @Override
+                public int size() {
+                    int size = 2;
+                    for (int c = 0; c < table.columnCount(); c++) {
+                        if (table.cell(row, c) != null) {
+                            size++;
+                        }
+                    }
+                    return size;
+                }
+            };
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            return this == o;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this);
+        }
+    }
+
+    static Builder builder(final String[] dates, final boolean typed) {
+        return new Builder(dates, typed);
+    }
+
+    static final class Builder {
+        private final String[] dates;
+        private final boolean typed;
+        private final Map<String, Integer> rowByName = new HashMap<>();
+        private final List<String> names = new ArrayList<>();
+        private int[] ids = new int[16];
+        private String[] text;
+        private double[] weights;
+        private int[] reps;
+        private boolean[] records;
+
+        private Builder(final String[] dates, final boolean typed) {
+            this.dates = dates;
+            this.typed = typed;
+            int capacity = 16 * Math.max(1, dates.length);
+            if (typed) {
+                weights = new double[capacity];
+                Arrays.fill(weights, Double.NaN);
+                reps = new int[capacity];
+                records = new boolean[capacity];
+            } else {
+                text = new String[capacity];
+            }
+        }
+
+        /** Row ordinal for {@code name}, added on first sight with {@code id}. */
+        int row(final String name, final int id) {
+            Integer existing = rowByName.get(name);
+            if (existing != null) {
+                return existing;
+            }
+            int row = names.size();
+            names.add(name);
+            rowByName.put(name, row);
+            ensureRows(row + 1);
+            ids[row] = id;
+            return row;
+        }
+
+        void text(final int row, final int column, final String value) {
+            text[row * dates.length + column] = value;
+        }
+
+        /** Best set for a cell; {@code reps < 0} marks a cell with no sets. */
+        void best(final int row, final int column, final double weight, final int reps) {
+            int i = row * dates.length + column;
+            this.weights[i] = weight;
+            this.reps[i] = reps;
+        }
+
+        void personalRecord(final int row, final int column) {
+            records[row * dates.length + column] = true;
+        }
+
+        PivotTable build() {
+            return new PivotTable(this);
+        }
+
+        private void ensureRows(final int rowCount) {
+            if (rowCount <= ids.length) {
+                return;
+            }
+            int newRows = Math.max(rowCount, ids.length * 2);
+            ids = Arrays.copyOf(ids, newRows);
+            int cells = newRows * Math.max(1, dates.length);
+            if (typed) {
+                int old = weights.length;
+                weights = Arrays.copyOf(weights, cells);
+                Arrays.fill(weights, old, cells, Double.NaN);
+                reps = Arrays.copyOf(reps, cells);
+                records = Arrays.copyOf(records, cells);
+            } else {
+                text = Arrays.copyOf(text, cells);
+            }
+        }
+    }
+}
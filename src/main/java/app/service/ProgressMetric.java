@@ -0,0 +1,40 @@
+package app.service;
+
+/** Per-session values the progress chart can plot for an exercise. */
+public enum ProgressMetric {
+    MAX_WEIGHT("Max weight (kg)"),
+    E1RM_EPLEY("Est. 1RM, Epley (kg)"),
+    E1RM_BRZYCKI("Est. 1RM, Brzycki (kg)"),
+    VOLUME("Volume (kg)"),
+    TOP_SET_REPS("Top set reps");
+
+    // Brzycki divides by 37 - reps and is meaningless well before that
+    private static final int BRZYCKI_MAX_REPS = 36;
+
+    private final String label;
+
+    ProgressMetric(final String label) {
+        this.label = label;
+    }
+
+    /** weight x (1 + reps / 30); a single is its own max. */
+    public static double epley(final double weight, final int reps) {
+        if (reps <= 0) {
+            return Double.NaN;
+        }
+        return reps == 1 ? weight : weight * (1 + reps / 30.0);
+    }
+
+    /** weight x 36 / (37 - reps); NaN past 36 reps. */
+    public static double brzycki(final double weight, final int reps) {
+        if (reps <= 0 || reps > BRZYCKI_MAX_REPS) {
+            return Double.NaN;
+        }
+        return weight * 36.0 / (37 - reps);
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -1,29 +1,222 @@
 package app.service;
 
+/**
+ * Parses set strings such as {@code "100x5-102.5x3"} in a single pass.
+ * Well-formed sets are read straight from the chars; anything unusual
+ * falls back to the split/parseDouble rules so results never change.
+ */
 public class SetParser {
+
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final int MAX_FAST_DIGITS = 18;
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    @FunctionalInterface
+    public interface SetConsumer {
+        void accept(double weight, int reps);
+    }
+
+    /** Best set, volume and count of a set string, reusable across calls. */
+    public static final class Stats implements SetConsumer {
+        private double bestWeight;
+        private int bestReps;
+        private double volume;
+        private int count;
+
+        public Stats() {
+            reset();
+        }
+
+        public void reset() {
+            bestWeight = -1;
+            bestReps = -1;
+            volume = 0;
+            count = 0;
+        }
+
+        @Override
+        public void accept(double weight, int reps) {
+            if (weight > bestWeight
+                    || (Double.compare(weight, bestWeight) == 0 && reps > bestReps)) {
+                bestWeight = weight;
+                bestReps = reps;
+            }
+            volume += weight * reps;
+            count++;
+        }
+
+        public double getBestWeight() {
+            return bestWeight;
+        }
+
+        public int getBestReps() {
+            return bestReps;
+        }
+
+        public double getVolume() {
+            return volume;
+        }
+
+        public int getCount() {
+            return count;
+        }
+    }
+
+    private interface Sink {
+        void accept(String sets, int start, int x, double weight, int reps);
+    }
+
+    private static final class BestSet implements Sink {
+        private double weight = -1;
+        private int reps = -1;
+        private int start = -1;
+        private int x;
+
+        @Override
+        public void accept(String sets, int start, int x, double weight, int reps) {
+            if (weight > this.weight
+                    || (Double.compare(weight, this.weight) == 0 && reps > this.reps)) {
+                this.weight = weight;
+                this.reps = reps;
+                this.start = start;
+                this.x = x;
+            }
+        }
+    }
+
     public static String pickBestSet(String sets) {
-        if (sets == null || sets.isBlank()) return "";
+        var best = new BestSet();
+        scan(sets, best);
+        if (best.start < 0) return "";
+        return sets.substring(best.start, best.x) + "x" + best.reps;
+    }
 
-        var best = "";
-        double bestW = -1;
-        int bestR = -1;
+    public static void forEachSet(String sets, SetConsumer consumer) {
+        scan(sets, (s, start, x, weight, reps) -> consumer.accept(weight, reps));
+    }
 
-        for (String part : sets.split("-")) {
-            String[] wr = part.split("x");
-            if (wr.length != 2) continue;
+    public static Stats summarize(String sets, Stats into) {
+        into.reset();
+        forEachSet(sets, into);
+        return into;
+    }
+
+    public static double bestWeight(String sets) {
+        return summarize(sets, new Stats()).getBestWeight();
+    }
+
+    public static double totalVolume(String sets) {
+        return summarize(sets, new Stats()).getVolume();
+    }
+
+    public static int setCount(String sets) {
+        return summarize(sets, new Stats()).getCount();
+    }
 
-            try {
-                double w = Double.parseDouble(wr[0]);
-                int r = Integer.parseInt(wr[1]);
+    /**
+     * True when the string holds at least one set and every non-empty
+     * token between dashes parses as a set.
+     */
+    public static boolean isValid(String sets) {
+        if (sets == null || sets.isBlank()) return false;
 
-                if (w > bestW || (Double.compare(w, bestW) == 0 && r > bestR)) {
-                    bestW = w;
-                    bestR = r;
-                    best = wr[0] + "x" + r;
+        int tokens = 0;
+        int start = 0;
+        int len = sets.length();
+        while (start <= len) {
+            int end = sets.indexOf('-', start);
+            if (end < 0) end = len;
+            if (end > start) tokens++;
+            start = end + 1;
+        }
+        return tokens == setCount(sets);
+    }
+
+    public static String formatSet(double weight, int reps) {
+        if (weight == Math.rint(weight) && Math.abs(weight) < 1e15) {
+            return (long) weight + "x" + reps;
+        }
+        return weight + "x" + reps;
+    }
+
+    private static void scan(String sets, Sink sink) {
+        if (sets == null || sets.isBlank()) return;
+
+        int len = sets.length();
+        int start = 0;
+        while (start <= len) {
+            int end = sets.indexOf('-', start);
+            if (end < 0) end = len;
+            if (end > start) {
+                parseSet(sets, start, end, sink);
+            }
+            start = end + 1;
+        }
+    }
+
+    private static void parseSet(String s, int start, int end, Sink sink) {
+        long mantissa = 0;
+        int digits = 0;
+        int fraction = -1;
+        int i = start;
+        for (; i < end; i++) {
+            char c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (digits < MAX_FAST_DIGITS) {
+                    mantissa = mantissa * 10 + (c - '0');
                 }
-            } catch (NumberFormatException ignore) {
+                digits++;
+                if (fraction >= 0) fraction++;
+            } else if (c == '.' && fraction < 0) {
+                fraction = 0;
+            } else {
+                break;
+            }
+        }
+        if (digits == 0 || digits > MAX_FAST_DIGITS || i == end || s.charAt(i) != 'x') {
+            parseSlow(s, start, end, sink);
+            return;
+        }
+
+        int x = i++;
+        long reps = 0;
+        int repDigits = 0;
+        for (; i < end; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') break;
+            if (reps <= Integer.MAX_VALUE) {
+                reps = reps * 10 + (c - '0');
             }
+            repDigits++;
+        }
+        if (repDigits == 0 || i != end) {
+            parseSlow(s, start, end, sink);
+            return;
+        }
+        if (reps > Integer.MAX_VALUE) return;
+
+        double weight;
+        if (mantissa < MAX_EXACT_MANTISSA && fraction < POW10.length) {
+            weight = fraction <= 0 ? mantissa : mantissa / POW10[fraction];
+        } else {
+            weight = Double.parseDouble(s.substring(start, x));
+        }
+        sink.accept(s, start, x, weight, (int) reps);
+    }
+
+    // Odd tokens ("+5", "1e2", "100x5x", surrounding spaces) keep the old rules.
+    private static void parseSlow(String s, int start, int end, Sink sink) {
+        String[] wr = s.substring(start, end).split("x");
+        if (wr.length != 2) return;
+
+        try {
+            double w = Double.parseDouble(wr[0]);
+            int r = Integer.parseInt(wr[1]);
+            sink.accept(s, start, start + wr[0].length(), w, r);
+        } catch (NumberFormatException ignore) {
         }
-        return best;
     }
 }
@@ -0,0 +1,371 @@
+package app.service;
+
+import app.model.ExerciseWithSets;
+import app.model.Workout;
+import app.model.WorkoutExercise;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Binary snapshot of the whole history, for backups and fast restores.
+ *
+ * <p>Layout (version 1, big-endian): a 20-byte header holding the magic
+ * {@code WKSN}, the format version, a reserved short, the payload length
+ * and the payload's CRC32. The payload is a table of exercise names
+ * followed by the sessions, undated ones first, then in date order, all
+ * read from one database snapshot. Each dated session stores its epoch
+ * day as a delta from the previous one and its exercises as name
+ * indices. Sets are packed as weight/reps pairs; weights exact to the
+ * hundredth are varints of hundredths, others raw doubles. Set strings
+ * that packing would not reproduce exactly are kept verbatim. Sessions
+ * are restored at the start of their day.
+ */
+public final class SnapshotArchive {
+
+    /** Sessions and exercises in the snapshot, and its size on disk. */
+    public record Result(long sessions, long exercises, long bytes) {}
+
+    static final int MAGIC = 0x574B534E; // "WKSN"
+    static final short VERSION = 1;
+    static final int HEADER_BYTES = 20;
+
+    private static final int HAS_DATE = 1;
+    private static final int RAW_SETS = 1;
+    private static final int EXACT_WEIGHT = 0;
+    private static final int RAW_WEIGHT = 1;
+    private static final double WEIGHT_SCALE = 100;
+    private static final long MAX_SCALED_WEIGHT = 1L << 52;
+
+    private final WorkoutService service;
+
+    public SnapshotArchive(final WorkoutService service) {
+        this.service = service;
+    }
+
+    /** Writes every session to {@code file}, replacing it only once complete. */
+    public Result write(final Path file) throws IOException, SQLException {
+        var payload = encode();
+        var crc = new CRC32();
+        crc.update(payload.bytes, 0, payload.size);
+
+        Path target = file.toAbsolutePath();
+        Path partial = Files.createTempFile(target.getParent(),
+                target.getFileName() + ".", ".part");
+        try {
+            long size = HEADER_BYTES + (long) payload.size;
+            try (FileChannel channel = FileChannel.open(partial, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                out.putInt(MAGIC)
+                        .putShort(VERSION)
+                        .putShort((short) 0)
+                        .putLong(payload.size)
+                        .putInt((int) crc.getValue())
+                        .put(payload.bytes, 0, payload.size);
+                out.force();
+            }
+            try {
+                Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return new Result(payload.sessions, payload.exercises, size);
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+    }
+
+    /**
+     * Loads a snapshot into the current database in one transaction.
+     *
+     * @throws IllegalStateException if the database already has sessions
+     */
+    public Result restore(final Path file) throws IOException, SQLException {
+        List<Workout> workouts;
+        long size;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            size = channel.size();
+            if (size < HEADER_BYTES) {
+                throw new IOException("Not a workout snapshot: " + file);
+            }
+            workouts = read(channel.map(FileChannel.MapMode.READ_ONLY, 0, size), file);
+        }
+        service.restoreWorkouts(workouts);
+        long exercises = 0;
+        for (Workout workout : workouts) {
+            exercises += workout.exercises().size();
+        }
+        return new Result(workouts.size(), exercises, size);
+    }
+
+    static List<Workout> read(final ByteBuffer in, final Path file) throws IOException {
+        if (in.getInt() != MAGIC) {
+            throw new IOException("Not a workout snapshot: " + file);
+        }
+        short version = in.getShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported snapshot version " + version + ": " + file);
+        }
+        in.getShort();
+        long length = in.getLong();
+        int crc = in.getInt();
+        if (length != in.remaining()) {
+            throw new IOException("Truncated snapshot: " + file);
+        }
+        var checksum = new CRC32();
+        checksum.update(in.slice());
+        if ((int) checksum.getValue() != crc) {
+            throw new IOException("Snapshot checksum mismatch: " + file);
+        }
+        try {
+            return decode(in);
+        } catch (BufferUnderflowException | IllegalArgumentException
+                 | IndexOutOfBoundsException e) {
+            throw new IOException("Corrupt snapshot: " + file, e);
+        }
+    }
+
+    // --- encoding
+
+    private Payload encode() throws SQLException {
+        var body = new Payload();
+        Map<String, Integer> names = new HashMap<>();
+        List<String> nameTable = new ArrayList<>();
+        service.forEachWorkout((session, exercises) -> {
+            boolean hasDate = session.getEpochDay() != null;
+            body.putVarint(((long) exercises.size() << 1) | (hasDate ? HAS_DATE : 0));
+            if (hasDate) {
+                body.putDay(session.getEpochDay());
+            }
+            body.putWeight(session.getBodyweight());
+            for (WorkoutExercise exercise : exercises) {
+                String name = exercise.getName();
+                int index = 0;
+                if (name != null) {
+                    index = names.computeIfAbsent(name, n -> {
+                        nameTable.add(n);
+                        return nameTable.size();
+                    });
+                }
+                body.putVarint(index);
+                body.putSets(exercise.getSetsString());
+            }
+            body.sessions++;
+            body.exercises += exercises.size();
+        });
+
+        var payload = new Payload();
+        payload.putVarint(nameTable.size());
+        for (String name : nameTable) {
+            payload.putString(name);
+        }
+        payload.putVarint(body.sessions);
+        payload.put(body);
+        payload.sessions = body.sessions;
+        payload.exercises = body.exercises;
+        return payload;
+    }
+
+    /** Growable byte buffer with the snapshot's primitive encodings. */
+    private static final class Payload {
+        private byte[] bytes = new byte[1 << 16];
+        private int size;
+        private long sessions;
+        private long exercises;
+        private long day;
+
+        void putVarint(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        void putZigZag(final long value) {
+            putVarint((value << 1) ^ (value >> 63));
+        }
+
+        // epoch days as deltas from the previous dated session
+        void putDay(final long epochDay) {
+            putZigZag(epochDay - day);
+            day = epochDay;
+        }
+
+        void putDouble(final double value) {
+            ensure(8);
+            long bits = Double.doubleToRawLongBits(value);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                bytes[size++] = (byte) (bits >>> shift);
+            }
+        }
+
+        void putWeight(final double weight) {
+            double scaled = weight * WEIGHT_SCALE;
+            if (scaled == Math.rint(scaled) && Math.abs(scaled) < MAX_SCALED_WEIGHT
+                    && ((long) scaled) / WEIGHT_SCALE == weight
+                    && Double.doubleToRawLongBits(weight) != Double.doubleToRawLongBits(-0.0)) {
+                putZigZag(((long) scaled << 1) | EXACT_WEIGHT);
+            } else {
+                putZigZag(RAW_WEIGHT);
+                putDouble(weight);
+            }
+        }
+
+        // the sets count, or verbatim text when packing would change the string
+        void putSets(final String sets) {
+            List<double[]> parsed = new ArrayList<>();
+            SetParser.forEachSet(sets, (weight, reps) -> parsed.add(new double[] {weight, reps}));
+            if (sets == null || !sets.equals(canonical(parsed))) {
+                putVarint(RAW_SETS);
+                putString(sets);
+                return;
+            }
+            putVarint((long) parsed.size() << 1);
+            for (double[] set : parsed) {
+                putWeight(set[0]);
+                putZigZag((long) set[1]);
+            }
+        }
+
+        // null is stored as length 0, other strings as length + 1
+        void putString(final String value) {
+            if (value == null) {
+                putVarint(0);
+                return;
+            }
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            putVarint(utf8.length + 1L);
+            ensure(utf8.length);
+            System.arraycopy(utf8, 0, bytes, size, utf8.length);
+            size += utf8.length;
+        }
+
+        void put(final Payload other) {
+            ensure(other.size);
+            System.arraycopy(other.bytes, 0, bytes, size, other.size);
+            size += other.size;
+        }
+
+        private void ensure(final int extra) {
+            if (size + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+            }
+        }
+    }
+
+    // --- decoding
+
+    private static List<Workout> decode(final ByteBuffer in) {
+        int nameCount = Math.toIntExact(getVarint(in));
+        String[] names = new String[nameCount + 1];
+        for (int i = 1; i <= nameCount; i++) {
+            names[i] = getString(in);
+        }
+        long sessionCount = getVarint(in);
+        List<Workout> workouts = new ArrayList<>((int) Math.min(sessionCount, 1 << 20));
+        long day = 0;
+        for (long s = 0; s < sessionCount; s++) {
+            long header = getVarint(in);
+            Date date = null;
+            if ((header & HAS_DATE) != 0) {
+                day += getZigZag(in);
+                date = Date.from(LocalDate.ofEpochDay(day)
+                        .atStartOfDay(ZoneId.systemDefault()).toInstant());
+            }
+            double bodyweight = getWeight(in);
+            int exerciseCount = Math.toIntExact(header >>> 1);
+            List<ExerciseWithSets> exercises = new ArrayList<>(exerciseCount);
+            for (int e = 0; e < exerciseCount; e++) {
+                String name = names[Math.toIntExact(getVarint(in))];
+                exercises.add(new ExerciseWithSets(name, getSets(in)));
+            }
+            workouts.add(new Workout(date, bodyweight, exercises));
+        }
+        if (in.hasRemaining()) {
+            throw new IllegalArgumentException("trailing bytes");
+        }
+        return workouts;
+    }
+
+    private static String getSets(final ByteBuffer in) {
+        long header = getVarint(in);
+        if ((header & RAW_SETS) != 0) {
+            return getString(in);
+        }
+        List<double[]> sets = new ArrayList<>();
+        for (long i = header >>> 1; i > 0; i--) {
+            double weight = getWeight(in);
+            sets.add(new double[] {weight, getZigZag(in)});
+        }
+        return canonical(sets);
+    }
+
+    private static double getWeight(final ByteBuffer in) {
+        long packed = getZigZag(in);
+        if ((packed & RAW_WEIGHT) != 0) {
+            return in.getDouble();
+        }
+        return (packed >> 1) / WEIGHT_SCALE;
+    }
+
+    private static String getString(final ByteBuffer in) {
+        int length = Math.toIntExact(getVarint(in));
+        if (length == 0) {
+            return null;
+        }
+        byte[] utf8 = new byte[length - 1];
+        in.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    private static long getVarint(final ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("varint too long");
+    }
+
+    private static long getZigZag(final ByteBuffer in) {
+        long value = getVarint(in);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static String canonical(final List<double[]> sets) {
+        var sb = new StringBuilder();
+        for (double[] set : sets) {
+            if (!sb.isEmpty()) {
+                sb.append('-');
+            }
+            sb.append(SetParser.formatSet(set[0], (int) set[1]));
+        }
+        return sb.toString();
+    }
+}
@@ -1,17 +1,20 @@
 package app.service;
 
+import app.model.DailyRecord;
+import app.model.DateRange;
+import app.model.PersonalRecord;
+import app.model.VolumeRollup;
 import app.model.WorkoutExercise;
 import app.model.WorkoutSession;
 
 import java.sql.SQLException;
-import java.text.SimpleDateFormat;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
-import java.util.TreeSet;
-import java.util.stream.Collectors;
+import java.util.Objects;
 
 
 public final class StatisticsService {
@@ -22,8 +25,17 @@ public final class StatisticsService {
         this.workoutService = workoutService;
     }
 
+    public long getDataVersion() {
+        return workoutService.getDataVersion();
+    }
+
     public List<Map<String, Object>> getBodyweightByDate() throws SQLException {
-        var sessions = workoutService.getAllSessions();
+        return getBodyweightByDate(DateRange.ALL);
+    }
+
+    public List<Map<String, Object>> getBodyweightByDate(
+            final DateRange range) throws SQLException {
+        var sessions = sessions(range);
         List<Map<String, Object>> rows = new ArrayList<>();
 
         for (WorkoutSession session : sessions) {
@@ -36,85 +48,101 @@ public final class StatisticsService {
         return rows;
     }
 
-    public List<Map<String, Object>> getAllExercisesAllSets(
-            final String query) throws SQLException {
-        List<WorkoutExercise> filtered = filterExercisesByName(
-                workoutService.getAllExercises(), query);
-        List<WorkoutSession> sessions = workoutService.getAllSessions();
-
-        SimpleDateFormat df = new SimpleDateFormat("yyyy-MM-dd");
-        Set<String> dates = sessions.stream()
-                .map(s -> df.format(s.getDate()))
-                .collect(Collectors.toCollection(TreeSet::new));
-
-        Map<String, List<WorkoutExercise>> byName = filtered.stream()
-                .collect(Collectors.groupingBy(WorkoutExercise::getName));
-
-        List<Map<String, Object>> rows = new ArrayList<>();
-        for (var entry : byName.entrySet()) {
-            List<WorkoutExercise> exList = entry.getValue();
-            Map<String, Object> row = new HashMap<>();
-            row.put("id", exList.get(0).getId());
-            row.put("name", entry.getKey());
-
-            for (WorkoutExercise ex : exList) {
-                String dateStr = df.format(ex.getSession().getDate());
-                row.put(dateStr, ex.getSetsString());
+    public PivotTable getAllSetsPivot(final DateRange range) throws SQLException {
+        var days = sessionDays(range);
+        var pivot = PivotTable.builder(labels(days), false);
+        for (WorkoutExercise ex : exercises(range)) {
+            int column = column(days, ex);
+            if (column >= 0) {
+                pivot.text(pivot.row(ex.getName(), ex.getId()), column, ex.getSetsString());
             }
-            rows.add(row);
         }
-        return rows;
+        return pivot.build();
     }
 
-    public List<Map<String, Object>> getAllExercisesBestSet(
-            final String query) throws SQLException {
-        var filtered = filterExercisesByName(
-                workoutService.getAllExercises(), query);
-        var sessions = workoutService.getAllSessions();
+    /**
+     * Best set per exercise and day, read from the daily records projection;
+     * cells holding an all-time best are flagged.
+     */
+    public PivotTable getBestSetPivot(final DateRange range) throws SQLException {
+        var days = sessionDays(range);
+        var records = workoutService.getPersonalRecords();
+        var pivot = PivotTable.builder(labels(days), true);
+        for (DailyRecord day : workoutService.getDailyRecords(range)) {
+            int column = Arrays.binarySearch(days, day.epochDay());
+            if (column < 0) {
+                continue;
+            }
+            int row = pivot.row(day.name(), day.exerciseId());
+            pivot.best(row, column, day.bestWeight(), day.bestReps());
+            var record = records.get(day.name());
+            if (record != null && record.bestDay() == day.epochDay()) {
+                pivot.personalRecord(row, column);
+            }
+        }
+        return pivot.build();
+    }
 
-        SimpleDateFormat df = new SimpleDateFormat("yyyy-MM-dd");
-        Set<String> dates = sessions.stream()
-                .map(s -> df.format(s.getDate()))
-                .collect(Collectors.toCollection(TreeSet::new));
+    public Map<String, PersonalRecord> getPersonalRecords() throws SQLException {
+        return workoutService.getPersonalRecords();
+    }
 
-        Map<String, List<WorkoutExercise>> byName = filtered.stream()
-                .collect(Collectors.groupingBy(WorkoutExercise::getName));
+    public void rebuildPersonalRecords() throws SQLException {
+        workoutService.rebuildPersonalRecords();
+    }
 
+    /** Tonnage, sets and sessions per muscle group and exercise, read from the rollups. */
+    public List<Map<String, Object>> getVolumeRollups(
+            final VolumeRollup.Bucket bucket, final DateRange range) throws SQLException {
         List<Map<String, Object>> rows = new ArrayList<>();
-        for (var entry : byName.entrySet()) {
-            List<WorkoutExercise> exList = entry.getValue();
+        for (VolumeRollup rollup : workoutService.getVolumeRollups(bucket, range)) {
             Map<String, Object> row = new HashMap<>();
-            row.put("id", exList.get(0).getId());
-            row.put("name", entry.getKey());
-
-            for (WorkoutExercise ex : exList) {
-                String dateStr = df.format(ex.getSession().getDate());
-                row.put(dateStr, SetParser.pickBestSet(ex.getSetsString()));
-            }
+            row.put("period", rollup.periodLabel());
+            row.put("group", rollup.group() == VolumeRollup.Group.MUSCLE ? "Muscle" : "Exercise");
+            row.put("name", rollup.name());
+            row.put("tonnage", rollup.tonnage());
+            row.put("sets", rollup.setCount());
+            row.put("sessions", rollup.sessions());
             rows.add(row);
         }
         return rows;
     }
 
+    public void rebuildVolumeRollups() throws SQLException {
+        workoutService.rebuildVolumeRollups();
+    }
+
     public List<Map<String, Object>> getAllSessionsSummary(
             final String query) throws SQLException {
-        List<WorkoutSession> sessions = workoutService.getAllSessions();
-        List<WorkoutExercise> exercises = workoutService.getAllExercises();
+        return getAllSessionsSummary(query, DateRange.ALL);
+    }
+
+    public List<Map<String, Object>> getAllSessionsSummary(
+            final String query, final DateRange range) throws SQLException {
+        List<WorkoutSession> sessions = sessions(range);
+        List<WorkoutExercise> exercises = exercises(range);
+        String needle = query == null || query.isBlank() ? null : query.toLowerCase();
+
+        // group once by session id instead of rescanning exercises per session
+        Map<Integer, List<WorkoutExercise>> bySession = new HashMap<>();
+        for (WorkoutExercise exercise : exercises) {
+            if (exercise.getSession() == null) {
+                continue;
+            }
+            if (needle != null && !exercise.getName().toLowerCase().contains(needle)) {
+                continue;
+            }
+            bySession.computeIfAbsent(exercise.getSession().getId(), id -> new ArrayList<>())
+                    .add(exercise);
+        }
 
         List<Map<String, Object>> rows = new ArrayList<>();
         for (WorkoutSession session : sessions) {
-            for (WorkoutExercise exercise : exercises) {
-                if (exercise.getSession() == null
-                        || exercise.getSession().getId() != session.getId()) {
-                    continue;
-                }
-                if (query != null && !query.isBlank()
-                        && !exercise.getName()
-                        .toLowerCase()
-                        .contains(query.toLowerCase())) {
-                    continue;
-                }
-
+            List<WorkoutExercise> group = bySession.get(session.getId());
+            if (group == null) {
+                continue;
+            }
+            for (WorkoutExercise exercise : group) {
                 Map<String, Object> row = new HashMap<>();
                 row.put("sid", session.getId());
                 row.put("date", session.getDate());
@@ -126,25 +154,40 @@ public final class StatisticsService {
         return rows;
     }
 
-    public Set<String> getAllDates() throws SQLException {
-        var sessions = workoutService.getAllSessions();
-        var df = new SimpleDateFormat("yyyy-MM-dd");
-        return sessions.stream()
-                .map(s -> df.format(s.getDate()))
-                .collect(Collectors.toCollection(TreeSet::new));
+    private long[] sessionDays(final DateRange range) throws SQLException {
+        return sessions(range).stream()
+                .map(WorkoutSession::getEpochDay)
+                .filter(Objects::nonNull)
+                .mapToLong(Long::longValue)
+                .sorted()
+                .distinct()
+                .toArray();
+    }
+
+    private static String[] labels(final long[] days) {
+        var labels = new String[days.length];
+        for (int i = 0; i < days.length; i++) {
+            labels[i] = LocalDate.ofEpochDay(days[i]).toString();
+        }
+        return labels;
     }
 
-    private List<WorkoutExercise> filterExercisesByName(
-            final List<WorkoutExercise> exercises,
-            final String query) {
-        if (query == null || query.isBlank()) {
-            return exercises;
+    private static int column(final long[] days, final WorkoutExercise exercise) {
+        if (exercise.getSession() == null || exercise.getSession().getEpochDay() == null) {
+            return -1;
         }
-        var lowerQuery = query.toLowerCase();
-        return exercises.stream()
-                .filter(ex -> ex.getName()
-                        .toLowerCase()
-                        .contains(lowerQuery))
-                .toList();
+        return Arrays.binarySearch(days, exercise.getSession().getEpochDay());
+    }
+
+    private List<WorkoutSession> sessions(final DateRange range) throws SQLException {
+        return range.isAll()
+                ? workoutService.getAllSessions()
+                : workoutService.getSessions(range);
+    }
+
+    private List<WorkoutExercise> exercises(final DateRange range) throws SQLException {
+        return range.isAll()
+                ? workoutService.getAllExercises()
+                : workoutService.getExercises(range);
     }
 }
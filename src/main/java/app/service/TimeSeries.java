@@ -0,0 +1,175 @@
+package app.service;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+/**
+ * Chart points sorted by x (an epoch day) in two primitive arrays, with
+ * Largest-Triangle-Three-Buckets downsampling so a plot never holds more
+ * points than it has pixels. Immutable.
+ */
+public final class TimeSeries {
+
+    public static final TimeSeries EMPTY = new TimeSeries(new double[0], new double[0]);
+
+    private static final int MIN_THRESHOLD = 3;
+
+    private final double[] x;
+    private final double[] y;
+
+    private TimeSeries(final double[] x, final double[] y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    /** Copies the points and sorts them by x; points on the same x keep their order. */
+    public static TimeSeries of(final double[] x, final double[] y) {
+        if (x.length != y.length) {
+            throw new IllegalArgumentException("x and y differ in length");
+        }
+        if (isSorted(x)) {
+            return new TimeSeries(x.clone(), y.clone());
+        }
+        Integer[] order = IntStream.range(0, x.length).boxed().toArray(Integer[]::new);
+        Arrays.sort(order, Comparator.comparingDouble(i -> x[i]));
+        double[] sortedX = new double[x.length];
+        double[] sortedY = new double[y.length];
+        for (int i = 0; i < order.length; i++) {
+            sortedX[i] = x[order[i]];
+            sortedY[i] = y[order[i]];
+        }
+        return new TimeSeries(sortedX, sortedY);
+    }
+
+    private static boolean isSorted(final double[] x) {
+        for (int i = 1; i < x.length; i++) {
+            if (x[i] < x[i - 1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int size() {
+        return x.length;
+    }
+
+    public boolean isEmpty() {
+        return x.length == 0;
+    }
+
+    public double x(final int i) {
+        return x[i];
+    }
+
+    public double y(final int i) {
+        return y[i];
+    }
+
+    public double minX() {
+        return x[0];
+    }
+
+    public double maxX() {
+        return x[x.length - 1];
+    }
+
+    /**
+     * At most {@code threshold} points covering {@code [fromX, toX]}. The
+     * nearest point beyond each end is included so the line runs to the
+     * edges of the plot. When the window holds more points, the first and
+     * last are kept and every bucket in between keeps the point spanning
+     * the largest triangle with the previous pick and the next bucket's
+     * average, which preserves peaks and dips.
+     */
+    public TimeSeries downsample(final double fromX, final double toX, final int threshold) {
+        int from = Math.max(0, lowerBound(fromX) - 1);
+        int to = Math.min(x.length, upperBound(toX) + 1);
+        int count = to - from;
+        int limit = Math.max(MIN_THRESHOLD, threshold);
+        if (count <= limit) {
+            return from == 0 && to == x.length
+                    ? this
+                    : new TimeSeries(Arrays.copyOfRange(x, from, to),
+                    Arrays.copyOfRange(y, from, to));
+        }
+
+        double[] outX = new double[limit];
+        double[] outY = new double[limit];
+        outX[0] = x[from];
+        outY[0] = y[from];
+        int buckets = limit - 2;
+        int picked = from;
+        for (int b = 0; b < buckets; b++) {
+            int bucketStart = bucketEdge(from, count, buckets, b);
+            int bucketEnd = bucketEdge(from, count, buckets, b + 1);
+            int nextEnd = Math.min(bucketEdge(from, count, buckets, b + 2), to);
+
+            double avgX = 0;
+            double avgY = 0;
+            for (int i = bucketEnd; i < nextEnd; i++) {
+                avgX += x[i];
+                avgY += y[i];
+            }
+            int next = nextEnd - bucketEnd;
+            avgX /= next;
+            avgY /= next;
+
+            double ax = x[picked];
+            double ay = y[picked];
+            double maxArea = -1;
+            int best = bucketStart;
+            for (int i = bucketStart; i < bucketEnd; i++) {
+                // twice the triangle area; only the comparison matters
+                double area = Math.abs((ax - avgX) * (y[i] - ay) - (ax - x[i]) * (avgY - ay));
+                if (area > maxArea) {
+                    maxArea = area;
+                    best = i;
+                }
+            }
+            outX[b + 1] = x[best];
+            outY[b + 1] = y[best];
+            picked = best;
+        }
+        outX[limit - 1] = x[to - 1];
+        outY[limit - 1] = y[to - 1];
+        return new TimeSeries(outX, outY);
+    }
+
+    // the inner points are split evenly; integer math keeps the last edge exact
+    private static int bucketEdge(final int from, final int count, final int buckets,
+                                  final int bucket) {
+        return from + 1 + (int) ((long) bucket * (count - 2) / buckets);
+    }
+
+    // first index with x >= value
+    private int lowerBound(final double value) {
+        int lo = 0;
+        int hi = x.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (x[mid] < value) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    // first index with x > value
+    private int upperBound(final double value) {
+        int lo = 0;
+        int hi = x.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (x[mid] <= value) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,99 @@
+package app.service;
+
+import app.model.Exercise;
+import app.model.VolumeRollup;
+import app.model.VolumeRollup.Bucket;
+import app.model.VolumeRollup.Group;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Folds per-session exercise totals into weekly and monthly rollups, per
+ * exercise name and per muscle group. A muscle is credited with the full
+ * tonnage and sets of every exercise that works it; frequency counts each
+ * exercise or muscle once per session. Names missing from the catalog
+ * only get an exercise rollup.
+ */
+public final class VolumeAggregator {
+
+    private record Key(Bucket bucket, long start, Group group, String name) {}
+
+    private static final class Totals {
+        private double tonnage;
+        private int sets;
+        private int sessions;
+    }
+
+    private final ExerciseCatalog catalog;
+    private final Map<Key, Totals> totals = new LinkedHashMap<>();
+    private final Map<String, List<String>> musclesByName = new HashMap<>();
+    private final Set<Key> inSession = new HashSet<>();
+    private long epochDay;
+
+    public VolumeAggregator(final ExerciseCatalog catalog) {
+        this.catalog = catalog;
+    }
+
+    /** Starts the next session; later exercises are dated {@code epochDay}. */
+    public void session(final long epochDay) {
+        this.epochDay = epochDay;
+        inSession.clear();
+    }
+
+    /** Adds one exercise of the current session; exercises without sets are ignored. */
+    public void exercise(final String name, final double tonnage, final int sets) {
+        if (name == null || sets <= 0) {
+            return;
+        }
+        var muscles = musclesByName.computeIfAbsent(name, this::muscles);
+        for (Bucket bucket : Bucket.values()) {
+            long start = bucket.start(epochDay);
+            add(new Key(bucket, start, Group.EXERCISE, name), tonnage, sets);
+            for (String muscle : muscles) {
+                add(new Key(bucket, start, Group.MUSCLE, muscle), tonnage, sets);
+            }
+        }
+    }
+
+    public List<VolumeRollup> rollups() {
+        List<VolumeRollup> rollups = new ArrayList<>(totals.size());
+        totals.forEach((key, t) -> rollups.add(new VolumeRollup(key.bucket(), key.start(),
+                key.group(), key.name(), t.tonnage, t.sets, t.sessions)));
+        return rollups;
+    }
+
+    private void add(final Key key, final double tonnage, final int sets) {
+        var t = totals.computeIfAbsent(key, k -> new Totals());
+        t.tonnage += tonnage;
+        t.sets += sets;
+        if (inSession.add(key)) {
+            t.sessions++;
+        }
+    }
+
+    private List<String> muscles(final String name) {
+        Exercise exercise = catalog.exact(name);
+        return exercise == null ? List.of() : muscles(exercise);
+    }
+
+    /** Muscle groups of a catalog entry, e.g. "Chest; Triceps" -> [Chest, Triceps]. */
+    static List<String> muscles(final Exercise exercise) {
+        if (exercise.muscles() == null) {
+            return List.of();
+        }
+        List<String> muscles = new ArrayList<>();
+        for (String part : exercise.muscles().split(";")) {
+            var muscle = part.trim();
+            if (!muscle.isEmpty() && !muscles.contains(muscle)) {
+                muscles.add(muscle);
+            }
+        }
+        return muscles;
+    }
+}
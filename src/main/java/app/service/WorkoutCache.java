@@ -0,0 +1,227 @@
+package app.service;
+
+import app.model.DailyRecord;
+import app.model.DateRange;
+import app.model.PersonalRecord;
+import app.model.SetSummary;
+import app.model.WorkoutExercise;
+import app.model.WorkoutSession;
+import app.model.WorkoutSet;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * In-memory copy of the workout history. Lists are immutable snapshots:
+ * readers never lock, writers publish a new snapshot.
+ */
+public final class WorkoutCache {
+
+    @FunctionalInterface
+    public interface Loader<T> {
+        T load() throws SQLException;
+    }
+
+    public record Stats(long hits, long misses) {}
+
+    // the order the range queries use; cached lists are kept in it, since
+    // imported or backdated sessions break id-equals-date order
+    private static final Comparator<WorkoutSession> SESSION_ORDER =
+            Comparator.comparing(WorkoutSession::getEpochDay,
+                            Comparator.nullsFirst(Comparator.<Long>naturalOrder()))
+                    .thenComparingInt(WorkoutSession::getId);
+    private static final Comparator<WorkoutExercise> EXERCISE_ORDER =
+            Comparator.comparing(WorkoutExercise::getSession,
+                            Comparator.nullsFirst(SESSION_ORDER))
+                    .thenComparingInt(WorkoutExercise::getId);
+
+    private volatile List<WorkoutSession> sessions;
+    private volatile List<WorkoutExercise> exercises;
+    private volatile Map<Integer, SetSummary> summaries;
+    private volatile List<DailyRecord> dailyRecords;
+    private volatile Map<String, PersonalRecord> personalRecords;
+    private volatile long version;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public List<WorkoutSession> sessions(final Loader<List<WorkoutSession>> loader)
+            throws SQLException {
+        return load(sessions, () -> sorted(loader.load(), SESSION_ORDER),
+                loaded -> sessions = loaded);
+    }
+
+    public List<WorkoutExercise> exercises(final Loader<List<WorkoutExercise>> loader)
+            throws SQLException {
+        return load(exercises, () -> sorted(loader.load(), EXERCISE_ORDER),
+                loaded -> exercises = loaded);
+    }
+
+    public Map<Integer, SetSummary> summaries(final Loader<Map<Integer, SetSummary>> loader)
+            throws SQLException {
+        return load(summaries, () -> Map.copyOf(loader.load()), loaded -> summaries = loaded);
+    }
+
+    public List<DailyRecord> dailyRecords(final Loader<List<DailyRecord>> loader)
+            throws SQLException {
+        return load(dailyRecords, () -> List.copyOf(loader.load()),
+                loaded -> dailyRecords = loaded);
+    }
+
+    public Map<String, PersonalRecord> personalRecords(
+            final Loader<Map<String, PersonalRecord>> loader) throws SQLException {
+        return load(personalRecords, () -> Map.copyOf(loader.load()),
+                loaded -> personalRecords = loaded);
+    }
+
+    /**
+     * Sessions inside {@code range} by day, then id, or null when the
+     * history is not loaded yet.
+     */
+    public List<WorkoutSession> sessionsIn(final DateRange range) {
+        var cached = sessions;
+        if (cached == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return filter(cached, s -> inRange(s, range));
+    }
+
+    /**
+     * Exercises inside {@code range} in session order, or null when the
+     * history is not loaded yet.
+     */
+    public List<WorkoutExercise> exercisesIn(final DateRange range) {
+        var cached = exercises;
+        if (cached == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return filter(cached, e -> e.getSession() != null && inRange(e.getSession(), range));
+    }
+
+    /** Daily records inside {@code range}, or null when they are not loaded yet. */
+    public List<DailyRecord> dailyRecordsIn(final DateRange range) {
+        var cached = dailyRecords;
+        if (cached == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return filter(cached, r -> r.epochDay() >= range.fromEpochDay()
+                && r.epochDay() <= range.toEpochDay());
+    }
+
+    /**
+     * Write-through after a committed save; unloaded parts stay unloaded.
+     * A reload that finished after the commit may already hold the rows,
+     * so rows already cached are skipped.
+     */
+    public synchronized void addWorkout(final WorkoutSession session,
+                                        final List<WorkoutExercise> rows,
+                                        final List<WorkoutSet> sets) {
+        version++;
+        if (sessions != null) {
+            sessions = insert(sessions, List.of(session), SESSION_ORDER);
+        }
+        if (exercises != null) {
+            exercises = insert(exercises, rows, EXERCISE_ORDER);
+        }
+        if (summaries != null) {
+            Map<Integer, SetParser.Stats> byExercise = new HashMap<>();
+            for (WorkoutSet set : sets) {
+                byExercise.computeIfAbsent(set.getExercise().getId(), id -> new SetParser.Stats())
+                        .accept(set.getWeight(), set.getReps());
+            }
+            Map<Integer, SetSummary> updated = new HashMap<>(summaries);
+            byExercise.forEach((id, stats) -> updated.put(id, new SetSummary(id,
+                    stats.getBestWeight(), stats.getBestReps(),
+                    stats.getVolume(), stats.getCount())));
+            summaries = Map.copyOf(updated);
+        }
+        // merged by SQL upserts; re-reading them is one small query
+        dailyRecords = null;
+        personalRecords = null;
+    }
+
+    public synchronized void invalidate() {
+        version++;
+        sessions = null;
+        exercises = null;
+        summaries = null;
+        dailyRecords = null;
+        personalRecords = null;
+    }
+
+    /** Bumped on every write or invalidation; views compare it to skip reloads. */
+    public long version() {
+        return version;
+    }
+
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum());
+    }
+
+    private <T> T load(final T cached, final Loader<T> loader, final Consumer<T> publish)
+            throws SQLException {
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        long seen = version;
+        var loaded = loader.load();
+        synchronized (this) {
+            if (seen == version) {
+                publish.accept(loaded);
+            }
+        }
+        return loaded;
+    }
+
+    // undated sessions are in no range, as with the queries' BETWEEN
+    private static boolean inRange(final WorkoutSession session, final DateRange range) {
+        Long day = session.getEpochDay();
+        return day != null && day >= range.fromEpochDay() && day <= range.toEpochDay();
+    }
+
+    private static <T> List<T> filter(final List<T> source, final Predicate<T> keep) {
+        List<T> out = new ArrayList<>();
+        for (T item : source) {
+            if (keep.test(item)) {
+                out.add(item);
+            }
+        }
+        return out;
+    }
+
+    private static <T> List<T> sorted(final List<T> source, final Comparator<? super T> order) {
+        List<T> out = new ArrayList<>(source);
+        out.sort(order);
+        return List.copyOf(out);
+    }
+
+    // order ends in the id, so an equal element is the same row
+    private static <T> List<T> insert(final List<T> base, final List<T> extra,
+                                      final Comparator<? super T> order) {
+        List<T> out = new ArrayList<>(base.size() + extra.size());
+        out.addAll(base);
+        for (T item : extra) {
+            int at = Collections.binarySearch(out, item, order);
+            if (at < 0) {
+                out.add(-at - 1, item);
+            }
+        }
+        return List.copyOf(out);
+    }
+}
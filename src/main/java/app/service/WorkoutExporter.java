@@ -0,0 +1,221 @@
+package app.service;
+
+import app.model.DateRange;
+import app.model.WorkoutExercise;
+import app.model.WorkoutSession;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+
+/**
+ * Writes the workout history as CSV or JSON Lines, in the formats
+ * {@link WorkoutImporter} reads. Rows are streamed from the database one
+ * at a time, so memory use does not grow with the history. Files are
+ * written next to the target and moved into place once complete.
+ */
+public final class WorkoutExporter {
+
+    /** Sessions written, and exercises across them. */
+    public record Result(long sessions, long exercises) {}
+
+    private static final int BUFFER_BYTES = 1 << 16;
+    private static final String CSV_HEADER = "date,bodyweight,exercise,sets\n";
+
+    private final WorkoutService service;
+
+    public WorkoutExporter(final WorkoutService service) {
+        this.service = service;
+    }
+
+    /**
+     * @param exercise only rows with this name, ignoring case; null for all
+     */
+    public Result exportFile(final Path file, final HistoryFormat format,
+                             final DateRange range, final String exercise)
+            throws IOException, SQLException {
+        Path target = file.toAbsolutePath();
+        Path partial = Files.createTempFile(target.getParent(),
+                target.getFileName() + ".", ".part");
+        try {
+            Result result;
+            try (FileChannel channel = FileChannel.open(partial, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+                 Writer out = new BufferedWriter(Channels.newWriter(channel,
+                         StandardCharsets.UTF_8.newEncoder(), BUFFER_BYTES), BUFFER_BYTES)) {
+                result = exportTo(out, format, range, exercise);
+            }
+            try {
+                Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return result;
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+    }
+
+    /** Writes to {@code out} without closing it. */
+    public Result exportTo(final Writer out, final HistoryFormat format,
+                           final DateRange range, final String exercise)
+            throws IOException, SQLException {
+        var rows = service.iterateExercises(range, exercise);
+        try {
+            var sink = format == HistoryFormat.CSV ? new CsvSink(out) : new JsonSink(out);
+            while (rows.hasNext()) {
+                sink.row(rows.next());
+            }
+            sink.finish();
+            out.flush();
+            return new Result(sink.sessions, sink.exercises);
+        } finally {
+            rows.closeQuietly();
+        }
+    }
+
+    /** Rows arrive in session order; a new session id starts a session. */
+    private abstract static class Sink {
+        final Writer out;
+        long sessions;
+        long exercises;
+        private int sessionId = -1;
+
+        Sink(final Writer out) {
+            this.out = out;
+        }
+
+        final void row(final WorkoutExercise row) throws IOException {
+            var session = row.getSession();
+            boolean first = sessions == 0 || session.getId() != sessionId;
+            if (first) {
+                sessionId = session.getId();
+                sessions++;
+            }
+            // a session without exercises arrives as one row with id 0
+            if (row.getId() == 0) {
+                write(session, null, first);
+                return;
+            }
+            exercises++;
+            write(session, row, first);
+        }
+
+        /** {@code row} is null for a session without exercises. */
+        abstract void write(WorkoutSession session, WorkoutExercise row, boolean firstInSession)
+                throws IOException;
+
+        void finish() throws IOException {
+        }
+    }
+
+    private static final class CsvSink extends Sink {
+        CsvSink(final Writer out) throws IOException {
+            super(out);
+            out.write(CSV_HEADER);
+        }
+
+        @Override
+        void write(final WorkoutSession session, final WorkoutExercise row,
+                   final boolean firstInSession) throws IOException {
+            if (session.getDate() != null) {
+                out.write(session.getLocalDate().toString());
+            }
+            out.write(',');
+            out.write(number(session.getBodyweight()));
+            out.write(',');
+            csvField(row == null ? null : row.getName());
+            out.write(',');
+            csvField(row == null ? null : row.getSetsString());
+            out.write('\n');
+        }
+
+        private void csvField(final String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                out.write(value);
+                return;
+            }
+            out.write('"');
+            out.write(value.replace("\"", "\"\""));
+            out.write('"');
+        }
+    }
+
+    private static final class JsonSink extends Sink {
+        JsonSink(final Writer out) {
+            super(out);
+        }
+
+        @Override
+        void write(final WorkoutSession session, final WorkoutExercise row,
+                   final boolean firstInSession) throws IOException {
+            if (firstInSession) {
+                if (sessions > 1) {
+                    out.write("]}\n");
+                }
+                out.write("{\"date\":");
+                if (session.getDate() == null) {
+                    out.write("null");
+                } else {
+                    out.write('"');
+                    out.write(session.getLocalDate().toString());
+                    out.write('"');
+                }
+                out.write(",\"bodyweight\":");
+                out.write(number(session.getBodyweight()));
+                out.write(",\"exercises\":[");
+            } else {
+                out.write(',');
+            }
+            if (row == null) {
+                return;
+            }
+            out.write("{\"name\":");
+            string(row.getName());
+            out.write(",\"sets\":");
+            string(row.getSetsString());
+            out.write('}');
+        }
+
+        private void string(final String value) throws IOException {
+            if (value == null) {
+                out.write("null");
+            } else {
+                Json.quote(value, out);
+            }
+        }
+
+        @Override
+        void finish() throws IOException {
+            if (sessions > 0) {
+                out.write("]}\n");
+            }
+        }
+    }
+
+    // whole numbers without a trailing ".0", like SetParser.formatSet
+    private static String number(final double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+}
@@ -0,0 +1,497 @@
+package app.service;
+
+import app.model.ExerciseWithSets;
+import app.model.Workout;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Streams historical sessions from a CSV or JSON file into the database.
+ * The calling thread splits the file into raw records, worker threads
+ * parse and validate chunks of them, and the calling thread writes the
+ * results in order, one transaction per batch of sessions. Only a bounded
+ * number of chunks and one batch are held at a time.
+ *
+ * <p>CSV files need a header naming {@code date}, {@code exercise} and
+ * {@code sets} columns, plus an optional {@code bodyweight}; consecutive
+ * rows with the same date and bodyweight form one session. JSON files
+ * hold session objects, either as an array or one per line:
+ * {@code {"date": "2024-01-15", "bodyweight": 80, "exercises":
+ * [{"name": "Squat", "sets": "100x5-100x5"}]}}.
+ */
+public final class WorkoutImporter {
+
+    /** Running totals, reported after every committed batch. */
+    public record Progress(long records, long sessions, long rejected) {}
+
+    /** {@code errors} holds the first rejections, one line each. */
+    public record Result(long sessions, long exercises, long rejected, List<String> errors) {}
+
+    static final int CHUNK_RECORDS = 1_000;
+    static final int MAX_ERRORS = 100;
+    private static final int DEFAULT_BATCH_SESSIONS = 2_000;
+
+    private final WorkoutService service;
+    private final int workers;
+    private final int batchSessions;
+
+    public WorkoutImporter(final WorkoutService service) {
+        this(service, Math.max(1, Runtime.getRuntime().availableProcessors() - 1),
+                DEFAULT_BATCH_SESSIONS);
+    }
+
+    public WorkoutImporter(final WorkoutService service, final int workers,
+                           final int batchSessions) {
+        if (workers < 1 || batchSessions < 1) {
+            throw new IllegalArgumentException(
+                    "workers and batch size must be positive: " + workers + ", " + batchSessions);
+        }
+        this.service = service;
+        this.workers = workers;
+        this.batchSessions = batchSessions;
+    }
+
+    public Result importFile(final Path file, final Consumer<Progress> progress)
+            throws IOException, SQLException {
+        try (var reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return importFrom(reader, HistoryFormat.of(file), progress);
+        }
+    }
+
+    public Result importFrom(final BufferedReader reader, final HistoryFormat format,
+                             final Consumer<Progress> progress) throws IOException, SQLException {
+        RecordSource source = format == HistoryFormat.CSV
+                ? new CsvSource(reader)
+                : new JsonSource(reader);
+        var writer = new BatchWriter(format == HistoryFormat.CSV, progress);
+        ExecutorService pool = Executors.newFixedThreadPool(workers, r -> {
+            var thread = new Thread(r, "import-parser");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            // chunks are written in submission order; the queue bounds memory
+            Deque<Future<Chunk>> inFlight = new ArrayDeque<>();
+            List<Raw> records = new ArrayList<>(CHUNK_RECORDS);
+            Raw raw;
+            while ((raw = source.next()) != null) {
+                records.add(raw);
+                if (records.size() == CHUNK_RECORDS) {
+                    submit(pool, source, records, inFlight, writer);
+                    records = new ArrayList<>(CHUNK_RECORDS);
+                }
+            }
+            if (!records.isEmpty()) {
+                submit(pool, source, records, inFlight, writer);
+            }
+            while (!inFlight.isEmpty()) {
+                writer.write(await(inFlight.poll()));
+            }
+            return writer.finish();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void submit(final ExecutorService pool, final RecordSource source,
+                        final List<Raw> records, final Deque<Future<Chunk>> inFlight,
+                        final BatchWriter writer) throws IOException, SQLException {
+        if (inFlight.size() >= workers * 2) {
+            writer.write(await(inFlight.poll()));
+        }
+        inFlight.add(pool.submit(() -> source.parse(records)));
+    }
+
+    private static Chunk await(final Future<Chunk> future) throws IOException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw new IOException("Could not parse import", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import interrupted", e);
+        }
+    }
+
+    /** One unparsed record and where it started, for error messages. */
+    private record Raw(long position, String text) {}
+
+    /** Parsed sessions of one chunk, in file order. */
+    private record Chunk(int records, List<Workout> workouts, int rejected, List<String> errors) {}
+
+    private abstract static class RecordSource {
+        abstract Raw next() throws IOException;
+
+        abstract Chunk parse(List<Raw> records);
+    }
+
+    private static final class CsvSource extends RecordSource {
+        private final BufferedReader reader;
+        private final int date;
+        private final int bodyweight;
+        private final int exercise;
+        private final int sets;
+        private long line;
+
+        CsvSource(final BufferedReader reader) throws IOException {
+            this.reader = reader;
+            String header = nextLine();
+            if (header == null) {
+                throw new IOException("Import file is empty");
+            }
+            List<String> names = new ArrayList<>();
+            for (String name : splitCsv(header)) {
+                names.add(name.trim().toLowerCase(Locale.ROOT));
+            }
+            this.date = column(names, "date", true);
+            this.bodyweight = column(names, "bodyweight", false);
+            this.exercise = column(names, "exercise", true);
+            this.sets = column(names, "sets", true);
+        }
+
+        private static int column(final List<String> names, final String name,
+                                  final boolean required) throws IOException {
+            int index = names.indexOf(name);
+            if (index < 0 && required) {
+                throw new IOException("Import file has no '" + name + "' column");
+            }
+            return index;
+        }
+
+        private String nextLine() throws IOException {
+            String text;
+            do {
+                text = reader.readLine();
+                line++;
+            } while (text != null && text.isBlank());
+            return text;
+        }
+
+        // a quoted field may span lines: read on while a quote is open
+        @Override
+        Raw next() throws IOException {
+            String text = nextLine();
+            if (text == null) {
+                return null;
+            }
+            long start = line;
+            while (openQuote(text)) {
+                String more = reader.readLine();
+                if (more == null) {
+                    break;
+                }
+                line++;
+                text = text + '\n' + more;
+            }
+            return new Raw(start, text);
+        }
+
+        private static boolean openQuote(final String text) {
+            int quotes = 0;
+            for (int i = 0; i < text.length(); i++) {
+                if (text.charAt(i) == '"') {
+                    quotes++;
+                }
+            }
+            return quotes % 2 != 0;
+        }
+
+        @Override
+        Chunk parse(final List<Raw> records) {
+            List<Workout> workouts = new ArrayList<>();
+            List<String> errors = new ArrayList<>();
+            int rejected = 0;
+            Workout current = null;
+            List<ExerciseWithSets> exercises = null;
+            for (Raw raw : records) {
+                try {
+                    List<String> fields = splitCsv(raw.text());
+                    Date day = parseDate(field(fields, date));
+                    double weight = parseBodyweight(field(fields, bodyweight));
+                    var entry = exercise(field(fields, exercise), field(fields, sets));
+                    if (current == null || !sameSession(current, day, weight)) {
+                        exercises = new ArrayList<>();
+                        current = new Workout(day, weight, exercises);
+                        workouts.add(current);
+                    }
+                    exercises.add(entry);
+                } catch (IllegalArgumentException e) {
+                    rejected++;
+                    addError(errors, HistoryFormat.CSV, raw, e);
+                }
+            }
+            return new Chunk(records.size(), workouts, rejected, errors);
+        }
+
+        private static String field(final List<String> fields, final int index) {
+            return index < 0 || index >= fields.size() ? "" : fields.get(index).trim();
+        }
+    }
+
+    private static final class JsonSource extends RecordSource {
+        private final BufferedReader reader;
+        private final char[] buffer = new char[8192];
+        private int pos;
+        private int limit;
+        private long record;
+
+        JsonSource(final BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        private int read() throws IOException {
+            if (pos == limit) {
+                limit = reader.read(buffer, 0, buffer.length);
+                pos = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return -1;
+                }
+            }
+            return buffer[pos++];
+        }
+
+        // top-level objects, whether in an array or one per line
+        @Override
+        Raw next() throws IOException {
+            int c;
+            while ((c = read()) != '{') {
+                if (c < 0) {
+                    return null;
+                }
+                if (!Character.isWhitespace(c) && c != ',' && c != '[' && c != ']') {
+                    throw new IOException("Unexpected '" + (char) c + "' after record " + record);
+                }
+            }
+            var text = new StringBuilder().append('{');
+            int depth = 1;
+            boolean inString = false;
+            while (depth > 0) {
+                c = read();
+                if (c < 0) {
+                    throw new IOException("Unterminated record " + (record + 1));
+                }
+                text.append((char) c);
+                if (inString) {
+                    if (c == '\\') {
+                        int escaped = read();
+                        if (escaped >= 0) {
+                            text.append((char) escaped);
+                        }
+                    } else if (c == '"') {
+                        inString = false;
+                    }
+                } else if (c == '"') {
+                    inString = true;
+                } else if (c == '{') {
+                    depth++;
+                } else if (c == '}') {
+                    depth--;
+                }
+            }
+            return new Raw(++record, text.toString());
+        }
+
+        @Override
+        Chunk parse(final List<Raw> records) {
+            List<Workout> workouts = new ArrayList<>();
+            List<String> errors = new ArrayList<>();
+            int rejected = 0;
+            for (Raw raw : records) {
+                try {
+                    workouts.add(workout(Json.parse(raw.text())));
+                } catch (IllegalArgumentException | ClassCastException e) {
+                    rejected++;
+                    addError(errors, HistoryFormat.JSON, raw, e);
+                }
+            }
+            return new Chunk(records.size(), workouts, rejected, errors);
+        }
+
+        private static Workout workout(final Object value) {
+            if (!(value instanceof Map<?, ?> object)) {
+                throw new IllegalArgumentException("not an object");
+            }
+            Date day = parseDate((String) object.get("date"));
+            Object weight = object.get("bodyweight");
+            double bodyweight = weight == null ? 0 : ((Number) weight).doubleValue();
+            if (!(object.get("exercises") instanceof List<?> entries) || entries.isEmpty()) {
+                throw new IllegalArgumentException("no exercises");
+            }
+            List<ExerciseWithSets> exercises = new ArrayList<>(entries.size());
+            for (Object entry : entries) {
+                if (!(entry instanceof Map<?, ?> fields)) {
+                    throw new IllegalArgumentException("exercise is not an object");
+                }
+                exercises.add(exercise((String) fields.get("name"), (String) fields.get("sets")));
+            }
+            return new Workout(day, bodyweight, exercises);
+        }
+    }
+
+    /** Merges sessions split across chunks and commits them in batches. */
+    private final class BatchWriter {
+        private final boolean mergeAcrossChunks;
+        private final Consumer<Progress> progress;
+        private final List<String> errors = new ArrayList<>();
+        private List<Workout> batch = new ArrayList<>();
+        private long records;
+        private long sessions;
+        private long exercises;
+        private long rejected;
+
+        BatchWriter(final boolean mergeAcrossChunks, final Consumer<Progress> progress) {
+            this.mergeAcrossChunks = mergeAcrossChunks;
+            this.progress = progress;
+        }
+
+        void write(final Chunk chunk) throws SQLException {
+            records += chunk.records();
+            rejected += chunk.rejected();
+            for (String error : chunk.errors()) {
+                if (errors.size() < MAX_ERRORS) {
+                    errors.add(error);
+                }
+            }
+            List<Workout> workouts = chunk.workouts();
+            int first = 0;
+            if (mergeAcrossChunks && !workouts.isEmpty() && !batch.isEmpty()) {
+                Workout last = batch.get(batch.size() - 1);
+                Workout next = workouts.get(0);
+                if (sameSession(last, next.date(), next.bodyweight())) {
+                    List<ExerciseWithSets> merged = new ArrayList<>(last.exercises());
+                    merged.addAll(next.exercises());
+                    batch.set(batch.size() - 1,
+                            new Workout(last.date(), last.bodyweight(), merged));
+                    first = 1;
+                }
+            }
+            for (int i = first; i < workouts.size(); i++) {
+                // keep the last session open: the next chunk may continue it
+                if (batch.size() >= batchSessions) {
+                    flush();
+                }
+                batch.add(workouts.get(i));
+            }
+        }
+
+        Result finish() throws SQLException {
+            flush();
+            return new Result(sessions, exercises, rejected, List.copyOf(errors));
+        }
+
+        private void flush() throws SQLException {
+            if (!batch.isEmpty()) {
+                service.saveWorkouts(batch);
+                sessions += batch.size();
+                for (Workout workout : batch) {
+                    exercises += workout.exercises().size();
+                }
+                batch = new ArrayList<>();
+            }
+            if (progress != null) {
+                progress.accept(new Progress(records, sessions, rejected));
+            }
+        }
+    }
+
+    private static boolean sameSession(final Workout workout, final Date date,
+                                       final double bodyweight) {
+        return workout.date().equals(date)
+                && Double.compare(workout.bodyweight(), bodyweight) == 0;
+    }
+
+    private static ExerciseWithSets exercise(final String name, final String sets) {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("missing exercise name");
+        }
+        if (!SetParser.isValid(sets)) {
+            throw new IllegalArgumentException("invalid sets '" + sets + "'");
+        }
+        return new ExerciseWithSets(name.trim(), sets.trim());
+    }
+
+    // ISO date, optionally followed by a time that is ignored
+    static Date parseDate(final String text) {
+        if (text == null || text.isBlank()) {
+            throw new IllegalArgumentException("missing date");
+        }
+        String day = text.trim();
+        try {
+            var date = LocalDate.parse(day.length() > 10 ? day.substring(0, 10) : day);
+            return Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("invalid date '" + day + "'");
+        }
+    }
+
+    private static double parseBodyweight(final String text) {
+        if (text.isEmpty()) {
+            return 0;
+        }
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid bodyweight '" + text + "'");
+        }
+    }
+
+    // comma-separated fields; double quotes wrap fields and escape themselves
+    static List<String> splitCsv(final String line) {
+        List<String> fields = new ArrayList<>();
+        var field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static void addError(final List<String> errors, final HistoryFormat format,
+                                 final Raw raw, final RuntimeException e) {
+        if (errors.size() < MAX_ERRORS) {
+            String reason = e instanceof ClassCastException
+                    ? "unexpected value type"
+                    : e.getMessage();
+            errors.add(format.unit() + " " + raw.position() + ": " + reason);
+        }
+    }
+}
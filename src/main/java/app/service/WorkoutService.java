@@ -1,29 +1,77 @@
 package app.service;
 
 import app.database.DatabaseHelper;
+import app.database.PersonalRecordRepository;
+import app.database.TransactionRunner;
+import app.database.VolumeRollupRepository;
 import app.database.WorkoutExerciseRepository;
 import app.database.WorkoutSessionRepository;
+import app.database.WorkoutSetRepository;
+import app.model.DailyRecord;
+import app.model.DateRange;
 import app.model.Exercise;
 import app.model.ExerciseWithSets;
+import app.model.PersonalRecord;
+import app.model.SetSummary;
+import app.model.VolumeRollup;
+import app.model.Workout;
 import app.model.WorkoutExercise;
 import app.model.WorkoutSession;
+import app.model.WorkoutSet;
+import com.j256.ormlite.dao.CloseableIterator;
 
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public final class WorkoutService {
 
-    private final WorkoutSessionRepository sessionRepo;
-    private final WorkoutExerciseRepository exerciseRepo;
+    @FunctionalInterface
+    public interface WorkoutVisitor {
+        /** {@code exercises} is reused for the next session; copy it to keep it. */
+        void visit(WorkoutSession session, List<WorkoutExercise> exercises);
+    }
+
+    private volatile WorkoutSessionRepository sessionRepo;
+    private volatile WorkoutExerciseRepository exerciseRepo;
+    private volatile WorkoutSetRepository setRepo;
+    private volatile PersonalRecordRepository recordRepo;
+    private volatile VolumeRollupRepository rollupRepo;
+    private final TransactionRunner transactions;
+    private final WorkoutCache cache;
+
+    public WorkoutService(
+            final WorkoutSessionRepository sessionRepo,
+            final WorkoutExerciseRepository exerciseRepo,
+            final WorkoutSetRepository setRepo,
+            final PersonalRecordRepository recordRepo,
+            final VolumeRollupRepository rollupRepo,
+            final TransactionRunner transactions) {
+        this(sessionRepo, exerciseRepo, setRepo, recordRepo, rollupRepo, transactions,
+                new WorkoutCache());
+    }
 
     public WorkoutService(
             final WorkoutSessionRepository sessionRepo,
-            final WorkoutExerciseRepository exerciseRepo) {
+            final WorkoutExerciseRepository exerciseRepo,
+            final WorkoutSetRepository setRepo,
+            final PersonalRecordRepository recordRepo,
+            final VolumeRollupRepository rollupRepo,
+            final TransactionRunner transactions,
+            final WorkoutCache cache) {
         this.sessionRepo = sessionRepo;
         this.exerciseRepo = exerciseRepo;
+        this.setRepo = setRepo;
+        this.recordRepo = recordRepo;
+        this.rollupRepo = rollupRepo;
+        this.transactions = transactions;
+        this.cache = cache;
     }
 
     public void saveWorkout(
@@ -32,38 +80,356 @@ public final class WorkoutService {
             final List<ExerciseWithSets> exercises) throws SQLException {
 
         var session = new WorkoutSession(date, bodyweight);
-        sessionRepo.save(session);
-
+        List<WorkoutExercise> rows = new ArrayList<>(exercises.size());
+        List<WorkoutSet> sets = new ArrayList<>();
         for (ExerciseWithSets exercise : exercises) {
-            WorkoutExercise workoutExercise = new WorkoutExercise(
+            var row = new WorkoutExercise(
                     exercise.name(),
                     exercise.setsString(),
                     session);
-            exerciseRepo.save(workoutExercise);
+            rows.add(row);
+            sets.addAll(toSets(row));
+        }
+        var rollups = volumeRollups(getExerciseCatalog(), session, rows, sets);
+
+        // one commit per session: a crash mid-save must not leave
+        // a session with only part of its exercises
+        transactions.inTransaction(() -> {
+            sessionRepo.save(session);
+            exerciseRepo.saveAll(rows);
+            setRepo.saveAll(sets);
+            recordRepo.record(dailyRecords(session, rows, sets));
+            rollupRepo.add(rollups);
+        });
+        cache.addWorkout(session, rows, sets);
+    }
+
+    /**
+     * Saves a batch of sessions in one transaction, for bulk imports.
+     * The cache is dropped rather than written through, so the next read
+     * reloads the full history once.
+     */
+    public void saveWorkouts(final List<Workout> workouts) throws SQLException {
+        saveBatch(workouts, false);
+    }
+
+    /**
+     * Saves a restored history in one transaction, like
+     * {@link #saveWorkouts}, but only into a database with no sessions;
+     * restoring on top of existing ones would duplicate them.
+     *
+     * @throws IllegalStateException if the database already has sessions
+     */
+    public void restoreWorkouts(final List<Workout> workouts) throws SQLException {
+        saveBatch(workouts, true);
+    }
+
+    private void saveBatch(final List<Workout> workouts, final boolean intoEmpty)
+            throws SQLException {
+        if (workouts.isEmpty()) {
+            return;
+        }
+        List<WorkoutSession> sessions = new ArrayList<>(workouts.size());
+        List<WorkoutExercise> rows = new ArrayList<>();
+        List<WorkoutSet> sets = new ArrayList<>();
+        // per session: end offsets into rows and sets
+        int[] rowEnds = new int[workouts.size()];
+        int[] setEnds = new int[workouts.size()];
+        var aggregator = new VolumeAggregator(getExerciseCatalog());
+        for (int i = 0; i < workouts.size(); i++) {
+            Workout workout = workouts.get(i);
+            var session = new WorkoutSession(workout.date(), workout.bodyweight());
+            sessions.add(session);
+            int firstRow = rows.size();
+            int firstSet = sets.size();
+            for (ExerciseWithSets exercise : workout.exercises()) {
+                var row = new WorkoutExercise(exercise.name(), exercise.setsString(), session);
+                rows.add(row);
+                sets.addAll(toSets(row));
+            }
+            rowEnds[i] = rows.size();
+            setEnds[i] = sets.size();
+            aggregate(aggregator, session,
+                    rows.subList(firstRow, rows.size()), sets.subList(firstSet, sets.size()));
+        }
+        var rollups = aggregator.rollups();
+
+        transactions.inTransaction(() -> {
+            // checked in the same transaction, so no save slips in between
+            if (intoEmpty && !sessionRepo.isEmpty()) {
+                throw new IllegalStateException(
+                        "The database already has sessions; restore into an empty one.");
+            }
+            sessionRepo.saveAll(sessions);
+            exerciseRepo.saveAll(rows);
+            setRepo.saveAll(sets);
+            List<DailyRecord> records = new ArrayList<>();
+            for (int i = 0, row = 0, set = 0; i < sessions.size(); i++) {
+                records.addAll(dailyRecords(sessions.get(i),
+                        rows.subList(row, rowEnds[i]), sets.subList(set, setEnds[i])));
+                row = rowEnds[i];
+                set = setEnds[i];
+            }
+            recordRepo.record(records);
+            rollupRepo.add(rollups);
+        });
+        cache.invalidate();
+    }
+
+    // this save's contribution per exercise name; ids exist once rows are saved
+    static List<DailyRecord> dailyRecords(final WorkoutSession session,
+                                          final List<WorkoutExercise> rows,
+                                          final List<WorkoutSet> sets) {
+        if (session.getEpochDay() == null) {
+            return List.of();
+        }
+        Map<String, Integer> firstId = new HashMap<>();
+        for (WorkoutExercise row : rows) {
+            if (row.getName() != null) {
+                firstId.merge(row.getName(), row.getId(), Math::min);
+            }
+        }
+        List<DailyRecord> records = new ArrayList<>(firstId.size());
+        statsByName(rows, sets).forEach((name, stats) -> records.add(new DailyRecord(name,
+                session.getEpochDay(), firstId.get(name), stats.getBestWeight(),
+                stats.getBestReps(), stats.getVolume(), stats.getCount())));
+        return records;
+    }
+
+    static List<VolumeRollup> volumeRollups(final ExerciseCatalog catalog,
+                                            final WorkoutSession session,
+                                            final List<WorkoutExercise> rows,
+                                            final List<WorkoutSet> sets) {
+        var aggregator = new VolumeAggregator(catalog);
+        aggregate(aggregator, session, rows, sets);
+        return aggregator.rollups();
+    }
+
+    private static void aggregate(final VolumeAggregator aggregator,
+                                  final WorkoutSession session,
+                                  final List<WorkoutExercise> rows,
+                                  final List<WorkoutSet> sets) {
+        if (session.getEpochDay() == null) {
+            return;
         }
+        aggregator.session(session.getEpochDay());
+        statsByName(rows, sets).forEach((name, stats) ->
+                aggregator.exercise(name, stats.getVolume(), stats.getCount()));
+    }
+
+    private static Map<String, SetParser.Stats> statsByName(final List<WorkoutExercise> rows,
+                                                            final List<WorkoutSet> sets) {
+        Map<String, SetParser.Stats> byName = new LinkedHashMap<>();
+        for (WorkoutExercise row : rows) {
+            if (row.getName() != null) {
+                byName.computeIfAbsent(row.getName(), name -> new SetParser.Stats());
+            }
+        }
+        for (WorkoutSet set : sets) {
+            var stats = byName.get(set.getExercise().getName());
+            if (stats != null) {
+                stats.accept(set.getWeight(), set.getReps());
+            }
+        }
+        return byName;
+    }
+
+    static List<WorkoutSet> toSets(final WorkoutExercise exercise) {
+        List<WorkoutSet> sets = new ArrayList<>();
+        SetParser.forEachSet(exercise.getSetsString(), (weight, reps) ->
+                sets.add(new WorkoutSet(exercise, sets.size(), weight, reps)));
+        return sets;
     }
 
     public List<WorkoutSession> getAllSessions() throws SQLException {
-        return sessionRepo.findAll();
+        return cache.sessions(sessionRepo::findAll);
     }
 
     public List<WorkoutExercise> getAllExercises() throws SQLException {
-        return exerciseRepo.findAll();
+        return cache.exercises(exerciseRepo::findAllWithSessions);
+    }
+
+    public List<WorkoutSession> getSessions(final DateRange range) throws SQLException {
+        if (range.isAll()) {
+            return getAllSessions();
+        }
+        var cached = cache.sessionsIn(range);
+        return cached != null
+                ? cached
+                : sessionRepo.findBetween(range.from(), range.to());
+    }
+
+    public List<WorkoutExercise> getExercises(final DateRange range) throws SQLException {
+        if (range.isAll()) {
+            return getAllExercises();
+        }
+        var cached = cache.exercisesIn(range);
+        return cached != null
+                ? cached
+                : exerciseRepo.findBetweenWithSessions(range.from(), range.to());
     }
 
+    /**
+     * Exercises with their sessions in session order, optionally only one
+     * exercise name. Rows come straight from the database as the caller
+     * advances, bypassing the cache; close the iterator when done.
+     * {@link DateRange#ALL} also covers undated sessions, and without a
+     * name, sessions with no exercises as a row with id 0.
+     */
+    public CloseableIterator<WorkoutExercise> iterateExercises(final DateRange range,
+                                                               final String name)
+            throws SQLException {
+        return range.isAll()
+                ? exerciseRepo.iterateSessionsWithExercises(name)
+                : exerciseRepo.iterateWithSessions(range.from(), range.to(), name);
+    }
+
+    /**
+     * Visits every session, undated ones included, with its exercises:
+     * undated sessions first, then by day and id. Reads one snapshot of
+     * the database, bypassing the cache, so a concurrent save is either
+     * wholly in or left out.
+     */
+    public void forEachWorkout(final WorkoutVisitor visitor) throws SQLException {
+        transactions.inReadTransaction(() -> {
+            List<WorkoutSession> sessions = sessionRepo.findAllInDayOrder();
+            var rows = exerciseRepo.iterateAllWithSessions();
+            try {
+                WorkoutExercise pending = rows.hasNext() ? rows.next() : null;
+                List<WorkoutExercise> exercises = new ArrayList<>();
+                for (WorkoutSession session : sessions) {
+                    exercises.clear();
+                    while (pending != null && pending.getSession().getId() == session.getId()) {
+                        exercises.add(pending);
+                        pending = rows.hasNext() ? rows.next() : null;
+                    }
+                    visitor.visit(session, exercises);
+                }
+                if (pending != null) {
+                    throw new SQLException("exercise " + pending.getId()
+                            + " is out of session order");
+                }
+            } finally {
+                rows.closeQuietly();
+            }
+        });
+    }
+
+    /**
+     * Typed sets of one exercise name, ignoring case, in dated sessions
+     * within {@code range}, by day. Read straight from the database.
+     */
+    public List<WorkoutSet> getSetsOf(final String name, final DateRange range)
+            throws SQLException {
+        return setRepo.findByName(name, range.from(), range.to());
+    }
+
+    public Map<Integer, SetSummary> getSetSummaries() throws SQLException {
+        return cache.summaries(setRepo::findSummaries);
+    }
+
+    /** All-time records keyed by exercise name. */
+    public Map<String, PersonalRecord> getPersonalRecords() throws SQLException {
+        return cache.personalRecords(() -> {
+            Map<String, PersonalRecord> byName = new HashMap<>();
+            for (PersonalRecord record : recordRepo.findAll()) {
+                byName.put(record.name(), record);
+            }
+            return byName;
+        });
+    }
+
+    /** Per-day bests in first-logged order (by exercise id), then by day. */
+    public List<DailyRecord> getDailyRecords(final DateRange range) throws SQLException {
+        if (range.isAll()) {
+            return cache.dailyRecords(recordRepo::findDaily);
+        }
+        var cached = cache.dailyRecordsIn(range);
+        return cached != null
+                ? cached
+                : recordRepo.findDailyBetween(range.from(), range.to());
+    }
+
+    /** Recomputes the record tables from the stored sets. */
+    public void rebuildPersonalRecords() throws SQLException {
+        transactions.inTransaction(recordRepo::rebuild);
+        cache.invalidate();
+    }
+
+    /** Weekly or monthly rollups overlapping {@code range}, newest period first. */
+    public List<VolumeRollup> getVolumeRollups(final VolumeRollup.Bucket bucket,
+                                               final DateRange range) throws SQLException {
+        return range.isAll()
+                ? rollupRepo.find(bucket)
+                : rollupRepo.findBetween(bucket, range.from(), range.to());
+    }
+
+    /** Recomputes the volume rollups, e.g. after the catalog's muscle groups change. */
+    public void rebuildVolumeRollups() throws SQLException {
+        var catalog = getExerciseCatalog();
+        transactions.inTransaction(() -> rollupRepo.rebuild(catalog));
+        cache.invalidate();
+    }
+
+    /**
+     * Rebuilds the rollups when the history has sets but no muscle-group
+     * rows. The v7 upgrade only backfills exercise rows, because muscle
+     * groups come from the catalog; run this at startup.
+     */
+    public boolean backfillVolumeRollups() throws SQLException {
+        if (!rollupRepo.lacksMuscleGroups()) {
+            return false;
+        }
+        rebuildVolumeRollups();
+        return true;
+    }
+
+    public long getDataVersion() {
+        return cache.version();
+    }
+
+    public WorkoutCache.Stats getCacheStats() {
+        return cache.stats();
+    }
+
+    /** Deletes the database file and reopens an empty one; call off the FX thread. */
     public boolean deleteDatabase() throws Exception {
+        var dbPath = DatabaseHelper.databaseFile().toAbsolutePath();
         DatabaseHelper.close();
+        try {
+            if (Files.exists(dbPath)) {
+                Files.delete(dbPath);
+                // WAL sidecars, normally already removed by the last close
+                Files.deleteIfExists(Paths.get(dbPath + "-wal"));
+                Files.deleteIfExists(Paths.get(dbPath + "-shm"));
+                DatabaseHelper.init();
+                rebindRepositories();
+                return true;
+            }
+            return false;
+        } finally {
+            // last, so a load that read the old file is not published
+            cache.invalidate();
+        }
+    }
 
-        var dbUrl = "jdbc:sqlite:workouts.db";
-        var pathPart = dbUrl.replace("jdbc:sqlite:", "");
-        var dbPath = Paths.get(pathPart).toAbsolutePath();
-
-        if (Files.exists(dbPath)) {
-            Files.delete(dbPath);
-            DatabaseHelper.init();
-            return true;
+    // the service outlives DatabaseHelper.init(), so pick up the new repositories
+    private void rebindRepositories() {
+        if (DatabaseHelper.workoutSessionRepo() != null) {
+            sessionRepo = DatabaseHelper.workoutSessionRepo();
+        }
+        if (DatabaseHelper.workoutExerciseRepo() != null) {
+            exerciseRepo = DatabaseHelper.workoutExerciseRepo();
+        }
+        if (DatabaseHelper.workoutSetRepo() != null) {
+            setRepo = DatabaseHelper.workoutSetRepo();
+        }
+        if (DatabaseHelper.personalRecordRepo() != null) {
+            recordRepo = DatabaseHelper.personalRecordRepo();
+        }
+        if (DatabaseHelper.volumeRollupRepo() != null) {
+            rollupRepo = DatabaseHelper.volumeRollupRepo();
         }
-        return false;
     }
 
     public List<Exercise> loadExercises() {
@@ -71,6 +437,15 @@ public final class WorkoutService {
         return ExerciseCsvParser.getExercises();
     }
 
+    public ExerciseCatalog getExerciseCatalog() {
+        return ExerciseCsvParser.catalog();
+    }
+
+    /** Times each exercise name was logged, keyed by the stored name. */
+    public Map<String, Integer> getExerciseLogCounts() throws SQLException {
+        return exerciseRepo.countByName();
+    }
+
     public Exercise findExercise(final String exerciseName) {
         return ExerciseCsvParser.findByName(exerciseName);
     }
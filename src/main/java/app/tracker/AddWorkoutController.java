@@ -1,14 +1,24 @@
 package app.tracker;
 
-import app.model.Exercise;
+import app.database.DatabaseBackup;
+import app.database.DatabaseHelper;
+import app.model.DateRange;
 import app.model.ExerciseWithSets;
+import app.service.ExerciseAutocomplete;
+import app.service.HistoryFormat;
 import app.service.Navigator;
+import app.service.SnapshotArchive;
+import app.service.WorkoutExporter;
+import app.service.WorkoutImporter;
 import app.service.WorkoutService;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.geometry.Pos;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
+import javafx.scene.control.ButtonBar;
 import javafx.scene.control.ButtonType;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.DatePicker;
@@ -16,16 +26,24 @@ import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.nio.file.Paths;
+import java.sql.SQLException;
 import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 
 import static java.lang.String.valueOf;
 
-public final class AddWorkoutController {
+public final class AddWorkoutController implements Refreshable {
+    private static final Logger LOG = LoggerFactory.getLogger(AddWorkoutController.class);
     private static final int SPACING_SMALL = 5;
     private static final int SPACING_MEDIUM = 10;
     private static final int PROMPT_LIMIT = 10;
@@ -37,25 +55,76 @@ public final class AddWorkoutController {
     private static final int SETS_CONTAINER_INDEX = 3;
     private static final int WEIGHT_FIELD_INDEX = 1;
     private static final int REPS_FIELD_INDEX = 3;
+    private static final FileChooser.ExtensionFilter SNAPSHOT_FILTER =
+            new FileChooser.ExtensionFilter("Workout snapshots", "*.snapshot");
 
     private final Navigator navigator;
     @FXML
     private VBox workoutInfoContainer;
     @FXML
     private VBox exercisesContainer;
+    @FXML
+    private Button saveButton;
+    @FXML
+    private Button importButton;
+    @FXML
+    private Button exportButton;
+    @FXML
+    private Button restoreButton;
+    @FXML
+    private Button backupButton;
+    @FXML
+    private Label importStatus;
 
-    private List<Exercise> allExercises;
     private final WorkoutService workoutService;
-
-    public AddWorkoutController(final WorkoutService workoutService, final Navigator navigator) {
+    private final Executor executor;
+    // imports, exports, snapshots and deletes; kept off the loader that serves suggestions
+    private final Executor bulkExecutor;
+    private final DatabaseBackup databaseBackup;
+    private ExerciseAutocomplete autocomplete;
+
+    public AddWorkoutController(final WorkoutService workoutService, final Navigator navigator,
+                                final Executor executor, final Executor bulkExecutor,
+                                final DatabaseBackup databaseBackup) {
         this.workoutService = workoutService;
         this.navigator = navigator;
+        this.executor = executor;
+        this.bulkExecutor = bulkExecutor;
+        this.databaseBackup = databaseBackup;
     }
 
     @FXML
     public final void initialize() {
-        allExercises = workoutService.loadExercises();
+        // ranked by name only until the log counts arrive
+        autocomplete = new ExerciseAutocomplete(workoutService.getExerciseCatalog(), Map.of());
+
+        addWorkoutInfoSection();
+        addExerciseSection();
+    }
+
+    @Override
+    public void refresh() {
+        reloadAutocomplete();
+    }
+
+    private void reloadAutocomplete() {
+        var task = new Task<ExerciseAutocomplete>() {
+            @Override
+            protected ExerciseAutocomplete call() throws SQLException {
+                return new ExerciseAutocomplete(workoutService.getExerciseCatalog(),
+                        workoutService.getExerciseLogCounts());
+            }
+        };
+        task.setOnSucceeded(e -> autocomplete = task.getValue());
+        task.setOnFailed(e -> LOG.error("Error loading exercise counts: {}",
+                task.getException().getMessage(), task.getException()));
+        executor.execute(task);
+    }
 
+    // the view is cached between navigations, so start over in place
+    private void resetForm() {
+        workoutInfoContainer.getChildren().clear();
+        exercisesContainer.getChildren().clear();
         addWorkoutInfoSection();
         addExerciseSection();
     }
@@ -87,37 +156,20 @@ public final class AddWorkoutController {
 
         var exerciseLabel = new Label("Exercise " + exerciseNumber);
 
-        List<String> exerciseNamesCopy = allExercises.stream()
-                .map(Exercise::name)
-                .toList();
-
         var exerciseCombo = new ComboBox<String>();
         exerciseCombo.setEditable(true);
         exerciseCombo.setPromptText("Enter exercise name");
         exerciseCombo.setMaxWidth(MAX_COMBO_WIDTH);
 
-        exerciseCombo.setItems(FXCollections.observableArrayList(exerciseNamesCopy));
+        exerciseCombo.setItems(FXCollections.observableArrayList(autocomplete.allNames()));
 
         TextField editor = exerciseCombo.getEditor();
+        long[] suggestGeneration = {0};
         editor.textProperty().addListener((obs, oldVal, newVal) -> {
             if (exerciseCombo.getValue() != null && newVal.equals(exerciseCombo.getValue())) {
                 return;
             }
-
-            var items = exerciseCombo.getItems();
-            items.clear();
-
-            if (newVal == null || newVal.trim().isEmpty()) {
-                items.addAll(exerciseNamesCopy);
-            } else {
-                var filtered = exerciseNamesCopy.stream()
-                        .filter(name -> name.toLowerCase().contains(newVal.toLowerCase()))
-                        .limit(PROMPT_LIMIT)
-                        .toList();
-                items.addAll(filtered);
-            }
-
-            exerciseCombo.show();
+            suggest(exerciseCombo, newVal, suggestGeneration);
         });
 
         exerciseCombo.getSelectionModel().selectedItemProperty()
@@ -160,6 +212,31 @@ public final class AddWorkoutController {
         exercisesContainer.getChildren().add(exerciseBox);
     }
 
+    // ranks off the FX thread; only the newest result for this combo is applied
+    private void suggest(final ComboBox<String> combo, final String query,
+                         final long[] latest) {
+        long generation = ++latest[0];
+        var source = autocomplete;
+        var task = new Task<List<String>>() {
+            @Override
+            protected List<String> call() {
+                return source.suggest(query, PROMPT_LIMIT);
+            }
+        };
+        task.setOnSucceeded(e -> {
+            if (generation != latest[0]) {
+                return;
+            }
+            combo.getItems().setAll(task.getValue());
+            if (!combo.isShowing()) {
+                combo.show();
+            }
+        });
+        task.setOnFailed(e -> LOG.error("Error ranking exercises: {}",
+                task.getException().getMessage(), task.getException()));
+        executor.execute(task);
+    }
+
     private void addSet(final VBox setsContainer) {
         var setNumber = setsContainer.getChildren().size() + 1;
 
@@ -284,17 +361,44 @@ public final class AddWorkoutController {
                 exList.add(new ExerciseWithSets(exerciseName, setsString));
             }
 
-            workoutService.saveWorkout(date, bodyweight, exList);
+            save(date, bodyweight, exList);
 
+        } catch (Exception e) {
+            showAlert("Fields are either not filled, or not valid.");
+        }
+    }
+
+    // the write may queue behind an import for the single writer connection
+    private void save(final Date date, final double bodyweight,
+                      final List<ExerciseWithSets> exList) {
+        var task = new Task<Void>() {
+            @Override
+            protected Void call() throws SQLException {
+                workoutService.saveWorkout(date, bodyweight, exList);
+                return null;
+            }
+        };
+        task.setOnSucceeded(e -> {
+            saveButton.setDisable(false);
             var ok = new Alert(Alert.AlertType.INFORMATION);
             ok.setTitle("Success");
             ok.setContentText("Workout saved");
             ok.showAndWait();
-            navigator.showAddWorkout();
-
-        } catch (Exception e) {
-            showAlert("Fields are either not filled, or not valid.");
-        }
+            resetForm();
+            reloadAutocomplete();
+        });
+        task.setOnFailed(e -> {
+            saveButton.setDisable(false);
+            LOG.error("Error saving workout: {}", task.getException().getMessage(),
+                    task.getException());
+            var err = new Alert(Alert.AlertType.ERROR);
+            err.setTitle("Error");
+            err.setHeaderText("Could not save the workout.");
+            err.setContentText(task.getException().getMessage());
+            err.showAndWait();
+        });
+        saveButton.setDisable(true);
+        executor.execute(task);
     }
 
     private void showAlert(final String message) {
@@ -346,41 +450,263 @@ public final class AddWorkoutController {
         return setsString.toString();
     }
 
+    @FXML
+    private void importHistory() {
+        var chooser = new FileChooser();
+        chooser.setTitle("Import workout history");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter(
+                "CSV or JSON workout logs", "*.csv", "*.json", "*.jsonl"));
+        var file = chooser.showOpenDialog(importButton.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+
+        var importer = new WorkoutImporter(workoutService);
+        var task = new Task<WorkoutImporter.Result>() {
+            @Override
+            protected WorkoutImporter.Result call() throws Exception {
+                return importer.importFile(file.toPath(), progress -> updateMessage(
+                        "Imported " + progress.sessions() + " sessions, "
+                                + progress.rejected() + " rows rejected..."));
+            }
+        };
+        task.messageProperty().addListener((obs, old, message) -> importStatus.setText(message));
+        task.setOnSucceeded(e -> {
+            importButton.setDisable(false);
+            var result = task.getValue();
+            importStatus.setText("Imported " + result.sessions() + " sessions with "
+                    + result.exercises() + " exercises, " + result.rejected() + " rejected.");
+            if (!result.errors().isEmpty()) {
+                var warn = new Alert(Alert.AlertType.WARNING);
+                warn.setTitle("Import finished with errors");
+                warn.setHeaderText(result.rejected() + " records were skipped.");
+                warn.setContentText(String.join("\n", result.errors()));
+                warn.showAndWait();
+            }
+            reloadAutocomplete();
+        });
+        task.setOnFailed(e -> {
+            importButton.setDisable(false);
+            importStatus.setText("");
+            LOG.error("Error importing {}: {}", file, task.getException().getMessage(),
+                    task.getException());
+            var err = new Alert(Alert.AlertType.ERROR);
+            err.setTitle("Error");
+            err.setHeaderText("Could not import " + file.getName() + ".");
+            err.setContentText(task.getException().getMessage());
+            err.showAndWait();
+        });
+        importButton.setDisable(true);
+        importStatus.setText("Importing " + file.getName() + "...");
+        bulkExecutor.execute(task);
+    }
+
+    @FXML
+    private void exportHistory() {
+        var chooser = new FileChooser();
+        chooser.setTitle("Export workout history");
+        chooser.setInitialFileName("workouts.csv");
+        chooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("CSV", "*.csv"),
+                new FileChooser.ExtensionFilter("JSON Lines", "*.jsonl"));
+        var file = chooser.showSaveDialog(exportButton.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+
+        var exporter = new WorkoutExporter(workoutService);
+        var task = new Task<WorkoutExporter.Result>() {
+            @Override
+            protected WorkoutExporter.Result call() throws Exception {
+                var path = file.toPath();
+                return exporter.exportFile(path, HistoryFormat.of(path), DateRange.ALL, null);
+            }
+        };
+        task.setOnSucceeded(e -> {
+            exportButton.setDisable(false);
+            var result = task.getValue();
+            importStatus.setText("Exported " + result.sessions() + " sessions with "
+                    + result.exercises() + " exercises to " + file.getName() + ".");
+        });
+        task.setOnFailed(e -> {
+            exportButton.setDisable(false);
+            importStatus.setText("");
+            LOG.error("Error exporting {}: {}", file, task.getException().getMessage(),
+                    task.getException());
+            var err = new Alert(Alert.AlertType.ERROR);
+            err.setTitle("Error");
+            err.setHeaderText("Could not export to " + file.getName() + ".");
+            err.setContentText(task.getException().getMessage());
+            err.showAndWait();
+        });
+        exportButton.setDisable(true);
+        importStatus.setText("Exporting to " + file.getName() + "...");
+        bulkExecutor.execute(task);
+    }
+
+    @FXML
+    private void restoreSnapshot() {
+        var chooser = new FileChooser();
+        chooser.setTitle("Restore snapshot");
+        chooser.getExtensionFilters().add(SNAPSHOT_FILTER);
+        var file = chooser.showOpenDialog(restoreButton.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+
+        var archive = new SnapshotArchive(workoutService);
+        var task = new Task<SnapshotArchive.Result>() {
+            @Override
+            protected SnapshotArchive.Result call() throws Exception {
+                return archive.restore(file.toPath());
+            }
+        };
+        task.setOnSucceeded(e -> {
+            restoreButton.setDisable(false);
+            var result = task.getValue();
+            importStatus.setText("Restored " + result.sessions() + " sessions with "
+                    + result.exercises() + " exercises.");
+            reloadAutocomplete();
+        });
+        task.setOnFailed(e -> {
+            restoreButton.setDisable(false);
+            importStatus.setText("");
+            LOG.error("Error restoring {}: {}", file, task.getException().getMessage(),
+                    task.getException());
+            var err = new Alert(Alert.AlertType.ERROR);
+            err.setTitle("Error");
+            err.setHeaderText("Could not restore " + file.getName() + ".");
+            err.setContentText(task.getException().getMessage());
+            err.showAndWait();
+        });
+        restoreButton.setDisable(true);
+        importStatus.setText("Restoring " + file.getName() + "...");
+        bulkExecutor.execute(task);
+    }
+
+    // runs on the backup thread, so a long copy never holds up the loader
+    @FXML
+    private void backupNow() {
+        backupButton.setDisable(true);
+        importStatus.setText("Backing up...");
+        databaseBackup.request().whenComplete((file, error) -> Platform.runLater(() -> {
+            backupButton.setDisable(false);
+            if (error == null) {
+                importStatus.setText("Backed up to " + file.getFileName() + ".");
+                return;
+            }
+            var cause = error.getCause() != null ? error.getCause() : error;
+            importStatus.setText("");
+            LOG.error("Error backing up: {}", cause.getMessage(), cause);
+            var err = new Alert(Alert.AlertType.ERROR);
+            err.setTitle("Error");
+            err.setHeaderText("Could not back up the database.");
+            err.setContentText(cause.getMessage());
+            err.showAndWait();
+        }));
+    }
+
     @FXML
     private void deleteDB() {
-        var confirm = new Alert(Alert.AlertType.CONFIRMATION);
+        var snapshotFirst = new ButtonType("Snapshot, then delete", ButtonBar.ButtonData.OTHER);
+        var delete = new ButtonType("Delete", ButtonBar.ButtonData.OK_DONE);
+        var confirm = new Alert(Alert.AlertType.CONFIRMATION,
+                "This will permanently delete all workouts. Save a snapshot first?",
+                snapshotFirst, delete, ButtonType.CANCEL);
         confirm.setTitle("Confirm deletion");
         confirm.setHeaderText("Delete all saved data?");
-        confirm.setContentText("This will permanently delete all workouts. Continue?");
 
         var result = confirm.showAndWait();
-        if (result.isEmpty() || result.get() != ButtonType.OK) {
+        if (result.isEmpty() || result.get() == ButtonType.CANCEL) {
+            return;
+        }
+        if (result.get() == delete) {
+            deleteDatabaseFile();
             return;
         }
 
-        try {
-            boolean deleted = workoutService.deleteDatabase();
-            if (deleted) {
+        var chooser = new FileChooser();
+        chooser.setTitle("Save snapshot");
+        chooser.setInitialFileName("workouts.snapshot");
+        chooser.getExtensionFilters().add(SNAPSHOT_FILTER);
+        var file = chooser.showSaveDialog(restoreButton.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+
+        var archive = new SnapshotArchive(workoutService);
+        var task = new Task<SnapshotArchive.Result>() {
+            @Override
+            protected SnapshotArchive.Result call() throws Exception {
+                return archive.write(file.toPath());
+            }
+        };
+        task.setOnSucceeded(e -> {
+            var written = task.getValue();
+            importStatus.setText("Saved " + written.sessions() + " sessions to "
+                    + file.getName() + ".");
+            deleteDatabaseFile();
+        });
+        task.setOnFailed(e -> {
+            importStatus.setText("");
+            LOG.error("Error writing snapshot {}: {}", file, task.getException().getMessage(),
+                    task.getException());
+            var err = new Alert(Alert.AlertType.ERROR);
+            err.setTitle("Error");
+            err.setHeaderText("Could not save the snapshot; nothing was deleted.");
+            err.setContentText(task.getException().getMessage());
+            err.showAndWait();
+        });
+        importStatus.setText("Saving snapshot to " + file.getName() + "...");
+        bulkExecutor.execute(task);
+    }
+
+    // queued behind any bulk job, then run on the loader once its reads
+    // finish, so nothing still holds a connection to the old file
+    private void deleteDatabaseFile() {
+        var task = new Task<Boolean>() {
+            @Override
+            protected Boolean call() throws Exception {
+                var delete = new FutureTask<>(() ->
+                        databaseBackup.exclusive(workoutService::deleteDatabase));
+                executor.execute(delete);
+                try {
+                    return delete.get();
+                } catch (ExecutionException e) {
+                    throw e.getCause() instanceof Exception cause ? cause : e;
+                }
+            }
+        };
+        task.setOnSucceeded(e -> {
+            importStatus.setText("");
+            if (task.getValue()) {
                 var ok = new Alert(Alert.AlertType.INFORMATION);
                 ok.setTitle("Success");
                 ok.setHeaderText(null);
                 ok.setContentText("All data deleted.");
                 ok.showAndWait();
+                reloadAutocomplete();
             } else {
                 var warn = new Alert(Alert.AlertType.WARNING);
                 warn.setTitle("File not found");
                 warn.setHeaderText("Database file not found.");
                 warn.setContentText("Expected path:\n"
-                        + Paths.get("workouts.db").toAbsolutePath());
+                        + DatabaseHelper.databaseFile().toAbsolutePath());
                 warn.showAndWait();
             }
-        } catch (Exception ex) {
+        });
+        task.setOnFailed(e -> {
+            importStatus.setText("");
+            LOG.error("Error deleting the database: {}", task.getException().getMessage(),
+                    task.getException());
             var err = new Alert(Alert.AlertType.ERROR);
             err.setTitle("Error");
             err.setHeaderText("Could not delete database file.");
-            err.setContentText(ex.getMessage());
+            err.setContentText(task.getException().getMessage());
             err.showAndWait();
-        }
+        });
+        importStatus.setText("Deleting all data...");
+        bulkExecutor.execute(task);
     }
 
     @FXML
@@ -0,0 +1,113 @@
+package app.tracker;
+
+import app.database.DatabaseBackup;
+import app.database.DatabaseHelper;
+import app.database.OrmLiteTransactionRunner;
+import app.service.GraphsService;
+import app.service.StatisticsService;
+import app.service.WorkoutCache;
+import app.service.WorkoutService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Application-scoped object graph, built once at startup and shared by
+ * every screen.
+ */
+final class AppContext implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AppContext.class);
+    private static final int KEEP_BACKUPS = 7;
+    private static final Duration BACKUP_INTERVAL = Duration.ofHours(6);
+
+    private final WorkoutService workoutService;
+    private final StatisticsService statisticsService;
+    private final GraphsService graphsService;
+    private final ExecutorService backgroundExecutor;
+    private final ExecutorService bulkExecutor;
+    private final DatabaseBackup databaseBackup;
+
+    AppContext(final WorkoutService workoutService) {
+        this.workoutService = workoutService;
+        this.statisticsService = new StatisticsService(workoutService);
+        this.graphsService = new GraphsService(workoutService);
+        this.backgroundExecutor = daemonExecutor("background-loader");
+        this.bulkExecutor = daemonExecutor("bulk-jobs");
+        this.databaseBackup = new DatabaseBackup(DatabaseHelper::connectionSource,
+                DatabaseHelper.backupDirectory(), KEEP_BACKUPS);
+    }
+
+    static AppContext create() {
+        DatabaseHelper.init();
+        var workoutService = new WorkoutService(
+                DatabaseHelper.workoutSessionRepo(),
+                DatabaseHelper.workoutExerciseRepo(),
+                DatabaseHelper.workoutSetRepo(),
+                DatabaseHelper.personalRecordRepo(),
+                DatabaseHelper.volumeRollupRepo(),
+                new OrmLiteTransactionRunner(DatabaseHelper::connectionSource),
+                new WorkoutCache());
+        var context = new AppContext(workoutService);
+        context.databaseBackup.schedule(BACKUP_INTERVAL);
+        context.bulkExecutor.submit(() -> {
+            try {
+                if (workoutService.backfillVolumeRollups()) {
+                    LOG.info("Rebuilt volume rollups with muscle groups");
+                }
+            } catch (Exception e) {
+                LOG.error("Error backfilling volume rollups: {}", e.getMessage(), e);
+            }
+        });
+        return context;
+    }
+
+    WorkoutService workoutService() {
+        return workoutService;
+    }
+
+    StatisticsService statisticsService() {
+        return statisticsService;
+    }
+
+    GraphsService graphsService() {
+        return graphsService;
+    }
+
+    /** Runs database reads off the FX thread. */
+    ExecutorService backgroundExecutor() {
+        return backgroundExecutor;
+    }
+
+    /**
+     * Runs imports, exports, snapshots and deletes one at a time, so a
+     * long job never holds up view loads or suggestions.
+     */
+    ExecutorService bulkExecutor() {
+        return bulkExecutor;
+    }
+
+    /** Scheduled and on-demand copies of the database, on their own thread. */
+    DatabaseBackup databaseBackup() {
+        return databaseBackup;
+    }
+
+    @Override
+    public void close() {
+        backgroundExecutor.shutdownNow();
+        bulkExecutor.shutdownNow();
+        databaseBackup.close();
+        DatabaseHelper.close();
+    }
+
+    private static ExecutorService daemonExecutor(final String name) {
+        return Executors.newSingleThreadExecutor(r -> {
+            var thread = new Thread(r, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -1,20 +1,18 @@
 package app.tracker;
 
-import app.database.DatabaseHelper;
-import app.database.OrmLiteWorkoutExerciseRepository;
-import app.database.OrmLiteWorkoutSessionRepository;
-import app.service.GraphsService;
 import app.service.Navigator;
-import app.service.StatisticsService;
-import app.service.WorkoutService;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.image.Image;
 import javafx.stage.Stage;
+import javafx.util.Callback;
 
 import java.io.IOException;
 import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
 
 public final class MainApplication extends Application implements Navigator {
@@ -25,11 +23,16 @@ public final class MainApplication extends Application implements Navigator {
     private static final double SCENE_HEIGHT = 900;
 
     private Stage primaryStage;
+    private AppContext context;
+    private Scene scene;
+    private final Map<String, View> views = new HashMap<>();
+
+    private record View(Parent root, Refreshable controller) {}
 
     @Override
     public void start(final Stage stage) throws IOException, SQLException {
         primaryStage = stage;
-        DatabaseHelper.init();
+        context = AppContext.create();
         showAddWorkout();
 
         stage.getIcons().add(new Image("/icon.jpg"));
@@ -39,75 +42,77 @@ public final class MainApplication extends Application implements Navigator {
         stage.show();
     }
 
-    public void showAddWorkout() throws IOException, SQLException {
-        var cs = DatabaseHelper.connectionSource();
-        var sessionRepo = new OrmLiteWorkoutSessionRepository(cs);
-        var exerciseRepo = new OrmLiteWorkoutExerciseRepository(cs);
-        var workoutService = new WorkoutService(sessionRepo, exerciseRepo);
-
-        var loader = new FXMLLoader(
-                MainApplication.class.getResource("add-workout-view.fxml"));
-        loader.setControllerFactory(c -> {
+    public void showAddWorkout() throws IOException {
+        show("add-workout-view.fxml", "Add workout", c -> {
             if (c == AddWorkoutController.class) {
-                return new AddWorkoutController(workoutService, this);
+                return new AddWorkoutController(context.workoutService(), this,
+                        context.backgroundExecutor(), context.bulkExecutor(),
+                        context.databaseBackup());
             }
             throw new IllegalStateException(
                     "Unknown controller class: " + c);
         });
-
-        var scene = new Scene(loader.load(), SCENE_WIDTH, SCENE_HEIGHT);
-        scene.getStylesheets().add(Objects.requireNonNull(
-                getClass().getResource("/styles.css")).toExternalForm());
-        primaryStage.setScene(scene);
-        primaryStage.setTitle("Add workout");
     }
 
-    public void showViewStatistics() throws IOException, SQLException {
-        var cs = DatabaseHelper.connectionSource();
-        var sessionRepo = new OrmLiteWorkoutSessionRepository(cs);
-        var exerciseRepo = new OrmLiteWorkoutExerciseRepository(cs);
-        var workoutService = new WorkoutService(sessionRepo, exerciseRepo);
-        var statisticsService = new StatisticsService(workoutService);
-
-        var loader = new FXMLLoader(
-                MainApplication.class.getResource("view-statistics-view.fxml"));
-        loader.setControllerFactory(c -> {
+    public void showViewStatistics() throws IOException {
+        show("view-statistics-view.fxml", "Statistics", c -> {
             if (c == ViewStatisticsController.class) {
-                return new ViewStatisticsController(statisticsService, this);
+                return new ViewStatisticsController(context.statisticsService(), this,
+                        context.backgroundExecutor(), context.bulkExecutor());
             }
             throw new IllegalStateException(
                     "Unknown controller class: " + c);
         });
-
-        var scene = new Scene(loader.load(), SCENE_WIDTH, SCENE_HEIGHT);
-        scene.getStylesheets().add(Objects.requireNonNull(
-                getClass().getResource("/styles.css")).toExternalForm());
-        primaryStage.setScene(scene);
-        primaryStage.setTitle("Statistics");
     }
 
-    public void showViewGraphs() throws IOException, SQLException {
-        var cs = DatabaseHelper.connectionSource();
-        var sessionRepo = new OrmLiteWorkoutSessionRepository(cs);
-        var exerciseRepo = new OrmLiteWorkoutExerciseRepository(cs);
-        var workoutService = new WorkoutService(sessionRepo, exerciseRepo);
-        var graphsService = new GraphsService(workoutService);
-
-        var loader = new FXMLLoader(
-                MainApplication.class.getResource("view-graphs-view.fxml"));
-        loader.setControllerFactory(c -> {
+    public void showViewGraphs() throws IOException {
+        show("view-graphs-view.fxml", "Progress", c -> {
             if (c == ViewGraphsController.class) {
-                return new ViewGraphsController(graphsService, this);
+                return new ViewGraphsController(context.graphsService(), this,
+                        context.backgroundExecutor());
             }
             throw new IllegalStateException(
                     "Unknown controller class: " + c);
         });
+    }
+
+    // FXML is parsed once per view; later visits only swap the scene root
+    private void show(final String fxml, final String title,
+                      final Callback<Class<?>, Object> controllerFactory) throws IOException {
+        var view = views.get(fxml);
+        if (view == null) {
+            view = load(fxml, controllerFactory);
+            views.put(fxml, view);
+        }
+
+        if (scene == null) {
+            scene = new Scene(view.root(), SCENE_WIDTH, SCENE_HEIGHT);
+            scene.getStylesheets().add(Objects.requireNonNull(
+                    getClass().getResource("/styles.css")).toExternalForm());
+            primaryStage.setScene(scene);
+        } else {
+            scene.setRoot(view.root());
+        }
+        primaryStage.setTitle(title);
+        view.controller().refresh();
+    }
 
-        var scene = new Scene(loader.load(), SCENE_WIDTH, SCENE_HEIGHT);
-        scene.getStylesheets().add(Objects.requireNonNull(
-                getClass().getResource("/styles.css")).toExternalForm());
-        primaryStage.setScene(scene);
-        primaryStage.setTitle("Progress");
+    private View load(final String fxml,
+                      final Callback<Class<?>, Object> controllerFactory) throws IOException {
+        var loader = new FXMLLoader(MainApplication.class.getResource(fxml));
+        loader.setControllerFactory(controllerFactory);
+        Parent root = loader.load();
+        Object controller = loader.getController();
+        return new View(root, controller instanceof Refreshable refreshable
+                ? refreshable
+                : () -> { });
+    }
+
+    @Override
+    public void stop() {
+        if (context != null) {
+            context.close();
+        }
     }
 
     public static void main(final String[] args) {
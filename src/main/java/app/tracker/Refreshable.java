@@ -0,0 +1,7 @@
+package app.tracker;
+
+/** A cached view that is told each time it is shown again. */
+@FunctionalInterface
+public interface Refreshable {
+    void refresh();
+}
@@ -1,65 +1,167 @@
 package app.tracker;
 
+import app.model.DateRange;
 import app.service.GraphsService;
 import app.service.Navigator;
+import app.service.Period;
+import app.service.ProgressMetric;
+import app.service.TimeSeries;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
-import javafx.scene.chart.CategoryAxis;
 import javafx.scene.chart.LineChart;
 import javafx.scene.chart.NumberAxis;
 import javafx.scene.chart.XYChart;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
 import javafx.scene.layout.Pane;
-import javafx.util.Pair;
+import javafx.util.StringConverter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.sql.SQLException;
-import java.text.SimpleDateFormat;
+import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executor;
 
-public final class ViewGraphsController {
+public final class ViewGraphsController implements Refreshable {
+
+    private static final String BODYWEIGHT = "Bodyweight";
+    private static final Logger LOG = LoggerFactory.getLogger(ViewGraphsController.class);
 
     @FXML private ComboBox<String> chartCombo;
+    @FXML private ComboBox<ProgressMetric> metricCombo;
+    @FXML private ComboBox<Period> periodCombo;
     @FXML private Pane chartPane;
     @FXML private Label statusLabel;
 
     private final Navigator navigator;
     private final GraphsService graphsService;
-    private LineChart<String, Number> lineChart;
-    private static final SimpleDateFormat DATE_FMT =
-            new SimpleDateFormat("yyyy-MM-dd");
+    private final Executor executor;
+    private LineChart<Number, Number> lineChart;
+    private NumberAxis xAxis;
+    private final List<PlotSpec> overlays = new ArrayList<>();
+    private List<Plot> plots = List.of();
+    private double padding;
+    private long loadedVersion = -1;
+    private long loadGeneration;
+
+    /** What one line shows; the metric is ignored for bodyweight. */
+    private record PlotSpec(String chart, ProgressMetric metric) {
+        String label() {
+            return BODYWEIGHT.equals(chart) ? chart : chart + " - " + metric;
+        }
+    }
+
+    private record Plot(TimeSeries series, XYChart.Series<Number, Number> line) {}
+
+    // x is an epoch day; labels show the date
+    private static final StringConverter<Number> DAY_LABELS = new StringConverter<>() {
+        @Override
+        public String toString(final Number day) {
+            return LocalDate.ofEpochDay(Math.round(day.doubleValue())).toString();
+        }
+
+        @Override
+        public Number fromString(final String text) {
+            return LocalDate.parse(text).toEpochDay();
+        }
+    };
 
     public ViewGraphsController(
             final GraphsService graphsService,
-            final Navigator navigator) {
+            final Navigator navigator,
+            final Executor executor) {
         this.navigator = navigator;
         this.graphsService = graphsService;
+        this.executor = executor;
     }
 
     @FXML
     public void initialize() {
-        var xAxis = new CategoryAxis();
+        xAxis = new NumberAxis();
         xAxis.setLabel("Date");
+        xAxis.setAutoRanging(false);
+        xAxis.setForceZeroInRange(false);
+        xAxis.setTickLabelFormatter(DAY_LABELS);
 
         var yAxis = new NumberAxis();
         yAxis.setLabel("Weight (kg)");
 
         lineChart = new LineChart<>(xAxis, yAxis);
-        lineChart.setPrefSize(1100, 700);
+        lineChart.prefWidthProperty().bind(chartPane.widthProperty());
+        lineChart.prefHeightProperty().bind(chartPane.heightProperty());
         lineChart.setAnimated(false);
         lineChart.setLegendVisible(false);
         chartPane.getChildren().add(lineChart);
 
-        try {
-            chartCombo.getItems().add("Bodyweight");
-            chartCombo.getItems().addAll(graphsService.getExerciseNames());
+        // the plot holds at most one point per pixel, so re-pick on resize and zoom
+        xAxis.widthProperty().addListener((obs, o, n) -> resample());
+        lineChart.setOnScroll(this::zoom);
+        lineChart.setOnMouseClicked(this::resetZoomOnDoubleClick);
+
+        metricCombo.getItems().addAll(ProgressMetric.values());
+        metricCombo.getSelectionModel().selectFirst();
+        metricCombo.getSelectionModel().selectedItemProperty()
+                .addListener((obs, o, n) -> reloadChart());
+        periodCombo.getItems().addAll(Period.values());
+        periodCombo.getSelectionModel().selectFirst();
+        periodCombo.getSelectionModel().selectedItemProperty()
+                .addListener((obs, o, n) -> reloadChart());
+        chartCombo.getSelectionModel().selectedItemProperty()
+                .addListener((obs, o, n) -> {
+                    metricCombo.setDisable(BODYWEIGHT.equals(n));
+                    reloadChart();
+                });
+    }
+
+    @Override
+    public void refresh() {
+        long version = graphsService.getDataVersion();
+        if (version == loadedVersion) {
+            return;
+        }
+
+        var task = new Task<List<String>>() {
+            @Override
+            protected List<String> call() throws SQLException {
+                return graphsService.getExerciseNames();
+            }
+        };
+        // a failed load leaves the chart stale, so the next refresh retries
+        task.setOnSucceeded(e -> {
+            loadedVersion = version;
+            showChartNames(task.getValue());
+        });
+        task.setOnFailed(e -> {
+            statusLabel.setText("Error loading data");
+            LOG.error("Error loading exercise names: {}",
+                    task.getException().getMessage(), task.getException());
+        });
+        executor.execute(task);
+    }
+
+    private void showChartNames(final List<String> exerciseNames) {
+        var selected = chartCombo.getValue();
+        List<String> items = new ArrayList<>();
+        items.add(BODYWEIGHT);
+        items.addAll(exerciseNames);
+        if (!items.equals(chartCombo.getItems())) {
+            chartCombo.getItems().setAll(items);
+        }
+        if (selected != null && items.contains(selected)) {
+            chartCombo.getSelectionModel().select(selected);
+        } else {
             chartCombo.getSelectionModel().selectFirst();
-            chartCombo.getSelectionModel().selectedItemProperty()
-                    .addListener((obs, o, n) -> reloadChart());
+        }
+        // a changed selection has already reloaded through its listener
+        if (Objects.equals(selected, chartCombo.getValue())) {
             reloadChart();
-        } catch (SQLException e) {
-            statusLabel.setText("Error loading data");
         }
     }
 
@@ -69,84 +171,203 @@ public final class ViewGraphsController {
             return;
         }
 
-        try {
-            lineChart.getData().clear();
+        List<PlotSpec> specs = new ArrayList<>();
+        specs.add(new PlotSpec(selected, metricCombo.getValue()));
+        for (PlotSpec overlay : overlays) {
+            if (!specs.contains(overlay)) {
+                specs.add(overlay);
+            }
+        }
+        var range = selectedRange();
+        long generation = ++loadGeneration;
 
-            if ("Bodyweight".equals(selected)) {
-                loadBodyweightChart();
-            } else {
-                loadExerciseChart(selected);
+        var task = new Task<List<TimeSeries>>() {
+            @Override
+            protected List<TimeSeries> call() throws SQLException {
+                return load(specs, range);
             }
-        } catch (SQLException e) {
-            statusLabel.setText("Error: " + e.getMessage());
+        };
+        task.setOnSucceeded(e -> {
+            if (generation == loadGeneration) {
+                show(specs, task.getValue());
+            }
+        });
+        task.setOnFailed(e -> {
+            statusLabel.setText("Error: " + task.getException().getMessage());
+            LOG.error("Error loading chart: {}",
+                    task.getException().getMessage(), task.getException());
+        });
+        executor.execute(task);
+    }
+
+    // runs on the executor; each exercise's metrics come from one pass
+    private List<TimeSeries> load(final List<PlotSpec> specs, final DateRange range)
+            throws SQLException {
+        Map<String, Map<ProgressMetric, TimeSeries>> byExercise = new HashMap<>();
+        List<TimeSeries> series = new ArrayList<>(specs.size());
+        for (PlotSpec spec : specs) {
+            if (BODYWEIGHT.equals(spec.chart())) {
+                series.add(graphsService.getBodyweightSeries(range));
+                continue;
+            }
+            var metrics = byExercise.get(spec.chart());
+            if (metrics == null) {
+                metrics = graphsService.getExerciseMetrics(spec.chart(), range);
+                byExercise.put(spec.chart(), metrics);
+            }
+            series.add(metrics.get(spec.metric()));
         }
+        return series;
     }
 
-    private void loadBodyweightChart() throws SQLException {
-        var data = graphsService.getBodyweightData();
-        XYChart.Series<String, Number> series = new XYChart.Series<>();
-        series.setName("Bodyweight");
+    private void show(final List<PlotSpec> specs, final List<TimeSeries> series) {
+        lineChart.getData().clear();
+        List<Plot> shown = new ArrayList<>(specs.size());
+        for (int i = 0; i < specs.size(); i++) {
+            XYChart.Series<Number, Number> line = new XYChart.Series<>();
+            line.setName(specs.get(i).label());
+            lineChart.getData().add(line);
+            shown.add(new Plot(series.get(i), line));
+        }
+        plots = shown;
+
+        var primary = specs.get(0);
+        boolean bodyweight = BODYWEIGHT.equals(primary.chart());
+        padding = bodyweight ? PADDING_BODYWEIGHT : PADDING_EXERCISE;
+        lineChart.getYAxis().setLabel(bodyweight ? "Weight (kg)" : primary.metric().toString());
+        lineChart.setLegendVisible(shown.size() > 1);
+        statusLabel.setText("");
+        showWholeSeries();
+    }
 
-        List<Double> values = new ArrayList<>();
-        data.stream()
-                .sorted(Comparator.comparing(Pair::getKey))
-                .forEach(p -> {
-                    String dateStr = DATE_FMT.format(p.getKey());
-                    series.getData().add(
-                            new XYChart.Data<>(dateStr, p.getValue()));
-                    values.add(p.getValue());
-                });
+    @FXML
+    private void addOverlay() {
+        var selected = chartCombo.getValue();
+        if (selected == null) {
+            return;
+        }
+        var spec = new PlotSpec(selected, metricCombo.getValue());
+        if (!overlays.contains(spec)) {
+            overlays.add(spec);
+        }
+        statusLabel.setText("Pinned " + spec.label());
+    }
 
-        NumberAxis yAxis = (NumberAxis) lineChart.getYAxis();
-        adjustYAxis(yAxis, values, PADDING_BODYWEIGHT);
+    @FXML
+    private void clearOverlays() {
+        overlays.clear();
+        reloadChart();
+    }
 
-        lineChart.getData().add(series);
+    private DateRange selectedRange() {
+        var period = periodCombo.getValue();
+        return period == null ? DateRange.ALL : period.range(LocalDate.now());
     }
 
-    private void loadExerciseChart(final String exerciseName) throws SQLException {
-        var data = graphsService.getExerciseData(exerciseName);
+    private void showWholeSeries() {
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (Plot plot : plots) {
+            if (!plot.series().isEmpty()) {
+                min = Math.min(min, plot.series().minX());
+                max = Math.max(max, plot.series().maxX());
+            }
+        }
+        if (min > max) {
+            setDayRange(0, 1);
+        } else {
+            setDayRange(min - 1, max + 1);
+        }
+        resample();
+    }
 
-        XYChart.Series<String, Number> weightSeries = new XYChart.Series<>();
-        weightSeries.setName("Weight (kg)");
+    // LTTB over the visible days, one point per horizontal pixel at most
+    private void resample() {
+        double width = xAxis.getWidth() > 0 ? xAxis.getWidth() : lineChart.getPrefWidth();
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        int points = 0;
+        for (Plot plot : plots) {
+            var visible = plot.series().downsample(
+                    xAxis.getLowerBound(), xAxis.getUpperBound(), (int) width);
+            List<XYChart.Data<Number, Number>> data = new ArrayList<>(visible.size());
+            for (int i = 0; i < visible.size(); i++) {
+                data.add(new XYChart.Data<>(visible.x(i), visible.y(i)));
+                min = Math.min(min, visible.y(i));
+                max = Math.max(max, visible.y(i));
+            }
+            plot.line().getData().setAll(data);
+            points = Math.max(points, visible.size());
+        }
+        lineChart.setCreateSymbols(points * SYMBOL_SPACING <= width);
+        if (min <= max) {
+            adjustYAxis((NumberAxis) lineChart.getYAxis(), min, max, padding);
+        }
+    }
 
-        List<Double> weightValues = new ArrayList<>();
+    private void zoom(final ScrollEvent event) {
+        if (plots.isEmpty() || event.getDeltaY() == 0) {
+            return;
+        }
+        double factor = event.getDeltaY() > 0 ? ZOOM_IN : 1 / ZOOM_IN;
+        double pivot = xAxis.getValueForDisplay(
+                xAxis.sceneToLocal(event.getSceneX(), event.getSceneY()).getX()).doubleValue();
+        double lower = pivot - (pivot - xAxis.getLowerBound()) * factor;
+        double upper = pivot + (xAxis.getUpperBound() - pivot) * factor;
+        if (upper - lower < MIN_VISIBLE_DAYS) {
+            return;
+        }
+        double first = Double.POSITIVE_INFINITY;
+        double last = Double.NEGATIVE_INFINITY;
+        for (Plot plot : plots) {
+            if (!plot.series().isEmpty()) {
+                first = Math.min(first, plot.series().minX());
+                last = Math.max(last, plot.series().maxX());
+            }
+        }
+        if (first > last) {
+            return;
+        }
+        setDayRange(Math.max(lower, first - 1), Math.min(upper, last + 1));
+        resample();
+        event.consume();
+    }
 
-        data.stream()
-                .sorted(Comparator.comparing(Pair::getKey))
-                .forEach(p -> {
-                    String dateStr = DATE_FMT.format(p.getKey());
-                    double weight = p.getValue();
-                    weightValues.add(weight);
-                    weightSeries.getData().add(new XYChart.Data<>(dateStr, weight));
-                });
+    private void resetZoomOnDoubleClick(final MouseEvent event) {
+        if (event.getClickCount() == 2) {
+            showWholeSeries();
+        }
+    }
 
-        var yAxis = (NumberAxis) lineChart.getYAxis();
-        adjustYAxis(yAxis, weightValues, PADDING_EXERCISE);
-        yAxis.setLabel("Weight (kg)");
+    private void setDayRange(final double lower, final double upper) {
+        xAxis.setLowerBound(lower);
+        xAxis.setUpperBound(upper);
+        xAxis.setTickUnit(dayTick(upper - lower));
+    }
 
-        lineChart.getData().add(weightSeries);
+    private static double dayTick(final double days) {
+        if (days <= 14) return 1;
+        if (days <= 90) return 7;
+        if (days <= 400) return 30;
+        if (days <= 1200) return 91;
+        return 365;
     }
 
     private static final double PADDING_BODYWEIGHT = 0.5;
     private static final double PADDING_EXERCISE = 2.5;
+    private static final double ZOOM_IN = 0.8;
+    private static final double MIN_VISIBLE_DAYS = 7;
+    // symbols only when points are at least this many pixels apart on average
+    private static final int SYMBOL_SPACING = 8;
+    private static final int TARGET_TICKS = 10;
 
     private void adjustYAxis(
             final NumberAxis axis,
-            final List<? extends Number> values,
+            final double lowest,
+            final double highest,
             final double padding) {
-        if (values.isEmpty()) {
-            return;
-        }
-
-        var min = values.stream()
-                .mapToDouble(Number::doubleValue)
-                .min()
-                .orElse(0);
-        var max = values.stream()
-                .mapToDouble(Number::doubleValue)
-                .max()
-                .orElse(0);
-
+        var min = lowest;
+        var max = highest;
         if (min == max) {
             min -= 1;
             max += 1;
@@ -160,13 +381,16 @@ public final class ViewGraphsController {
         axis.setTickUnit(calculateNiceTick(range));
     }
 
-    private double calculateNiceTick(double range) {
-        if (range <= 1) return 0.1;
-        if (range <= 2) return 0.2;
-        if (range <= 5) return 0.5;
-        if (range <= 10) return 1;
-        if (range <= 20) return 2;
-        return 5;
+    // 1, 2 or 5 times a power of ten, giving at most TARGET_TICKS ticks
+    private static double calculateNiceTick(final double range) {
+        if (!(range > 0)) return 1;
+        double raw = range / TARGET_TICKS;
+        double magnitude = Math.pow(10, Math.floor(Math.log10(raw)));
+        double residual = raw / magnitude;
+        if (residual <= 1) return magnitude;
+        if (residual <= 2) return 2 * magnitude;
+        if (residual <= 5) return 5 * magnitude;
+        return 10 * magnitude;
     }
 
     @FXML
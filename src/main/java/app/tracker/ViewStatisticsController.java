@@ -1,10 +1,17 @@
 package app.tracker;
 
+import app.model.DateRange;
+import app.model.VolumeRollup;
 import app.service.Navigator;
+import app.service.Period;
+import app.service.PivotTable;
 import app.service.StatisticsService;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import javafx.collections.transformation.SortedList;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.TableCell;
@@ -16,10 +23,12 @@ import org.slf4j.LoggerFactory;
 
 import java.sql.SQLException;
 import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.Executor;
 
-public final class ViewStatisticsController {
+public final class ViewStatisticsController implements Refreshable {
     private static final int COLUMN_WIDTH_SMALL = 80;
     private static final int COLUMN_WIDTH_MEDIUM = 100;
     private static final int COLUMN_WIDTH_LARGE = 120;
@@ -27,12 +36,15 @@ public final class ViewStatisticsController {
     private static final int COLUMN_WIDTH_XXLARGE = 200;
     private static final int COLUMN_WIDTH_XXXLARGE = 250;
     private static final String DATE_FORMAT = "yyyy-MM-dd";
+    private static final String RECORD_STYLE = "personal-record";
 
     private final Navigator navigator;
 
     @FXML
     private ComboBox<String> modeCombo;
     @FXML
+    private ComboBox<Period> periodCombo;
+    @FXML
     private TextField searchField;
     @FXML
     private TableView<Map<String, Object>> table;
@@ -40,10 +52,24 @@ public final class ViewStatisticsController {
     private static final Logger LOG = LoggerFactory.getLogger(ViewStatisticsController.class);
     private final ObservableList<Map<String, Object>> backingData = FXCollections.observableArrayList();
     private final StatisticsService statisticsService;
+    private final Executor executor;
+    // rebuilds; kept off the loader so the table still loads meanwhile
+    private final Executor bulkExecutor;
+    private final FilteredList<Map<String, Object>> filteredData = new FilteredList<>(backingData);
+    private final SortedList<Map<String, Object>> sortedData = new SortedList<>(filteredData);
+    private long loadedVersion = -1;
+    private long loadGeneration;
+    private Task<Loaded> pendingLoad;
+
+    private record Loaded(char mode, List<? extends Map<String, Object>> rows, PivotTable pivot) {}
 
-    public ViewStatisticsController(final StatisticsService statisticsService, final Navigator navigator) {
+    public ViewStatisticsController(final StatisticsService statisticsService,
+                                    final Navigator navigator,
+                                    final Executor executor, final Executor bulkExecutor) {
         this.statisticsService = statisticsService;
         this.navigator = navigator;
+        this.executor = executor;
+        this.bulkExecutor = bulkExecutor;
     }
 
     @FXML
@@ -51,14 +77,53 @@ public final class ViewStatisticsController {
         modeCombo.getItems().addAll("1) Bodyweight by date",
                 "2) All exercises, all sets",
                 "3) All exercises, best set",
-                "4) All sessions summary");
+                "4) All sessions summary",
+                "5) Weekly volume",
+                "6) Monthly volume");
         modeCombo.getSelectionModel().selectFirst();
+        periodCombo.getItems().addAll(Period.values());
+        periodCombo.getSelectionModel().selectFirst();
 
         modeCombo.getSelectionModel().selectedItemProperty()
                 .addListener((obs, o, n) -> reloadTable());
-        searchField.textProperty().addListener((obs, o, n) -> reloadTable());
+        periodCombo.getSelectionModel().selectedItemProperty()
+                .addListener((obs, o, n) -> reloadTable());
+        // search only narrows rows that are already loaded
+        searchField.textProperty().addListener((obs, o, n) -> applySearch(n));
+
+        sortedData.comparatorProperty().bind(table.comparatorProperty());
+        table.setItems(sortedData);
+    }
+
+    private void applySearch(final String query) {
+        if (query == null || query.isBlank()) {
+            filteredData.setPredicate(null);
+            return;
+        }
+        var needle = query.toLowerCase();
+        filteredData.setPredicate(row -> {
+            if (row instanceof PivotTable.Row pivotRow) {
+                return pivotRow.searchKey().contains(needle);
+            }
+            // service rows are shared, so match the name in place
+            return !(row.get("name") instanceof String name) || containsIgnoreCase(name, needle);
+        });
+    }
+
+    private static boolean containsIgnoreCase(final String text, final String needle) {
+        for (int i = 0; i + needle.length() <= text.length(); i++) {
+            if (text.regionMatches(true, i, needle, 0, needle.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
 
-        reloadTable();
+    @Override
+    public void refresh() {
+        if (loadedVersion != statisticsService.getDataVersion()) {
+            reloadTable();
+        }
     }
 
     private void reloadTable() {
@@ -67,32 +132,86 @@ public final class ViewStatisticsController {
             return;
         }
 
+        long version = statisticsService.getDataVersion();
+        var kind = mode.charAt(0);
+        var range = selectedRange();
+        long generation = ++loadGeneration;
+
+        // a newer query supersedes whatever is still queued or running
+        if (pendingLoad != null) {
+            pendingLoad.cancel(false);
+        }
+        var task = new Task<Loaded>() {
+            @Override
+            protected Loaded call() throws SQLException {
+                return fetch(kind, range);
+            }
+        };
+        // a failed load leaves the table stale, so the next refresh retries
+        task.setOnSucceeded(e -> {
+            if (generation == loadGeneration) {
+                loadedVersion = version;
+                render(task.getValue());
+            }
+        });
+        task.setOnFailed(e -> LOG.error("Error loading statistics: {}",
+                task.getException().getMessage(), task.getException()));
+        pendingLoad = task;
+        executor.execute(task);
+    }
+
+    private Loaded fetch(final char kind, final DateRange range) throws SQLException {
+        return switch (kind) {
+            case '1' -> new Loaded(kind,
+                    statisticsService.getBodyweightByDate(range), null);
+            case '2' -> pivot(kind, statisticsService.getAllSetsPivot(range));
+            case '3' -> pivot(kind, statisticsService.getBestSetPivot(range));
+            case '4' -> new Loaded(kind,
+                    statisticsService.getAllSessionsSummary(null, range), null);
+            case '5' -> new Loaded(kind, statisticsService.getVolumeRollups(
+                    VolumeRollup.Bucket.WEEK, range), null);
+            case '6' -> new Loaded(kind, statisticsService.getVolumeRollups(
+                    VolumeRollup.Bucket.MONTH, range), null);
+            default -> new Loaded(kind, List.of(), null);
+        };
+    }
+
+    private static Loaded pivot(final char kind, final PivotTable pivot) {
+        return new Loaded(kind, pivot.rows(), pivot);
+    }
+
+    private void render(final Loaded loaded) {
         table.getColumns().clear();
         table.setColumnResizePolicy(TableView.UNCONSTRAINED_RESIZE_POLICY);
-        backingData.clear();
-
-        try {
-            switch (mode.charAt(0)) {
-                case '1':
-                    loadBodyweightByDate();
-                    break;
-                case '2':
-                    loadAllExercisesAllSets();
-                    break;
-                case '3':
-                    loadAllExercisesBestSet();
-                    break;
-                case '4':
-                    loadAllSessionsSummary();
-                    break;
-                default:
-                    LOG.warn("Unknown mode selected: {}", mode);
-                    break;
-            }
-            table.setItems(backingData);
-        } catch (SQLException e) {
-            LOG.error("Error loading statistics: {}", e.getMessage(), e);
+
+        switch (loaded.mode()) {
+            case '1':
+                showBodyweightByDate();
+                break;
+            case '2':
+                showAllExercisesAllSets(loaded);
+                break;
+            case '3':
+                showAllExercisesBestSet(loaded);
+                break;
+            case '4':
+                showAllSessionsSummary();
+                break;
+            case '5':
+            case '6':
+                showVolume();
+                break;
+            default:
+                LOG.warn("Unknown mode selected: {}", loaded.mode());
+                break;
         }
+        applySearch(searchField.getText());
+        backingData.setAll(loaded.rows());
+    }
+
+    private DateRange selectedRange() {
+        var period = periodCombo.getValue();
+        return period == null ? DateRange.ALL : period.range(LocalDate.now());
     }
 
     private <T> TableColumn<Map<String, Object>, T> col(final String title,
@@ -104,6 +223,45 @@ public final class ViewStatisticsController {
         return column;
     }
 
+    // reads the matrix by column ordinal instead of looking the date up per cell
+    private void addPivotColumns(final PivotTable pivot, final int prefWidth) {
+        for (int c = 0; c < pivot.columnCount(); c++) {
+            final int column = c;
+            TableColumn<Map<String, Object>, String> tableColumn =
+                    new TableColumn<>(pivot.date(column));
+            tableColumn.setPrefWidth(prefWidth);
+            tableColumn.setCellValueFactory(data -> new SimpleObjectProperty<>(
+                    ((PivotTable.Row) data.getValue()).cell(column)));
+            tableColumn.setCellFactory(col -> new RecordCell(column));
+            table.getColumns().add(tableColumn);
+        }
+    }
+
+    /** Pivot cell that highlights an all-time best set. */
+    private static final class RecordCell extends TableCell<Map<String, Object>, String> {
+        private final int column;
+
+        RecordCell(final int column) {
+            this.column = column;
+        }
+
+        @Override
+        protected void updateItem(final String item, final boolean empty) {
+            super.updateItem(item, empty);
+            getStyleClass().remove(RECORD_STYLE);
+            if (empty || item == null) {
+                setText(null);
+                return;
+            }
+            setText(item);
+            if (getTableRow() != null
+                    && getTableRow().getItem() instanceof PivotTable.Row row
+                    && row.isPersonalRecord(column)) {
+                getStyleClass().add(RECORD_STYLE);
+            }
+        }
+    }
+
     private TableColumn<Map<String, Object>, java.util.Date> dateCol(final int prefWidth) {
         var column = col("Date",
                 "date", prefWidth, java.util.Date.class);
@@ -122,54 +280,34 @@ public final class ViewStatisticsController {
         return column;
     }
 
-    private void loadBodyweightByDate() throws SQLException {
+    private void showBodyweightByDate() {
         table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
         table.getColumns().add(col("Session ID", "id",
                 COLUMN_WIDTH_SMALL, Integer.class));
         table.getColumns().add(dateCol(COLUMN_WIDTH_XLARGE));
         table.getColumns().add(col("Bodyweight", "bw",
                 COLUMN_WIDTH_LARGE, Double.class));
-
-        backingData.addAll(statisticsService.getBodyweightByDate());
     }
 
-    private void loadAllExercisesAllSets() throws SQLException {
-        String query = searchField.getText();
-        var data = statisticsService.getAllExercisesAllSets(query);
-
+    private void showAllExercisesAllSets(final Loaded loaded) {
         table.getColumns().add(col("Exercise ID", "id",
                 COLUMN_WIDTH_MEDIUM, Integer.class));
         table.getColumns().add(col("Exercise", "name",
                 COLUMN_WIDTH_XXXLARGE, String.class));
 
-        Set<String> dates = statisticsService.getAllDates();
-        for (String date : dates) {
-            table.getColumns().add(col(date, date,
-                    COLUMN_WIDTH_XXLARGE, String.class));
-        }
-
-        backingData.addAll(data);
+        addPivotColumns(loaded.pivot(), COLUMN_WIDTH_XXLARGE);
     }
 
-    private void loadAllExercisesBestSet() throws SQLException {
-        var query = searchField.getText();
-        var data = statisticsService.getAllExercisesBestSet(query);
-
+    private void showAllExercisesBestSet(final Loaded loaded) {
         table.getColumns().add(col("Exercise ID", "id",
                 COLUMN_WIDTH_SMALL, Integer.class));
         table.getColumns().add(col("Exercise", "name",
                 COLUMN_WIDTH_XXLARGE, String.class));
 
-        var dates = statisticsService.getAllDates();
-        for (String date : dates) {
-            table.getColumns().add(col(date, date,
-                    COLUMN_WIDTH_LARGE, String.class));
-        }
-
-        backingData.addAll(data);
+        addPivotColumns(loaded.pivot(), COLUMN_WIDTH_LARGE);
     }
 
-    private void loadAllSessionsSummary() throws SQLException {
+    private void showAllSessionsSummary() {
         table.getColumns().add(col("Session ID", "sid",
                 COLUMN_WIDTH_SMALL, Integer.class));
         table.getColumns().add(dateCol(COLUMN_WIDTH_LARGE));
@@ -178,9 +316,38 @@ public final class ViewStatisticsController {
         table.getColumns().add(col("Sets", "sets",
                 COLUMN_WIDTH_XXLARGE, String.class));
         table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+    }
 
-        var query = searchField.getText();
-        backingData.addAll(statisticsService.getAllSessionsSummary(query));
+    private void showVolume() {
+        table.getColumns().add(col("Period", "period",
+                COLUMN_WIDTH_MEDIUM, String.class));
+        table.getColumns().add(col("Group", "group",
+                COLUMN_WIDTH_MEDIUM, String.class));
+        table.getColumns().add(col("Name", "name",
+                COLUMN_WIDTH_XXLARGE, String.class));
+        table.getColumns().add(col("Tonnage", "tonnage",
+                COLUMN_WIDTH_LARGE, Double.class));
+        table.getColumns().add(col("Sets", "sets",
+                COLUMN_WIDTH_SMALL, Integer.class));
+        table.getColumns().add(col("Sessions", "sessions",
+                COLUMN_WIDTH_SMALL, Integer.class));
+        table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+    }
+
+    @FXML
+    private void rebuildRecords() {
+        var task = new Task<Void>() {
+            @Override
+            protected Void call() throws SQLException {
+                statisticsService.rebuildPersonalRecords();
+                statisticsService.rebuildVolumeRollups();
+                return null;
+            }
+        };
+        task.setOnSucceeded(e -> reloadTable());
+        task.setOnFailed(e -> LOG.error("Error rebuilding records: {}",
+                task.getException().getMessage(), task.getException()));
+        bulkExecutor.execute(task);
     }
 
     @FXML
@@ -0,0 +1,204 @@
+package app.database;
+
+import app.model.ExerciseWithSets;
+import app.model.Workout;
+import app.service.WorkoutService;
+import com.j256.ormlite.jdbc.JdbcPooledConnectionSource;
+import com.j256.ormlite.support.ConnectionSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatabaseBackupTest {
+
+    private static final int SEEDED_SESSIONS = 5_000;
+
+    @TempDir
+    Path tempDir;
+
+    TestDatabase db;
+    ConnectionSource cs;
+    WorkoutService service;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        // no busy wait: a backup that blocked writers would fail the save
+        db = TestDatabase.open(new JdbcPooledConnectionSource("jdbc:sqlite:"
+                + tempDir.resolve("live.db") + "?journal_mode=WAL&busy_timeout=0"));
+        cs = db.connectionSource();
+        service = db.service();
+    }
+
+    @AfterEach
+    void tearDown() {
+        db.close();
+    }
+
+    @Test
+    void backup_copiesWhileSavesKeepCommitting() throws Exception {
+        List<Workout> history = new ArrayList<>(SEEDED_SESSIONS);
+        for (int i = 0; i < SEEDED_SESSIONS; i++) {
+            history.add(new Workout(date(LocalDate.of(2010, 1, 1).plusDays(i)), 80.0,
+                    List.of(new ExerciseWithSets("Squat", "100x5-105x5-110x3"),
+                            new ExerciseWithSets("Bench Press", "80x8-80x8"))));
+        }
+        service.saveWorkouts(history);
+
+        var running = new AtomicBoolean(true);
+        var saves = new AtomicInteger();
+        var failure = new AtomicReference<Throwable>();
+        var writer = new Thread(() -> {
+            try {
+                while (running.get()) {
+                    service.saveWorkout(new Date(), 81.0,
+                            List.of(new ExerciseWithSets("Deadlift", "180x3")));
+                    saves.incrementAndGet();
+                }
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+        writer.start();
+
+        List<Path> copies = new ArrayList<>();
+        try (var backup = new DatabaseBackup(() -> cs, tempDir.resolve("backups"), 5)) {
+            for (int i = 0; i < 3; i++) {
+                int before = saves.get();
+                copies.add(backup.request().get(30, TimeUnit.SECONDS));
+                assertNull(failure.get(), () -> "save failed during backup: " + failure.get());
+                awaitSaveAfter(saves, before);
+            }
+        } finally {
+            running.set(false);
+            writer.join();
+        }
+
+        assertNull(failure.get());
+        int previous = SEEDED_SESSIONS;
+        for (Path copy : copies) {
+            assertEquals("ok", integrityCheck(copy));
+            int sessions = sessionCount(copy);
+            assertTrue(sessions >= previous, copy + " has " + sessions + " sessions");
+            previous = sessions;
+        }
+        assertTrue(previous <= SEEDED_SESSIONS + saves.get());
+    }
+
+    @Test
+    void backup_keepsOnlyTheNewestCopies() throws Exception {
+        var clock = Clock.fixed(Instant.parse("2024-05-06T10:15:30Z"), ZoneOffset.UTC);
+        var directory = tempDir.resolve("backups");
+        List<Path> written = new ArrayList<>();
+
+        try (var backup = new DatabaseBackup(() -> cs, directory, 2, clock)) {
+            for (int i = 0; i < 3; i++) {
+                written.add(backup.backup());
+            }
+
+            assertEquals(written.subList(1, 3), backup.backups());
+        }
+        try (var files = Files.list(directory)) {
+            assertEquals(2, files.count());
+        }
+        assertEquals("ok", integrityCheck(written.get(2)));
+    }
+
+    @Test
+    void request_failsWhenTheDatabaseIsClosed() {
+        try (var backup = new DatabaseBackup(() -> null, tempDir.resolve("backups"), 2)) {
+            var e = assertThrows(ExecutionException.class, () -> backup.request().get());
+
+            assertInstanceOf(SQLException.class, e.getCause());
+        }
+        assertFalse(Files.exists(tempDir.resolve("backups")));
+    }
+
+    @Test
+    void exclusive_holdsOffBackupsUntilTheActionReturns() throws Exception {
+        var entered = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+
+        try (var backup = new DatabaseBackup(() -> cs, tempDir.resolve("backups"), 2)) {
+            var holder = new Thread(() -> {
+                try {
+                    backup.exclusive(() -> {
+                        entered.countDown();
+                        return release.await(10, TimeUnit.SECONDS);
+                    });
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            holder.start();
+            assertTrue(entered.await(10, TimeUnit.SECONDS));
+
+            var copy = backup.request();
+            Thread.sleep(50);
+            assertFalse(copy.isDone());
+
+            release.countDown();
+            holder.join();
+            assertTrue(Files.exists(copy.get(10, TimeUnit.SECONDS)));
+        }
+    }
+
+    @Test
+    void constructor_rejectsKeepingNothing() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new DatabaseBackup(() -> cs, tempDir, 0));
+    }
+
+    // the writer must still be committing once a backup returns
+    private static void awaitSaveAfter(final AtomicInteger saves, final int count)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (saves.get() <= count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(saves.get() > count, "no save committed since the backup started");
+    }
+
+    private static String integrityCheck(final Path file) throws SQLException {
+        try (var conn = DriverManager.getConnection("jdbc:sqlite:" + file);
+             var statement = conn.createStatement();
+             var rs = statement.executeQuery("PRAGMA integrity_check")) {
+            assertTrue(rs.next());
+            return rs.getString(1);
+        }
+    }
+
+    private static int sessionCount(final Path file) throws SQLException {
+        try (var conn = DriverManager.getConnection("jdbc:sqlite:" + file);
+             var statement = conn.createStatement();
+             var rs = statement.executeQuery("SELECT COUNT(*) FROM workout_sessions")) {
+            assertTrue(rs.next());
+            return rs.getInt(1);
+        }
+    }
+
+    private static Date date(final LocalDate day) {
+        return Date.from(day.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+}
@@ -0,0 +1,107 @@
+package app.database;
+
+import com.j256.ormlite.support.DatabaseConnection;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatabaseConfigTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void defaults_useTheBalancedProfileOnWorkoutsDb() {
+        var config = DatabaseConfig.defaults();
+
+        assertEquals(Path.of("workouts.db"), config.file());
+        assertEquals("WAL", config.journalMode());
+        assertEquals("NORMAL", config.synchronous());
+        assertEquals("jdbc:sqlite:workouts.db?journal_mode=WAL&synchronous=NORMAL"
+                + "&cache_size=-32768&mmap_size=268435456&temp_store=MEMORY"
+                + "&busy_timeout=5000", config.url());
+    }
+
+    @Test
+    void load_overridesTheProfilePerKey() throws Exception {
+        var file = tempDir.resolve("database.properties");
+        Files.writeString(file, """
+                db.file=data/gym.db
+                db.profile=durable
+                db.pool_size=2
+                db.synchronous=extra
+                db.busy_timeout=250
+                """);
+
+        var config = DatabaseConfig.load(file);
+
+        assertEquals(new DatabaseConfig(Path.of("data/gym.db"), 2, "WAL", "EXTRA",
+                -8_192, 0, "DEFAULT", 250), config);
+    }
+
+    @Test
+    void fromProperties_rejectsUnknownValues() {
+        var properties = new Properties();
+        properties.setProperty("db.journal_mode", "fastest");
+
+        var e = assertThrows(IllegalArgumentException.class,
+                () -> DatabaseConfig.fromProperties(properties));
+
+        assertTrue(e.getMessage().startsWith("db.journal_mode"), e.getMessage());
+    }
+
+    @Test
+    void fromProperties_rejectsUnknownProfilesAndBadNumbers() {
+        var profile = new Properties();
+        profile.setProperty("db.profile", "turbo");
+        var pool = new Properties();
+        pool.setProperty("db.pool_size", "four");
+
+        assertThrows(IllegalArgumentException.class, () -> DatabaseConfig.fromProperties(profile));
+        assertThrows(IllegalArgumentException.class, () -> DatabaseConfig.fromProperties(pool));
+    }
+
+    @Test
+    void open_appliesThePragmasToEveryConnection() throws Exception {
+        var config = new DatabaseConfig(tempDir.resolve("tuned.db"), 2, "WAL", "OFF",
+                -4_096, 1L << 20, "MEMORY", 1_234);
+
+        try (var cs = config.open()) {
+            // held at once, so the source has to open both readers
+            DatabaseConnection writer = cs.getReadWriteConnection("workout_sessions");
+            DatabaseConnection first = cs.getReadOnlyConnection("workout_sessions");
+            DatabaseConnection second = cs.getReadOnlyConnection("workout_sessions");
+            try {
+                assertNotSame(first.getUnderlyingConnection(), second.getUnderlyingConnection());
+                for (var conn : new DatabaseConnection[] {writer, first, second}) {
+                    var jdbc = conn.getUnderlyingConnection();
+                    assertEquals("wal", pragma(jdbc, "journal_mode"));
+                    assertEquals("0", pragma(jdbc, "synchronous"));
+                    assertEquals("-4096", pragma(jdbc, "cache_size"));
+                    assertEquals("1048576", pragma(jdbc, "mmap_size"));
+                    assertEquals("2", pragma(jdbc, "temp_store"));
+                    assertEquals("1234", pragma(jdbc, "busy_timeout"));
+                }
+            } finally {
+                cs.releaseConnection(writer);
+                cs.releaseConnection(first);
+                cs.releaseConnection(second);
+            }
+        }
+    }
+
+    private static String pragma(final Connection conn, final String name) throws SQLException {
+        try (var statement = conn.createStatement();
+             var rs = statement.executeQuery("PRAGMA " + name)) {
+            assertTrue(rs.next());
+            return rs.getString(1);
+        }
+    }
+}
@@ -4,31 +4,33 @@ import app.model.WorkoutExercise;
 import app.model.WorkoutSession;
 import com.j256.ormlite.dao.Dao;
 import com.j256.ormlite.dao.DaoManager;
-import com.j256.ormlite.jdbc.JdbcPooledConnectionSource;
-import com.j256.ormlite.table.TableUtils;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.MockedConstruction;
 import org.mockito.MockedStatic;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 class DatabaseHelperTest {
 
     @Test
-    void init_shouldCreateRepositories() {
+    void init_shouldCreateRepositories() throws Exception {
         Dao<WorkoutSession, Integer> sessionDao = mock(Dao.class);
         Dao<WorkoutExercise, Integer> exerciseDao = mock(Dao.class);
 
         try (
-                MockedConstruction<JdbcPooledConnectionSource> csMock =
-                        mockConstruction(JdbcPooledConnectionSource.class);
+                MockedConstruction<SqliteConnectionSource> csMock =
+                        mockConstruction(SqliteConnectionSource.class);
 
-                MockedStatic<DaoManager> daoManagerMock =
-                        mockStatic(DaoManager.class);
+                MockedConstruction<SchemaMigrator> migratorMock =
+                        mockConstruction(SchemaMigrator.class);
 
-                MockedStatic<TableUtils> tableUtilsMock =
-                        mockStatic(TableUtils.class)
+                MockedStatic<DaoManager> daoManagerMock =
+                        mockStatic(DaoManager.class)
         ) {
             daoManagerMock
                     .when(() -> DaoManager.createDao(any(), eq(WorkoutSession.class)))
@@ -43,17 +45,45 @@ class DatabaseHelperTest {
             assertNotNull(DatabaseHelper.connectionSource());
             assertNotNull(DatabaseHelper.workoutSessionRepo());
             assertNotNull(DatabaseHelper.workoutExerciseRepo());
+            verify(migratorMock.constructed().get(0))
+                    .migrate(csMock.constructed().get(0));
+        }
+    }
+
+    @Test
+    void init_shouldReloadTheConfigOnEveryCall(@TempDir Path dir) throws Exception {
+        Path properties = dir.resolve("database.properties");
+        System.setProperty(DatabaseConfig.CONFIG_PROPERTY, properties.toString());
+        try (
+                MockedConstruction<SqliteConnectionSource> csMock =
+                        mockConstruction(SqliteConnectionSource.class);
+
+                MockedConstruction<SchemaMigrator> migratorMock =
+                        mockConstruction(SchemaMigrator.class)
+        ) {
+            Files.writeString(properties, "db.file=" + propertyPath(dir.resolve("first.db")));
+            DatabaseHelper.init();
+            DatabaseHelper.close();
+
+            Files.writeString(properties, "db.file=" + propertyPath(dir.resolve("second.db")));
+            DatabaseHelper.init();
+
+            assertEquals(dir.resolve("second.db"), DatabaseHelper.databaseFile());
+            assertEquals(2, csMock.constructed().size());
+        } finally {
+            System.clearProperty(DatabaseConfig.CONFIG_PROPERTY);
+            DatabaseHelper.close();
         }
     }
 
     @Test
     void close_shouldCloseConnection() throws Exception {
         try (
-                MockedConstruction<JdbcPooledConnectionSource> csMock =
-                        mockConstruction(JdbcPooledConnectionSource.class)
+                MockedConstruction<SqliteConnectionSource> csMock =
+                        mockConstruction(SqliteConnectionSource.class)
         ) {
             DatabaseHelper.init();
-            JdbcPooledConnectionSource cs = DatabaseHelper.connectionSource();
+            SqliteConnectionSource cs = DatabaseHelper.connectionSource();
 
             DatabaseHelper.close();
 
@@ -75,17 +105,17 @@ class DatabaseHelperTest {
         Dao<WorkoutExercise, Integer> exerciseDao = mock(Dao.class);
 
         try (
-                MockedConstruction<JdbcPooledConnectionSource> csMock =
-                        mockConstruction(JdbcPooledConnectionSource.class,
+                MockedConstruction<SqliteConnectionSource> csMock =
+                        mockConstruction(SqliteConnectionSource.class,
                                 (mock, context) ->
                                         doThrow(new RuntimeException("boom"))
                                                 .when(mock).close());
 
-                MockedStatic<DaoManager> daoManagerMock =
-                        mockStatic(DaoManager.class);
+                MockedConstruction<SchemaMigrator> migratorMock =
+                        mockConstruction(SchemaMigrator.class);
 
-                MockedStatic<TableUtils> tableUtilsMock =
-                        mockStatic(TableUtils.class)
+                MockedStatic<DaoManager> daoManagerMock =
+                        mockStatic(DaoManager.class)
         ) {
             daoManagerMock
                     .when(() -> DaoManager.createDao(any(), eq(WorkoutSession.class)))
@@ -96,7 +126,7 @@ class DatabaseHelperTest {
                     .thenReturn(exerciseDao);
 
             DatabaseHelper.init();
-            JdbcPooledConnectionSource cs = DatabaseHelper.connectionSource();
+            SqliteConnectionSource cs = DatabaseHelper.connectionSource();
 
             assertDoesNotThrow(DatabaseHelper::close);
 
@@ -105,4 +135,16 @@ class DatabaseHelperTest {
             assertNotNull(DatabaseHelper.connectionSource());
         }
     }
+
+    @Test
+    void backupDirectory_shouldSitNextToTheDatabaseFile() {
+        Path file = DatabaseHelper.databaseFile().toAbsolutePath();
+
+        assertEquals(file.getParent().resolve("backups"), DatabaseHelper.backupDirectory());
+    }
+
+    // backslashes are escapes in a properties file
+    private static String propertyPath(final Path file) {
+        return file.toString().replace('\\', '/');
+    }
 }
@@ -0,0 +1,101 @@
+package app.database;
+
+import app.model.DailyRecord;
+import app.model.ExerciseWithSets;
+import app.model.PersonalRecord;
+import app.service.WorkoutService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrmLitePersonalRecordRepositoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    TestDatabase db;
+    OrmLitePersonalRecordRepository records;
+    WorkoutService service;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        db = TestDatabase.open(tempDir.resolve("records.db"));
+        records = new OrmLitePersonalRecordRepository(db.connectionSource());
+        service = db.service();
+    }
+
+    @AfterEach
+    void tearDown() {
+        db.close();
+    }
+
+    @Test
+    void saveWorkout_mergesSameDayAndKeepsAllTimeBest() throws SQLException {
+        var day = LocalDate.of(2024, 2, 1);
+        save(day, new ExerciseWithSets("Squat", "140x5-150x2"));
+        save(day, new ExerciseWithSets("Squat", "150x3"));
+        save(day.plusDays(7), new ExerciseWithSets("Squat", "145x5"));
+
+        List<DailyRecord> daily = records.findDaily();
+        assertEquals(2, daily.size());
+        assertEquals(new DailyRecord("Squat", day.toEpochDay(), daily.get(0).exerciseId(),
+                150.0, 3, 1450.0, 3), daily.get(0));
+
+        assertEquals(List.of(new PersonalRecord("Squat", 150.0, 3, day.toEpochDay(),
+                1450.0, day.toEpochDay())), records.findAll());
+    }
+
+    @Test
+    void findDailyBetween_returnsOnlyDaysInRange() throws SQLException {
+        var day = LocalDate.of(2024, 2, 1);
+        for (int i = 0; i < 5; i++) {
+            save(day.plusDays(i), new ExerciseWithSets("Bench Press", "100x5"));
+        }
+
+        var inRange = records.findDailyBetween(day.plusDays(1), day.plusDays(3));
+
+        assertEquals(3, inRange.size());
+        assertEquals(day.plusDays(1).toEpochDay(), inRange.get(0).epochDay());
+    }
+
+    @Test
+    void incrementalRecords_matchFullRebuild() throws SQLException {
+        var random = new Random(11);
+        String[] names = {"Squat", "Bench Press", "Deadlift"};
+        var start = LocalDate.of(2023, 1, 1);
+        for (int i = 0; i < 60; i++) {
+            var sets = new StringBuilder();
+            for (int s = 0, n = random.nextInt(4); s < n; s++) {
+                if (s > 0) sets.append('-');
+                sets.append(60 + 5 * random.nextInt(10)).append('x').append(1 + random.nextInt(8));
+            }
+            save(start.plusDays(random.nextInt(20)),
+                    new ExerciseWithSets(names[random.nextInt(names.length)], sets.toString()),
+                    new ExerciseWithSets(names[random.nextInt(names.length)], "100x1"));
+        }
+        var incrementalDaily = records.findDaily();
+        var incrementalRecords = records.findAll();
+
+        service.rebuildPersonalRecords();
+
+        assertEquals(incrementalDaily, records.findDaily());
+        assertEquals(incrementalRecords, records.findAll());
+    }
+
+    private void save(final LocalDate day, final ExerciseWithSets... exercises)
+            throws SQLException {
+        var date = Date.from(day.atStartOfDay(ZoneId.systemDefault()).toInstant());
+        service.saveWorkout(date, 80.0, List.of(exercises));
+    }
+}
@@ -0,0 +1,124 @@
+package app.database;
+
+import app.model.ExerciseWithSets;
+import app.model.VolumeRollup;
+import app.model.VolumeRollup.Bucket;
+import app.model.VolumeRollup.Group;
+import app.service.WorkoutService;
+import com.j256.ormlite.support.ConnectionSource;
+import com.j256.ormlite.support.DatabaseConnection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrmLiteVolumeRollupRepositoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    TestDatabase db;
+    ConnectionSource cs;
+    OrmLiteVolumeRollupRepository rollups;
+    WorkoutService service;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        db = TestDatabase.open(tempDir.resolve("rollups.db"));
+        cs = db.connectionSource();
+        rollups = new OrmLiteVolumeRollupRepository(cs);
+        service = db.service();
+    }
+
+    @AfterEach
+    void tearDown() {
+        db.close();
+    }
+
+    @Test
+    void saveWorkout_addsToTheWeekAndMonth() throws SQLException {
+        var monday = LocalDate.of(2024, 4, 29);
+        save(monday, new ExerciseWithSets("Bench Press", "100x5"));
+        save(monday.plusDays(2), new ExerciseWithSets("Bench Press", "100x5-100x5"));
+
+        var weekly = rollups.find(Bucket.WEEK);
+        assertTrue(weekly.contains(new VolumeRollup(Bucket.WEEK, monday.toEpochDay(),
+                Group.EXERCISE, "Bench Press", 1500.0, 3, 2)));
+        // Wednesday is already in May
+        var monthly = rollups.find(Bucket.MONTH);
+        assertTrue(monthly.contains(new VolumeRollup(Bucket.MONTH,
+                LocalDate.of(2024, 5, 1).toEpochDay(), Group.EXERCISE, "Bench Press",
+                1000.0, 2, 1)));
+    }
+
+    @Test
+    void findBetween_includesThePeriodContainingTheStart() throws SQLException {
+        var day = LocalDate.of(2024, 3, 14);
+        save(day, new ExerciseWithSets("Squat", "140x5"));
+        save(day.plusMonths(2), new ExerciseWithSets("Squat", "140x5"));
+
+        var found = rollups.findBetween(Bucket.MONTH, day.plusDays(3), day.plusMonths(1));
+
+        assertFalse(found.isEmpty());
+        assertTrue(found.stream().allMatch(r ->
+                r.periodStart() == LocalDate.of(2024, 3, 1).toEpochDay()));
+    }
+
+    @Test
+    void incrementalRollups_matchFullRebuild() throws SQLException {
+        var random = new Random(17);
+        String[] names = {"Squat", "Bench Press", "Deadlift", "Custom Lift"};
+        var start = LocalDate.of(2023, 12, 1);
+        for (int i = 0; i < 60; i++) {
+            var sets = new StringBuilder();
+            for (int s = 0, n = random.nextInt(4); s < n; s++) {
+                if (s > 0) sets.append('-');
+                sets.append(60 + 5 * random.nextInt(10)).append('x').append(1 + random.nextInt(8));
+            }
+            save(start.plusDays(random.nextInt(90)),
+                    new ExerciseWithSets(names[random.nextInt(names.length)], sets.toString()),
+                    new ExerciseWithSets(names[random.nextInt(names.length)], "100x1"));
+        }
+        List<VolumeRollup> weekly = rollups.find(Bucket.WEEK);
+        List<VolumeRollup> monthly = rollups.find(Bucket.MONTH);
+
+        service.rebuildVolumeRollups();
+
+        assertEquals(weekly, rollups.find(Bucket.WEEK));
+        assertEquals(monthly, rollups.find(Bucket.MONTH));
+    }
+
+    @Test
+    void lacksMuscleGroups_onlyWhenSetsHaveNoMuscleRollups() throws SQLException {
+        assertFalse(rollups.lacksMuscleGroups());
+
+        save(LocalDate.of(2024, 4, 29), new ExerciseWithSets("Bench Press", "100x5"));
+        assertFalse(rollups.lacksMuscleGroups());
+
+        // as left by the v7 upgrade
+        var conn = cs.getReadWriteConnection("volume_rollups");
+        try {
+            conn.executeStatement("DELETE FROM volume_rollups WHERE group_kind = 'MUSCLE'",
+                    DatabaseConnection.DEFAULT_RESULT_FLAGS);
+        } finally {
+            cs.releaseConnection(conn);
+        }
+        assertTrue(rollups.lacksMuscleGroups());
+    }
+
+    private void save(final LocalDate day, final ExerciseWithSets... exercises)
+            throws SQLException {
+        var date = Date.from(day.atStartOfDay(ZoneId.systemDefault()).toInstant());
+        service.saveWorkout(date, 80.0, List.of(exercises));
+    }
+}
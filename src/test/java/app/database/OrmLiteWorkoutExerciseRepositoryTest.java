@@ -1,19 +1,30 @@
 package app.database;
 
 import app.model.WorkoutExercise;
+import app.model.WorkoutSession;
 import com.j256.ormlite.dao.Dao;
 import com.j256.ormlite.dao.DaoManager;
+import com.j256.ormlite.dao.GenericRawResults;
+import com.j256.ormlite.dao.RawRowObjectMapper;
+import com.j256.ormlite.field.DataType;
 import com.j256.ormlite.jdbc.JdbcPooledConnectionSource;
-import com.j256.ormlite.table.TableUtils;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -25,11 +36,13 @@ class OrmLiteWorkoutExerciseRepositoryTest {
     @Mock
     Dao<WorkoutExercise, Integer> dao;
 
+    @TempDir
+    Path tempDir;
+
     @Test
     void save_shouldCallDaoCreate() throws Exception {
         try (
-                MockedStatic<DaoManager> daoManagerMock = mockStatic(DaoManager.class);
-                MockedStatic<TableUtils> tableUtilsMock = mockStatic(TableUtils.class)
+                MockedStatic<DaoManager> daoManagerMock = mockStatic(DaoManager.class)
         ) {
             daoManagerMock
                     .when(() -> DaoManager.createDao(connectionSource, WorkoutExercise.class))
@@ -46,6 +59,45 @@ class OrmLiteWorkoutExerciseRepositoryTest {
         }
     }
 
+    @Test
+    void saveAll_shouldCreateInOneBatch() throws Exception {
+        try (
+                MockedStatic<DaoManager> daoManagerMock = mockStatic(DaoManager.class)
+        ) {
+            daoManagerMock
+                    .when(() -> DaoManager.createDao(connectionSource, WorkoutExercise.class))
+                    .thenReturn(dao);
+
+            OrmLiteWorkoutExerciseRepository repo =
+                    new OrmLiteWorkoutExerciseRepository(connectionSource);
+
+            List<WorkoutExercise> exercises = List.of(new WorkoutExercise(), new WorkoutExercise());
+
+            repo.saveAll(exercises);
+
+            verify(dao).create(exercises);
+            verify(dao, never()).create(any(WorkoutExercise.class));
+        }
+    }
+
+    @Test
+    void saveAll_shouldSkipEmptyList() throws Exception {
+        try (
+                MockedStatic<DaoManager> daoManagerMock = mockStatic(DaoManager.class)
+        ) {
+            daoManagerMock
+                    .when(() -> DaoManager.createDao(connectionSource, WorkoutExercise.class))
+                    .thenReturn(dao);
+
+            OrmLiteWorkoutExerciseRepository repo =
+                    new OrmLiteWorkoutExerciseRepository(connectionSource);
+
+            repo.saveAll(List.of());
+
+            verifyNoInteractions(dao);
+        }
+    }
+
     @Test
     void findAll_shouldReturnDaoResult() throws Exception {
         List<WorkoutExercise> expected = List.of(new WorkoutExercise());
@@ -53,8 +105,7 @@ class OrmLiteWorkoutExerciseRepositoryTest {
         when(dao.queryForAll()).thenReturn(expected);
 
         try (
-                MockedStatic<DaoManager> daoManagerMock = mockStatic(DaoManager.class);
-                MockedStatic<TableUtils> tableUtilsMock = mockStatic(TableUtils.class)
+                MockedStatic<DaoManager> daoManagerMock = mockStatic(DaoManager.class)
         ) {
             daoManagerMock
                     .when(() -> DaoManager.createDao(connectionSource, WorkoutExercise.class))
@@ -69,4 +120,188 @@ class OrmLiteWorkoutExerciseRepositoryTest {
             verify(dao).queryForAll();
         }
     }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void findAllWithSessions_shouldUseSingleJoinQuery() throws Exception {
+        GenericRawResults<WorkoutExercise> results = mock(GenericRawResults.class);
+        List<WorkoutExercise> expected = List.of(new WorkoutExercise());
+        when(results.getResults()).thenReturn(expected);
+        when(dao.queryRaw(anyString(), any(DataType[].class),
+                any(RawRowObjectMapper.class))).thenReturn(results);
+
+        try (
+                MockedStatic<DaoManager> daoManagerMock = mockStatic(DaoManager.class)
+        ) {
+            daoManagerMock
+                    .when(() -> DaoManager.createDao(connectionSource, WorkoutExercise.class))
+                    .thenReturn(dao);
+
+            OrmLiteWorkoutExerciseRepository repo =
+                    new OrmLiteWorkoutExerciseRepository(connectionSource);
+
+            List<WorkoutExercise> result = repo.findAllWithSessions();
+
+            assertSame(expected, result);
+            verify(dao).queryRaw(argThat((String sql) -> sql.contains("JOIN workout_sessions")),
+                    any(DataType[].class), any(RawRowObjectMapper.class));
+            verify(dao, never()).queryForAll();
+        }
+    }
+
+    @Test
+    void mapWithSession_shouldAttachSessionFromJoinedColumns() {
+        Date date = new Date();
+
+        WorkoutExercise exercise = OrmLiteWorkoutExerciseRepository.mapWithSession(
+                new Object[]{7, "Squat", "140x5", 3, date, 81.5});
+
+        assertEquals(7, exercise.getId());
+        assertEquals("Squat", exercise.getName());
+        assertEquals("140x5", exercise.getSetsString());
+        assertEquals(3, exercise.getSession().getId());
+        assertEquals(date, exercise.getSession().getDate());
+        assertEquals(81.5, exercise.getSession().getBodyweight());
+    }
+
+    @Test
+    void findBetween_shouldOnlyLoadSessionsInsideRange() throws Exception {
+        try (var db = TestDatabase.open(tempDir.resolve("range.db"))) {
+            var cs = db.connectionSource();
+            var sessionRepo = new OrmLiteWorkoutSessionRepository(cs);
+            var repo = new OrmLiteWorkoutExerciseRepository(cs);
+
+            var start = LocalDate.of(2024, 3, 1);
+            for (int day = 0; day < 10; day++) {
+                var session = new WorkoutSession(dateOf(start.plusDays(day)), 80.0);
+                sessionRepo.save(session);
+                repo.save(new WorkoutExercise("Squat", "100x5", session));
+            }
+
+            var sessions = sessionRepo.findBetween(start.plusDays(2), start.plusDays(4));
+            var exercises = repo.findBetweenWithSessions(start.plusDays(2), start.plusDays(4));
+
+            assertEquals(3, sessions.size());
+            assertEquals(start.plusDays(2), sessions.get(0).getLocalDate());
+            assertEquals(3, exercises.size());
+            assertEquals(start.plusDays(4), exercises.get(2).getSession().getLocalDate());
+        }
+    }
+
+    @Test
+    void iterateWithSessions_shouldStreamInSessionOrder() throws Exception {
+        try (var db = TestDatabase.open(tempDir.resolve("iterate.db"))) {
+            var cs = db.connectionSource();
+            var sessionRepo = new OrmLiteWorkoutSessionRepository(cs);
+            var repo = new OrmLiteWorkoutExerciseRepository(cs);
+
+            // saved newest first, so id order differs from session order
+            var start = LocalDate.of(2024, 3, 1);
+            for (int day = 3; day >= 0; day--) {
+                var session = new WorkoutSession(dateOf(start.plusDays(day)), 80.0);
+                sessionRepo.save(session);
+                repo.saveAll(List.of(
+                        new WorkoutExercise("Squat", "100x" + day, session),
+                        new WorkoutExercise("Bench Press", "80x" + day, session)));
+            }
+
+            List<String> rows = new ArrayList<>();
+            try (var it = repo.iterateWithSessions(start.plusDays(1), start.plusDays(3), null)) {
+                it.forEachRemaining(e -> rows.add(e.getSession().getLocalDate().getDayOfMonth()
+                        + " " + e.getName() + " " + e.getSetsString()));
+            }
+            List<String> squats = new ArrayList<>();
+            try (var it = repo.iterateWithSessions(LocalDate.MIN, LocalDate.MAX, "squat")) {
+                it.forEachRemaining(e -> squats.add(e.getSetsString()));
+            }
+
+            assertEquals(List.of("2 Squat 100x1", "2 Bench Press 80x1",
+                    "3 Squat 100x2", "3 Bench Press 80x2",
+                    "4 Squat 100x3", "4 Bench Press 80x3"), rows);
+            assertEquals(List.of("100x0", "100x1", "100x2", "100x3"), squats);
+        }
+    }
+
+    @Test
+    void iterateAllWithSessions_shouldIncludeUndatedSessionsFirst() throws Exception {
+        try (var db = TestDatabase.open(tempDir.resolve("all.db"))) {
+            var cs = db.connectionSource();
+            var sessionRepo = new OrmLiteWorkoutSessionRepository(cs);
+            var repo = new OrmLiteWorkoutExerciseRepository(cs);
+
+            var dated = new WorkoutSession(dateOf(LocalDate.of(2024, 3, 1)), 80.0);
+            var undated = new WorkoutSession(null, 81.0);
+            sessionRepo.saveAll(List.of(dated, undated));
+            repo.saveAll(List.of(
+                    new WorkoutExercise("Squat", "100x5", dated),
+                    new WorkoutExercise("Bench Press", "80x5", undated)));
+            // as left by the epoch_day backfill for sessions without a date
+            DaoManager.createDao(cs, WorkoutSession.class)
+                    .executeRaw("UPDATE workout_sessions SET epoch_day = NULL WHERE date IS NULL");
+
+            List<String> rows = new ArrayList<>();
+            try (var it = repo.iterateAllWithSessions()) {
+                it.forEachRemaining(e -> rows.add(e.getSession().getId() + " " + e.getName()));
+            }
+
+            assertEquals(List.of(undated.getId(), dated.getId()),
+                    sessionRepo.findAllInDayOrder().stream().map(WorkoutSession::getId).toList());
+            assertEquals(List.of(undated.getId() + " Bench Press", dated.getId() + " Squat"),
+                    rows);
+        }
+    }
+
+    @Test
+    void iterateSessionsWithExercises_shouldIncludeUndatedAndEmptySessions() throws Exception {
+        try (var db = TestDatabase.open(tempDir.resolve("sessions.db"))) {
+            var cs = db.connectionSource();
+            var sessionRepo = new OrmLiteWorkoutSessionRepository(cs);
+            var repo = new OrmLiteWorkoutExerciseRepository(cs);
+
+            var dated = new WorkoutSession(dateOf(LocalDate.of(2024, 3, 1)), 80.0);
+            var empty = new WorkoutSession(dateOf(LocalDate.of(2024, 3, 2)), 80.5);
+            var undated = new WorkoutSession(null, 81.0);
+            sessionRepo.saveAll(List.of(dated, empty, undated));
+            repo.saveAll(List.of(
+                    new WorkoutExercise("Squat", "100x5", dated),
+                    new WorkoutExercise("Bench Press", "80x5", undated)));
+
+            List<String> rows = new ArrayList<>();
+            try (var it = repo.iterateSessionsWithExercises(null)) {
+                it.forEachRemaining(e -> rows.add(e.getSession().getId() + " "
+                        + e.getId() + " " + e.getName()));
+            }
+            List<String> squats = new ArrayList<>();
+            try (var it = repo.iterateSessionsWithExercises("SQUAT")) {
+                it.forEachRemaining(e -> squats.add(e.getSession().getId() + " " + e.getName()));
+            }
+
+            assertEquals(List.of(undated.getId() + " 2 Bench Press",
+                    dated.getId() + " 1 Squat",
+                    empty.getId() + " 0 null"), rows);
+            assertEquals(List.of(dated.getId() + " Squat"), squats);
+        }
+    }
+
+    @Test
+    void countByName_shouldGroupLoggedExercises() throws Exception {
+        try (var db = TestDatabase.open(tempDir.resolve("counts.db"))) {
+            var cs = db.connectionSource();
+            var sessionRepo = new OrmLiteWorkoutSessionRepository(cs);
+            var repo = new OrmLiteWorkoutExerciseRepository(cs);
+
+            var session = new WorkoutSession(dateOf(LocalDate.of(2024, 3, 1)), 80.0);
+            sessionRepo.save(session);
+            repo.saveAll(List.of(
+                    new WorkoutExercise("Squat", "100x5", session),
+                    new WorkoutExercise("Squat", "110x5", session),
+                    new WorkoutExercise("Bench Press", "80x5", session)));
+
+            assertEquals(Map.of("Squat", 2, "Bench Press", 1), repo.countByName());
+        }
+    }
+
+    private static Date dateOf(final LocalDate day) {
+        return Date.from(day.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
 }
@@ -4,7 +4,6 @@ import app.model.WorkoutSession;
 import com.j256.ormlite.dao.Dao;
 import com.j256.ormlite.dao.DaoManager;
 import com.j256.ormlite.jdbc.JdbcPooledConnectionSource;
-import com.j256.ormlite.table.TableUtils;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
@@ -14,6 +13,8 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,8 +29,7 @@ class OrmLiteWorkoutSessionRepositoryTest {
     @Test
     void save_shouldCallDaoCreate() throws Exception {
         try (
-                MockedStatic<DaoManager> daoManagerMock = mockStatic(DaoManager.class);
-                MockedStatic<TableUtils> tableUtilsMock = mockStatic(TableUtils.class)
+                MockedStatic<DaoManager> daoManagerMock = mockStatic(DaoManager.class)
         ) {
             daoManagerMock
                     .when(() -> DaoManager.createDao(connectionSource, WorkoutSession.class))
@@ -46,6 +46,45 @@ class OrmLiteWorkoutSessionRepositoryTest {
         }
     }
 
+    @Test
+    void saveAll_shouldCreateInOneBatch() throws Exception {
+        try (
+                MockedStatic<DaoManager> daoManagerMock = mockStatic(DaoManager.class)
+        ) {
+            daoManagerMock
+                    .when(() -> DaoManager.createDao(connectionSource, WorkoutSession.class))
+                    .thenReturn(dao);
+
+            OrmLiteWorkoutSessionRepository repo =
+                    new OrmLiteWorkoutSessionRepository(connectionSource);
+
+            List<WorkoutSession> sessions = List.of(new WorkoutSession(), new WorkoutSession());
+
+            repo.saveAll(sessions);
+
+            verify(dao).create(sessions);
+            verify(dao, never()).create(any(WorkoutSession.class));
+        }
+    }
+
+    @Test
+    void saveAll_shouldSkipEmptyList() throws Exception {
+        try (
+                MockedStatic<DaoManager> daoManagerMock = mockStatic(DaoManager.class)
+        ) {
+            daoManagerMock
+                    .when(() -> DaoManager.createDao(connectionSource, WorkoutSession.class))
+                    .thenReturn(dao);
+
+            OrmLiteWorkoutSessionRepository repo =
+                    new OrmLiteWorkoutSessionRepository(connectionSource);
+
+            repo.saveAll(List.of());
+
+            verifyNoInteractions(dao);
+        }
+    }
+
     @Test
     void findAll_shouldReturnDaoResult() throws Exception {
         List<WorkoutSession> expected = List.of(new WorkoutSession());
@@ -53,8 +92,7 @@ class OrmLiteWorkoutSessionRepositoryTest {
         when(dao.queryForAll()).thenReturn(expected);
 
         try (
-                MockedStatic<DaoManager> daoManagerMock = mockStatic(DaoManager.class);
-                MockedStatic<TableUtils> tableUtilsMock = mockStatic(TableUtils.class)
+                MockedStatic<DaoManager> daoManagerMock = mockStatic(DaoManager.class)
         ) {
             daoManagerMock
                     .when(() -> DaoManager.createDao(connectionSource, WorkoutSession.class))
@@ -68,4 +106,23 @@ class OrmLiteWorkoutSessionRepositoryTest {
             assertEquals(expected, result);
         }
     }
+
+    @Test
+    void isEmpty_shouldCountSessions() throws Exception {
+        when(dao.countOf()).thenReturn(0L, 3L);
+
+        try (
+                MockedStatic<DaoManager> daoManagerMock = mockStatic(DaoManager.class)
+        ) {
+            daoManagerMock
+                    .when(() -> DaoManager.createDao(connectionSource, WorkoutSession.class))
+                    .thenReturn(dao);
+
+            OrmLiteWorkoutSessionRepository repo =
+                    new OrmLiteWorkoutSessionRepository(connectionSource);
+
+            assertTrue(repo.isEmpty());
+            assertFalse(repo.isEmpty());
+        }
+    }
 }
@@ -0,0 +1,137 @@
+package app.database;
+
+import app.model.SetSummary;
+import app.model.WorkoutExercise;
+import app.model.WorkoutSession;
+import app.model.WorkoutSet;
+import com.j256.ormlite.dao.Dao;
+import com.j256.ormlite.dao.DaoManager;
+import com.j256.ormlite.jdbc.JdbcPooledConnectionSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrmLiteWorkoutSetRepositoryTest {
+
+    @Mock
+    JdbcPooledConnectionSource connectionSource;
+
+    @Mock
+    Dao<WorkoutSet, Integer> dao;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void saveAll_shouldCreateInOneBatch() throws Exception {
+        try (
+                MockedStatic<DaoManager> daoManagerMock = mockStatic(DaoManager.class)
+        ) {
+            daoManagerMock
+                    .when(() -> DaoManager.createDao(connectionSource, WorkoutSet.class))
+                    .thenReturn(dao);
+
+            OrmLiteWorkoutSetRepository repo =
+                    new OrmLiteWorkoutSetRepository(connectionSource);
+
+            List<WorkoutSet> sets = List.of(new WorkoutSet(), new WorkoutSet());
+
+            repo.saveAll(sets);
+
+            verify(dao).create(sets);
+        }
+    }
+
+    @Test
+    void mapSummary_shouldReadTypedColumns() {
+        SetSummary summary = OrmLiteWorkoutSetRepository.mapSummary(
+                new Object[]{4, 110.0, 4, 940.0, 2});
+
+        assertEquals(new SetSummary(4, 110.0, 4, 940.0, 2), summary);
+    }
+
+    @Test
+    void findSummaries_shouldAggregateInSql() throws Exception {
+        try (var db = TestDatabase.open(tempDir.resolve("sets.db"))) {
+            var cs = db.connectionSource();
+            var sessionRepo = new OrmLiteWorkoutSessionRepository(cs);
+            var exerciseRepo = new OrmLiteWorkoutExerciseRepository(cs);
+            var repo = new OrmLiteWorkoutSetRepository(cs);
+
+            var session = new WorkoutSession(new Date(), 80.0);
+            sessionRepo.save(session);
+            var bench = new WorkoutExercise("Bench Press", "100x5-110x4-110x6-90x10", session);
+            exerciseRepo.save(bench);
+            repo.saveAll(List.of(
+                    new WorkoutSet(bench, 0, 100.0, 5),
+                    new WorkoutSet(bench, 1, 110.0, 4),
+                    new WorkoutSet(bench, 2, 110.0, 6),
+                    new WorkoutSet(bench, 3, 90.0, 10)));
+
+            Map<Integer, SetSummary> summaries = repo.findSummaries();
+
+            assertEquals(new SetSummary(bench.getId(), 110.0, 6, 2500.0, 4),
+                    summaries.get(bench.getId()));
+            assertEquals(4, repo.findByExercise(bench.getId()).size());
+            assertEquals(2, repo.findByExercise(bench.getId()).get(2).getOrdinal());
+        }
+    }
+
+    @Test
+    void findByName_shouldReturnDatedSetsOfOneNameInDayOrder() throws Exception {
+        try (var db = TestDatabase.open(tempDir.resolve("named.db"))) {
+            var cs = db.connectionSource();
+            var sessionRepo = new OrmLiteWorkoutSessionRepository(cs);
+            var exerciseRepo = new OrmLiteWorkoutExerciseRepository(cs);
+            var repo = new OrmLiteWorkoutSetRepository(cs);
+
+            var later = new WorkoutSession(dateOf(LocalDate.of(2024, 3, 2)), 80.0);
+            var earlier = new WorkoutSession(dateOf(LocalDate.of(2024, 3, 1)), 80.0);
+            var undated = new WorkoutSession(null, 80.0);
+            sessionRepo.saveAll(List.of(later, earlier, undated));
+            var benchLater = new WorkoutExercise("Bench Press", "110x3", later);
+            var benchEarlier = new WorkoutExercise("bench press", "100x5-105x4", earlier);
+            var squat = new WorkoutExercise("Squat", "140x5", earlier);
+            var benchUndated = new WorkoutExercise("Bench Press", "90x8", undated);
+            var unnamed = new WorkoutExercise(null, "60x5", earlier);
+            exerciseRepo.saveAll(List.of(benchLater, benchEarlier, squat, benchUndated, unnamed));
+            repo.saveAll(List.of(
+                    new WorkoutSet(benchLater, 0, 110.0, 3),
+                    new WorkoutSet(benchEarlier, 0, 100.0, 5),
+                    new WorkoutSet(benchEarlier, 1, 105.0, 4),
+                    new WorkoutSet(squat, 0, 140.0, 5),
+                    new WorkoutSet(benchUndated, 0, 90.0, 8),
+                    new WorkoutSet(unnamed, 0, 60.0, 5)));
+
+            var sets = repo.findByName("BENCH PRESS", LocalDate.MIN, LocalDate.MAX);
+
+            assertEquals(List.of(100.0, 105.0, 110.0),
+                    sets.stream().map(WorkoutSet::getWeight).toList());
+            assertSame(sets.get(0).getExercise(), sets.get(1).getExercise());
+            assertEquals(benchEarlier.getId(), sets.get(0).getExercise().getId());
+            assertEquals(LocalDate.of(2024, 3, 2),
+                    sets.get(2).getExercise().getSession().getLocalDate());
+            assertEquals(1, repo.findByName("Bench Press", LocalDate.of(2024, 3, 2),
+                    LocalDate.of(2024, 3, 31)).size());
+        }
+    }
+
+    private static Date dateOf(final LocalDate day) {
+        return Date.from(day.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+}
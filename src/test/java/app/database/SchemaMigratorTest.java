@@ -0,0 +1,402 @@
+package app.database;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SchemaMigratorTest {
+
+    private static final int SESSIONS = 5_000;
+    private static final int EXERCISES_PER_SESSION = 8;
+
+    @TempDir
+    Path tempDir;
+
+    Connection conn;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        conn = DriverManager.getConnection(
+                "jdbc:sqlite:" + tempDir.resolve("migrations.db"));
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        conn.close();
+    }
+
+    @Test
+    void migrate_appliesAllMigrationsAndRecordsVersion() throws SQLException {
+        int latest = Migrations.all().get(Migrations.all().size() - 1).version();
+
+        int version = new SchemaMigrator(Migrations.all()).migrate(conn);
+
+        assertEquals(latest, version);
+        assertEquals(latest, SchemaMigrator.currentVersion(conn));
+        assertTrue(conn.getAutoCommit());
+    }
+
+    @Test
+    void migrate_runsEachMigrationOnce() throws SQLException {
+        List<Integer> applied = new ArrayList<>();
+        List<Migration> migrations = List.of(
+                counting(1, applied),
+                counting(2, applied));
+
+        new SchemaMigrator(migrations).migrate(conn);
+        new SchemaMigrator(migrations).migrate(conn);
+
+        assertEquals(List.of(1, 2), applied);
+    }
+
+    @Test
+    void migrate_appliesOnlyNewerMigrations() throws SQLException {
+        List<Integer> applied = new ArrayList<>();
+        new SchemaMigrator(List.of(counting(1, applied))).migrate(conn);
+
+        int version = new SchemaMigrator(List.of(
+                counting(1, applied), counting(2, applied))).migrate(conn);
+
+        assertEquals(2, version);
+        assertEquals(List.of(1, 2), applied);
+    }
+
+    @Test
+    void migrate_rollsBackFailedMigration() throws SQLException {
+        List<Migration> migrations = List.of(
+                Migration.sql(1, "ok", "CREATE TABLE a (id INTEGER)"),
+                Migration.sql(2, "broken",
+                        "CREATE TABLE b (id INTEGER)",
+                        "CREATE TABLE a (id INTEGER)"));
+
+        assertThrows(SQLException.class,
+                () -> new SchemaMigrator(migrations).migrate(conn));
+
+        assertEquals(1, SchemaMigrator.currentVersion(conn));
+        assertFalse(tableExists("b"));
+    }
+
+    @Test
+    void migrate_upgradesDatabaseCreatedBeforeVersioning() throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.executeUpdate("CREATE TABLE workout_sessions (id INTEGER PRIMARY KEY "
+                    + "AUTOINCREMENT, date VARCHAR, bodyweight DOUBLE PRECISION)");
+            st.executeUpdate("INSERT INTO workout_sessions (date, bodyweight) "
+                    + "VALUES ('2024-01-01 00:00:00.000000', 80.0)");
+        }
+
+        new SchemaMigrator(Migrations.all()).migrate(conn);
+
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM workout_sessions")) {
+            rs.next();
+            assertEquals(1, rs.getInt(1));
+        }
+    }
+
+    @Test
+    void migrate_backfillsEpochDayFromStoredDate() throws SQLException {
+        new SchemaMigrator(Migrations.all().subList(0, 4)).migrate(conn);
+        try (Statement st = conn.createStatement()) {
+            st.executeUpdate("INSERT INTO workout_sessions (date, bodyweight) VALUES "
+                    + "('2024-01-01 23:59:59.000000', 80.0), "
+                    + "('1970-01-02 00:00:00.000000', 81.0)");
+        }
+
+        new SchemaMigrator(Migrations.all()).migrate(conn);
+
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery(
+                     "SELECT epoch_day FROM workout_sessions ORDER BY id")) {
+            assertTrue(rs.next());
+            assertEquals(LocalDate.of(2024, 1, 1).toEpochDay(), rs.getLong(1));
+            assertTrue(rs.next());
+            assertEquals(1, rs.getLong(1));
+        }
+    }
+
+    @Test
+    void migrate_backfillsWorkoutSetsFromSetsString() throws SQLException {
+        new SchemaMigrator(Migrations.all().subList(0, 2)).migrate(conn);
+        try (Statement st = conn.createStatement()) {
+            st.executeUpdate("INSERT INTO workout_exercises (id, name, setsString, session_id) "
+                    + "VALUES (1, 'Bench Press', '100x5-bad-82.5x8', 1), "
+                    + "(2, 'Squat', '', 1)");
+        }
+
+        new SchemaMigrator(Migrations.all()).migrate(conn);
+
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT exercise_id, ordinal, weight, reps "
+                     + "FROM workout_sets ORDER BY exercise_id, ordinal")) {
+            assertTrue(rs.next());
+            assertEquals(1, rs.getInt(1));
+            assertEquals(0, rs.getInt(2));
+            assertEquals(100.0, rs.getDouble(3));
+            assertEquals(5, rs.getInt(4));
+            assertTrue(rs.next());
+            assertEquals(1, rs.getInt(2));
+            assertEquals(82.5, rs.getDouble(3));
+            assertEquals(8, rs.getInt(4));
+            assertFalse(rs.next());
+        }
+    }
+
+    @Test
+    void migrate_buildsPersonalRecordsFromExistingHistory() throws SQLException {
+        new SchemaMigrator(Migrations.all().subList(0, 2)).migrate(conn);
+        try (Statement st = conn.createStatement()) {
+            st.executeUpdate("INSERT INTO workout_sessions (id, date, bodyweight) VALUES "
+                    + "(1, '2024-01-01 00:00:00.000000', 80.0), "
+                    + "(2, '2024-01-02 00:00:00.000000', 80.0)");
+            st.executeUpdate("INSERT INTO workout_exercises (id, name, setsString, session_id) "
+                    + "VALUES (1, 'Squat', '140x5-150x2-60x20', 1), "
+                    + "(2, 'Squat', '150x3', 2), (3, 'Squat', '100x10', 2)");
+        }
+
+        new SchemaMigrator(Migrations.all()).migrate(conn);
+
+        long d1 = LocalDate.of(2024, 1, 1).toEpochDay();
+        long d2 = d1 + 1;
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT epoch_day, exercise_id, best_weight, "
+                     + "best_reps, volume, set_count FROM daily_records ORDER BY epoch_day")) {
+            assertTrue(rs.next());
+            assertEquals(d1, rs.getLong(1));
+            assertEquals(1, rs.getInt(2));
+            assertEquals(150.0, rs.getDouble(3));
+            assertEquals(2, rs.getInt(4));
+            assertEquals(2200.0, rs.getDouble(5));
+            assertEquals(3, rs.getInt(6));
+            assertTrue(rs.next());
+            assertEquals(2, rs.getInt(2));
+            assertEquals(3, rs.getInt(4));
+            assertEquals(1450.0, rs.getDouble(5));
+            assertFalse(rs.next());
+        }
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT best_weight, best_reps, best_day, "
+                     + "max_volume, max_volume_day FROM personal_records WHERE name = 'Squat'")) {
+            assertTrue(rs.next());
+            assertEquals(150.0, rs.getDouble(1));
+            assertEquals(3, rs.getInt(2));
+            assertEquals(d2, rs.getLong(3));
+            assertEquals(2200.0, rs.getDouble(4));
+            assertEquals(d1, rs.getLong(5));
+        }
+    }
+
+    @Test
+    void migrate_buildsVolumeRollupsFromExistingHistory() throws SQLException {
+        new SchemaMigrator(Migrations.all().subList(0, 2)).migrate(conn);
+        try (Statement st = conn.createStatement()) {
+            st.executeUpdate("INSERT INTO workout_sessions (id, date, bodyweight) VALUES "
+                    + "(1, '2024-01-01 00:00:00.000000', 80.0), "
+                    + "(2, '2024-01-03 00:00:00.000000', 80.0)");
+            st.executeUpdate("INSERT INTO workout_exercises (id, name, setsString, session_id) "
+                    + "VALUES (1, 'Bench Press', '100x5', 1), (2, 'Dumbbell Fly', '20x10', 1), "
+                    + "(3, 'Bench Press', '100x5', 2)");
+        }
+
+        new SchemaMigrator(Migrations.all()).migrate(conn);
+
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT bucket, period_start, tonnage, "
+                     + "set_count, sessions FROM volume_rollups "
+                     + "WHERE group_kind = 'EXERCISE' AND name = 'Bench Press' "
+                     + "ORDER BY bucket")) {
+            assertTrue(rs.next());
+            assertEquals("MONTH", rs.getString(1));
+            assertEquals(LocalDate.of(2024, 1, 1).toEpochDay(), rs.getLong(2));
+            assertEquals(1000.0, rs.getDouble(3));
+            assertEquals(2, rs.getInt(4));
+            assertEquals(2, rs.getInt(5));
+            assertTrue(rs.next());
+            assertEquals("WEEK", rs.getString(1));
+            assertEquals(LocalDate.of(2024, 1, 1).toEpochDay(), rs.getLong(2));
+            assertEquals(1000.0, rs.getDouble(3));
+            assertFalse(rs.next());
+        }
+        // muscle groups come from the catalog, in the startup backfill
+        try (var db = TestDatabase.open(tempDir.resolve("migrations.db"))) {
+            var rollups = new OrmLiteVolumeRollupRepository(db.connectionSource());
+            assertTrue(rollups.lacksMuscleGroups());
+            assertTrue(db.service().backfillVolumeRollups());
+            assertFalse(rollups.lacksMuscleGroups());
+        }
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT bucket, tonnage, sessions "
+                     + "FROM volume_rollups WHERE group_kind = 'MUSCLE' AND name = 'Chest' "
+                     + "ORDER BY bucket")) {
+            assertTrue(rs.next());
+            assertEquals("MONTH", rs.getString(1));
+            // bench press and dumbbell fly both count towards the chest
+            assertEquals(1200.0, rs.getDouble(2));
+            assertEquals(2, rs.getInt(3));
+            assertTrue(rs.next());
+            assertEquals("WEEK", rs.getString(1));
+            assertFalse(rs.next());
+        }
+    }
+
+    @Test
+    void migrate_clearsTheDayOfUndatedSessions() throws SQLException {
+        new SchemaMigrator(Migrations.all().subList(0, 7)).migrate(conn);
+        try (Statement st = conn.createStatement()) {
+            st.executeUpdate("INSERT INTO workout_sessions (id, date, bodyweight, epoch_day) "
+                    + "VALUES (1, NULL, 80.0, 0), (2, '2024-01-01 00:00:00.000000', 80.0, "
+                    + LocalDate.of(2024, 1, 1).toEpochDay() + ")");
+        }
+
+        new SchemaMigrator(Migrations.all()).migrate(conn);
+
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery(
+                     "SELECT epoch_day FROM workout_sessions ORDER BY id")) {
+            assertTrue(rs.next());
+            assertNull(rs.getObject(1));
+            assertTrue(rs.next());
+            assertEquals(LocalDate.of(2024, 1, 1).toEpochDay(), rs.getLong(1));
+        }
+    }
+
+    @Test
+    void migrate_weeklyRollupsStartOnMonday() throws SQLException {
+        new SchemaMigrator(Migrations.all().subList(0, 2)).migrate(conn);
+        try (Statement st = conn.createStatement()) {
+            // a Sunday, and a day before 1970 to cover negative epoch days
+            st.executeUpdate("INSERT INTO workout_sessions (id, date, bodyweight) VALUES "
+                    + "(1, '2024-03-31 00:00:00.000000', 80.0), "
+                    + "(2, '1969-12-31 00:00:00.000000', 80.0)");
+            st.executeUpdate("INSERT INTO workout_exercises (id, name, setsString, session_id) "
+                    + "VALUES (1, 'Squat', '100x5', 1), (2, 'Squat', '100x5', 2)");
+        }
+
+        new SchemaMigrator(Migrations.all()).migrate(conn);
+
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT bucket, period_start FROM volume_rollups "
+                     + "ORDER BY bucket, period_start")) {
+            for (LocalDate start : new LocalDate[] {
+                    LocalDate.of(1969, 12, 1), LocalDate.of(2024, 3, 1)}) {
+                assertTrue(rs.next());
+                assertEquals("MONTH", rs.getString(1));
+                assertEquals(start.toEpochDay(), rs.getLong(2));
+            }
+            for (LocalDate start : new LocalDate[] {
+                    LocalDate.of(1969, 12, 29), LocalDate.of(2024, 3, 25)}) {
+                assertTrue(rs.next());
+                assertEquals("WEEK", rs.getString(1));
+                assertEquals(start.toEpochDay(), rs.getLong(2));
+            }
+            assertFalse(rs.next());
+        }
+    }
+
+    @Test
+    void hotQueries_useIndexesOnLargeDatabase() throws SQLException {
+        new SchemaMigrator(Migrations.all()).migrate(conn);
+        fillSyntheticHistory();
+
+        assertUsesIndex("SELECT * FROM workout_exercises WHERE session_id = 42",
+                "idx_workout_exercises_session_id");
+        assertUsesIndex("SELECT * FROM workout_exercises WHERE name = 'Exercise 3'",
+                "idx_workout_exercises_name");
+        assertUsesIndex("SELECT * FROM workout_sessions "
+                        + "WHERE epoch_day BETWEEN 18262 AND 18293",
+                "idx_workout_sessions_epoch_day");
+        assertUsesIndex("SELECT e.id FROM workout_exercises e "
+                        + "JOIN workout_sessions s ON s.id = e.session_id "
+                        + "WHERE s.epoch_day BETWEEN 18262 AND 18293",
+                "idx_workout_exercises_session_id");
+    }
+
+    private void fillSyntheticHistory() throws SQLException {
+        conn.setAutoCommit(false);
+        try (PreparedStatement session = conn.prepareStatement(
+                "INSERT INTO workout_sessions (id, date, bodyweight, epoch_day) "
+                        + "VALUES (?, ?, ?, ?)");
+             PreparedStatement exercise = conn.prepareStatement(
+                     "INSERT INTO workout_exercises (name, setsString, session_id) "
+                             + "VALUES (?, ?, ?)")) {
+            for (int s = 1; s <= SESSIONS; s++) {
+                session.setInt(1, s);
+                LocalDate day = LocalDate.of(2010, 1, 1).plusDays(s);
+                session.setString(2, day + " 00:00:00.000000");
+                session.setDouble(3, 80.0);
+                session.setLong(4, day.toEpochDay());
+                session.addBatch();
+                for (int e = 0; e < EXERCISES_PER_SESSION; e++) {
+                    exercise.setString(1, "Exercise " + e);
+                    exercise.setString(2, "100x5-105x3");
+                    exercise.setInt(3, s);
+                    exercise.addBatch();
+                }
+            }
+            session.executeBatch();
+            exercise.executeBatch();
+            conn.commit();
+        } finally {
+            conn.setAutoCommit(true);
+        }
+        try (Statement st = conn.createStatement()) {
+            st.executeUpdate("ANALYZE");
+        }
+    }
+
+    private void assertUsesIndex(final String query, final String index)
+            throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("EXPLAIN QUERY PLAN " + query)) {
+            while (rs.next()) {
+                plan.append(rs.getString("detail")).append('\n');
+            }
+        }
+        assertTrue(plan.toString().contains(index),
+                "expected " + index + " in plan:\n" + plan);
+    }
+
+    private boolean tableExists(final String name) throws SQLException {
+        try (PreparedStatement st = conn.prepareStatement(
+                "SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = ?")) {
+            st.setString(1, name);
+            try (ResultSet rs = st.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    private static Migration counting(final int version, final List<Integer> applied) {
+        return new Migration() {
+            @Override
+            public int version() {
+                return version;
+            }
+
+            @Override
+            public String description() {
+                return "v" + version;
+            }
+
+            @Override
+            public void apply(final Connection connection) {
+                applied.add(version);
+            }
+        };
+    }
+}
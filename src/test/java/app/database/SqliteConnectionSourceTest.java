@@ -0,0 +1,238 @@
+package app.database;
+
+import app.model.ExerciseWithSets;
+import app.model.WorkoutSession;
+import app.service.WorkoutService;
+import com.j256.ormlite.misc.TransactionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqliteConnectionSourceTest {
+
+    private static final int READERS = 8;
+    private static final int WRITERS = 2;
+    private static final int SAVES_PER_WRITER = 150;
+
+    @TempDir
+    Path tempDir;
+
+    SqliteConnectionSource cs;
+    TestDatabase db;
+    OrmLiteWorkoutSessionRepository sessions;
+    WorkoutService service;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        // fewer readers than reader threads, so readers have to queue for
+        // connections; the busy timeout only bounds the writers' queue
+        cs = new DatabaseConfig(tempDir.resolve("stress.db"), 4, "WAL", "NORMAL",
+                -2_000, 0, "MEMORY", 60_000).open();
+        db = TestDatabase.open(cs);
+        sessions = new OrmLiteWorkoutSessionRepository(cs);
+        service = db.service();
+    }
+
+    @AfterEach
+    void tearDown() {
+        db.close();
+    }
+
+    @Test
+    void readersAndWriters_neverSeeBusyErrors() throws Exception {
+        var exercises = new OrmLiteWorkoutExerciseRepository(cs);
+        var failures = Collections.synchronizedList(new ArrayList<Throwable>());
+        var writing = new AtomicBoolean(true);
+        var writersDone = new CountDownLatch(WRITERS);
+        var reads = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+
+        for (int w = 0; w < WRITERS; w++) {
+            threads.add(new Thread(() -> {
+                try {
+                    for (int i = 0; i < SAVES_PER_WRITER; i++) {
+                        service.saveWorkout(new Date(), 80.0, List.of(
+                                new ExerciseWithSets("Squat", "100x5-105x5"),
+                                new ExerciseWithSets("Bench Press", "80x8")));
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                } finally {
+                    writersDone.countDown();
+                }
+            }, "writer-" + w));
+        }
+        for (int r = 0; r < READERS; r++) {
+            boolean joins = r % 2 == 0;
+            threads.add(new Thread(() -> {
+                try {
+                    while (writing.get()) {
+                        if (joins) {
+                            exercises.findAllWithSessions();
+                        } else {
+                            sessions.findAll();
+                        }
+                        reads.incrementAndGet();
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            }, "reader-" + r));
+        }
+
+        threads.forEach(Thread::start);
+        assertTrue(writersDone.await(2, TimeUnit.MINUTES), "writers did not finish");
+        writing.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(List.of(), failures);
+        assertEquals(WRITERS * SAVES_PER_WRITER, sessions.findAll().size());
+        assertTrue(reads.get() > 0);
+        var metrics = cs.metrics();
+        assertTrue(metrics.writes() >= WRITERS * SAVES_PER_WRITER, metrics.toString());
+        assertTrue(metrics.openReaders() <= 4, metrics.toString());
+        assertEquals(0, metrics.writeQueueDepth());
+        assertEquals(0, metrics.readQueueDepth());
+    }
+
+    @Test
+    void transaction_readsItsOwnWritesWhileOthersSeeTheLastCommit() throws Exception {
+        var outside = new AtomicInteger(-1);
+
+        TransactionManager.callInTransaction(cs, () -> {
+            sessions.save(new WorkoutSession(new Date(), 80.0));
+            assertEquals(1, sessions.findAll().size());
+
+            var reader = new Thread(() -> {
+                try {
+                    outside.set(sessions.findAll().size());
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            reader.start();
+            reader.join();
+            return null;
+        });
+
+        assertEquals(0, outside.get());
+        assertEquals(1, sessions.findAll().size());
+    }
+
+    @Test
+    void readTransaction_keepsOneSnapshotWhileOthersCommit() throws Exception {
+        var transactions = new OrmLiteTransactionRunner(cs);
+        sessions.save(new WorkoutSession(new Date(), 80.0));
+        List<Integer> seen = new ArrayList<>();
+
+        transactions.inReadTransaction(() -> {
+            seen.add(sessions.findAll().size());
+            var writer = new Thread(() -> {
+                try {
+                    sessions.save(new WorkoutSession(new Date(), 81.0));
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            writer.start();
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            seen.add(sessions.findAll().size());
+        });
+
+        assertEquals(List.of(1, 1), seen);
+        assertEquals(2, sessions.findAll().size());
+        assertEquals(0, cs.metrics().readQueueDepth());
+    }
+
+    @Test
+    void writers_queueForTheWriterConnection() throws Exception {
+        var held = cs.getReadWriteConnection("workout_sessions");
+        var waiter = new Thread(() -> {
+            try {
+                cs.releaseConnection(cs.getReadWriteConnection("workout_sessions"));
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        waiter.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (cs.metrics().writeQueueDepth() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(1, cs.metrics().writeQueueDepth());
+        Thread.sleep(20);
+
+        cs.releaseConnection(held);
+        waiter.join();
+
+        var metrics = cs.metrics();
+        assertEquals(0, metrics.writeQueueDepth());
+        assertTrue(metrics.maxWriteWaitNanos() >= TimeUnit.MILLISECONDS.toNanos(20),
+                metrics.toString());
+    }
+
+    @Test
+    void writers_giveUpAfterTheBusyTimeout() throws Exception {
+        var quick = new DatabaseConfig(tempDir.resolve("quick.db"), 1, "WAL", "NORMAL",
+                -2_000, 0, "MEMORY", 50).open();
+        var held = quick.getReadWriteConnection("workout_sessions");
+        var failure = new AtomicReference<Throwable>();
+        var waiter = new Thread(() -> {
+            try {
+                quick.releaseConnection(quick.getReadWriteConnection("workout_sessions"));
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+        try {
+            waiter.start();
+            waiter.join();
+        } finally {
+            quick.releaseConnection(held);
+            quick.close();
+        }
+
+        assertInstanceOf(SQLException.class, failure.get());
+        assertEquals(1, quick.metrics().writes());
+    }
+
+    @Test
+    void readers_cannotWrite() throws Exception {
+        var reader = cs.getReadOnlyConnection("workout_sessions");
+        try (var statement = reader.getUnderlyingConnection().createStatement()) {
+            assertThrows(SQLException.class, () -> statement.executeUpdate(
+                    "INSERT INTO workout_sessions (bodyweight) VALUES (80)"));
+        } finally {
+            cs.releaseConnection(reader);
+        }
+    }
+
+    @Test
+    void close_rejectsFurtherConnections() {
+        cs.close();
+
+        assertThrows(SQLException.class, () -> cs.getReadOnlyConnection("workout_sessions"));
+        assertThrows(SQLException.class, () -> cs.getReadWriteConnection("workout_sessions"));
+    }
+}
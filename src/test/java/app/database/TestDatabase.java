@@ -0,0 +1,59 @@
+package app.database;
+
+import app.service.WorkoutService;
+import com.j256.ormlite.jdbc.JdbcPooledConnectionSource;
+import com.j256.ormlite.support.ConnectionSource;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+
+/**
+ * A migrated SQLite database with a {@link WorkoutService} over the
+ * ORMLite repositories, for tests and benchmarks that need real storage.
+ * Closing it closes the connection source; the file is the caller's.
+ */
+public final class TestDatabase implements AutoCloseable {
+
+    private final ConnectionSource connectionSource;
+    private final WorkoutService service;
+
+    private TestDatabase(final ConnectionSource connectionSource) throws SQLException {
+        this.connectionSource = connectionSource;
+        this.service = new WorkoutService(
+                new OrmLiteWorkoutSessionRepository(connectionSource),
+                new OrmLiteWorkoutExerciseRepository(connectionSource),
+                new OrmLiteWorkoutSetRepository(connectionSource),
+                new OrmLitePersonalRecordRepository(connectionSource),
+                new OrmLiteVolumeRollupRepository(connectionSource),
+                new OrmLiteTransactionRunner(connectionSource));
+    }
+
+    /** Opens {@code file} through a pooled source, creating it if missing. */
+    public static TestDatabase open(final Path file) throws SQLException {
+        return open(new JdbcPooledConnectionSource("jdbc:sqlite:" + file));
+    }
+
+    /** Migrates {@code cs} to the latest schema and takes over closing it. */
+    public static TestDatabase open(final ConnectionSource cs) throws SQLException {
+        try {
+            new SchemaMigrator(Migrations.all()).migrate(cs);
+            return new TestDatabase(cs);
+        } catch (SQLException | RuntimeException e) {
+            cs.closeQuietly();
+            throw e;
+        }
+    }
+
+    public ConnectionSource connectionSource() {
+        return connectionSource;
+    }
+
+    public WorkoutService service() {
+        return service;
+    }
+
+    @Override
+    public void close() {
+        connectionSource.closeQuietly();
+    }
+}
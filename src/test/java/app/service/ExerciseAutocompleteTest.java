@@ -0,0 +1,72 @@
+package app.service;
+
+import app.model.Exercise;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExerciseAutocompleteTest {
+
+    private static final ExerciseCatalog CATALOG = ExerciseCatalog.of(List.of(
+            new Exercise("Dumbbell Bench Press", "Chest", "Desc"),
+            new Exercise("Benchmark Row", "Back", "Desc"),
+            new Exercise("Bench Press", "Chest", "Desc"),
+            new Exercise("Incline Bench Press", "Chest", "Desc"),
+            new Exercise("Squat", "Legs", "Desc"),
+            new Exercise("Floor Press", "Chest", "Desc")));
+
+    @Test
+    void suggest_ranksPrefixThenWordThenSubstring() {
+        var autocomplete = new ExerciseAutocomplete(CATALOG, Map.of());
+
+        assertEquals(List.of("Bench Press", "Benchmark Row",
+                        "Incline Bench Press", "Dumbbell Bench Press"),
+                autocomplete.suggest("bench", 10));
+        assertEquals(List.of("Incline Bench Press"), autocomplete.suggest("line", 10));
+    }
+
+    @Test
+    void suggest_logCountsBreakTiesWithinTier() {
+        var autocomplete = new ExerciseAutocomplete(CATALOG,
+                Map.of("dumbbell bench press", 5, "Incline Bench Press", 2, "Unknown", 9));
+
+        assertEquals(List.of("Bench Press", "Benchmark Row",
+                        "Dumbbell Bench Press", "Incline Bench Press"),
+                autocomplete.suggest("BENCH", 10));
+    }
+
+    @Test
+    void suggest_keepsOnlyTheBestLimit() {
+        var autocomplete = new ExerciseAutocomplete(CATALOG, Map.of("Floor Press", 3));
+
+        assertEquals(List.of("Floor Press", "Bench Press"), autocomplete.suggest("press", 2));
+        assertEquals(List.of(), autocomplete.suggest("press", 0));
+    }
+
+    @Test
+    void suggest_blankQueryReturnsAllNames() {
+        var autocomplete = new ExerciseAutocomplete(CATALOG, Map.of());
+
+        assertEquals(6, autocomplete.suggest("  ", 3).size());
+        assertSame(autocomplete.allNames(), autocomplete.suggest(null, 3));
+    }
+
+    @Test
+    void suggest_largeCatalogPrefersLoggedThenWordMatches() {
+        List<Exercise> exercises = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            exercises.add(new Exercise("Exercise " + i + " Press", "", ""));
+        }
+        var autocomplete = new ExerciseAutocomplete(ExerciseCatalog.of(exercises),
+                Map.of("Exercise 4242 Press", 7, "exercise 42 press", 3));
+
+        // "42" starts a word in 42, 420-429 and 4200-4299; 142 etc. only contain it
+        assertEquals(List.of("Exercise 4242 Press", "Exercise 42 Press", "Exercise 420 Press",
+                        "Exercise 421 Press", "Exercise 422 Press"),
+                autocomplete.suggest("42", 5));
+    }
+}
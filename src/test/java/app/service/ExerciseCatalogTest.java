@@ -0,0 +1,96 @@
+package app.service;
+
+import app.model.Exercise;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExerciseCatalogTest {
+
+    private static final List<Exercise> EXERCISES = List.of(
+            new Exercise("Bench Press", "Chest", "Desc"),
+            new Exercise("Incline Bench Press", "Chest", "Desc"),
+            new Exercise("Back Squat", "Legs", "Desc"),
+            new Exercise("Squat", "Legs", "Desc"),
+            new Exercise("Deadlift", "Back", "Desc"));
+
+    @Test
+    void exact_ignoresCase() {
+        var catalog = new ExerciseCatalog(EXERCISES);
+
+        assertEquals("Squat", catalog.exact("sQuAt").name());
+        assertNull(catalog.exact("Squa"));
+        assertNull(catalog.exact(null));
+    }
+
+    @Test
+    void find_shortQueriesUseFirstMatchInCatalogOrder() {
+        var catalog = new ExerciseCatalog(EXERCISES);
+
+        assertEquals("Bench Press", catalog.find("b").name());
+        assertEquals("Back Squat", catalog.find("SQ").name());
+        assertEquals("Deadlift", catalog.find("lif").name());
+        assertNull(catalog.find("zz"));
+    }
+
+    @Test
+    void find_longQueryVerifiesCandidates() {
+        var catalog = new ExerciseCatalog(EXERCISES);
+
+        assertEquals("Incline Bench Press", catalog.find("line bench").name());
+        // every trigram occurs in some name, the phrase itself in none
+        assertNull(catalog.find("press bench"));
+    }
+
+    @Test
+    void find_blankQueryReturnsNull() {
+        var catalog = new ExerciseCatalog(EXERCISES);
+
+        assertNull(catalog.find(null));
+        assertNull(catalog.find("   "));
+    }
+
+    @Test
+    void find_matchesLinearScanOnRandomCatalog() {
+        var random = new Random(7);
+        String[] words = {"bench", "press", "squat", "row", "curl", "dumbbell",
+                "cable", "incline", "front", "split", "deadlift", "fly"};
+        List<Exercise> exercises = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            var name = new StringBuilder();
+            for (int w = 0, n = 1 + random.nextInt(3); w < n; w++) {
+                if (w > 0) name.append(' ');
+                String word = words[random.nextInt(words.length)];
+                name.append(random.nextBoolean()
+                        ? Character.toUpperCase(word.charAt(0)) + word.substring(1) : word);
+            }
+            name.append(' ').append(i % 50);
+            exercises.add(new Exercise(name.toString(), "", ""));
+        }
+        var catalog = new ExerciseCatalog(exercises);
+
+        for (int i = 0; i < 5_000; i++) {
+            var source = exercises.get(random.nextInt(exercises.size())).name();
+            int start = random.nextInt(source.length());
+            var query = source.substring(start,
+                    start + 1 + random.nextInt(source.length() - start));
+            if (query.isBlank()) continue;
+
+            assertEquals(reference(exercises, query), catalog.find(query), query);
+        }
+    }
+
+    private static Exercise reference(final List<Exercise> exercises, final String query) {
+        for (Exercise e : exercises) {
+            if (e.name().equalsIgnoreCase(query)) return e;
+        }
+        for (Exercise e : exercises) {
+            if (e.name().toLowerCase().contains(query.toLowerCase())) return e;
+        }
+        return null;
+    }
+}
@@ -146,7 +146,7 @@ class ExerciseCsvParserTest {
     }
 
     @Test
-    void getExercises_returnsDefensiveCopy() throws IOException {
+    void getExercises_returnsImmutableSnapshot() throws IOException {
         String csvContent = """
                 name,muscles,description
                 Bench Press,Chest,Test
@@ -157,13 +157,9 @@ class ExerciseCsvParserTest {
         List<Exercise> first = ExerciseCsvParser.getExercises();
         List<Exercise> second = ExerciseCsvParser.getExercises();
 
-        assertNotSame(first, second);
+        assertSame(first, second);
         assertEquals(1, first.size());
-        assertEquals(1, second.size());
-
-        first.clear();
-        List<Exercise> afterClear = ExerciseCsvParser.getExercises();
-        assertEquals(1, afterClear.size()); // defensive copy работает
+        assertThrows(UnsupportedOperationException.class, first::clear);
     }
 
     @Test
@@ -222,6 +218,16 @@ class ExerciseCsvParserTest {
         assertTrue(ExerciseCsvParser.getExercises().isEmpty());
     }
 
+    @Test
+    void findByName_prefersExactMatchOverEarlierSubstring() {
+        ExerciseCsvParser.replace(List.of(
+                new Exercise("Front Squat", "Legs", "Desc"),
+                new Exercise("Squat", "Legs", "Desc")));
+
+        assertEquals("Squat", ExerciseCsvParser.findByName("SQUAT").name());
+        assertEquals("Front Squat", ExerciseCsvParser.findByName("squ").name());
+    }
+
     @Test
     void findByName_skipsExercisesWithNullName() {
         ExerciseCsvParser.clear();
@@ -229,16 +235,7 @@ class ExerciseCsvParserTest {
         Exercise bad = new Exercise(null, "Chest", "Desc");
         Exercise good = new Exercise("Bench Press", "Chest", "Desc");
 
-        try {
-            var field = ExerciseCsvParser.class.getDeclaredField("EXERCISES");
-            field.setAccessible(true);
-            @SuppressWarnings("unchecked")
-            List<Exercise> list = (List<Exercise>) field.get(null);
-            list.add(bad);
-            list.add(good);
-        } catch (Exception e) {
-            fail(e);
-        }
+        ExerciseCsvParser.replace(List.of(bad, good));
 
         Exercise result = ExerciseCsvParser.findByName("bench");
 
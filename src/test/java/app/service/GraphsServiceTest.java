@@ -1,7 +1,10 @@
 package app.service;
 
+import app.model.DateRange;
+import app.model.SetSummary;
 import app.model.WorkoutExercise;
 import app.model.WorkoutSession;
+import app.model.WorkoutSet;
 import javafx.util.Pair;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,6 +16,8 @@ import java.sql.SQLException;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -40,14 +45,15 @@ class GraphsServiceTest {
         cal.set(2024, Calendar.JANUARY, 2, 0, 0, 0);
         s2 = new WorkoutSession(cal.getTime(), 82.0);
 
-        e1_s1 = new WorkoutExercise("Bench Press", "100x5-110x4", s1);
-        e2_s1 = new WorkoutExercise("Squat", "140x5", s1);
-        e1_s2 = new WorkoutExercise("Bench Press", "120x3", s2);
+        e1_s1 = new WorkoutExercise(1, "Bench Press", "100x5-110x4", s1);
+        e2_s1 = new WorkoutExercise(2, "Squat", "140x5", s1);
+        e1_s2 = new WorkoutExercise(3, "Bench Press", "120x3", s2);
     }
 
     @Test
     void getExerciseData_returnsBestSetPerSession() throws SQLException {
         when(workoutService.getAllExercises()).thenReturn(List.of(e1_s1, e1_s2));
+        when(workoutService.getSetSummaries()).thenReturn(summariesOf(e1_s1, e1_s2));
 
         List<Pair<Date, Double>> data = graphsService.getExerciseData("Bench Press");
 
@@ -65,6 +71,7 @@ class GraphsServiceTest {
     @Test
     void getExerciseData_filtersByName_ignoreCase() throws SQLException {
         when(workoutService.getAllExercises()).thenReturn(List.of(e1_s1, e2_s1));
+        when(workoutService.getSetSummaries()).thenReturn(summariesOf(e1_s1, e2_s1));
 
         List<Pair<Date, Double>> data = graphsService.getExerciseData("bench press");
 
@@ -75,6 +82,7 @@ class GraphsServiceTest {
     @Test
     void getExerciseData_returnsEmpty_whenNoMatch() throws SQLException {
         when(workoutService.getAllExercises()).thenReturn(List.of(e1_s1, e2_s1));
+        when(workoutService.getSetSummaries()).thenReturn(summariesOf(e1_s1, e2_s1));
 
         List<Pair<Date, Double>> data = graphsService.getExerciseData("deadlift");
 
@@ -83,8 +91,9 @@ class GraphsServiceTest {
 
     @Test
     void getExerciseData_skipsInvalidSetStrings() throws SQLException {
-        WorkoutExercise broken = new WorkoutExercise("Bench Press", "INVALID", s1);
+        WorkoutExercise broken = new WorkoutExercise(4, "Bench Press", "INVALID", s1);
         when(workoutService.getAllExercises()).thenReturn(List.of(broken));
+        when(workoutService.getSetSummaries()).thenReturn(summariesOf(broken));
 
         List<Pair<Date, Double>> data = graphsService.getExerciseData("bench press");
 
@@ -93,8 +102,9 @@ class GraphsServiceTest {
 
     @Test
     void getExerciseData_skipsEmptyBestSet() throws SQLException {
-        WorkoutExercise empty = new WorkoutExercise("Bench Press", "", s1);
+        WorkoutExercise empty = new WorkoutExercise(4, "Bench Press", "", s1);
         when(workoutService.getAllExercises()).thenReturn(List.of(empty));
+        when(workoutService.getSetSummaries()).thenReturn(summariesOf(empty));
 
         List<Pair<Date, Double>> data = graphsService.getExerciseData("bench press");
 
@@ -104,6 +114,7 @@ class GraphsServiceTest {
     @Test
     void getExerciseData_nullExerciseName_returnsAllExercises() throws SQLException {
         when(workoutService.getAllExercises()).thenReturn(List.of(e1_s1));
+        when(workoutService.getSetSummaries()).thenReturn(summariesOf(e1_s1));
 
         List<Pair<Date, Double>> data = graphsService.getExerciseData(null);
 
@@ -113,6 +124,7 @@ class GraphsServiceTest {
     @Test
     void getExerciseData_blankExerciseName_returnsAllExercises() throws SQLException {
         when(workoutService.getAllExercises()).thenReturn(List.of(e1_s1));
+        when(workoutService.getSetSummaries()).thenReturn(summariesOf(e1_s1));
 
         List<Pair<Date, Double>> data = graphsService.getExerciseData("   ");
 
@@ -121,8 +133,9 @@ class GraphsServiceTest {
 
     @Test
     void getExerciseData_bestSetHasWrongFormat_skipsParsing() throws SQLException {
-        WorkoutExercise wrongFormat = new WorkoutExercise("Bench Press", "110x4xextra", s1);
+        WorkoutExercise wrongFormat = new WorkoutExercise(4, "Bench Press", "110x4xextra", s1);
         when(workoutService.getAllExercises()).thenReturn(List.of(wrongFormat));
+        when(workoutService.getSetSummaries()).thenReturn(summariesOf(wrongFormat));
 
         List<Pair<Date, Double>> data = graphsService.getExerciseData("Bench Press");
 
@@ -131,10 +144,11 @@ class GraphsServiceTest {
 
     @Test
     void getExerciseData_numberFormatException_ignoresAndContinues() throws SQLException {
-        WorkoutExercise invalidWeight = new WorkoutExercise("Bench Press", "abcx5", s1);
-        WorkoutExercise validExercise = new WorkoutExercise("Squat", "140x5", s1);
+        WorkoutExercise invalidWeight = new WorkoutExercise(4, "Bench Press", "abcx5", s1);
+        WorkoutExercise validExercise = new WorkoutExercise(5, "Squat", "140x5", s1);
 
         when(workoutService.getAllExercises()).thenReturn(List.of(invalidWeight, validExercise));
+        when(workoutService.getSetSummaries()).thenReturn(summariesOf(invalidWeight, validExercise));
 
         List<Pair<Date, Double>> data = graphsService.getExerciseData(null);
 
@@ -144,8 +158,9 @@ class GraphsServiceTest {
 
     @Test
     void getExerciseData_invalidReps_ignoresAndContinues() throws SQLException {
-        WorkoutExercise invalidReps = new WorkoutExercise("Bench Press", "110xabc", s1);
+        WorkoutExercise invalidReps = new WorkoutExercise(4, "Bench Press", "110xabc", s1);
         when(workoutService.getAllExercises()).thenReturn(List.of(invalidReps));
+        when(workoutService.getSetSummaries()).thenReturn(summariesOf(invalidReps));
 
         List<Pair<Date, Double>> data = graphsService.getExerciseData("Bench Press");
 
@@ -191,4 +206,156 @@ class GraphsServiceTest {
 
         assertTrue(names.isEmpty());
     }
+
+    @Test
+    void getExerciseData_usesTypedSummaryWeight() throws SQLException {
+        when(workoutService.getAllExercises()).thenReturn(List.of(e1_s1));
+        when(workoutService.getSetSummaries()).thenReturn(
+                Map.of(1, new SetSummary(1, 112.5, 3, 337.5, 1)));
+
+        List<Pair<Date, Double>> data = graphsService.getExerciseData("Bench Press");
+
+        assertEquals(1, data.size());
+        assertEquals(112.5, data.get(0).getValue());
+    }
+
+    private static Map<Integer, SetSummary> summariesOf(WorkoutExercise... exercises) {
+        Map<Integer, SetSummary> summaries = new HashMap<>();
+        for (WorkoutExercise ex : exercises) {
+            List<WorkoutSet> sets = WorkoutService.toSets(ex);
+            if (sets.isEmpty()) {
+                continue;
+            }
+            WorkoutSet best = sets.get(0);
+            double volume = 0;
+            for (WorkoutSet set : sets) {
+                volume += set.getWeight() * set.getReps();
+                if (set.getWeight() > best.getWeight()
+                        || set.getWeight() == best.getWeight() && set.getReps() > best.getReps()) {
+                    best = set;
+                }
+            }
+            summaries.put(ex.getId(), new SetSummary(ex.getId(),
+                    best.getWeight(), best.getReps(), volume, sets.size()));
+        }
+        return summaries;
+    }
+
+    @Test
+    void getBodyweightData_withRange_readsOnlyWindow() throws SQLException {
+        var range = new DateRange(s2.getLocalDate(), s2.getLocalDate());
+        when(workoutService.getSessions(range)).thenReturn(List.of(s2));
+
+        var data = graphsService.getBodyweightData(range);
+
+        assertEquals(1, data.size());
+        assertEquals(82.0, data.get(0).getValue());
+        verify(workoutService, never()).getAllSessions();
+    }
+
+    @Test
+    void getExerciseData_withRange_readsOnlyWindow() throws SQLException {
+        var range = new DateRange(s2.getLocalDate(), s2.getLocalDate());
+        when(workoutService.getExercises(range)).thenReturn(List.of(e1_s2));
+        when(workoutService.getSetSummaries()).thenReturn(
+                Map.of(3, new SetSummary(3, 120.0, 3, 360.0, 1)));
+
+        var data = graphsService.getExerciseData("Bench Press", range);
+
+        assertEquals(1, data.size());
+        assertEquals(120.0, data.get(0).getValue());
+        verify(workoutService, never()).getAllExercises();
+    }
+
+    @Test
+    void getBodyweightSeries_isSortedByEpochDay() throws SQLException {
+        when(workoutService.getAllSessions()).thenReturn(List.of(s2, s1));
+
+        var series = graphsService.getBodyweightSeries(DateRange.ALL);
+
+        assertEquals(2, series.size());
+        assertEquals(s1.getLocalDate().toEpochDay(), series.x(0));
+        assertEquals(80.0, series.y(0));
+        assertEquals(s2.getLocalDate().toEpochDay(), series.x(1));
+    }
+
+    @Test
+    void getBodyweightSeries_skipsUndatedSessions() throws SQLException {
+        when(workoutService.getAllSessions())
+                .thenReturn(List.of(new WorkoutSession(null, 90.0), s1));
+
+        var series = graphsService.getBodyweightSeries(DateRange.ALL);
+
+        assertEquals(1, series.size());
+        assertEquals(s1.getLocalDate().toEpochDay(), series.x(0));
+        assertEquals(80.0, series.y(0));
+    }
+
+    @Test
+    void getExerciseSeries_plotsBestWeightOfMatchingExercises() throws SQLException {
+        when(workoutService.getAllExercises()).thenReturn(List.of(e1_s2, e2_s1, e1_s1));
+        when(workoutService.getSetSummaries()).thenReturn(summariesOf(e1_s1, e2_s1, e1_s2));
+
+        var series = graphsService.getExerciseSeries("bench press", DateRange.ALL);
+
+        assertEquals(2, series.size());
+        assertEquals(s1.getLocalDate().toEpochDay(), series.x(0));
+        assertEquals(110.0, series.y(0));
+        assertEquals(120.0, series.y(1));
+    }
+
+    @Test
+    void getExerciseSeries_skipsExercisesWithoutAName() throws SQLException {
+        var unnamed = new WorkoutExercise(4, null, "60x5", s1);
+        when(workoutService.getAllExercises()).thenReturn(List.of(unnamed, e1_s2));
+        when(workoutService.getSetSummaries()).thenReturn(summariesOf(unnamed, e1_s2));
+
+        var series = graphsService.getExerciseSeries("Bench Press", DateRange.ALL);
+
+        assertEquals(1, series.size());
+        assertEquals(120.0, series.y(0));
+    }
+
+    @Test
+    void getExerciseMetrics_computesEverySeriesInOnePass() throws SQLException {
+        when(workoutService.getSetsOf("Bench Press", DateRange.ALL)).thenReturn(List.of(
+                new WorkoutSet(e1_s1, 0, 100, 5),
+                new WorkoutSet(e1_s1, 1, 110, 4),
+                new WorkoutSet(e1_s2, 0, 120, 3)));
+
+        var metrics = graphsService.getExerciseMetrics("Bench Press", DateRange.ALL);
+
+        var epley = metrics.get(ProgressMetric.E1RM_EPLEY);
+        assertEquals(2, epley.size());
+        assertEquals(s1.getLocalDate().toEpochDay(), epley.x(0));
+        assertEquals(110 * (1 + 4 / 30.0), epley.y(0), 1e-9);
+        assertEquals(132.0, epley.y(1), 1e-9);
+        assertEquals(120.0, metrics.get(ProgressMetric.E1RM_BRZYCKI).y(0), 1e-9);
+        assertEquals(940.0, metrics.get(ProgressMetric.VOLUME).y(0));
+        assertEquals(4.0, metrics.get(ProgressMetric.TOP_SET_REPS).y(0));
+        assertEquals(120.0, metrics.get(ProgressMetric.MAX_WEIGHT).y(1));
+        verify(workoutService, never()).getSetSummaries();
+        verify(workoutService, never()).getAllExercises();
+    }
+
+    @Test
+    void getExerciseMetrics_skipsEstimatesWithoutAValue() throws SQLException {
+        var endurance = new WorkoutExercise(4, "Plank", "0x40", s1);
+        when(workoutService.getSetsOf("Plank", DateRange.ALL))
+                .thenReturn(List.of(new WorkoutSet(endurance, 0, 0, 40)));
+
+        var metrics = graphsService.getExerciseMetrics("Plank", DateRange.ALL);
+
+        assertTrue(metrics.get(ProgressMetric.E1RM_BRZYCKI).isEmpty());
+        assertEquals(1, metrics.get(ProgressMetric.E1RM_EPLEY).size());
+        assertEquals(40.0, metrics.get(ProgressMetric.TOP_SET_REPS).y(0));
+    }
+
+    @Test
+    void oneRepMaxFormulas_treatASingleAsItsOwnMax() {
+        assertEquals(100.0, ProgressMetric.epley(100, 1));
+        assertEquals(100.0, ProgressMetric.brzycki(100, 1), 1e-9);
+        assertEquals(112.5, ProgressMetric.brzycki(100, 5), 1e-9);
+        assertTrue(Double.isNaN(ProgressMetric.epley(100, 0)));
+    }
 }
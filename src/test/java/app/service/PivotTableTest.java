@@ -0,0 +1,53 @@
+package app.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PivotTableTest {
+
+    @Test
+    void builder_groupsRowsByName_andKeepsFirstId() {
+        var builder = PivotTable.builder(new String[]{"2024-01-01", "2024-01-02"}, false);
+        builder.text(builder.row("Squat", 4), 0, "100x5");
+        builder.text(builder.row("Squat", 9), 1, "105x5");
+
+        var pivot = builder.build();
+
+        assertEquals(1, pivot.rowCount());
+        assertEquals(4, pivot.exerciseId(0));
+        assertEquals("105x5", pivot.cell(0, 1));
+    }
+
+    @Test
+    void builder_growsPastInitialCapacity() {
+        var builder = PivotTable.builder(new String[]{"d0", "d1", "d2"}, true);
+        for (int i = 0; i < 100; i++) {
+            builder.best(builder.row("Exercise " + i, i), i % 3, i, 1);
+        }
+
+        var pivot = builder.build();
+
+        assertEquals(100, pivot.rowCount());
+        assertEquals("99x1", pivot.cell(99, 0));
+        assertNull(pivot.cell(99, 1));
+        assertEquals("50x1", pivot.cell(50, 2));
+    }
+
+    @Test
+    void row_actsAsReadOnlyMapView() {
+        var builder = PivotTable.builder(new String[]{"2024-01-01", "2024-01-02"}, false);
+        builder.text(builder.row("Bench Press", 3), 1, "80x8");
+        var row = builder.build().rows().get(0);
+
+        assertEquals(3, row.get("id"));
+        assertEquals("Bench Press", row.get("name"));
+        assertEquals("80x8", row.get("2024-01-02"));
+        assertNull(row.get("2024-01-01"));
+        assertEquals(Map.of("id", 3, "name", "Bench Press", "2024-01-02", "80x8"),
+                Map.copyOf(row));
+        assertThrows(UnsupportedOperationException.class, () -> row.put("x", 1));
+    }
+}
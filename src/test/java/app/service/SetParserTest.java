@@ -2,6 +2,10 @@ package app.service;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class SetParserTest {
@@ -48,4 +52,166 @@ class SetParserTest {
         String best = SetParser.pickBestSet("100x5-100x5");
         assertEquals("100x5", best);
     }
+
+    @Test
+    void forEachSet_readsWeightsAndRepsInOrder() {
+        assertEquals(List.of("100.0x5", "82.5x8", "0.5x12"), collect("100x5-82.5x8-.5x12"));
+    }
+
+    @Test
+    void forEachSet_oddButValidTokens_followParseDoubleRules() {
+        assertEquals(List.of("100.0x5", "1000.0x3", "5.0x2", "60.0x7"),
+                collect("100x+5- 1e3x3-5.x2-60x7x"));
+    }
+
+    @Test
+    void forEachSet_skipsMalformedTokens() {
+        assertEquals(List.of("100.0x5"),
+                collect("--100x5--x5-100x-1.2.3x4-100xx5-100x5a-.x1-100x99999999999"));
+    }
+
+    @Test
+    void pickBestSet_keepsWeightTextAndNormalisesReps() {
+        assertEquals("082.50x6", SetParser.pickBestSet("80x5-082.50x06"));
+    }
+
+    @Test
+    void summarize_returnsBestVolumeAndCount() {
+        var stats = SetParser.summarize("100x5-110x4-110x6-90x10", new SetParser.Stats());
+
+        assertEquals(110.0, stats.getBestWeight());
+        assertEquals(6, stats.getBestReps());
+        assertEquals(2500.0, stats.getVolume());
+        assertEquals(4, stats.getCount());
+    }
+
+    @Test
+    void summarize_reusedStats_isResetBetweenCalls() {
+        var stats = new SetParser.Stats();
+        SetParser.summarize("200x1", stats);
+        SetParser.summarize("bad", stats);
+
+        assertEquals(0, stats.getCount());
+        assertEquals(-1, stats.getBestReps());
+    }
+
+    @Test
+    void primitiveHelpers_matchSummary() {
+        assertEquals(120.0, SetParser.bestWeight("100x10-120x1"));
+        assertEquals(1120.0, SetParser.totalVolume("100x10-120x1"));
+        assertEquals(2, SetParser.setCount("100x10-120x1-x"));
+    }
+
+    @Test
+    void isValid_requiresEverySetToParse() {
+        assertTrue(SetParser.isValid("100x5-102.5x3"));
+        assertTrue(SetParser.isValid("0x40--"));
+        assertFalse(SetParser.isValid("100x10-120x1-x"));
+        assertFalse(SetParser.isValid("100x5-abc"));
+        assertFalse(SetParser.isValid(" - "));
+        assertFalse(SetParser.isValid(null));
+        assertFalse(SetParser.isValid(""));
+    }
+
+    @Test
+    void tenThousandSets_areParsedInOnePass() {
+        var sb = new StringBuilder();
+        for (int i = 0; i < 10_000; i++) {
+            if (i > 0) sb.append('-');
+            sb.append(100 + i % 50).append(".5x").append(1 + i % 12);
+        }
+        String sets = sb.toString();
+
+        assertEquals(10_000, SetParser.setCount(sets));
+        assertEquals("149.5x12", SetParser.pickBestSet(sets));
+        assertEquals(referencePickBestSet(sets), SetParser.pickBestSet(sets));
+    }
+
+    @Test
+    void longWeights_fallBackToParseDouble() {
+        assertEquals(List.of("1.2345678901234567E19x1", "0.1x3"),
+                collect("12345678901234567890x1-0.1000000000000000000000001x3"));
+    }
+
+    @Test
+    void fuzz_matchesSplitBasedReference() {
+        var random = new Random(42);
+        String alphabet = "0123456789.x-a +e";
+        for (int n = 0; n < 20_000; n++) {
+            var sb = new StringBuilder();
+            int len = random.nextInt(40);
+            for (int i = 0; i < len; i++) {
+                sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            String sets = sb.toString();
+
+            assertEquals(referencePickBestSet(sets), SetParser.pickBestSet(sets), sets);
+            assertEquals(referenceSets(sets), collect(sets), sets);
+        }
+    }
+
+    @Test
+    void fuzz_wellFormedSets_matchReference() {
+        var random = new Random(7);
+        for (int n = 0; n < 5_000; n++) {
+            var sb = new StringBuilder();
+            int count = 1 + random.nextInt(20);
+            for (int i = 0; i < count; i++) {
+                if (i > 0) sb.append('-');
+                sb.append(random.nextInt(400));
+                if (random.nextBoolean()) {
+                    sb.append('.').append(random.nextInt(1000));
+                }
+                sb.append('x').append(random.nextInt(30));
+            }
+            String sets = sb.toString();
+
+            assertEquals(referencePickBestSet(sets), SetParser.pickBestSet(sets), sets);
+            assertEquals(referenceSets(sets), collect(sets), sets);
+        }
+    }
+
+    private static List<String> collect(String sets) {
+        List<String> out = new ArrayList<>();
+        SetParser.forEachSet(sets, (w, r) -> out.add(w + "x" + r));
+        return out;
+    }
+
+    // The split-based parser this class replaced.
+    private static String referencePickBestSet(String sets) {
+        if (sets == null || sets.isBlank()) return "";
+
+        var best = "";
+        double bestW = -1;
+        int bestR = -1;
+        for (String part : sets.split("-")) {
+            String[] wr = part.split("x");
+            if (wr.length != 2) continue;
+            try {
+                double w = Double.parseDouble(wr[0]);
+                int r = Integer.parseInt(wr[1]);
+                if (w > bestW || (Double.compare(w, bestW) == 0 && r > bestR)) {
+                    bestW = w;
+                    bestR = r;
+                    best = wr[0] + "x" + r;
+                }
+            } catch (NumberFormatException ignore) {
+            }
+        }
+        return best;
+    }
+
+    private static List<String> referenceSets(String sets) {
+        List<String> out = new ArrayList<>();
+        if (sets == null || sets.isBlank()) return out;
+        for (String part : sets.split("-")) {
+            String[] wr = part.split("x");
+            if (wr.length != 2) continue;
+            try {
+                out.add(Double.parseDouble(wr[0]) + "x" + Integer.parseInt(wr[1]));
+            } catch (NumberFormatException ignore) {
+            }
+        }
+        return out;
+    }
 }
@@ -0,0 +1,160 @@
+package app.service;
+
+import app.model.ExerciseWithSets;
+import app.model.Workout;
+import app.model.WorkoutExercise;
+import app.model.WorkoutSession;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class SnapshotArchiveTest {
+
+    @Mock
+    WorkoutService workoutService;
+
+    @TempDir
+    Path tempDir;
+
+    final WorkoutSession undated = new WorkoutSession(4, null, 0.0);
+    final WorkoutSession monday = new WorkoutSession(1, date(LocalDate.of(2019, 5, 6)), 80.25);
+    final WorkoutSession rest = new WorkoutSession(3, date(LocalDate.of(2019, 5, 7)), 80.0);
+    final WorkoutSession later = new WorkoutSession(2, date(LocalDate.of(2024, 1, 2)), 81.1);
+
+    @Test
+    void restore_readsBackWhatWasWritten() throws Exception {
+        var file = tempDir.resolve("history.snapshot");
+        history();
+        var archive = new SnapshotArchive(workoutService);
+
+        var written = archive.write(file);
+        List<Workout> restored = new ArrayList<>();
+        doAnswer(invocation -> restored.addAll(invocation.getArgument(0)))
+                .when(workoutService).restoreWorkouts(any());
+        var read = archive.restore(file);
+
+        assertEquals(new SnapshotArchive.Result(4, 5, Files.size(file)), written);
+        assertEquals(written, read);
+        assertEquals(List.of(
+                new Workout(null, 0.0, List.of(
+                        new ExerciseWithSets(null, "20x10"))),
+                new Workout(monday.getDate(), 80.25, List.of(
+                        new ExerciseWithSets("Squat", "140x5-142.5x5-0.1x3"),
+                        new ExerciseWithSets("Bench", "100x5-abc"),
+                        new ExerciseWithSets("Squat", "+5x3"))),
+                new Workout(rest.getDate(), 80.0, List.of()),
+                new Workout(later.getDate(), 81.1, List.of(
+                        new ExerciseWithSets("Kniebeuge – tief", "1e2x5")))),
+                restored);
+    }
+
+    @Test
+    void restore_rejectsCorruptedFiles() throws Exception {
+        var file = tempDir.resolve("history.snapshot");
+        history();
+        new SnapshotArchive(workoutService).write(file);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 3] ^= 0x10;
+        Files.write(file, bytes);
+
+        var e = assertThrows(IOException.class,
+                () -> new SnapshotArchive(workoutService).restore(file));
+
+        assertTrue(e.getMessage().contains("checksum"), e.getMessage());
+        verify(workoutService, never()).restoreWorkouts(any());
+    }
+
+    @Test
+    void restore_rejectsOtherVersions() throws Exception {
+        var file = tempDir.resolve("history.snapshot");
+        history();
+        new SnapshotArchive(workoutService).write(file);
+        byte[] bytes = Files.readAllBytes(file);
+        ByteBuffer.wrap(bytes).putShort(4, (short) (SnapshotArchive.VERSION + 1));
+        Files.write(file, bytes);
+
+        var e = assertThrows(IOException.class,
+                () -> new SnapshotArchive(workoutService).restore(file));
+
+        assertTrue(e.getMessage().contains("version"), e.getMessage());
+    }
+
+    @Test
+    void write_storesRepeatedNamesOnce() throws Exception {
+        var file = tempDir.resolve("history.snapshot");
+        visit(List.of(monday, later),
+                new WorkoutExercise(1, "Romanian deadlift", "100x8", monday),
+                new WorkoutExercise(2, "Romanian deadlift", "100x8", later));
+
+        new SnapshotArchive(workoutService).write(file);
+
+        String content = new String(Files.readAllBytes(file), StandardCharsets.ISO_8859_1);
+        assertEquals(content.indexOf("Romanian deadlift"),
+                content.lastIndexOf("Romanian deadlift"));
+    }
+
+    @Test
+    void write_failedReadLeavesNoFile() throws Exception {
+        var file = tempDir.resolve("history.snapshot");
+        doThrow(new SQLException("locked")).when(workoutService).forEachWorkout(any());
+
+        assertThrows(SQLException.class, () -> new SnapshotArchive(workoutService).write(file));
+
+        try (var files = Files.list(tempDir)) {
+            assertEquals(List.of(), files.toList());
+        }
+    }
+
+    // in the service's visiting order: undated first, then by day
+    private void history() throws SQLException {
+        visit(List.of(undated, monday, rest, later),
+                new WorkoutExercise(9, null, "20x10", undated),
+                new WorkoutExercise(1, "Squat", "140x5-142.5x5-0.1x3", monday),
+                new WorkoutExercise(2, "Bench", "100x5-abc", monday),
+                new WorkoutExercise(3, "Squat", "+5x3", monday),
+                new WorkoutExercise(4, "Kniebeuge – tief", "1e2x5", later));
+    }
+
+    private void visit(final List<WorkoutSession> sessions,
+                       final WorkoutExercise... exercises) throws SQLException {
+        doAnswer(invocation -> {
+            WorkoutService.WorkoutVisitor visitor = invocation.getArgument(0);
+            for (WorkoutSession session : sessions) {
+                List<WorkoutExercise> own = new ArrayList<>();
+                for (WorkoutExercise exercise : exercises) {
+                    if (exercise.getSession() == session) {
+                        own.add(exercise);
+                    }
+                }
+                visitor.visit(session, own);
+            }
+            return null;
+        }).when(workoutService).forEachWorkout(any());
+    }
+
+    private static Date date(final LocalDate day) {
+        return Date.from(day.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+}
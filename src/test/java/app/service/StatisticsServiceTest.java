@@ -1,5 +1,8 @@
 package app.service;
 
+import app.model.DailyRecord;
+import app.model.DateRange;
+import app.model.PersonalRecord;
 import app.model.WorkoutExercise;
 import app.model.WorkoutSession;
 import org.junit.jupiter.api.BeforeEach;
@@ -9,7 +12,6 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.sql.SQLException;
-import java.text.SimpleDateFormat;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -40,9 +42,9 @@ class StatisticsServiceTest {
         cal.set(2024, Calendar.JANUARY, 2, 0, 0, 0);
         s2 = new WorkoutSession(cal.getTime(), 82.0);
 
-        e1_s1 = new WorkoutExercise("Bench Press", "100x5-110x4", s1);
-        e2_s1 = new WorkoutExercise("Squat", "140x5", s1);
-        e1_s2 = new WorkoutExercise("Bench Press", "120x3", s2);
+        e1_s1 = new WorkoutExercise(1, "Bench Press", "100x5-110x4", s1);
+        e2_s1 = new WorkoutExercise(2, "Squat", "140x5", s1);
+        e1_s2 = new WorkoutExercise(3, "Bench Press", "120x3", s2);
     }
 
     @Test
@@ -62,65 +64,6 @@ class StatisticsServiceTest {
         assertEquals(s2.getBodyweight(), r2.get("bw"));
     }
 
-    @Test
-    void getAllExercisesAllSets_groupsByName_andKeepsAllSets() throws SQLException {
-        when(workoutService.getAllSessions()).thenReturn(List.of(s1, s2));
-        when(workoutService.getAllExercises()).thenReturn(List.of(e1_s1, e2_s1, e1_s2));
-
-        List<Map<String, Object>> rows = statisticsService.getAllExercisesAllSets("bench");
-
-        assertEquals(1, rows.size());
-        Map<String, Object> row = rows.get(0);
-        assertEquals("Bench Press", row.get("name"));
-
-        SimpleDateFormat df = new SimpleDateFormat("yyyy-MM-dd");
-        String d1 = df.format(s1.getDate());
-        String d2 = df.format(s2.getDate());
-
-        assertEquals("100x5-110x4", row.get(d1));
-        assertEquals("120x3", row.get(d2));
-    }
-
-    @Test
-    void getAllExercisesAllSets_returnsEmpty_whenNoMatch() throws SQLException {
-        when(workoutService.getAllSessions()).thenReturn(List.of(s1, s2));
-        when(workoutService.getAllExercises()).thenReturn(List.of(e1_s1, e2_s1, e1_s2));
-
-        List<Map<String, Object>> rows = statisticsService.getAllExercisesAllSets("deadlift");
-
-        assertTrue(rows.isEmpty());
-    }
-
-    @Test
-    void getAllExercisesBestSet_usesBestSetPerDate() throws SQLException {
-        when(workoutService.getAllSessions()).thenReturn(List.of(s1, s2));
-        when(workoutService.getAllExercises()).thenReturn(List.of(e1_s1, e1_s2));
-
-        List<Map<String, Object>> rows = statisticsService.getAllExercisesBestSet("bench");
-
-        assertEquals(1, rows.size());
-        Map<String, Object> row = rows.get(0);
-
-        assertEquals("Bench Press", row.get("name"));
-
-        SimpleDateFormat df = new SimpleDateFormat("yyyy-MM-dd");
-        String d1 = df.format(s1.getDate());
-        String d2 = df.format(s2.getDate());
-
-        assertEquals("110x4", row.get(d1));
-        assertEquals("120x3", row.get(d2));
-    }
-
-    @Test
-    void getAllExercisesBestSet_emptyWhenNoExercises() throws SQLException {
-        when(workoutService.getAllSessions()).thenReturn(List.of(s1, s2));
-        when(workoutService.getAllExercises()).thenReturn(List.of());
-
-        List<Map<String, Object>> rows = statisticsService.getAllExercisesBestSet(null);
-
-        assertTrue(rows.isEmpty());
-    }
-
     @Test
     void getAllSessionsSummary_returnsRowsPerSessionAndExercise() throws SQLException {
         when(workoutService.getAllSessions()).thenReturn(List.of(s1, s2));
@@ -135,6 +78,24 @@ class StatisticsServiceTest {
         assertEquals("100x5-110x4", r0.get("sets"));
     }
 
+    @Test
+    void getAllSessionsSummary_joinsExercisesToTheirOwnSession() throws SQLException {
+        WorkoutSession a = new WorkoutSession(1, s1.getDate(), 80.0);
+        WorkoutSession b = new WorkoutSession(2, s2.getDate(), 82.0);
+        WorkoutExercise benchA = new WorkoutExercise(1, "Bench Press", "100x5", a);
+        WorkoutExercise benchB = new WorkoutExercise(2, "Bench Press", "120x3", b);
+        WorkoutExercise squatA = new WorkoutExercise(3, "Squat", "140x5", a);
+        when(workoutService.getAllSessions()).thenReturn(List.of(a, b));
+        when(workoutService.getAllExercises()).thenReturn(List.of(benchA, benchB, squatA));
+
+        List<Map<String, Object>> rows = statisticsService.getAllSessionsSummary(null);
+
+        assertEquals(3, rows.size());
+        assertEquals(List.of(1, 1, 2), rows.stream().map(r -> r.get("sid")).toList());
+        assertEquals(List.of("100x5", "140x5", "120x3"),
+                rows.stream().map(r -> r.get("sets")).toList());
+    }
+
     @Test
     void getAllSessionsSummary_filtersByQuery() throws SQLException {
         when(workoutService.getAllSessions()).thenReturn(List.of(s1, s2));
@@ -151,27 +112,6 @@ class StatisticsServiceTest {
                 .anyMatch(r -> ((String) r.get("name")).toLowerCase().contains("squat")));
     }
 
-    @Test
-    void getAllExercisesAllSets_nullQuery_doesNotFilter() throws SQLException {
-        when(workoutService.getAllSessions()).thenReturn(List.of(s1));
-        when(workoutService.getAllExercises()).thenReturn(List.of(e1_s1, e2_s1));
-
-        List<Map<String, Object>> rows = statisticsService.getAllExercisesAllSets(null);
-
-        assertEquals(2, rows.size());
-    }
-
-    @Test
-    void getAllExercisesBestSet_filtersByQuery() throws SQLException {
-        when(workoutService.getAllSessions()).thenReturn(List.of(s1, s2));
-        when(workoutService.getAllExercises()).thenReturn(List.of(e1_s1, e2_s1, e1_s2));
-
-        List<Map<String, Object>> rows = statisticsService.getAllExercisesBestSet("squat");
-
-        assertEquals(1, rows.size());
-        assertEquals("Squat", rows.get(0).get("name"));
-    }
-
     @Test
     void getAllSessionsSummary_queryFiltersOutAll() throws SQLException {
         when(workoutService.getAllSessions()).thenReturn(List.of(s1, s2));
@@ -182,15 +122,6 @@ class StatisticsServiceTest {
         assertTrue(rows.isEmpty());
     }
 
-    @Test
-    void getAllDates_emptySessions_returnsEmptySet() throws SQLException {
-        when(workoutService.getAllSessions()).thenReturn(List.of());
-
-        Set<String> dates = statisticsService.getAllDates();
-
-        assertTrue(dates.isEmpty());
-    }
-
     @Test
     void getAllSessionsSummary_skipsExercisesWithNullSession() throws SQLException {
         WorkoutExercise orphan = new WorkoutExercise("Bench Press", "100x5", null);
@@ -237,56 +168,110 @@ class StatisticsServiceTest {
     }
 
     @Test
-    void getAllDates_formatsDatesAndReturnsSortedUnique() throws SQLException {
-        WorkoutSession s1copy = new WorkoutSession(s1.getDate(), 81.0);
-        when(workoutService.getAllSessions()).thenReturn(List.of(s2, s1, s1copy));
+    void getAllSessionsSummary_skipsExercisesWithDifferentSessionId() throws SQLException {
+        setId(s1, 1);
+        setId(s2, 2);
 
-        Set<String> dates = statisticsService.getAllDates();
+        when(workoutService.getAllSessions()).thenReturn(List.of(s1, s2));
+
+        WorkoutExercise onlyInSecond =
+                new WorkoutExercise("Bench Press", "100x5", s2);
+
+        when(workoutService.getAllExercises()).thenReturn(List.of(onlyInSecond));
+
+        List<Map<String, Object>> rows =
+                statisticsService.getAllSessionsSummary(null);
+
+        assertEquals(1, rows.size());
 
-        assertEquals(2, dates.size());
-        String any = dates.iterator().next();
-        assertEquals(10, any.length());
+        Map<String, Object> row = rows.get(0);
+        assertEquals("Bench Press", row.get("name"));
+        assertEquals(s2.getDate(), row.get("date"));
     }
+
     @Test
-    void getAllExercisesAllSets_nullQuery_returnsAllByNameGroups() throws SQLException {
-        when(workoutService.getAllSessions()).thenReturn(List.of(s1));
-        when(workoutService.getAllExercises()).thenReturn(List.of(e1_s1, e2_s1));
+    void getAllSetsPivot_keepsEveryExercisesSetsPerDay() throws SQLException {
+        when(workoutService.getAllSessions()).thenReturn(List.of(s1, s2));
+        when(workoutService.getAllExercises()).thenReturn(List.of(e1_s1, e2_s1, e1_s2));
 
-        List<Map<String, Object>> rows = statisticsService.getAllExercisesAllSets(null);
+        PivotTable pivot = statisticsService.getAllSetsPivot(DateRange.ALL);
 
-        assertEquals(2, rows.size());
+        assertEquals(2, pivot.rowCount());
+        assertEquals(List.of(s1.getLocalDate().toString(), s2.getLocalDate().toString()),
+                pivot.dates());
+        assertEquals(List.of("Bench Press", "Squat"),
+                pivot.rows().stream().map(r -> r.get("name")).toList());
+        assertEquals("100x5-110x4", pivot.cell(0, 0));
+        assertEquals("120x3", pivot.cell(0, 1));
+        assertNull(pivot.cell(1, 1));
     }
 
     @Test
-    void getAllExercisesAllSets_blankQuery_doesNotFilter() throws SQLException {
-        when(workoutService.getAllSessions()).thenReturn(List.of(s1));
-        when(workoutService.getAllExercises()).thenReturn(List.of(e1_s1, e2_s1));
+    void getAllSetsPivot_datesAreSortedAndUnique() throws SQLException {
+        WorkoutSession s1copy = new WorkoutSession(s1.getDate(), 81.0);
+        when(workoutService.getAllSessions()).thenReturn(List.of(s2, s1, s1copy));
+        when(workoutService.getAllExercises()).thenReturn(List.of());
 
-        List<Map<String, Object>> rows = statisticsService.getAllExercisesAllSets("   ");
+        PivotTable pivot = statisticsService.getAllSetsPivot(DateRange.ALL);
 
-        assertEquals(2, rows.size());
+        assertEquals(List.of(s1.getLocalDate().toString(), s2.getLocalDate().toString()),
+                pivot.dates());
+        assertEquals(0, pivot.rowCount());
     }
 
     @Test
-    void getAllSessionsSummary_skipsExercisesWithDifferentSessionId() throws SQLException {
-        setId(s1, 1);
-        setId(s2, 2);
+    void getAllSetsPivot_withRange_readsOnlyWindow() throws SQLException {
+        var range = new DateRange(s2.getLocalDate(), s2.getLocalDate());
+        when(workoutService.getSessions(range)).thenReturn(List.of(s2));
+        when(workoutService.getExercises(range)).thenReturn(List.of(e1_s2));
 
-        when(workoutService.getAllSessions()).thenReturn(List.of(s1, s2));
+        PivotTable pivot = statisticsService.getAllSetsPivot(range);
 
-        WorkoutExercise onlyInSecond =
-                new WorkoutExercise("Bench Press", "100x5", s2);
+        assertEquals(List.of(s2.getLocalDate().toString()), pivot.dates());
+        assertEquals("120x3", pivot.cell(0, 0));
+        verify(workoutService, never()).getAllSessions();
+        verify(workoutService, never()).getAllExercises();
+    }
 
-        when(workoutService.getAllExercises()).thenReturn(List.of(onlyInSecond));
+    @Test
+    void getBestSetPivot_readsDailyRecordsAndFlagsPersonalRecords() throws SQLException {
+        long d1 = s1.getEpochDay();
+        long d2 = s2.getEpochDay();
+        when(workoutService.getAllSessions()).thenReturn(List.of(s1, s2));
+        when(workoutService.getDailyRecords(DateRange.ALL)).thenReturn(List.of(
+                new DailyRecord("Bench Press", d1, 1, 110.0, 4, 830.0, 2),
+                new DailyRecord("Squat", d1, 2, -1, -1, 0.0, 0),
+                new DailyRecord("Bench Press", d2, 3, 120.0, 3, 360.0, 1)));
+        when(workoutService.getPersonalRecords()).thenReturn(Map.of(
+                "Bench Press", new PersonalRecord("Bench Press", 120.0, 3, d2, 830.0, d1)));
+
+        PivotTable pivot = statisticsService.getBestSetPivot(DateRange.ALL);
+
+        assertEquals("Bench Press", pivot.exerciseName(0));
+        assertEquals(1, pivot.exerciseId(0));
+        assertEquals("110x4", pivot.cell(0, 0));
+        assertEquals("120x3", pivot.cell(0, 1));
+        assertEquals("", pivot.cell(1, 0));
+        assertNull(pivot.cell(1, 1));
+        assertEquals("squat", pivot.rows().get(1).searchKey());
+        assertFalse(pivot.isPersonalRecord(0, 0));
+        assertTrue(pivot.rows().get(0).isPersonalRecord(1));
+        assertFalse(pivot.isPersonalRecord(1, 0));
+    }
+
+    @Test
+    void getAllSessionsSummary_withRange_readsOnlyWindow() throws SQLException {
+        var range = new DateRange(s2.getLocalDate(), s2.getLocalDate());
+        when(workoutService.getSessions(range)).thenReturn(List.of(s2));
+        when(workoutService.getExercises(range)).thenReturn(List.of(e1_s2));
 
         List<Map<String, Object>> rows =
-                statisticsService.getAllSessionsSummary(null);
+                statisticsService.getAllSessionsSummary(null, range);
 
         assertEquals(1, rows.size());
-
-        Map<String, Object> row = rows.get(0);
-        assertEquals("Bench Press", row.get("name"));
-        assertEquals(s2.getDate(), row.get("date"));
+        assertEquals("120x3", rows.get(0).get("sets"));
+        verify(workoutService, never()).getAllSessions();
+        verify(workoutService, never()).getAllExercises();
     }
 
     private static void setId(WorkoutSession session, int id) {
@@ -0,0 +1,91 @@
+package app.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeSeriesTest {
+
+    @Test
+    void of_sortsByDayAndKeepsTiesInOrder() {
+        var series = TimeSeries.of(new double[]{3, 1, 2, 1}, new double[]{30, 10, 20, 11});
+
+        assertEquals(4, series.size());
+        assertEquals(1, series.minX());
+        assertEquals(3, series.maxX());
+        assertEquals(10, series.y(0));
+        assertEquals(11, series.y(1));
+        assertEquals(30, series.y(3));
+    }
+
+    @Test
+    void downsample_underThreshold_returnsEveryPoint() {
+        var series = line(50);
+
+        assertSame(series, series.downsample(0, 49, 100));
+    }
+
+    @Test
+    void downsample_keepsEndpointsAndHonoursThreshold() {
+        var series = line(10_000);
+
+        var sampled = series.downsample(0, 9_999, 500);
+
+        assertEquals(500, sampled.size());
+        assertEquals(0, sampled.x(0));
+        assertEquals(9_999, sampled.x(499));
+        for (int i = 1; i < sampled.size(); i++) {
+            assertTrue(sampled.x(i) > sampled.x(i - 1));
+        }
+    }
+
+    @Test
+    void downsample_keepsIsolatedPeaksAndDips() {
+        int n = 5_000;
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = i;
+            y[i] = 80;
+        }
+        y[1_234] = 95;
+        y[3_777] = 70;
+
+        var sampled = TimeSeries.of(x, y).downsample(0, n, 100);
+
+        boolean peak = false;
+        boolean dip = false;
+        for (int i = 0; i < sampled.size(); i++) {
+            peak |= sampled.y(i) == 95;
+            dip |= sampled.y(i) == 70;
+        }
+        assertTrue(peak);
+        assertTrue(dip);
+    }
+
+    @Test
+    void downsample_window_keepsOneNeighbourBeyondEachEdge() {
+        var series = line(1_000);
+
+        var sampled = series.downsample(100, 199, 1_000);
+
+        assertEquals(102, sampled.size());
+        assertEquals(99, sampled.x(0));
+        assertEquals(200, sampled.x(101));
+    }
+
+    @Test
+    void downsample_emptyWindow_isEmpty() {
+        assertTrue(TimeSeries.EMPTY.downsample(0, 10, 100).isEmpty());
+    }
+
+    private static TimeSeries line(final int n) {
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = i;
+            y[i] = Math.sin(i / 10.0) * 10 + 80;
+        }
+        return TimeSeries.of(x, y);
+    }
+}
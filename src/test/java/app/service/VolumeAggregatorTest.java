@@ -0,0 +1,70 @@
+package app.service;
+
+import app.model.Exercise;
+import app.model.VolumeRollup;
+import app.model.VolumeRollup.Bucket;
+import app.model.VolumeRollup.Group;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VolumeAggregatorTest {
+
+    private final ExerciseCatalog catalog = ExerciseCatalog.of(List.of(
+            new Exercise("Bench Press", "Chest; Triceps; Shoulders", ""),
+            new Exercise("Dip", "Chest; Triceps", "")));
+
+    @Test
+    void bucketStart_usesIsoWeeksAndCalendarMonths() {
+        var sunday = LocalDate.of(2024, 1, 7).toEpochDay();
+
+        assertEquals(LocalDate.of(2024, 1, 1).toEpochDay(), Bucket.WEEK.start(sunday));
+        assertEquals(LocalDate.of(2024, 1, 8).toEpochDay(), Bucket.WEEK.start(sunday + 1));
+        assertEquals(LocalDate.of(2024, 1, 1).toEpochDay(), Bucket.MONTH.start(sunday));
+        assertEquals("2025-W01", Bucket.WEEK.label(LocalDate.of(2024, 12, 30).toEpochDay()));
+        assertEquals("2024-12", Bucket.MONTH.label(LocalDate.of(2024, 12, 1).toEpochDay()));
+    }
+
+    @Test
+    void muscle_isCreditedWithEveryExerciseButCountedOncePerSession() {
+        var aggregator = new VolumeAggregator(catalog);
+        var monday = LocalDate.of(2024, 1, 1).toEpochDay();
+
+        aggregator.session(monday);
+        aggregator.exercise("Bench Press", 1000.0, 3);
+        aggregator.exercise("Dip", 400.0, 2);
+        aggregator.session(monday + 2);
+        aggregator.exercise("Dip", 500.0, 2);
+
+        var rollups = aggregator.rollups();
+        assertTrue(rollups.contains(new VolumeRollup(Bucket.WEEK, monday, Group.MUSCLE,
+                "Chest", 1900.0, 7, 2)));
+        assertTrue(rollups.contains(new VolumeRollup(Bucket.WEEK, monday, Group.MUSCLE,
+                "Shoulders", 1000.0, 3, 1)));
+        assertTrue(rollups.contains(new VolumeRollup(Bucket.MONTH, monday, Group.EXERCISE,
+                "Dip", 900.0, 4, 2)));
+    }
+
+    @Test
+    void exercise_outsideCatalog_getsNoMuscleRollup() {
+        var aggregator = new VolumeAggregator(catalog);
+        aggregator.session(LocalDate.of(2024, 1, 3).toEpochDay());
+        aggregator.exercise("Sled Push", 2000.0, 4);
+        aggregator.exercise("Bench Press", 0.0, 0);
+
+        var rollups = aggregator.rollups();
+        assertEquals(2, rollups.size());
+        assertTrue(rollups.stream().allMatch(r -> r.group() == Group.EXERCISE
+                && r.name().equals("Sled Push")));
+    }
+
+    @Test
+    void muscles_splitsAndTrimsCatalogField() {
+        assertEquals(List.of("Chest", "Triceps"),
+                VolumeAggregator.muscles(new Exercise("Dip", " Chest;Triceps ; ", "")));
+        assertEquals(List.of(), VolumeAggregator.muscles(new Exercise("X", null, "")));
+    }
+}
@@ -0,0 +1,208 @@
+package app.service;
+
+import app.model.DateRange;
+import app.model.SetSummary;
+import app.model.WorkoutExercise;
+import app.model.WorkoutSession;
+import app.model.WorkoutSet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkoutCacheTest {
+
+    WorkoutCache cache;
+    int loads;
+
+    @BeforeEach
+    void setUp() {
+        cache = new WorkoutCache();
+        loads = 0;
+    }
+
+    @Test
+    void sessions_loadOnce_thenServeFromMemory() throws Exception {
+        var session = sessionOn(LocalDate.of(2024, 1, 1));
+
+        var first = cache.sessions(() -> {
+            loads++;
+            return List.of(session);
+        });
+        var second = cache.sessions(() -> {
+            loads++;
+            return List.of();
+        });
+
+        assertEquals(1, loads);
+        assertSame(first, second);
+        assertEquals(new WorkoutCache.Stats(1, 1), cache.stats());
+    }
+
+    @Test
+    void cachedLists_areImmutable() throws Exception {
+        var sessions = cache.sessions(() -> List.of(sessionOn(LocalDate.of(2024, 1, 1))));
+
+        assertThrows(UnsupportedOperationException.class, () -> sessions.add(null));
+    }
+
+    @Test
+    void addWorkout_appendsToLoadedHistory() throws Exception {
+        var old = sessionOn(LocalDate.of(2024, 1, 1));
+        cache.sessions(() -> List.of(old));
+        cache.exercises(List::of);
+        cache.summaries(Map::of);
+
+        var session = sessionOn(LocalDate.of(2024, 1, 2));
+        var bench = new WorkoutExercise(7, "Bench Press", "100x5-110x4-110x6", session);
+        cache.addWorkout(session, List.of(bench), List.of(
+                new WorkoutSet(bench, 0, 100.0, 5),
+                new WorkoutSet(bench, 1, 110.0, 4),
+                new WorkoutSet(bench, 2, 110.0, 6)));
+
+        assertEquals(List.of(old, session), cache.sessions(List::of));
+        assertEquals(List.of(bench), cache.exercises(List::of));
+        assertEquals(new SetSummary(7, 110.0, 6, 1600.0, 3),
+                cache.summaries(Map::of).get(7));
+    }
+
+    @Test
+    void addWorkout_skipsRowsAReloadAfterTheCommitAlreadyHas() throws Exception {
+        var session = sessionOn(4, LocalDate.of(2024, 1, 2));
+        var bench = new WorkoutExercise(7, "Bench Press", "100x5", session);
+        // loaded after the save committed, before addWorkout ran
+        cache.sessions(() -> List.of(session));
+        cache.exercises(() -> List.of(bench));
+
+        cache.addWorkout(session, List.of(bench), List.of());
+
+        assertEquals(List.of(session), cache.sessions(List::of));
+        assertEquals(List.of(bench), cache.exercises(List::of));
+    }
+
+    @Test
+    void addWorkout_keepsBackdatedSessionsInDayOrder() throws Exception {
+        var first = sessionOn(1, LocalDate.of(2024, 1, 1));
+        var last = sessionOn(2, LocalDate.of(2024, 3, 1));
+        cache.sessions(() -> List.of(first, last));
+        cache.exercises(() -> List.of(
+                new WorkoutExercise(1, "Squat", "100x5", first),
+                new WorkoutExercise(2, "Squat", "105x5", last)));
+
+        var backdated = sessionOn(3, LocalDate.of(2024, 2, 1));
+        cache.addWorkout(backdated,
+                List.of(new WorkoutExercise(3, "Squat", "110x5", backdated)), List.of());
+
+        assertEquals(List.of(first, backdated, last), cache.sessions(List::of));
+        assertEquals(List.of(1, 3, 2), cache.exercises(List::of).stream()
+                .map(WorkoutExercise::getId).toList());
+    }
+
+    @Test
+    void addWorkout_leavesUnloadedPartsUnloaded() throws Exception {
+        var session = sessionOn(LocalDate.of(2024, 1, 2));
+        cache.addWorkout(session, List.of(), List.of());
+
+        var loaded = cache.sessions(() -> {
+            loads++;
+            return List.of(session);
+        });
+
+        assertEquals(1, loads);
+        assertEquals(1, loaded.size());
+    }
+
+    @Test
+    void invalidate_forcesReload() throws Exception {
+        cache.sessions(() -> {
+            loads++;
+            return List.of();
+        });
+        cache.invalidate();
+        cache.sessions(() -> {
+            loads++;
+            return List.of();
+        });
+
+        assertEquals(2, loads);
+    }
+
+    @Test
+    void loadRacingAWrite_isNotStored() throws Exception {
+        cache.sessions(() -> {
+            cache.invalidate();
+            return List.of();
+        });
+        cache.sessions(() -> {
+            loads++;
+            return List.of();
+        });
+
+        assertEquals(1, loads);
+    }
+
+    @Test
+    void rangeQueries_filterLoadedHistoryByEpochDay() throws Exception {
+        var s1 = sessionOn(LocalDate.of(2024, 1, 1));
+        var s2 = sessionOn(LocalDate.of(2024, 2, 1));
+        var range = new DateRange(LocalDate.of(2024, 1, 15), LocalDate.of(2024, 2, 15));
+
+        assertNull(cache.sessionsIn(range));
+
+        cache.sessions(() -> List.of(s1, s2));
+        cache.exercises(() -> List.of(
+                new WorkoutExercise(1, "Squat", "100x5", s1),
+                new WorkoutExercise(2, "Squat", "105x5", s2)));
+
+        assertEquals(List.of(s2), cache.sessionsIn(range));
+        assertEquals(2, cache.exercisesIn(range).get(0).getId());
+    }
+
+    @Test
+    void rangeQueries_returnRowsByDayThenId() throws Exception {
+        // ids out of date order, as after a backdated save or an import
+        var later = sessionOn(1, LocalDate.of(2024, 2, 10));
+        var earlier = sessionOn(2, LocalDate.of(2024, 2, 1));
+        var sameDay = sessionOn(3, LocalDate.of(2024, 2, 1));
+        var range = new DateRange(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 3, 1));
+        cache.sessions(() -> List.of(later, earlier, sameDay));
+        cache.exercises(() -> List.of(
+                new WorkoutExercise(1, "Squat", "100x5", later),
+                new WorkoutExercise(2, "Squat", "105x5", sameDay),
+                new WorkoutExercise(3, "Squat", "110x5", earlier)));
+
+        assertEquals(List.of(earlier, sameDay, later), cache.sessionsIn(range));
+        assertEquals(List.of(3, 2, 1), cache.exercisesIn(range).stream()
+                .map(WorkoutExercise::getId).toList());
+    }
+
+    @Test
+    void version_changesOnWriteAndInvalidate_notOnReads() throws Exception {
+        long initial = cache.version();
+        cache.sessions(List::of);
+        assertEquals(initial, cache.version());
+
+        cache.addWorkout(sessionOn(LocalDate.of(2024, 1, 1)), List.of(), List.of());
+        long afterSave = cache.version();
+        cache.invalidate();
+
+        assertTrue(afterSave > initial);
+        assertTrue(cache.version() > afterSave);
+    }
+
+    private static WorkoutSession sessionOn(final LocalDate day) {
+        return new WorkoutSession(
+                Date.from(day.atStartOfDay(ZoneId.systemDefault()).toInstant()), 80.0);
+    }
+
+    private static WorkoutSession sessionOn(final int id, final LocalDate day) {
+        return new WorkoutSession(id,
+                Date.from(day.atStartOfDay(ZoneId.systemDefault()).toInstant()), 80.0);
+    }
+}
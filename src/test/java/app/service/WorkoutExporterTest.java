@@ -0,0 +1,217 @@
+package app.service;
+
+import app.model.DateRange;
+import app.model.ExerciseWithSets;
+import app.model.Workout;
+import app.model.WorkoutExercise;
+import app.model.WorkoutSession;
+import com.j256.ormlite.dao.CloseableIterator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class WorkoutExporterTest {
+
+    @Mock
+    WorkoutService workoutService;
+
+    @TempDir
+    Path tempDir;
+
+    final WorkoutSession monday = new WorkoutSession(1, date(LocalDate.of(2024, 5, 6)), 80.0);
+    final WorkoutSession tuesday = new WorkoutSession(2, date(LocalDate.of(2024, 5, 7)), 80.5);
+
+    @Test
+    void csv_writesOneRowPerExercise() throws Exception {
+        var rows = stream(DateRange.ALL, null,
+                new WorkoutExercise(1, "Squat", "140x5-140x5", monday),
+                new WorkoutExercise(2, "Press, \"strict\"", "50x8", monday),
+                new WorkoutExercise(3, "Squat", "150x3", tuesday));
+        var out = new StringWriter();
+
+        var result = new WorkoutExporter(workoutService)
+                .exportTo(out, HistoryFormat.CSV, DateRange.ALL, null);
+
+        assertEquals("""
+                date,bodyweight,exercise,sets
+                2024-05-06,80,Squat,140x5-140x5
+                2024-05-06,80,"Press, ""strict\""",50x8
+                2024-05-07,80.5,Squat,150x3
+                """, out.toString());
+        assertEquals(new WorkoutExporter.Result(2, 3), result);
+        verify(rows).closeQuietly();
+    }
+
+    @Test
+    void json_writesOneSessionPerLine() throws Exception {
+        var range = new DateRange(LocalDate.of(2024, 5, 1), LocalDate.of(2024, 5, 31));
+        stream(range, "squat",
+                new WorkoutExercise(1, "Squat", "140x5", monday),
+                new WorkoutExercise(3, "Squat", "150x3", tuesday));
+        var out = new StringWriter();
+
+        var result = new WorkoutExporter(workoutService)
+                .exportTo(out, HistoryFormat.JSON, range, "squat");
+
+        assertEquals("""
+                {"date":"2024-05-06","bodyweight":80,"exercises":[{"name":"Squat","sets":"140x5"}]}
+                {"date":"2024-05-07","bodyweight":80.5,"exercises":[{"name":"Squat","sets":"150x3"}]}
+                """, out.toString());
+        assertEquals(new WorkoutExporter.Result(2, 2), result);
+    }
+
+    @Test
+    void csv_writesUndatedAndEmptySessions() throws Exception {
+        var undated = new WorkoutSession(3, null, 79.5);
+        stream(DateRange.ALL, null,
+                new WorkoutExercise(4, "Plank", "0x60", undated),
+                new WorkoutExercise(null, null, monday),
+                new WorkoutExercise(3, "Squat", "150x3", tuesday));
+        var out = new StringWriter();
+
+        var result = new WorkoutExporter(workoutService)
+                .exportTo(out, HistoryFormat.CSV, DateRange.ALL, null);
+
+        assertEquals("""
+                date,bodyweight,exercise,sets
+                ,79.5,Plank,0x60
+                2024-05-06,80,,
+                2024-05-07,80.5,Squat,150x3
+                """, out.toString());
+        assertEquals(new WorkoutExporter.Result(3, 2), result);
+    }
+
+    @Test
+    void json_writesUndatedAndEmptySessions() throws Exception {
+        var undated = new WorkoutSession(3, null, 79.5);
+        stream(DateRange.ALL, null,
+                new WorkoutExercise(null, null, undated),
+                new WorkoutExercise(null, null, monday),
+                new WorkoutExercise(3, "Squat", "150x3", tuesday));
+        var out = new StringWriter();
+
+        var result = new WorkoutExporter(workoutService)
+                .exportTo(out, HistoryFormat.JSON, DateRange.ALL, null);
+
+        assertEquals("""
+                {"date":null,"bodyweight":79.5,"exercises":[]}
+                {"date":"2024-05-06","bodyweight":80,"exercises":[]}
+                {"date":"2024-05-07","bodyweight":80.5,"exercises":[{"name":"Squat","sets":"150x3"}]}
+                """, out.toString());
+        assertEquals(new WorkoutExporter.Result(3, 1), result);
+    }
+
+    @Test
+    void jsonExport_isReadBackByTheImporter() throws Exception {
+        assertEquals(exported(), roundTrip(HistoryFormat.JSON));
+    }
+
+    @Test
+    void csvExport_isReadBackByTheImporter() throws Exception {
+        assertEquals(exported(), roundTrip(HistoryFormat.CSV));
+    }
+
+    @Test
+    void exportFile_keepsTheOldFileWhenTheExportFails() throws Exception {
+        var target = tempDir.resolve("history.csv");
+        Files.writeString(target, "previous export");
+        @SuppressWarnings("unchecked")
+        CloseableIterator<WorkoutExercise> rows = mock(CloseableIterator.class);
+        when(workoutService.iterateExercises(DateRange.ALL, null)).thenReturn(rows);
+        when(rows.hasNext()).thenReturn(true);
+        when(rows.next())
+                .thenReturn(new WorkoutExercise(1, "Squat", "140x5", monday))
+                .thenThrow(new IllegalStateException("database closed"));
+        var exporter = new WorkoutExporter(workoutService);
+
+        assertThrows(IllegalStateException.class, () ->
+                exporter.exportFile(target, HistoryFormat.CSV, DateRange.ALL, null));
+
+        assertEquals("previous export", Files.readString(target));
+        try (var files = Files.list(tempDir)) {
+            assertEquals(List.of(target), files.toList());
+        }
+        verify(rows).closeQuietly();
+    }
+
+    @Test
+    void exportFile_writesUtf8AndReplacesTheTarget() throws Exception {
+        var target = tempDir.resolve("history.jsonl");
+        Files.writeString(target, "previous export");
+        stream(DateRange.ALL, null, new WorkoutExercise(1, "Kniebeuge – tief", "100x5", monday));
+
+        var result = new WorkoutExporter(workoutService)
+                .exportFile(target, HistoryFormat.of(target), DateRange.ALL, null);
+
+        assertEquals(new WorkoutExporter.Result(1, 1), result);
+        assertEquals("{\"date\":\"2024-05-06\",\"bodyweight\":80,\"exercises\":"
+                + "[{\"name\":\"Kniebeuge – tief\",\"sets\":\"100x5\"}]}\n",
+                Files.readString(target));
+    }
+
+    private List<Workout> roundTrip(final HistoryFormat format) throws Exception {
+        stream(DateRange.ALL, null,
+                new WorkoutExercise(1, "Squat \"low bar\"\n", "140x5", monday),
+                new WorkoutExercise(2, "Curl\t{alt}, cable", "15x12", monday),
+                new WorkoutExercise(3, "Row", "60x10", tuesday));
+        var out = new StringWriter();
+        new WorkoutExporter(workoutService).exportTo(out, format, DateRange.ALL, null);
+        List<Workout> imported = new ArrayList<>();
+        doAnswer(invocation -> imported.addAll(invocation.getArgument(0)))
+                .when(workoutService).saveWorkouts(any());
+
+        new WorkoutImporter(workoutService, 1, 10).importFrom(
+                new BufferedReader(new StringReader(out.toString())), format, null);
+        return imported;
+    }
+
+    // names come back trimmed, as typed names are
+    private List<Workout> exported() {
+        return List.of(
+                new Workout(monday.getDate(), 80.0, List.of(
+                        new ExerciseWithSets("Squat \"low bar\"", "140x5"),
+                        new ExerciseWithSets("Curl\t{alt}, cable", "15x12"))),
+                new Workout(tuesday.getDate(), 80.5, List.of(
+                        new ExerciseWithSets("Row", "60x10"))));
+    }
+
+    private CloseableIterator<WorkoutExercise> stream(final DateRange range, final String name,
+                                                      final WorkoutExercise... exercises)
+            throws SQLException {
+        @SuppressWarnings("unchecked")
+        CloseableIterator<WorkoutExercise> rows = mock(CloseableIterator.class);
+        Iterator<WorkoutExercise> source = List.of(exercises).iterator();
+        lenient().when(rows.hasNext()).thenAnswer(invocation -> source.hasNext());
+        lenient().when(rows.next()).thenAnswer(invocation -> source.next());
+        when(workoutService.iterateExercises(range, name)).thenReturn(rows);
+        return rows;
+    }
+
+    private static Date date(final LocalDate day) {
+        return Date.from(day.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+}
@@ -0,0 +1,188 @@
+package app.service;
+
+import app.model.ExerciseWithSets;
+import app.model.Workout;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class WorkoutImporterTest {
+
+    @Mock
+    WorkoutService workoutService;
+
+    final List<List<Workout>> batches = new ArrayList<>();
+
+    @Test
+    void csv_groupsConsecutiveRowsIntoSessions_acrossChunks() throws Exception {
+        recordBatches();
+        var csv = new StringBuilder("date,bodyweight,exercise,sets\n");
+        int rows = 2 * WorkoutImporter.CHUNK_RECORDS + 500;
+        for (int i = 0; i < rows; i++) {
+            // three exercises per session, so sessions straddle chunk edges
+            csv.append(LocalDate.of(2020, 1, 1).plusDays(i / 3)).append(",80,")
+                    .append("Exercise ").append(i % 3).append(',')
+                    .append(100 + i).append("x5\n");
+        }
+        List<WorkoutImporter.Progress> progress = new ArrayList<>();
+
+        var result = new WorkoutImporter(workoutService, 3, 100)
+                .importFrom(reader(csv.toString()), HistoryFormat.CSV, progress::add);
+
+        List<Workout> saved = batches.stream().flatMap(List::stream).toList();
+        assertEquals((rows + 2) / 3, result.sessions());
+        assertEquals(rows, result.exercises());
+        assertEquals(saved.size(), result.sessions());
+        for (int s = 0; s < saved.size(); s++) {
+            var workout = saved.get(s);
+            assertEquals(date(LocalDate.of(2020, 1, 1).plusDays(s)), workout.date());
+            assertEquals(Math.min(3, rows - 3 * s), workout.exercises().size());
+            assertEquals((100 + 3 * s) + "x5", workout.exercises().get(0).setsString());
+        }
+        assertTrue(batches.stream().allMatch(batch -> batch.size() <= 100));
+        var last = progress.get(progress.size() - 1);
+        assertEquals(new WorkoutImporter.Progress(rows, result.sessions(), 0), last);
+    }
+
+    @Test
+    void csv_rejectsInvalidRowsWithTheirLineNumbers() throws Exception {
+        recordBatches();
+        String csv = """
+                Sets,Exercise,Date,Notes
+                100x5-105x3,"Press, Overhead",2024-03-01T07:30:00,
+                abc,Squat,2024-03-01,
+
+                140x5,,2024-03-01,
+                140x5,Squat,03/01/2024,
+                "0x40",Plank,2024-03-02,"sore, ""tired"" today"
+                """;
+
+        var result = new WorkoutImporter(workoutService, 1, 10)
+                .importFrom(reader(csv), HistoryFormat.CSV, null);
+
+        assertEquals(List.of(
+                new Workout(date(LocalDate.of(2024, 3, 1)), 0,
+                        List.of(new ExerciseWithSets("Press, Overhead", "100x5-105x3"))),
+                new Workout(date(LocalDate.of(2024, 3, 2)), 0,
+                        List.of(new ExerciseWithSets("Plank", "0x40")))), batches.get(0));
+        assertEquals(3, result.rejected());
+        assertEquals(List.of(
+                "line 3: invalid sets 'abc'",
+                "line 5: missing exercise name",
+                "line 6: invalid date '03/01/2024'"), result.errors());
+    }
+
+    @Test
+    void csv_withoutRequiredColumn_isRejectedUpFront() throws SQLException {
+        var importer = new WorkoutImporter(workoutService, 1, 10);
+
+        var e = assertThrows(IOException.class, () -> importer.importFrom(
+                reader("date,bodyweight,exercise\n2024-01-01,80,Squat\n"),
+                HistoryFormat.CSV, null));
+
+        assertTrue(e.getMessage().contains("'sets'"));
+        verify(workoutService, never()).saveWorkouts(any());
+    }
+
+    @Test
+    void json_readsArraysAndLines() throws Exception {
+        recordBatches();
+        String array = """
+                [
+                  {"date": "2024-01-15", "bodyweight": 81.5, "exercises": [
+                    {"name": "Squat \\"high bar\\"", "sets": "100x5-100x5"},
+                    {"name": "Curl {alt}", "sets": "15x12"}]},
+                  {"date": "2024-01-17", "exercises": [{"name": "Squat", "sets": "x5"}]},
+                  {"date": "2024-01-19", "exercises": [{"name": "Row", "sets": "60x10"}]}
+                ]
+                """;
+        String lines = """
+                {"date": "2024-01-15", "bodyweight": 81.5, "exercises": [{"name": "Squat \\"high bar\\"", "sets": "100x5-100x5"}, {"name": "Curl {alt}", "sets": "15x12"}]}
+                {"date": 20240117, "exercises": [{"name": "Squat", "sets": "100x5"}]}
+                {"date": "2024-01-19", "exercises": [{"name": "Row", "sets": "60x10"}]}
+                """;
+        var importer = new WorkoutImporter(workoutService, 2, 10);
+
+        var fromArray = importer.importFrom(reader(array), HistoryFormat.JSON, null);
+        var fromLines = importer.importFrom(reader(lines), HistoryFormat.JSON, null);
+
+        var expected = List.of(
+                new Workout(date(LocalDate.of(2024, 1, 15)), 81.5, List.of(
+                        new ExerciseWithSets("Squat \"high bar\"", "100x5-100x5"),
+                        new ExerciseWithSets("Curl {alt}", "15x12"))),
+                new Workout(date(LocalDate.of(2024, 1, 19)), 0, List.of(
+                        new ExerciseWithSets("Row", "60x10"))));
+        assertEquals(List.of(expected, expected), batches);
+        assertEquals(List.of("record 2: invalid sets 'x5'"), fromArray.errors());
+        assertEquals(List.of("record 2: unexpected value type"), fromLines.errors());
+        assertEquals(3, fromLines.exercises());
+    }
+
+    @Test
+    void json_malformedRecord_isRejectedNotFatal() throws Exception {
+        recordBatches();
+        String json = "{\"date\": \"2024-01-15\", \"exercises\": [}\n"
+                + "{\"date\": \"2024-01-16\", \"exercises\": [{\"name\": \"Row\", \"sets\": \"60x10\"}]}";
+
+        var result = new WorkoutImporter(workoutService, 1, 10)
+                .importFrom(reader(json), HistoryFormat.JSON, null);
+
+        assertEquals(1, result.sessions());
+        assertEquals(1, result.rejected());
+    }
+
+    @Test
+    void json_nonObjectExercise_isRejectedNotFatal() throws Exception {
+        recordBatches();
+        String json = "{\"date\": \"2024-01-15\", \"exercises\": [null]}\n"
+                + "{\"date\": \"2024-01-16\", \"exercises\": [\"Row\"]}\n"
+                + "{\"date\": \"2024-01-17\", \"exercises\": [{\"name\": \"Row\", \"sets\": \"60x10\"}]}";
+
+        var result = new WorkoutImporter(workoutService, 1, 10)
+                .importFrom(reader(json), HistoryFormat.JSON, null);
+
+        assertEquals(1, result.sessions());
+        assertEquals(2, result.rejected());
+        assertEquals(List.of("record 1: exercise is not an object",
+                "record 2: exercise is not an object"), result.errors());
+    }
+
+    @Test
+    void historyFormat_followsTheFileExtension() {
+        assertEquals(HistoryFormat.JSON, HistoryFormat.of(Path.of("log.JSONL")));
+        assertEquals(HistoryFormat.JSON, HistoryFormat.of(Path.of("a/log.json")));
+        assertEquals(HistoryFormat.CSV, HistoryFormat.of(Path.of("log.csv")));
+    }
+
+    private void recordBatches() throws SQLException {
+        doAnswer(invocation -> batches.add(List.copyOf(invocation.getArgument(0))))
+                .when(workoutService).saveWorkouts(any());
+    }
+
+    private static BufferedReader reader(final String text) {
+        return new BufferedReader(new StringReader(text));
+    }
+
+    private static Date date(final LocalDate day) {
+        return Date.from(day.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+}
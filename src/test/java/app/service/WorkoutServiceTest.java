@@ -1,12 +1,22 @@
 package app.service;
 
 import app.database.DatabaseHelper;
+import app.database.PersonalRecordRepository;
+import app.database.VolumeRollupRepository;
 import app.database.WorkoutExerciseRepository;
 import app.database.WorkoutSessionRepository;
+import app.database.WorkoutSetRepository;
+import app.model.DailyRecord;
+import app.model.DateRange;
 import app.model.Exercise;
 import app.model.ExerciseWithSets;
+import app.model.PersonalRecord;
+import app.model.SetSummary;
+import app.model.VolumeRollup;
+import app.model.Workout;
 import app.model.WorkoutExercise;
 import app.model.WorkoutSession;
+import com.j256.ormlite.dao.CloseableIterator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -17,8 +27,12 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -33,11 +47,27 @@ class WorkoutServiceTest {
     @Mock
     WorkoutExerciseRepository exerciseRepo;
 
+    @Mock
+    WorkoutSetRepository setRepo;
+
+    @Mock
+    PersonalRecordRepository recordRepo;
+
+    @Mock
+    VolumeRollupRepository rollupRepo;
+
     WorkoutService service;
 
+    int transactions;
+
     @BeforeEach
     void setUp() {
-        service = new WorkoutService(sessionRepo, exerciseRepo);
+        transactions = 0;
+        service = new WorkoutService(sessionRepo, exerciseRepo, setRepo,
+                recordRepo, rollupRepo, work -> {
+                    transactions++;
+                    work.run();
+                });
     }
 
 
@@ -55,7 +85,48 @@ class WorkoutServiceTest {
                 s.getDate().equals(date) && s.getBodyweight() == 80.5
         ));
 
-        verify(exerciseRepo, times(2)).save(any(WorkoutExercise.class));
+        verify(exerciseRepo).saveAll(argThat(list -> list.size() == 2));
+        verify(exerciseRepo, never()).save(any());
+        verify(setRepo).saveAll(argThat(sets -> sets.size() == 3
+                && sets.get(1).getWeight() == 110.0
+                && sets.get(1).getReps() == 4
+                && sets.get(1).getOrdinal() == 1
+                && sets.get(2).getOrdinal() == 0
+                && "Deadlift".equals(sets.get(2).getExercise().getName())));
+    }
+
+    @Test
+    void saveWorkout_skipsMalformedSetTokens() throws SQLException {
+        service.saveWorkout(new Date(), 80.0,
+                List.of(new ExerciseWithSets("Bench Press", "100x5-abc-105x")));
+
+        verify(setRepo).saveAll(argThat(sets -> sets.size() == 1
+                && sets.get(0).getWeight() == 100.0));
+    }
+
+    @Test
+    void saveWorkout_commitsWholeSessionInOneTransaction() throws SQLException {
+        List<ExerciseWithSets> exercises = List.of(
+                new ExerciseWithSets("Bench Press", "100x5"),
+                new ExerciseWithSets("Squat", "140x5"),
+                new ExerciseWithSets("Deadlift", "160x3")
+        );
+
+        service.saveWorkout(new Date(), 80.0, exercises);
+
+        assertEquals(1, transactions);
+    }
+
+    @Test
+    void saveWorkout_savesSessionBeforeItsExercises() throws SQLException {
+        service.saveWorkout(new Date(), 80.0,
+                List.of(new ExerciseWithSets("Bench Press", "100x5")));
+
+        var inOrder = inOrder(sessionRepo, exerciseRepo);
+        inOrder.verify(sessionRepo).save(any(WorkoutSession.class));
+        inOrder.verify(exerciseRepo).saveAll(argThat(list ->
+                list.get(0).getSession() != null
+                        && "Bench Press".equals(list.get(0).getName())));
     }
 
     @Test
@@ -65,7 +136,7 @@ class WorkoutServiceTest {
         service.saveWorkout(date, 75.0, List.of());
 
         verify(sessionRepo).save(any(WorkoutSession.class));
-        verify(exerciseRepo, never()).save(any());
+        verify(exerciseRepo).saveAll(List.of());
     }
 
     @Test
@@ -77,12 +148,12 @@ class WorkoutServiceTest {
                         List.of(new ExerciseWithSets("Test", "100x5")))
         );
 
-        verify(exerciseRepo, never()).save(any());
+        verify(exerciseRepo, never()).saveAll(any());
     }
 
     @Test
     void saveWorkout_throwsWhenExerciseRepoFails() throws SQLException {
-        doThrow(new SQLException("Exercise error")).when(sessionRepo).save(any(WorkoutSession.class));
+        doThrow(new SQLException("Exercise error")).when(exerciseRepo).saveAll(any());
 
         assertThrows(SQLException.class, () ->
                 service.saveWorkout(new Date(), 80.0,
@@ -106,7 +177,7 @@ class WorkoutServiceTest {
 
     @Test
     void getAllExercises_delegatesToRepository() throws SQLException {
-        when(exerciseRepo.findAll()).thenReturn(List.of(
+        when(exerciseRepo.findAllWithSessions()).thenReturn(List.of(
                 new WorkoutExercise("Bench Press", "100x5", null)
         ));
 
@@ -114,13 +185,56 @@ class WorkoutServiceTest {
 
         assertEquals(1, result.size());
         assertEquals("Bench Press", result.get(0).getName());
-        verify(exerciseRepo).findAll();
+        verify(exerciseRepo).findAllWithSessions();
+        verify(exerciseRepo, never()).findAll();
+    }
+
+    @Test
+    void forEachWorkout_groupsExercisesUnderTheirSessionsInOneTransaction()
+            throws SQLException {
+        var undated = new WorkoutSession(2, null, 81.0);
+        var dated = new WorkoutSession(1, new Date(), 80.0);
+        when(sessionRepo.findAllInDayOrder()).thenReturn(List.of(undated, dated));
+        var rows = iterator(new WorkoutExercise(5, "Bench Press", "80x5", undated),
+                new WorkoutExercise(3, "Squat", "100x5", dated),
+                new WorkoutExercise(4, "Deadlift", "140x3", dated));
+        when(exerciseRepo.iterateAllWithSessions()).thenReturn(rows);
+        List<String> visited = new ArrayList<>();
+
+        service.forEachWorkout((session, exercises) -> visited.add(session.getId() + " "
+                + exercises.stream().map(WorkoutExercise::getName).toList()));
+
+        assertEquals(List.of("2 [Bench Press]", "1 [Squat, Deadlift]"), visited);
+        assertEquals(1, transactions);
+        verify(rows).closeQuietly();
+    }
+
+    @Test
+    void forEachWorkout_failsOnExercisesOutOfSessionOrder() throws SQLException {
+        var first = new WorkoutSession(1, new Date(), 80.0);
+        var second = new WorkoutSession(2, new Date(), 81.0);
+        when(sessionRepo.findAllInDayOrder()).thenReturn(List.of(first, second));
+        var rows = iterator(new WorkoutExercise(4, "Squat", "100x5", second),
+                new WorkoutExercise(3, "Bench Press", "80x5", first));
+        when(exerciseRepo.iterateAllWithSessions()).thenReturn(rows);
+
+        assertThrows(SQLException.class, () -> service.forEachWorkout((session, exercises) -> {}));
+        verify(rows).closeQuietly();
+    }
+
+    @Test
+    void getSetSummaries_delegatesToRepository() throws SQLException {
+        var summary = new SetSummary(1, 100.0, 5, 500.0, 1);
+        when(setRepo.findSummaries()).thenReturn(Map.of(1, summary));
+
+        assertSame(summary, service.getSetSummaries().get(1));
     }
 
     @Test
     void deleteDatabase_deletesFileAndReinitializes_whenFileExists() throws Exception {
         try (MockedStatic<DatabaseHelper> dbHelperMock = mockStatic(DatabaseHelper.class);
              MockedStatic<Files> filesMock = mockStatic(Files.class)) {
+            dbHelperMock.when(DatabaseHelper::databaseFile).thenReturn(Path.of("gym.db"));
 
             filesMock.when(() -> Files.exists(any(Path.class))).thenReturn(true);
 
@@ -129,7 +243,7 @@ class WorkoutServiceTest {
             assertTrue(result);
             dbHelperMock.verify(DatabaseHelper::close);
             filesMock.verify(() -> Files.exists(any(Path.class)));
-            filesMock.verify(() -> Files.delete(any(Path.class)));
+            filesMock.verify(() -> Files.delete(Path.of("gym.db").toAbsolutePath()));
             dbHelperMock.verify(DatabaseHelper::init);
         }
     }
@@ -138,12 +252,14 @@ class WorkoutServiceTest {
     void deleteDatabase_returnsFalse_whenFileDoesNotExist() throws Exception {
         try (MockedStatic<DatabaseHelper> dbHelperMock = mockStatic(DatabaseHelper.class);
              MockedStatic<Files> filesMock = mockStatic(Files.class)) {
+            dbHelperMock.when(DatabaseHelper::databaseFile).thenReturn(Path.of("gym.db"));
 
             filesMock.when(() -> Files.exists(any(Path.class))).thenReturn(false);
 
             boolean result = service.deleteDatabase();
 
             assertFalse(result);
+            dbHelperMock.verify(DatabaseHelper::databaseFile);
             dbHelperMock.verify(DatabaseHelper::close);
             filesMock.verify(() -> Files.exists(any(Path.class)));
             filesMock.verifyNoMoreInteractions();
@@ -181,4 +297,331 @@ class WorkoutServiceTest {
             parserMock.verify(() -> ExerciseCsvParser.findByName("Bench"));
         }
     }
+
+    @Test
+    void getSessions_allRange_loadsEverything() throws SQLException {
+        when(sessionRepo.findAll()).thenReturn(List.of());
+
+        service.getSessions(DateRange.ALL);
+
+        verify(sessionRepo).findAll();
+        verify(sessionRepo, never()).findBetween(any(), any());
+    }
+
+    @Test
+    void getSessionsAndExercises_boundedRange_queryOnlyTheWindow() throws SQLException {
+        var from = LocalDate.of(2024, 1, 1);
+        var to = LocalDate.of(2024, 3, 31);
+        var range = new DateRange(from, to);
+
+        service.getSessions(range);
+        service.getExercises(range);
+
+        verify(sessionRepo).findBetween(from, to);
+        verify(exerciseRepo).findBetweenWithSessions(from, to);
+        verify(sessionRepo, never()).findAll();
+        verify(exerciseRepo, never()).findAllWithSessions();
+    }
+
+    @Test
+    void repeatedReads_areServedFromCache() throws SQLException {
+        when(sessionRepo.findAll()).thenReturn(List.of(new WorkoutSession(new Date(), 80.0)));
+        when(exerciseRepo.findAllWithSessions()).thenReturn(List.of());
+        when(setRepo.findSummaries()).thenReturn(Map.of());
+
+        for (int i = 0; i < 3; i++) {
+            service.getAllSessions();
+            service.getAllExercises();
+            service.getSetSummaries();
+        }
+
+        verify(sessionRepo, times(1)).findAll();
+        verify(exerciseRepo, times(1)).findAllWithSessions();
+        verify(setRepo, times(1)).findSummaries();
+        assertEquals(6, service.getCacheStats().hits());
+        assertEquals(3, service.getCacheStats().misses());
+    }
+
+    @Test
+    void saveWorkout_writesThroughToLoadedCache() throws SQLException {
+        when(sessionRepo.findAll()).thenReturn(List.of());
+        when(exerciseRepo.findAllWithSessions()).thenReturn(List.of());
+        service.getAllSessions();
+        service.getAllExercises();
+
+        service.saveWorkout(new Date(), 80.0,
+                List.of(new ExerciseWithSets("Squat", "140x5")));
+
+        assertEquals(1, service.getAllSessions().size());
+        assertEquals("Squat", service.getAllExercises().get(0).getName());
+        verify(sessionRepo, times(1)).findAll();
+        verify(exerciseRepo, times(1)).findAllWithSessions();
+    }
+
+    @Test
+    void boundedRange_isFilteredInMemory_onceHistoryIsLoaded() throws SQLException {
+        when(sessionRepo.findAll()).thenReturn(List.of(new WorkoutSession(new Date(), 80.0)));
+        service.getAllSessions();
+
+        var today = LocalDate.now();
+        var sessions = service.getSessions(new DateRange(today.minusDays(1), today));
+
+        assertEquals(1, sessions.size());
+        verify(sessionRepo, never()).findBetween(any(), any());
+    }
+
+    @Test
+    void deleteDatabase_invalidatesCache() throws Exception {
+        when(sessionRepo.findAll()).thenReturn(List.of());
+        service.getAllSessions();
+
+        try (MockedStatic<DatabaseHelper> dbHelperMock = mockStatic(DatabaseHelper.class);
+             MockedStatic<Files> filesMock = mockStatic(Files.class)) {
+            dbHelperMock.when(DatabaseHelper::databaseFile).thenReturn(Path.of("gym.db"));
+            filesMock.when(() -> Files.exists(any(Path.class))).thenReturn(false);
+            service.deleteDatabase();
+        }
+        service.getAllSessions();
+
+        verify(sessionRepo, times(2)).findAll();
+    }
+
+    @Test
+    void deleteDatabase_dropsHistoryLoadedWhileReinitializing() throws Exception {
+        when(sessionRepo.findAll()).thenReturn(List.of());
+
+        try (MockedStatic<DatabaseHelper> dbHelperMock = mockStatic(DatabaseHelper.class);
+             MockedStatic<Files> filesMock = mockStatic(Files.class)) {
+            dbHelperMock.when(DatabaseHelper::databaseFile).thenReturn(Path.of("gym.db"));
+            filesMock.when(() -> Files.exists(any(Path.class))).thenReturn(true);
+            // a background load racing the delete
+            dbHelperMock.when(DatabaseHelper::init)
+                    .thenAnswer(invocation -> {
+                        service.getAllSessions();
+                        return null;
+                    });
+            service.deleteDatabase();
+        }
+        service.getAllSessions();
+
+        verify(sessionRepo, times(2)).findAll();
+    }
+
+    @Test
+    void deleteDatabase_rebindsToReinitializedRepositories() throws Exception {
+        var freshSessions = mock(WorkoutSessionRepository.class);
+        when(freshSessions.findAll()).thenReturn(List.of());
+
+        try (MockedStatic<DatabaseHelper> dbHelperMock = mockStatic(DatabaseHelper.class);
+             MockedStatic<Files> filesMock = mockStatic(Files.class)) {
+            dbHelperMock.when(DatabaseHelper::databaseFile).thenReturn(Path.of("gym.db"));
+            filesMock.when(() -> Files.exists(any(Path.class))).thenReturn(true);
+            dbHelperMock.when(DatabaseHelper::workoutSessionRepo).thenReturn(freshSessions);
+
+            service.deleteDatabase();
+        }
+        service.getAllSessions();
+
+        verify(freshSessions).findAll();
+        verify(sessionRepo, never()).findAll();
+    }
+
+    @Test
+    void saveWorkout_bumpsDataVersion() throws SQLException {
+        long before = service.getDataVersion();
+
+        service.saveWorkout(new Date(), 80.0, List.of(new ExerciseWithSets("Squat", "140x5")));
+
+        assertNotEquals(before, service.getDataVersion());
+    }
+
+    @Test
+    void saveWorkout_recordsOneDailyBestPerExerciseName() throws SQLException {
+        var day = LocalDate.of(2024, 5, 6);
+        var date = Date.from(day.atStartOfDay(java.time.ZoneId.systemDefault()).toInstant());
+
+        service.saveWorkout(date, 80.0, List.of(
+                new ExerciseWithSets("Bench Press", "100x5-110x3"),
+                new ExerciseWithSets("Squat", "abc"),
+                new ExerciseWithSets("Bench Press", "110x4")));
+
+        verify(recordRepo).record(List.of(
+                new DailyRecord("Bench Press", day.toEpochDay(), 0, 110.0, 4, 1270.0, 3),
+                new DailyRecord("Squat", day.toEpochDay(), 0, -1, -1, 0.0, 0)));
+    }
+
+    @Test
+    void saveWorkout_recordFailureFailsTheSave() throws SQLException {
+        doThrow(new SQLException("records")).when(recordRepo).record(any());
+
+        assertThrows(SQLException.class, () -> service.saveWorkout(new Date(), 80.0,
+                List.of(new ExerciseWithSets("Squat", "140x5"))));
+
+        assertEquals(0, service.getDataVersion());
+    }
+
+    @Test
+    void personalRecords_areCachedUntilTheNextSave() throws SQLException {
+        var record = new PersonalRecord("Squat", 140.0, 5, 19000, 700.0, 19000);
+        when(recordRepo.findAll()).thenReturn(List.of(record));
+
+        assertSame(record, service.getPersonalRecords().get("Squat"));
+        service.getPersonalRecords();
+        service.saveWorkout(new Date(), 80.0, List.of(new ExerciseWithSets("Squat", "150x1")));
+        service.getPersonalRecords();
+
+        verify(recordRepo, times(2)).findAll();
+    }
+
+    @Test
+    void getDailyRecords_boundedRange_queriesWindowUntilLoaded() throws SQLException {
+        var from = LocalDate.of(2024, 1, 1);
+        var to = LocalDate.of(2024, 1, 31);
+        var inside = new DailyRecord("Squat", from.plusDays(3).toEpochDay(), 1, 140, 5, 700, 1);
+        var outside = new DailyRecord("Squat", to.plusDays(3).toEpochDay(), 2, 150, 5, 750, 1);
+        when(recordRepo.findDailyBetween(from, to)).thenReturn(List.of(inside));
+        when(recordRepo.findDaily()).thenReturn(List.of(inside, outside));
+
+        assertEquals(List.of(inside), service.getDailyRecords(new DateRange(from, to)));
+        service.getDailyRecords(DateRange.ALL);
+        assertEquals(List.of(inside), service.getDailyRecords(new DateRange(from, to)));
+
+        verify(recordRepo, times(1)).findDailyBetween(from, to);
+    }
+
+    @Test
+    void rebuildPersonalRecords_runsInTransactionAndDropsCache() throws SQLException {
+        when(recordRepo.findAll()).thenReturn(List.of());
+        service.getPersonalRecords();
+
+        service.rebuildPersonalRecords();
+        service.getPersonalRecords();
+
+        verify(recordRepo).rebuild();
+        assertEquals(1, transactions);
+        verify(recordRepo, times(2)).findAll();
+    }
+
+    @Test
+    void backfillVolumeRollups_rebuildsOnlyWhenMuscleGroupsAreMissing() throws SQLException {
+        when(rollupRepo.lacksMuscleGroups()).thenReturn(false, true);
+
+        assertFalse(service.backfillVolumeRollups());
+        verify(rollupRepo, never()).rebuild(any());
+
+        assertTrue(service.backfillVolumeRollups());
+        verify(rollupRepo).rebuild(any());
+        assertEquals(1, transactions);
+    }
+
+    @Test
+    void saveWorkout_addsWeeklyAndMonthlyVolumeRollups() throws SQLException {
+        var day = LocalDate.of(2024, 5, 8);
+        var date = Date.from(day.atStartOfDay(java.time.ZoneId.systemDefault()).toInstant());
+
+        service.saveWorkout(date, 80.0, List.of(
+                new ExerciseWithSets("Bench Press", "100x5-110x3"),
+                new ExerciseWithSets("Bench Press", "110x4")));
+
+        var monday = LocalDate.of(2024, 5, 6).toEpochDay();
+        var first = LocalDate.of(2024, 5, 1).toEpochDay();
+        verify(rollupRepo).add(argThat(rollups -> rollups.contains(new VolumeRollup(
+                VolumeRollup.Bucket.WEEK, monday, VolumeRollup.Group.EXERCISE,
+                "Bench Press", 1270.0, 3, 1))
+                && rollups.contains(new VolumeRollup(VolumeRollup.Bucket.MONTH, first,
+                VolumeRollup.Group.MUSCLE, "Chest", 1270.0, 3, 1))));
+    }
+
+    @Test
+    void saveWorkouts_commitsBatchInOneTransactionAndDropsCache() throws SQLException {
+        when(sessionRepo.findAll()).thenReturn(List.of());
+        service.getAllSessions();
+        var monday = LocalDate.of(2024, 5, 6);
+        var tuesday = monday.plusDays(1);
+
+        service.saveWorkouts(List.of(
+                new Workout(toDate(monday), 80.0, List.of(
+                        new ExerciseWithSets("Squat", "140x5"),
+                        new ExerciseWithSets("Bench Press", "100x5"))),
+                new Workout(toDate(tuesday), 80.5, List.of(
+                        new ExerciseWithSets("Squat", "150x3")))));
+        service.getAllSessions();
+
+        assertEquals(1, transactions);
+        verify(sessionRepo).saveAll(argThat(sessions -> sessions.size() == 2
+                && sessions.get(1).getBodyweight() == 80.5));
+        verify(exerciseRepo).saveAll(argThat(rows -> rows.size() == 3
+                && rows.get(2).getSession().getEpochDay() == tuesday.toEpochDay()));
+        verify(setRepo).saveAll(argThat(sets -> sets.size() == 3));
+        verify(recordRepo).record(List.of(
+                new DailyRecord("Squat", monday.toEpochDay(), 0, 140.0, 5, 700.0, 1),
+                new DailyRecord("Bench Press", monday.toEpochDay(), 0, 100.0, 5, 500.0, 1),
+                new DailyRecord("Squat", tuesday.toEpochDay(), 0, 150.0, 3, 450.0, 1)));
+        verify(rollupRepo).add(argThat(rollups -> rollups.contains(new VolumeRollup(
+                VolumeRollup.Bucket.WEEK, monday.toEpochDay(), VolumeRollup.Group.EXERCISE,
+                "Squat", 1150.0, 2, 2))));
+        verify(sessionRepo, times(2)).findAll();
+    }
+
+    @Test
+    void restoreWorkouts_refusesADatabaseThatHasSessions() throws SQLException {
+        when(sessionRepo.isEmpty()).thenReturn(false);
+        var workouts = List.of(new Workout(toDate(LocalDate.of(2024, 5, 6)), 80.0,
+                List.of(new ExerciseWithSets("Squat", "140x5"))));
+
+        assertThrows(IllegalStateException.class, () -> service.restoreWorkouts(workouts));
+
+        verify(sessionRepo, never()).saveAll(any());
+        verify(exerciseRepo, never()).saveAll(any());
+    }
+
+    @Test
+    void restoreWorkouts_savesIntoAnEmptyDatabaseInOneTransaction() throws SQLException {
+        when(sessionRepo.isEmpty()).thenReturn(true);
+
+        service.restoreWorkouts(List.of(
+                new Workout(toDate(LocalDate.of(2024, 5, 6)), 80.0,
+                        List.of(new ExerciseWithSets("Squat", "140x5"))),
+                new Workout(null, 81.0, List.of())));
+
+        assertEquals(1, transactions);
+        verify(sessionRepo).saveAll(argThat(sessions -> sessions.size() == 2));
+    }
+
+    @Test
+    void iterateExercises_allRange_streamsEverySession() throws SQLException {
+        var from = LocalDate.of(2024, 1, 1);
+        var to = LocalDate.of(2024, 3, 31);
+
+        service.iterateExercises(DateRange.ALL, null);
+        service.iterateExercises(new DateRange(from, to), "Squat");
+
+        verify(exerciseRepo).iterateSessionsWithExercises(null);
+        verify(exerciseRepo).iterateWithSessions(from, to, "Squat");
+    }
+
+    @Test
+    void getVolumeRollups_boundedRange_queriesTheWindow() throws SQLException {
+        var from = LocalDate.of(2024, 1, 1);
+        var to = LocalDate.of(2024, 3, 31);
+
+        service.getVolumeRollups(VolumeRollup.Bucket.MONTH, new DateRange(from, to));
+        service.getVolumeRollups(VolumeRollup.Bucket.WEEK, DateRange.ALL);
+
+        verify(rollupRepo).findBetween(VolumeRollup.Bucket.MONTH, from, to);
+        verify(rollupRepo).find(VolumeRollup.Bucket.WEEK);
+    }
+
+    private static Date toDate(final LocalDate day) {
+        return Date.from(day.atStartOfDay(java.time.ZoneId.systemDefault()).toInstant());
+    }
+
+    private static CloseableIterator<WorkoutExercise> iterator(final WorkoutExercise... rows) {
+        @SuppressWarnings("unchecked")
+        CloseableIterator<WorkoutExercise> it = mock(CloseableIterator.class);
+        Iterator<WorkoutExercise> source = List.of(rows).iterator();
+        lenient().when(it.hasNext()).thenAnswer(invocation -> source.hasNext());
+        lenient().when(it.next()).thenAnswer(invocation -> source.next());
+        return it;
+    }
 }
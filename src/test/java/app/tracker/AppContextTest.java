@@ -0,0 +1,88 @@
+package app.tracker;
+
+import app.database.DatabaseHelper;
+import app.database.WorkoutExerciseRepository;
+import app.database.WorkoutSessionRepository;
+import app.database.WorkoutSetRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AppContextTest {
+
+    @Test
+    void create_initsDatabaseOnce_andSharesOneWorkoutService() throws Exception {
+        var sessionRepo = mock(WorkoutSessionRepository.class);
+        when(sessionRepo.findAll()).thenReturn(List.of());
+
+        try (MockedStatic<DatabaseHelper> db = mockStatic(DatabaseHelper.class)) {
+            db.when(DatabaseHelper::workoutSessionRepo).thenReturn(sessionRepo);
+            db.when(DatabaseHelper::workoutExerciseRepo)
+                    .thenReturn(mock(WorkoutExerciseRepository.class));
+            db.when(DatabaseHelper::workoutSetRepo)
+                    .thenReturn(mock(WorkoutSetRepository.class));
+
+            var context = AppContext.create();
+            context.statisticsService().getBodyweightByDate();
+            context.graphsService().getBodyweightData();
+            context.workoutService().getAllSessions();
+
+            db.verify(DatabaseHelper::init, times(1));
+            verify(sessionRepo, times(1)).findAll();
+        }
+    }
+
+    @Test
+    void close_closesDatabase() {
+        try (MockedStatic<DatabaseHelper> db = mockStatic(DatabaseHelper.class)) {
+            new AppContext(null).close();
+
+            db.verify(DatabaseHelper::close);
+        }
+    }
+
+    @Test
+    void backgroundExecutor_runsOffCallerThread_andStopsOnClose() throws Exception {
+        try (MockedStatic<DatabaseHelper> db = mockStatic(DatabaseHelper.class)) {
+            var context = new AppContext(null);
+
+            var worker = context.backgroundExecutor()
+                    .submit(Thread::currentThread).get();
+            context.close();
+
+            assertNotSame(Thread.currentThread(), worker);
+            assertTrue(worker.isDaemon());
+            assertTrue(context.backgroundExecutor().isShutdown());
+        }
+    }
+
+    @Test
+    void bulkExecutor_isSeparateFromTheLoader_andStopsOnClose() throws Exception {
+        try (MockedStatic<DatabaseHelper> db = mockStatic(DatabaseHelper.class)) {
+            var context = new AppContext(null);
+            var release = new CountDownLatch(1);
+            context.bulkExecutor().submit(() -> {
+                release.await();
+                return null;
+            });
+
+            // a long bulk job does not delay the loader
+            var loader = context.backgroundExecutor()
+                    .submit(Thread::currentThread).get(5, TimeUnit.SECONDS);
+            var bulk = context.bulkExecutor().submit(Thread::currentThread);
+            release.countDown();
+            var bulkWorker = bulk.get(5, TimeUnit.SECONDS);
+            context.close();
+
+            assertNotSame(loader, bulkWorker);
+            assertTrue(bulkWorker.isDaemon());
+            assertTrue(context.bulkExecutor().isShutdown());
+        }
+    }
+}